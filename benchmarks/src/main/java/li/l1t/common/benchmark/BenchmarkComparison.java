@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files, such as those written by {@link BenchmarkMain} for two
+ * commits, and prints the relative change of each benchmark present in both. A change counts as
+ * a regression if the score got worse by more than the threshold and by more than the combined
+ * error margins of both runs. Exits with status 1 if there is any regression, so that this can be
+ * used in build scripts.
+ * <p>Usage: {@code java -cp xyc-benchmarks.jar li.l1t.common.benchmark.BenchmarkComparison
+ * <baseline.json> <candidate.json> [threshold percent, default 10]}</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class BenchmarkComparison {
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10D;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <candidate.json> [threshold percent]");
+            System.exit(2);
+            return;
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Score> baseline = readScores(args[0]);
+        Map<String, Score> candidate = readScores(args[1]);
+        int regressionCount = 0;
+        for (Map.Entry<String, Score> entry : new TreeMap<>(candidate).entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            Score after = entry.getValue();
+            double changePercent = (after.value - before.value) / before.value * 100D;
+            boolean regression = after.isWorseThan(before, threshold);
+            if (regression) {
+                regressionCount++;
+            }
+            System.out.println(String.format("%-80s %12.3f -> %12.3f %s %+7.1f%%%s",
+                    entry.getKey(), before.value, after.value, after.unit, changePercent,
+                    regression ? "  REGRESSION" : ""));
+        }
+        System.out.println(regressionCount + " regression(s) beyond " + threshold + "%");
+        if (regressionCount > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> readScores(String path) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        try (Reader reader = new FileReader(path)) {
+            JsonArray results = new JsonParser().parse(reader).getAsJsonArray();
+            for (JsonElement element : results) {
+                JsonObject result = element.getAsJsonObject();
+                JsonObject metric = result.getAsJsonObject("primaryMetric");
+                scores.put(keyOf(result), new Score(
+                        metric.get("score").getAsDouble(),
+                        errorOf(metric),
+                        metric.get("scoreUnit").getAsString(),
+                        "thrpt".equals(result.get("mode").getAsString())
+                ));
+            }
+        }
+        return scores;
+    }
+
+    private static String keyOf(JsonObject result) {
+        StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+        JsonObject params = result.getAsJsonObject("params");
+        if (params != null) {
+            params.entrySet().forEach(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().getAsString()));
+        }
+        return key.toString();
+    }
+
+    private static double errorOf(JsonObject metric) {
+        JsonElement error = metric.get("scoreError");
+        return error == null || !error.isJsonPrimitive() || !error.getAsJsonPrimitive().isNumber() ?
+                0D : error.getAsDouble(); //NaN is written as a string for single iterations
+    }
+
+    private static class Score {
+        private final double value;
+        private final double error;
+        private final String unit;
+        private final boolean higherIsBetter;
+
+        Score(double value, double error, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.error = error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+
+        boolean isWorseThan(Score baseline, double thresholdPercent) {
+            double loss = higherIsBetter ? baseline.value - value : value - baseline.value;
+            return loss > baseline.value * thresholdPercent / 100D && loss > baseline.error + error;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.benchmark;
+
+import li.l1t.common.sql.SqlConnectable;
+import li.l1t.common.sql.SqlConnectables;
+import li.l1t.common.sql.sane.SaneSql;
+import org.flywaydb.core.Flyway;
+
+/**
+ * An in-memory H2 database in MySQL mode with the schema created by the Lanatus Flyway
+ * migrations, plus a sample table for benchmarks that do not need Lanatus data. Each database
+ * lives as long as the JVM, so benchmarks should use a distinct name per state.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class BenchmarkDatabase {
+    public static final String SAMPLE_TABLE = "mt_main.bench_sample";
+    private final SqlConnectable connectable;
+
+    private BenchmarkDatabase(String jdbcUrl) {
+        this.connectable = SqlConnectables.fromCredentials(jdbcUrl, "mt_main", "", "");
+    }
+
+    /**
+     * Creates a new in-memory database and migrates it to the latest Lanatus schema.
+     *
+     * @param name the name of the database, unique per JVM
+     * @return the migrated database
+     */
+    public static BenchmarkDatabase migrate(String name) {
+        loadH2Driver();
+        String jdbcUrl = "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;" +
+                "INIT=CREATE SCHEMA IF NOT EXISTS mt_main\\;SET SCHEMA mt_main";
+        Flyway flyway = new Flyway();
+        flyway.setDataSource(jdbcUrl, "", "");
+        flyway.migrate();
+        return new BenchmarkDatabase(jdbcUrl);
+    }
+
+    private static void loadH2Driver() {
+        try {
+            Class.forName("org.h2.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("missing h2 driver in classpath", e);
+        }
+    }
+
+    /**
+     * Creates the {@link #SAMPLE_TABLE sample table} and fills it with rows whose ids range from
+     * one to given row count. Each row has a name and a value derived from its id.
+     *
+     * @param sql      the sane SQL instance connected to this database
+     * @param rowCount the amount of rows to insert
+     */
+    public static void createSampleTable(SaneSql sql, int rowCount) {
+        sql.updateRaw("CREATE TABLE " + SAMPLE_TABLE + " (" +
+                "id INT PRIMARY KEY, name VARCHAR(36) NOT NULL, value BIGINT NOT NULL)");
+        for (int id = 1; id <= rowCount; id++) {
+            sql.updateRaw("INSERT INTO " + SAMPLE_TABLE + " (id, name, value) VALUES (?, ?, ?)",
+                    id, "sample-" + id, id * 31L);
+        }
+    }
+
+    /**
+     * @return the credentials to connect to this database with
+     */
+    public SqlConnectable getConnectable() {
+        return connectable;
+    }
+}
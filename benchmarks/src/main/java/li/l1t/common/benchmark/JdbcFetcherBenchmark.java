@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.benchmark;
+
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.SingleSql;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.util.AbstractJdbcFetcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static li.l1t.common.benchmark.BenchmarkDatabase.SAMPLE_TABLE;
+
+/**
+ * Measures mapping whole results to entities with {@link AbstractJdbcFetcher#collectAll(QueryResult)
+ * collectAll} for different result sizes.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class JdbcFetcherBenchmark {
+    private static final int TABLE_ROW_COUNT = 1000;
+    @Param({"1", "100", "1000"})
+    public int rowCount;
+    private SingleSql sql;
+    private SampleFetcher fetcher;
+
+    @Setup
+    public void setUp() {
+        sql = new SingleSql(BenchmarkDatabase.migrate("jdbc-fetcher-" + rowCount).getConnectable());
+        BenchmarkDatabase.createSampleTable(sql, TABLE_ROW_COUNT);
+        fetcher = new SampleFetcher(sql);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        sql.close();
+    }
+
+    @Benchmark
+    public Collection<SampleRow> collectAll() {
+        return fetcher.fetchUpTo(rowCount);
+    }
+
+    public static class SampleRow {
+        private final int id;
+        private final String name;
+        private final long value;
+
+        SampleRow(int id, String name, long value) {
+            this.id = id;
+            this.name = name;
+            this.value = value;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getValue() {
+            return value;
+        }
+    }
+
+    private static class SampleFetcher extends AbstractJdbcFetcher<SampleRow> {
+        SampleFetcher(SaneSql saneSql) {
+            super(rs -> new SampleRow(rs.getInt("id"), rs.getString("name"), rs.getLong("value")), saneSql);
+        }
+
+        @Override
+        protected String buildSelect(String whereClause) {
+            return "SELECT id, name, value FROM " + SAMPLE_TABLE + " WHERE " + whereClause;
+        }
+
+        Collection<SampleRow> fetchUpTo(int maxId) {
+            try (QueryResult result = select("id <= ?", maxId)) {
+                return collectAll(result);
+            } catch (SQLException e) {
+                throw DatabaseException.wrap(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.benchmark;
+
+import li.l1t.common.sql.sane.SingleSql;
+import li.l1t.lanatus.api.account.MutableAccount;
+import li.l1t.lanatus.api.exception.AccountConflictException;
+import li.l1t.lanatus.api.position.Position;
+import li.l1t.lanatus.api.product.Product;
+import li.l1t.lanatus.api.purchase.Purchase;
+import li.l1t.lanatus.sql.SqlLanatusClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the uncached lookups of the Lanatus SQL repositories that run when a player joins,
+ * with a configurable amount of purchases per player.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class LanatusRepositoryBenchmark {
+    private static final int PLAYER_COUNT = 100;
+    @Param({"1", "20"})
+    public int purchasesPerPlayer;
+    private SingleSql sql;
+    private SqlLanatusClient client;
+    private UUID[] playerIds;
+    private int currentPlayer = 0;
+
+    @Setup
+    public void setUp() throws AccountConflictException {
+        sql = new SingleSql(BenchmarkDatabase.migrate("lanatus-" + purchasesPerPlayer).getConnectable());
+        client = new SqlLanatusClient(sql, "xyc-bench");
+        Product product = client.products().registration(UUID.randomUUID())
+                .withPermanent(true)
+                .withMelonsCost(0)
+                .register();
+        playerIds = new UUID[PLAYER_COUNT];
+        for (int i = 0; i < PLAYER_COUNT; i++) {
+            playerIds[i] = givenAPlayerWithPurchases(product);
+        }
+        client.clearCache();
+    }
+
+    private UUID givenAPlayerWithPurchases(Product product) throws AccountConflictException {
+        UUID playerId = UUID.randomUUID();
+        MutableAccount account = client.accounts().findMutable(playerId);
+        account.setMelonsCount(1000);
+        client.accounts().save(account);
+        for (int i = 0; i < purchasesPerPlayer; i++) {
+            client.startPurchase(playerId).withProduct(product).build();
+        }
+        return playerId;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        sql.close();
+    }
+
+    private UUID nextPlayerId() {
+        currentPlayer = (currentPlayer + 1) % PLAYER_COUNT;
+        return playerIds[currentPlayer];
+    }
+
+    @Benchmark
+    public MutableAccount findMutableAccount() {
+        return client.accounts().findMutable(nextPlayerId());
+    }
+
+    @Benchmark
+    public Collection<Purchase> findPurchasesByPlayer() {
+        return client.purchases().findByPlayer(nextPlayerId());
+    }
+
+    @Benchmark
+    public Collection<Position> findPositionsByPlayer() {
+        return client.positions().findAllByPlayer(nextPlayerId());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.benchmark;
+
+import li.l1t.common.sql.QueryResult;
+import li.l1t.common.sql.SafeSql;
+import li.l1t.common.sql.builder.QueryBuilder;
+import li.l1t.common.sql.builder.QuerySnapshot;
+import li.l1t.common.sql.builder.SimpleQuerySnapshot;
+import li.l1t.common.sql.sane.SingleSql;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static li.l1t.common.benchmark.BenchmarkDatabase.SAMPLE_TABLE;
+
+/**
+ * Measures the legacy {@link SafeSql} and {@link QueryBuilder} APIs against the sample table, so
+ * that they can be compared to {@link SingleSqlBenchmark}.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@SuppressWarnings("deprecation")
+public class SafeSqlBenchmark {
+    private static final int ROW_COUNT = 1000;
+    private static final String SELECT_BY_ID = "SELECT id, name, value FROM " + SAMPLE_TABLE + " WHERE id=?";
+    private SafeSql sql;
+    private int currentId = 0;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkDatabase database = BenchmarkDatabase.migrate("safe-sql");
+        try (SingleSql setupSql = new SingleSql(database.getConnectable())) {
+            BenchmarkDatabase.createSampleTable(setupSql, ROW_COUNT);
+        }
+        sql = new SafeSql(database.getConnectable());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        sql.close();
+    }
+
+    private int nextId() {
+        currentId = currentId % ROW_COUNT + 1;
+        return currentId;
+    }
+
+    @Benchmark
+    public long executeQueryByPrimaryKey() throws SQLException {
+        try (QueryResult result = sql.executeQueryWithResult(SELECT_BY_ID, nextId())) {
+            result.rs().next();
+            return result.rs().getLong("value");
+        }
+    }
+
+    @Benchmark
+    public long queryBuilderSelect() throws SQLException {
+        QueryBuilder builder = new QueryBuilder(SAMPLE_TABLE)
+                .addUniqueIdentifier(new SimpleQuerySnapshot("id", nextId(), QuerySnapshot.Type.OBJECT_IDENTIFIER))
+                .addPart(new SimpleQuerySnapshot("value", null, QuerySnapshot.Type.OBJECT_UPDATE));
+        try (QueryResult result = builder.executeSelect(sql, false)) {
+            result.rs().next();
+            return result.rs().getLong("value");
+        }
+    }
+
+    @Benchmark
+    public int queryBuilderTrueUpdate() throws SQLException {
+        return new QueryBuilder(SAMPLE_TABLE)
+                .addUniqueIdentifier(new SimpleQuerySnapshot("id", nextId(), QuerySnapshot.Type.OBJECT_IDENTIFIER))
+                .addPart(new SimpleQuerySnapshot("value", 1, QuerySnapshot.Type.NUMBER_MODIFICATION))
+                .executeTrueUpdate(sql);
+    }
+}
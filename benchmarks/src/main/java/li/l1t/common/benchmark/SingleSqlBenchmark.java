@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.benchmark;
+
+import li.l1t.common.sql.sane.SingleSql;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.result.UpdateResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static li.l1t.common.benchmark.BenchmarkDatabase.SAMPLE_TABLE;
+
+/**
+ * Measures single-row statements through {@link SingleSql}, including statement preparation and
+ * result handling, against the sample table.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class SingleSqlBenchmark {
+    private static final int ROW_COUNT = 1000;
+    private static final String SELECT_BY_ID = "SELECT id, name, value FROM " + SAMPLE_TABLE + " WHERE id=?";
+    private static final String UPDATE_BY_ID = "UPDATE " + SAMPLE_TABLE + " SET value=value+1 WHERE id=?";
+    private SingleSql sql;
+    private int currentId = 0;
+
+    @Setup
+    public void setUp() {
+        sql = new SingleSql(BenchmarkDatabase.migrate("single-sql").getConnectable());
+        BenchmarkDatabase.createSampleTable(sql, ROW_COUNT);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        sql.close();
+    }
+
+    private int nextId() {
+        currentId = currentId % ROW_COUNT + 1;
+        return currentId;
+    }
+
+    @Benchmark
+    public long queryByPrimaryKey() throws SQLException {
+        try (QueryResult result = sql.query(SELECT_BY_ID, nextId())) {
+            result.rs().next();
+            return result.rs().getLong("value");
+        }
+    }
+
+    @Benchmark
+    public int updateRawByPrimaryKey() {
+        return sql.updateRaw(UPDATE_BY_ID, nextId());
+    }
+
+    @Benchmark
+    public int updateByPrimaryKey() {
+        try (UpdateResult result = sql.update(UPDATE_BY_ID, nextId())) {
+            return result.getAffectedRowCount();
+        }
+    }
+}
@@ -25,42 +25,72 @@
 package li.l1t.common.sql;
 
 import com.google.common.base.Preconditions;
+import li.l1t.common.sql.sane.async.BoundedSqlExecutor;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitScheduler;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * An extension to {@link SafeSql} providing several Spigot-specific utility methods.
+ * <p>Asynchronous operations run on a dedicated {@link BoundedSqlExecutor} instead of Bukkit's
+ * shared async scheduler pool, so that a stalled database cannot flood the server with blocked
+ * threads. The executor's queue depth, rejection count and latency histograms are available from
+ * {@link #getAsyncExecutor()}. Once its queue is full, further operations are handled according to
+ * the {@link #setRejectionPolicy(RejectionPolicy) rejection policy}. Closing this instance drains
+ * the executor before closing the connection.</p>
  *
  * @author <a href="http://xxyy.github.io/">xxyy</a>
  * @since 09/11/14
  */
 public class SpigotSql extends SafeSql {
+    public static final int DEFAULT_WORKER_COUNT = 2;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    public static final long DEFAULT_DRAIN_TIMEOUT_MILLIS = 10_000L;
     private final Plugin plugin;
+    private final BoundedSqlExecutor asyncExecutor;
+    private volatile RejectionPolicy rejectionPolicy = RejectionPolicy.FAIL;
 
     /**
-     * Constructs a new instance.
+     * Constructs a new instance with an async executor of {@link #DEFAULT_WORKER_COUNT} workers
+     * and a queue of {@link #DEFAULT_QUEUE_CAPACITY} operations.
      *
      * @param connectable {@link SqlConnectable} providing login data
      * @param plugin      the plugin managing this sql connector
      * @throws IllegalArgumentException If any of the arguments are {@code null}.
      */
     public SpigotSql(SqlConnectable connectable, Plugin plugin) {
+        this(connectable, plugin, new BoundedSqlExecutor(
+                Preconditions.checkNotNull(plugin, "plugin").getName() + "-sql",
+                DEFAULT_WORKER_COUNT, DEFAULT_QUEUE_CAPACITY
+        ));
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param connectable   {@link SqlConnectable} providing login data
+     * @param plugin        the plugin managing this sql connector
+     * @param asyncExecutor the executor to run asynchronous operations on, drained when this
+     *                      instance is closed
+     * @throws IllegalArgumentException If any of the arguments are {@code null}.
+     */
+    public SpigotSql(SqlConnectable connectable, Plugin plugin, BoundedSqlExecutor asyncExecutor) {
         super(connectable);
-        this.plugin = plugin;
+        this.plugin = Preconditions.checkNotNull(plugin, "plugin");
+        this.asyncExecutor = Preconditions.checkNotNull(asyncExecutor, "asyncExecutor");
     }
 
     /**
      * Convenience shorthand for {@link #executeSimpleUpdateAsync(String, Object...)}.
      * Executes an update statement in an asynchronous thread using
-     * Bukkit's {@link BukkitScheduler#runTaskAsynchronously(org.bukkit.plugin.Plugin, Runnable) Scheduler API}.
-     * The plugin managing this SpigotSql is used to register the task.
+     * this SpigotSql's {@link #getAsyncExecutor() async executor}.
      * Please note that any tasks added to the returned Future will be called in an async thread.
      * Any exceptions will be passed to the future on completion.
      *
@@ -75,8 +105,7 @@ public class SpigotSql extends SafeSql {
 
     /**
      * Executes an update statement in an asynchronous thread using
-     * Bukkit's {@link BukkitScheduler#runTaskAsynchronously(org.bukkit.plugin.Plugin, Runnable) Scheduler API}.
-     * The plugin managing this SpigotSql is used to register the task.
+     * this SpigotSql's {@link #getAsyncExecutor() async executor}.
      * Please note that any tasks added to the returned Future will be called in an async thread.
      * Any exceptions will be passed to the future on completion and additionally printed to stdout.
      *
@@ -88,7 +117,7 @@ public class SpigotSql extends SafeSql {
     public CompletableFuture<Integer> executeSimpleUpdateAsync(String query, Object... args) {
         CompletableFuture<Integer> future = new CompletableFuture<>();
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin,
+        runAsync(future,
                 () -> {
                     try (PreparedStatement stmnt = this.prepareStatement(query)) {
                         this.fillStatement(stmnt, args);
@@ -105,8 +134,7 @@ public class SpigotSql extends SafeSql {
 
     /**
      * Executes an update statement in an asynchronous thread using
-     * Bukkit's {@link BukkitScheduler#runTaskAsynchronously(org.bukkit.plugin.Plugin, Runnable) Scheduler API}.
-     * The plugin managing this SpigotSql is used to register the task.
+     * this SpigotSql's {@link #getAsyncExecutor() async executor}.
      * Please note that any tasks added to the returned Future (including {@code consumer}) will be called in an async thread.
      * The consumer is expected to close the passed result. If it does not close the result, memory leaks are to be expected.
      *
@@ -120,7 +148,7 @@ public class SpigotSql extends SafeSql {
         CompletableFuture<UpdateResult> future = new CompletableFuture<>();
         future.thenAccept(consumer);
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin,
+        runAsync(future,
                 () -> {
                     try {
                         future.complete(executeUpdateWithGenKeys(query, args));
@@ -135,8 +163,7 @@ public class SpigotSql extends SafeSql {
 
     /**
      * Executes a query statement in an asynchronous thread using
-     * Bukkit's {@link BukkitScheduler#runTaskAsynchronously(org.bukkit.plugin.Plugin, Runnable) Scheduler API}.
-     * The plugin managing this SpigotSql is used to register the task.
+     * this SpigotSql's {@link #getAsyncExecutor() async executor}.
      * Please note that any tasks added to the returned Future (including {@code consumer}) will be called in an async thread.
      * The consumer is expected to close the passed result. If it does not close the result, memory leaks are to be expected.
      *
@@ -150,7 +177,7 @@ public class SpigotSql extends SafeSql {
         CompletableFuture<QueryResult> future = new CompletableFuture<>();
         future.thenAccept(consumer);
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin,
+        runAsync(future,
                 () -> {
                     try {
                         future.complete(executeQueryWithResult(query, args));
@@ -165,7 +192,7 @@ public class SpigotSql extends SafeSql {
 
     /**
      * Executes a set of updates for a given object type in a batch. Note that this can only operate on same objects and
-     * same SQL statements. The batch is executed in an async task using the Bukkit Scheduler API.
+     * same SQL statements. The batch is executed in an async task using this SpigotSql's async executor.
      *
      * @param sql             the SQL update or insert statement to fill with the parameters for each batch element
      * @param data            a collection of objects representing the data to be written to the database
@@ -178,7 +205,7 @@ public class SpigotSql extends SafeSql {
         Preconditions.checkNotNull(data, "data");
         CompletableFuture<Void> future = new CompletableFuture<>();
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin,
+        runAsync(future,
                 () -> {
                     try {
                         executeBatchUpdate(sql, data, parameterMapper);
@@ -191,4 +218,82 @@ public class SpigotSql extends SafeSql {
 
         return future;
     }
+
+    private void runAsync(CompletableFuture<?> future, Runnable task) {
+        try {
+            asyncExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && !plugin.getServer().isPrimaryThread()) {
+                task.run();
+            } else {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * @return the executor asynchronous operations run on, for example to inspect its queue depth
+     * and latencies
+     */
+    public BoundedSqlExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * @param rejectionPolicy how to handle asynchronous operations submitted while the async
+     *                        executor's queue is full
+     */
+    public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+        this.rejectionPolicy = Preconditions.checkNotNull(rejectionPolicy, "rejectionPolicy");
+    }
+
+    /**
+     * Stops accepting asynchronous operations and waits for queued and running ones to complete,
+     * up to given timeout. Operations submitted afterwards are rejected.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return whether all operations completed before the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean drainAsync(long timeout, TimeUnit unit) throws InterruptedException {
+        return asyncExecutor.drain(timeout, unit);
+    }
+
+    /**
+     * {@inheritDoc} Waits up to {@link #DEFAULT_DRAIN_TIMEOUT_MILLIS} for pending asynchronous
+     * operations to complete beforehand.
+     */
+    @Override
+    public void close() throws Exception {
+        try {
+            if (!drainAsync(DEFAULT_DRAIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                plugin.getLogger().warning("Closing SQL connection with " + asyncExecutor.getQueueDepth() +
+                        " queued and " + asyncExecutor.getActiveCount() + " running async operations");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.close();
+    }
+
+    /**
+     * Decides how asynchronous operations are handled if the async executor's queue is full.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Completes the operation's future exceptionally with a {@link RejectedExecutionException}.
+         */
+        FAIL,
+        /**
+         * Runs the operation on the calling thread, blocking it until the operation completes. If
+         * called from the server thread, the operation fails as with {@link #FAIL} instead, so
+         * that a stalled database cannot freeze the server.
+         */
+        CALLER_RUNS
+    }
 }
@@ -30,6 +30,7 @@ import li.l1t.common.sql.SqlConnectables;
 import li.l1t.common.sql.sane.SaneSql;
 import li.l1t.common.sql.sane.SingleSql;
 import li.l1t.common.sql.sane.SqlConnected;
+import li.l1t.common.sql.sane.async.BoundedSqlExecutor;
 import li.l1t.common.util.Closer;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPluginLoader;
@@ -97,7 +98,7 @@ public abstract class SqlXyPlugin extends AbstractXyPlugin implements SqlConnect
     @SuppressWarnings("deprecation")
     protected final void loadSql() {
         SqlXyPlugin.INSTANCES.add(this);
-        this.ssql = new SpigotSql(getConnectable(), this);
+        this.ssql = new SpigotSql(getConnectable(), this, createAsyncExecutor());
         this.saneSql = new SingleSql(getConnectable());
     }
 
@@ -132,4 +133,22 @@ public abstract class SqlXyPlugin extends AbstractXyPlugin implements SqlConnect
                 getConfig().getString("sql.password")
         );
     }
+
+    /**
+     * Creates the executor the managed SpigotSql runs asynchronous operations on. By default, this
+     * uses the following values from the plugin configuration: {@code sql.async.workers} for the
+     * amount of worker threads and {@code sql.async.queue-capacity} for the maximum amount of
+     * operations waiting for a worker.
+     *
+     * @return the executor to use for asynchronous operations
+     */
+    protected BoundedSqlExecutor createAsyncExecutor() {
+        getConfig().addDefault("sql.async.workers", SpigotSql.DEFAULT_WORKER_COUNT);
+        getConfig().addDefault("sql.async.queue-capacity", SpigotSql.DEFAULT_QUEUE_CAPACITY);
+        return new BoundedSqlExecutor(
+                getName() + "-sql",
+                getConfig().getInt("sql.async.workers"),
+                getConfig().getInt("sql.async.queue-capacity")
+        );
+    }
 }
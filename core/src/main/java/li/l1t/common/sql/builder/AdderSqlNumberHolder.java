@@ -0,0 +1,241 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import li.l1t.common.sql.builder.annotation.SqlValueCache;
+import org.apache.commons.lang.Validate;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.Nonnull;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Represents a number database column that is modified by adding deltas, like
+ * {@link ConcurrentSqlNumberHolder}, but without locking. The pending modifier is accumulated in striped cells,
+ * similar to a {@link java.util.concurrent.atomic.LongAdder}, so that concurrent increments from many threads do
+ * not contend on a single lock or memory location.</p>
+ * <p>
+ * Taking a {@link #getSnapshot() snapshot} atomically swaps each cell with zero, so every delta is part of exactly
+ * one snapshot, even if it is added while the snapshot is taken. The swapped-out modifier is then added to the
+ * cached remote value. {@link #getValue()} returns the remote value plus all pending deltas, it is not an atomic
+ * snapshot under concurrent modification.
+ * </p>
+ * Implementations are specialised for a primitive type and store values as raw {@code long} bits.
+ *
+ * @param <T> the boxed number type of the column
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ * @deprecated Part of the deprecated QueryBuilder API. See {@link QueryBuilder} for details.
+ */
+@Deprecated
+public abstract class AdderSqlNumberHolder<T extends Number> extends SqlValueHolder<T> {
+    private static final int CELL_PADDING = 8; //longs per cache line, so that stripes do not share lines
+    private static final int STRIPE_COUNT = Math.min(64,
+            Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPE_COUNT * CELL_PADDING);
+    private final AtomicLong remoteBits;
+
+    protected AdderSqlNumberHolder(@Nonnull String columnName, long initialBits) {
+        super(columnName);
+        this.remoteBits = new AtomicLong(initialBits);
+    }
+
+    /**
+     * Creates a holder for the {@link SqlValueCache#numberType() number type} of given annotation.
+     *
+     * @param source the annotation to get data from
+     * @return the created holder
+     * @throws IllegalArgumentException if there is no holder for the number type
+     */
+    @Nonnull
+    public static AdderSqlNumberHolder<?> fromAnnotation(@Nonnull final SqlValueCache source) {
+        String columnName = source.value().intern();
+        Class<? extends Number> numberType = source.numberType();
+        if (numberType == Integer.class) {
+            return new SqlIntAdderHolder(columnName);
+        } else if (numberType == Long.class) {
+            return new SqlLongAdderHolder(columnName);
+        } else if (numberType == Double.class) {
+            return new SqlDoubleAdderHolder(columnName);
+        }
+        throw new IllegalArgumentException("No adder holder for number type: " + numberType.getName());
+    }
+
+    /**
+     * Adds raw bits to the pending modifier.
+     *
+     * @param deltaBits the delta, encoded like the stored values
+     */
+    protected final void accumulate(long deltaBits) {
+        int index = cellIndex();
+        long current;
+        do {
+            current = cells.get(index);
+        } while (!cells.compareAndSet(index, current, combine(current, deltaBits)));
+        markModified();
+    }
+
+    private static int cellIndex() {
+        long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L; //thread ids are sequential, spread them
+        return (int) (hash >>> 58) % STRIPE_COUNT * CELL_PADDING;
+    }
+
+    /**
+     * @return the pending modifier, without resetting it
+     */
+    protected final long pendingBits() {
+        long sum = 0L;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            sum = combine(sum, cells.get(i * CELL_PADDING));
+        }
+        return sum;
+    }
+
+    /**
+     * Atomically swaps each cell with zero and adds the result to the remote value.
+     *
+     * @return the pending modifier
+     */
+    protected final long drainBits() {
+        long sum = 0L;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            sum = combine(sum, cells.getAndSet(i * CELL_PADDING, 0L));
+        }
+        long remote;
+        do {
+            remote = remoteBits.get();
+        } while (!remoteBits.compareAndSet(remote, combine(remote, sum)));
+        return sum;
+    }
+
+    /**
+     * @return the remote value plus the pending modifier, fetching the remote value first if necessary
+     */
+    protected final long currentBits() {
+        if (!isFetched() && getDataSource() != null) {
+            getDataSource().select(this);
+        }
+        return combine(remoteBits.get(), pendingBits());
+    }
+
+    /**
+     * Adds two encoded values.
+     */
+    protected abstract long combine(long leftBits, long rightBits);
+
+    /**
+     * @return the negation of an encoded value
+     */
+    protected abstract long negate(long bits);
+
+    protected abstract T decode(long bits);
+
+    protected abstract long encode(@Nonnull T value);
+
+    /**
+     * Queues a modification of the value stored by this object.
+     *
+     * @param modifier the delta to add
+     * @return this object, for convenient call chaining
+     */
+    @Nonnull
+    public AdderSqlNumberHolder<T> modify(@Nonnull T modifier) {
+        accumulate(encode(modifier));
+        return this;
+    }
+
+    /**
+     * @return the difference between the last remote value and the stored value
+     */
+    public T getModifier() {
+        return decode(pendingBits());
+    }
+
+    @Override
+    public T getValue() {
+        return decode(currentBits());
+    }
+
+    /**
+     * Sets the value of this object indirectly, by queueing the difference between the current and the new value.
+     * Like {@link ConcurrentSqlNumberHolder#setValue(Number)}, this does not guarantee the remote value afterwards.
+     *
+     * @param newValue the new value, null is treated as zero
+     */
+    @Override
+    public void setValue(@Nullable T newValue) {
+        long newBits = newValue == null ? 0L : encode(newValue);
+        accumulate(combine(newBits, negate(currentBits())));
+    }
+
+    /**
+     * Updates the cached remote value. Unlike {@link ConcurrentSqlNumberHolder}, pending modifications are kept,
+     * since they have not been written yet.
+     *
+     * @param newValue the remote value, null is treated as zero
+     */
+    @Override
+    public void updateValue(@Nullable T newValue) {
+        remoteBits.set(newValue == null ? 0L : encode(newValue));
+        setFetched(true);
+    }
+
+    @Override
+    public abstract void processResultSet(@Nonnull ResultSet resultSet) throws SQLException;
+
+    /**
+     * Consumes the pending modifier. Should be called when writing to a database.
+     *
+     * @return the consumed modifier
+     */
+    @Override
+    public Object getSnapshot() {
+        return decode(drainBits());
+    }
+
+    @Override
+    public Type getType() {
+        return Type.NUMBER_MODIFICATION;
+    }
+
+    @Override
+    public boolean isModified() {
+        return pendingBits() != 0L;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + "{" +
+                "columnName='" + getColumnName() + '\'' +
+                ", remote=" + decode(remoteBits.get()) +
+                ", modifier=" + getModifier() +
+                ", fetched=" + isFetched() +
+                '}';
+    }
+}
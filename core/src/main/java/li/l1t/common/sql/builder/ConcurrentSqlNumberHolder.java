@@ -44,6 +44,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * </p>
  * This class is considered thread-safe and does lock all read/write operations.
  * All locked operations use the same {@link java.util.concurrent.locks.ReentrantReadWriteLock}.
+ * For counters modified from many threads, {@link AdderSqlNumberHolder} scales better.
  *
  * @author <a href="http://xxyy.github.io/">xxyy</a>
  * @since 22.3.14
@@ -141,7 +142,7 @@ public class ConcurrentSqlNumberHolder<T extends Number> extends SqlValueHolder<
     @Override
     public boolean isModified() {
         ReentrantReadWriteLock.ReadLock readLock = readWriteLock.readLock();
-        readLock.unlock();
+        readLock.lock();
 
         try {
             return !modifier.equals(mathOperator.getZero());
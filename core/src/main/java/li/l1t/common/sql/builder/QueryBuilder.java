@@ -33,10 +33,10 @@ import javax.annotation.Nonnull;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
@@ -45,6 +45,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 /**
  * Builds a MySQL query from {@link SimpleQuerySnapshot}s, a table name,
  * identification column and a lot of duct tape.
+ * The generated SQL is cached as a {@link QueryTemplate} per query shape, so repeated builds only bind parameters.
  *
  * @author <a href="http://xxyy.github.io/">xxyy</a>
  * @since 23.3.14
@@ -244,39 +245,18 @@ public class QueryBuilder { //TO/DO make concurrent
             return null; //Nothing to do then
         }
 
-        StringBuilder queryStringBuilder = new StringBuilder("INSERT INTO ").append(getTableName()).append(" SET ");
-        List<Object> args = new LinkedList<>();
-
-        Set<QuerySnapshot> snapshots = new HashSet<>(this.queryParts);
+        Set<QuerySnapshot> snapshots = new LinkedHashSet<>(this.queryParts); //ordered, so that the template is stable
 
         if (this.uniqueIdentifiers != null && !this.uniqueIdentifiers.isEmpty()) {
             snapshots.addAll(this.uniqueIdentifiers);
         }
+        snapshots.remove(null);
 
-        for (QuerySnapshot snapshot : snapshots) {
-            if (snapshot != null) {
-                queryStringBuilder.append(QuerySnapshot.Type.OBJECT_UPDATE.getOperator(snapshot.getColumnName()))
-                        .append(','); //NUMBER_MODIFICATION has name=name+value, which is not allowed in INSERT
-                args.add(snapshot.getSnapshot());
-            }
-        }
-
-        queryStringBuilder.deleteCharAt(queryStringBuilder.length() - 1) //Last char will always be ','
-                .append(" ON DUPLICATE KEY UPDATE ");
-
-        for (QuerySnapshot snapshot : snapshots) {
-            if (snapshot != null) {
-                queryStringBuilder.append(snapshot.getType().getOperator(snapshot.getColumnName()))
-                        .append(",");
-            }
-        }
-        args.addAll(args); // <-- Collection added to itself, probably a bug, no idea what that should do tho
-
-        queryStringBuilder.deleteCharAt(queryStringBuilder.length() - 1); //Last char will always be ',';
+        Object[] values = takeSnapshots(snapshots); //NUMBER_MODIFICATION snapshots may only be taken once
+        Object[] args = Arrays.copyOf(values, values.length * 2); //values are bound for INSERT and for UPDATE
+        System.arraycopy(values, 0, args, values.length, values.length);
 
-        final PreparedStatement stmt = statementFactory.prepareStatement(queryStringBuilder.toString());
-        statementFactory.fillStatement(stmt, args.toArray());
-        return stmt;
+        return QueryTemplate.upsert(getTableName(), snapshots).prepare(statementFactory, args);
     }
 
     /**
@@ -296,35 +276,23 @@ public class QueryBuilder { //TO/DO make concurrent
             return null; //Nothing to do then
         }
 
-        StringBuilder queryStringBuilder = new StringBuilder("UPDATE ").append(getTableName()).append(" SET ");
-        List<Object> args = new LinkedList<>();
-
+        List<QuerySnapshot> parts = new ArrayList<>(this.queryParts.size());
         for (QuerySnapshot snapshot : this.queryParts) {
             if (snapshot != null) {
-                queryStringBuilder.append(snapshot.getType().getOperator(snapshot.getColumnName()))
-                        .append(','); //NUMBER_MODIFICATION has name=name+value, which is not allowed in INSERT
-                args.add(snapshot.getSnapshot());
+                parts.add(snapshot);
             }
         }
 
-        queryStringBuilder.deleteCharAt(queryStringBuilder.length() - 1) //Last char will always be ','
-                .append(" WHERE ");
-
-        boolean prependAnd = false;
+        Object[] args = new Object[parts.size() + this.uniqueIdentifiers.size()];
+        int i = 0;
+        for (QuerySnapshot snapshot : parts) {
+            args[i++] = snapshot.getSnapshot();
+        }
         for (QuerySnapshot snapshot : this.uniqueIdentifiers) {
-            if (prependAnd) {
-                queryStringBuilder.append(" AND ");
-            }
-
-            queryStringBuilder.append(snapshot.getType().getOperator(snapshot.getColumnName()));
-            args.add(snapshot.getSnapshot());
-
-            prependAnd = true;
+            args[i++] = snapshot.getSnapshot();
         }
 
-        final PreparedStatement stmt = statementFactory.prepareStatement(queryStringBuilder.toString());
-        statementFactory.fillStatement(stmt, args.toArray());
-        return stmt;
+        return QueryTemplate.update(getTableName(), parts, this.uniqueIdentifiers).prepare(statementFactory, args);
     }
 
     /**
@@ -388,50 +356,31 @@ public class QueryBuilder { //TO/DO make concurrent
     @Nullable
     public PreparedStatement buildSelect(@Nonnull final PreparedStatementFactory statementFactory, final boolean selectStar) throws SQLException {
         Validate.notNull(statementFactory, "statementFactory");
-        StringBuilder queryStringBuilder = new StringBuilder("SELECT ");
-        List<Object> args = new LinkedList<>();
-
-        List<QuerySnapshot> snapshots = new ArrayList<>();
+        List<QuerySnapshot> columns = new ArrayList<>();
 
         if (!selectStar && this.queryParts != null) {
-            snapshots.addAll(this.queryParts);
+            columns.addAll(this.queryParts);
         }
 
         if (!selectStar && this.uniqueIdentifiers != null) {
-            snapshots.addAll(this.uniqueIdentifiers);
+            columns.addAll(this.uniqueIdentifiers);
         }
 
-        if (snapshots.isEmpty()) { //Is also empty if selectStar is true
-            queryStringBuilder.append("*");
-        } else {
-            for (QuerySnapshot snapshot : snapshots) {
-                queryStringBuilder.append(snapshot.getColumnName()).append(',');
-            }
-
-            queryStringBuilder.deleteCharAt(queryStringBuilder.length() - 1); //Last char will always be ','
-        }
+        Collection<QuerySnapshot> identifiers = this.uniqueIdentifiers == null ?
+                Collections.<QuerySnapshot>emptyList() : this.uniqueIdentifiers;
 
-        queryStringBuilder.append(" FROM ")
-                .append(this.tableName);
-
-        if (this.uniqueIdentifiers != null && !this.uniqueIdentifiers.isEmpty()) {
-            queryStringBuilder.append(" WHERE ");
-            boolean prependAnd = false;
-            for (QuerySnapshot snapshot : this.uniqueIdentifiers) {
-                if (prependAnd) {
-                    queryStringBuilder.append(" AND ");
-                }
-
-                queryStringBuilder.append(snapshot.getType().getOperator(snapshot.getColumnName()));
-                args.add(snapshot.getSnapshot());
+        //Is also SELECT * if selectStar is true
+        return QueryTemplate.select(this.tableName, columns, identifiers)
+                .prepare(statementFactory, takeSnapshots(identifiers));
+    }
 
-                prependAnd = true;
-            }
+    private static Object[] takeSnapshots(Collection<QuerySnapshot> snapshots) {
+        Object[] values = new Object[snapshots.size()];
+        int i = 0;
+        for (QuerySnapshot snapshot : snapshots) {
+            values[i++] = snapshot.getSnapshot();
         }
-
-        final PreparedStatement statement = statementFactory.prepareStatement(queryStringBuilder.toString());
-        statementFactory.fillStatement(statement, args.toArray());
-        return statement;
+        return values;
     }
 
     /**
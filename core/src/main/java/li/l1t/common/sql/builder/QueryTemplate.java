@@ -0,0 +1,313 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import li.l1t.common.sql.PreparedStatementFactory;
+import li.l1t.common.sql.sane.statement.PreparedStatementCache;
+import org.apache.commons.lang.Validate;
+
+import javax.annotation.Nonnull;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An immutable, precompiled SQL string generated by {@link QueryBuilder}. Templates are keyed by the kind of query,
+ * the table and the ordered columns and {@link QuerySnapshot.Type types} of parts and identifiers, so that builders
+ * of the same shape share a single template and only need to bind parameter arrays. Since equal shapes always produce
+ * the identical SQL string, templates also hit SQL-keyed statement caches such as {@link PreparedStatementCache}.
+ * <p>
+ * At most {@link #MAX_CACHED_TEMPLATES} templates are cached. Shapes beyond that are compiled on every call.
+ * </p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ * @deprecated Part of the deprecated QueryBuilder API. See {@link QueryBuilder} for details.
+ */
+@Deprecated
+public final class QueryTemplate {
+    public static final int MAX_CACHED_TEMPLATES = 1024;
+    private static final ConcurrentMap<Key, QueryTemplate> TEMPLATES = new ConcurrentHashMap<>();
+    private final String sql;
+    private final int parameterCount;
+
+    private QueryTemplate(String sql, int parameterCount) {
+        this.sql = sql;
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * Gets the template for an {@code INSERT ... ON DUPLICATE KEY UPDATE} of given snapshots. All snapshots are
+     * inserted as plain values and updated using their type's operator, so the parameters are the snapshot values
+     * twice, in order.
+     *
+     * @param tableName the table to write to
+     * @param snapshots the snapshots to write, in order
+     * @return the template
+     */
+    @Nonnull
+    public static QueryTemplate upsert(@Nonnull String tableName, @Nonnull Collection<? extends QuerySnapshot> snapshots) {
+        Validate.notEmpty(snapshots, "snapshots");
+        return lookup(new Key(Kind.UPSERT, tableName, snapshots, null));
+    }
+
+    /**
+     * Gets the template for an {@code UPDATE ... WHERE} of given snapshots. The parameters are the part values
+     * followed by the identifier values, in order.
+     *
+     * @param tableName   the table to write to
+     * @param parts       the snapshots to write, in order
+     * @param identifiers the snapshots identifying the row(s), joined with {@code AND}
+     * @return the template
+     */
+    @Nonnull
+    public static QueryTemplate update(@Nonnull String tableName, @Nonnull Collection<? extends QuerySnapshot> parts,
+                                       @Nonnull Collection<? extends QuerySnapshot> identifiers) {
+        Validate.notEmpty(parts, "parts");
+        Validate.notEmpty(identifiers, "identifiers");
+        return lookup(new Key(Kind.UPDATE, tableName, parts, identifiers));
+    }
+
+    /**
+     * Gets the template for a {@code SELECT} of given columns. The parameters are the identifier values, in order.
+     *
+     * @param tableName   the table to select from
+     * @param columns     the snapshots of the columns to select, or an empty collection to select all columns
+     * @param identifiers the snapshots identifying the row(s), joined with {@code AND}, may be empty
+     * @return the template
+     */
+    @Nonnull
+    public static QueryTemplate select(@Nonnull String tableName, @Nonnull Collection<? extends QuerySnapshot> columns,
+                                       @Nonnull Collection<? extends QuerySnapshot> identifiers) {
+        return lookup(new Key(Kind.SELECT, tableName, columns, identifiers));
+    }
+
+    private static QueryTemplate lookup(Key key) {
+        QueryTemplate template = TEMPLATES.get(key);
+        if (template != null) {
+            return template;
+        }
+        template = key.compile();
+        if (TEMPLATES.size() < MAX_CACHED_TEMPLATES) {
+            QueryTemplate existing = TEMPLATES.putIfAbsent(key, template);
+            return existing == null ? template : existing;
+        }
+        return template;
+    }
+
+    /**
+     * @return the amount of templates currently cached
+     */
+    public static int getCachedTemplateCount() {
+        return TEMPLATES.size();
+    }
+
+    /**
+     * Prepares a statement for this template and binds given parameters.
+     *
+     * @param statementFactory where to get the statement from
+     * @param parameters       the parameters to bind
+     * @return the prepared statement
+     * @throws SQLException if a database error occurs
+     */
+    @Nonnull
+    public PreparedStatement prepare(@Nonnull PreparedStatementFactory statementFactory, @Nonnull Object[] parameters)
+            throws SQLException {
+        checkParameterCount(parameters);
+        PreparedStatement statement = statementFactory.prepareStatement(sql);
+        statementFactory.fillStatement(statement, parameters);
+        return statement;
+    }
+
+    /**
+     * Checks out a statement for this template from given cache and binds given parameters like {@link
+     * #prepare(PreparedStatementFactory, Object[])} does. The statement must be {@link
+     * PreparedStatementCache#checkIn(PreparedStatement) checked in} again after use.
+     *
+     * @param cache            the cache to check the statement out from
+     * @param connection       the connection to prepare the statement on
+     * @param statementFactory the factory whose logic to bind parameters with
+     * @param parameters       the parameters to bind
+     * @return the prepared statement
+     * @throws SQLException if a database error occurs
+     */
+    @Nonnull
+    public PreparedStatement prepare(@Nonnull PreparedStatementCache cache, @Nonnull Connection connection,
+                                     @Nonnull PreparedStatementFactory statementFactory,
+                                     @Nonnull Object[] parameters) throws SQLException {
+        checkParameterCount(parameters);
+        PreparedStatement statement = cache.checkOut(connection, sql, false, (query, conn) -> conn.prepareStatement(query));
+        try {
+            statementFactory.fillStatement(statement, parameters);
+        } catch (SQLException | RuntimeException e) {
+            cache.checkIn(statement);
+            throw e;
+        }
+        return statement;
+    }
+
+    private void checkParameterCount(Object[] parameters) {
+        Validate.isTrue(parameters.length == parameterCount,
+                "Template " + sql + " takes " + parameterCount + " parameters, got ", parameters.length);
+    }
+
+    @Nonnull
+    public String getSql() {
+        return sql;
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryTemplate{" + sql + "}";
+    }
+
+    private enum Kind {
+        UPSERT, UPDATE, SELECT
+    }
+
+    private static class Key {
+        private final Kind kind;
+        private final String tableName;
+        private final String[] columns;
+        private final QuerySnapshot.Type[] types;
+        private final String[] identifierColumns;
+        private final QuerySnapshot.Type[] identifierTypes;
+        private final int hashCode;
+
+        Key(Kind kind, String tableName, Collection<? extends QuerySnapshot> parts,
+            Collection<? extends QuerySnapshot> identifiers) {
+            this.kind = kind;
+            Validate.notNull(tableName, "tableName");
+            this.tableName = tableName;
+            this.columns = new String[parts.size()];
+            this.types = new QuerySnapshot.Type[parts.size()];
+            fill(parts, columns, types);
+            int identifierCount = identifiers == null ? 0 : identifiers.size();
+            this.identifierColumns = new String[identifierCount];
+            this.identifierTypes = new QuerySnapshot.Type[identifierCount];
+            if (identifiers != null) {
+                fill(identifiers, identifierColumns, identifierTypes);
+            }
+            int result = kind.hashCode();
+            result = 31 * result + tableName.hashCode();
+            result = 31 * result + Arrays.hashCode(columns);
+            result = 31 * result + Arrays.hashCode(types);
+            result = 31 * result + Arrays.hashCode(identifierColumns);
+            result = 31 * result + Arrays.hashCode(identifierTypes);
+            this.hashCode = result;
+        }
+
+        private static void fill(Collection<? extends QuerySnapshot> snapshots, String[] columns, QuerySnapshot.Type[] types) {
+            int i = 0;
+            for (QuerySnapshot snapshot : snapshots) {
+                columns[i] = snapshot.getColumnName();
+                types[i] = snapshot.getType();
+                i++;
+            }
+        }
+
+        QueryTemplate compile() {
+            StringBuilder sb;
+            int parameterCount;
+            switch (kind) {
+                case UPSERT:
+                    sb = new StringBuilder("INSERT INTO ").append(tableName).append(" SET ");
+                    for (int i = 0; i < columns.length; i++) { //NUMBER_MODIFICATION has name=name+value, which is not allowed in INSERT
+                        appendSeparated(sb, i, ",", QuerySnapshot.Type.OBJECT_UPDATE.getOperator(columns[i]));
+                    }
+                    sb.append(" ON DUPLICATE KEY UPDATE ");
+                    for (int i = 0; i < columns.length; i++) {
+                        appendSeparated(sb, i, ",", types[i].getOperator(columns[i]));
+                    }
+                    parameterCount = columns.length * 2;
+                    break;
+                case UPDATE:
+                    sb = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+                    for (int i = 0; i < columns.length; i++) {
+                        appendSeparated(sb, i, ",", types[i].getOperator(columns[i]));
+                    }
+                    appendWhere(sb);
+                    parameterCount = columns.length + identifierColumns.length;
+                    break;
+                case SELECT:
+                    sb = new StringBuilder("SELECT ");
+                    if (columns.length == 0) {
+                        sb.append('*');
+                    }
+                    for (int i = 0; i < columns.length; i++) {
+                        appendSeparated(sb, i, ",", columns[i]);
+                    }
+                    sb.append(" FROM ").append(tableName);
+                    if (identifierColumns.length != 0) {
+                        appendWhere(sb);
+                    }
+                    parameterCount = identifierColumns.length;
+                    break;
+                default:
+                    throw new AssertionError(kind);
+            }
+            return new QueryTemplate(sb.toString(), parameterCount);
+        }
+
+        private void appendWhere(StringBuilder sb) {
+            sb.append(" WHERE ");
+            for (int i = 0; i < identifierColumns.length; i++) {
+                appendSeparated(sb, i, " AND ", identifierTypes[i].getOperator(identifierColumns[i]));
+            }
+        }
+
+        private static void appendSeparated(StringBuilder sb, int index, String separator, String value) {
+            if (index != 0) {
+                sb.append(separator);
+            }
+            sb.append(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return hashCode == key.hashCode && kind == key.kind && tableName.equals(key.tableName) &&
+                    Arrays.equals(columns, key.columns) && Arrays.equals(types, key.types) &&
+                    Arrays.equals(identifierColumns, key.identifierColumns) &&
+                    Arrays.equals(identifierTypes, key.identifierTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import javax.annotation.Nonnull;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A lock-free {@code double} column modified by adding deltas. Values are stored as raw {@code long} bits, like
+ * {@link java.util.concurrent.atomic.DoubleAdder} does. As with any floating-point accumulation, the order of
+ * concurrent additions may affect the last bits of the result.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ * @deprecated Part of the deprecated QueryBuilder API. See {@link QueryBuilder} for details.
+ */
+@Deprecated
+public class SqlDoubleAdderHolder extends AdderSqlNumberHolder<Double> {
+    public SqlDoubleAdderHolder(@Nonnull String columnName) {
+        this(columnName, 0D);
+    }
+
+    public SqlDoubleAdderHolder(@Nonnull String columnName, double initialValue) {
+        super(columnName, Double.doubleToRawLongBits(initialValue));
+    }
+
+    /**
+     * Queues a modification without boxing.
+     *
+     * @param delta the delta to add
+     */
+    public void add(double delta) {
+        accumulate(Double.doubleToRawLongBits(delta));
+    }
+
+    /**
+     * @return the current value, without boxing
+     * @see #getValue()
+     */
+    public double doubleValue() {
+        return Double.longBitsToDouble(currentBits());
+    }
+
+    @Override
+    protected long combine(long leftBits, long rightBits) {
+        return Double.doubleToRawLongBits(Double.longBitsToDouble(leftBits) + Double.longBitsToDouble(rightBits));
+    }
+
+    @Override
+    protected long negate(long bits) {
+        return Double.doubleToRawLongBits(-Double.longBitsToDouble(bits));
+    }
+
+    @Override
+    protected Double decode(long bits) {
+        return Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    protected long encode(@Nonnull Double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    @Override
+    public void processResultSet(@Nonnull ResultSet resultSet) throws SQLException {
+        updateValue(resultSet.getDouble(getColumnName()));
+    }
+
+    @Override
+    public boolean isModified() {
+        return getModifier() != 0D; //-0.0 has bits set
+    }
+}
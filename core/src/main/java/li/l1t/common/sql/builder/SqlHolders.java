@@ -24,11 +24,16 @@
 
 package li.l1t.common.sql.builder;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import li.l1t.common.sql.builder.annotation.SqlValueCache;
+import org.apache.commons.lang.Validate;
 import org.jetbrains.annotations.Nullable;
 
 import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.sql.ResultSet;
@@ -125,8 +130,14 @@ public class SqlHolders {
         }
     }
 
+    /**
+     * Stores the {@link SqlValueCache} annotated fields of a class and creates holders for them.
+     * On first use, a binding plan of {@link MethodHandle} accessors and holder factories is computed once, so that
+     * building holders for further instances neither walks annotations nor checks field access again.
+     */
     public static class CacheBuilder {
         private Map<Field, SqlValueCache> targetFields;
+        private volatile List<HolderBinding> bindingPlan;
 
         @java.beans.ConstructorProperties({"targetFields"})
         public CacheBuilder(Map<Field, SqlValueCache> targetFields) {
@@ -149,28 +160,101 @@ public class SqlHolders {
             }
 
             this.targetFields.put(field, annotation);
+            this.bindingPlan = null;
         }
 
         @Nonnull
         public List<SqlValueHolder<?>> build(@Nullable Object accessorInstance, @Nullable SqlValueHolder.DataSource dataSource) throws IllegalAccessException {
-            List<SqlValueHolder<?>> result = new ArrayList<>(targetFields.size());
-
-            for (Map.Entry<Field, SqlValueCache> entry : targetFields.entrySet()) {
-                SqlValueCache annotation = entry.getValue();
-                Field field = entry.getKey();
+            List<HolderBinding> plan = getBindingPlan();
+            List<SqlValueHolder<?>> result = new ArrayList<>(plan.size());
 
-                if (accessorInstance == null && !Modifier.isStatic(field.getModifiers())) {
-                    throw new NullPointerException(String.format("Encountered a non-static field marked for processing, but no accessor instance given! (At field %s)", field.getName()));
-                }
-
-                result.add(annotation.type().createHolder(field, annotation, accessorInstance, dataSource));
+            for (HolderBinding binding : plan) {
+                result.add(binding.bind(accessorInstance, dataSource));
             }
 
             return result;
         }
 
+        private List<HolderBinding> getBindingPlan() throws IllegalAccessException {
+            List<HolderBinding> plan = this.bindingPlan;
+            if (plan == null) { //benign race, all threads compute equal plans
+                plan = new ArrayList<>(targetFields == null ? 0 : targetFields.size());
+                if (targetFields != null) {
+                    for (Map.Entry<Field, SqlValueCache> entry : targetFields.entrySet()) {
+                        plan.add(new HolderBinding(entry.getKey(), entry.getValue()));
+                    }
+                }
+                this.bindingPlan = plan;
+            }
+            return plan;
+        }
+
         public Map<Field, SqlValueCache> getTargetFields() {
             return this.targetFields;
         }
     }
+
+    /**
+     * Binds a single annotated field. Accessors are adapted to {@code (Object)Object} and {@code (Object,Object)void}
+     * so that they can be invoked exactly, static fields ignore the instance argument.
+     */
+    private static class HolderBinding {
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+        private final String fieldName;
+        private final SqlValueCache annotation;
+        private final boolean isStatic;
+        private final MethodHandle getter;
+        @Nullable
+        private final MethodHandle setter;
+
+        HolderBinding(Field field, SqlValueCache annotation) throws IllegalAccessException {
+            Validate.isTrue(annotation.type().getHolderClass().isAssignableFrom(field.getType()),
+                    "Field is of invalid type! Given: ", field.getType());
+            if (!field.isAccessible()) {
+                field.setAccessible(true);
+            }
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            this.fieldName = field.getName();
+            this.annotation = annotation;
+            this.isStatic = Modifier.isStatic(field.getModifiers());
+            MethodHandle rawGetter = lookup.unreflectGetter(field);
+            if (isStatic) {
+                rawGetter = MethodHandles.dropArguments(rawGetter, 0, Object.class);
+            }
+            this.getter = rawGetter.asType(GETTER_TYPE);
+            if (Modifier.isFinal(field.getModifiers())) {
+                this.setter = null;
+            } else {
+                MethodHandle rawSetter = lookup.unreflectSetter(field);
+                if (isStatic) {
+                    rawSetter = MethodHandles.dropArguments(rawSetter, 0, Object.class);
+                }
+                this.setter = rawSetter.asType(SETTER_TYPE);
+            }
+        }
+
+        SqlValueHolder<?> bind(@Nullable Object accessorInstance, @Nullable SqlValueHolder.DataSource dataSource) {
+            if (accessorInstance == null && !isStatic) {
+                throw new NullPointerException(String.format("Encountered a non-static field marked for processing, but no accessor instance given! (At field %s)", fieldName));
+            }
+
+            try {
+                SqlValueHolder<?> holder = (SqlValueHolder<?>) (Object) getter.invokeExact(accessorInstance);
+
+                if (holder == null) {
+                    holder = annotation.type().newHolder(annotation);
+                    holder.setDataSource(dataSource);
+
+                    if (setter != null) {
+                        setter.invokeExact(accessorInstance, (Object) holder);
+                    }
+                }
+
+                return holder;
+            } catch (Throwable throwable) {
+                throw Throwables.propagate(throwable);
+            }
+        }
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import javax.annotation.Nonnull;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A lock-free {@code int} column modified by adding deltas. Deltas are accumulated as {@code long}, so intermediate
+ * overflows do not corrupt the modifier.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ * @deprecated Part of the deprecated QueryBuilder API. See {@link QueryBuilder} for details.
+ */
+@Deprecated
+public class SqlIntAdderHolder extends AdderSqlNumberHolder<Integer> {
+    public SqlIntAdderHolder(@Nonnull String columnName) {
+        this(columnName, 0);
+    }
+
+    public SqlIntAdderHolder(@Nonnull String columnName, int initialValue) {
+        super(columnName, initialValue);
+    }
+
+    /**
+     * Queues a modification without boxing.
+     *
+     * @param delta the delta to add
+     */
+    public void add(int delta) {
+        accumulate(delta);
+    }
+
+    /**
+     * @return the current value, without boxing
+     * @see #getValue()
+     */
+    public int intValue() {
+        return (int) currentBits();
+    }
+
+    @Override
+    protected long combine(long leftBits, long rightBits) {
+        return leftBits + rightBits;
+    }
+
+    @Override
+    protected long negate(long bits) {
+        return -bits;
+    }
+
+    @Override
+    protected Integer decode(long bits) {
+        return (int) bits;
+    }
+
+    @Override
+    protected long encode(@Nonnull Integer value) {
+        return value;
+    }
+
+    @Override
+    public void processResultSet(@Nonnull ResultSet resultSet) throws SQLException {
+        updateValue(resultSet.getInt(getColumnName()));
+    }
+}
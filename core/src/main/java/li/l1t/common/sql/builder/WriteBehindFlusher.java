@@ -0,0 +1,662 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import li.l1t.common.sql.PreparedStatementFactory;
+import li.l1t.common.sql.sane.connection.ConnectionManager;
+import li.l1t.common.util.math.MathOperator;
+import li.l1t.common.util.math.NumberHelper;
+import org.apache.commons.lang.Validate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects changes of {@link SqlValueHolder}s and writes them to the database in batches instead of issuing one
+ * statement per change. Snapshots are taken when changes are {@link #enqueue(QueryBuilder) enqueued}, so {@link
+ * ConcurrentSqlNumberHolder} modifiers are consumed immediately and multiple {@link QuerySnapshot.Type#NUMBER_MODIFICATION
+ * modifications} of the same row are merged into a single delta. {@link QuerySnapshot.Type#OBJECT_UPDATE Updates} are
+ * last-write-wins.
+ * <p>
+ * Pending rows are written on a fixed interval and whenever the number of pending rows reaches the flush threshold.
+ * Rows of the same shape share a single {@code UPDATE} statement, executed as a JDBC batch in its own transaction on a
+ * connection that is used by this flusher only, so that other threads' statements never join or lose its transactions.
+ * If a batch is rolled back, its rows are merged back into the pending changes so that no consumed modifier is lost;
+ * they are retried with the next flush. If it is unknown whether a batch was written, because committing or rolling
+ * back failed, its rows are dropped and logged instead, since retrying could apply number modifications twice. {@link
+ * #drain(long, TimeUnit)} (called by {@link #close()}) stops the timer and flushes until nothing is left or the timeout
+ * expires.
+ * </p>
+ * Like {@link QueryBuilder#buildTrueUpdate(PreparedStatementFactory)}, this only updates existing rows and requires
+ * at least one identifier per row.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ * @deprecated Part of the deprecated QueryBuilder API. See {@link QueryBuilder} for details.
+ */
+@Deprecated
+public class WriteBehindFlusher implements AutoCloseable {
+    public static final long DEFAULT_DRAIN_TIMEOUT_MILLIS = 10_000L;
+    private static final long DRAIN_RETRY_MILLIS = 100L;
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindFlusher.class.getName());
+    private final ConnectionManager connectionManager;
+    private final int flushThreshold;
+    private final ScheduledExecutorService flushExecutor;
+    private final Object pendingLock = new Object();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean thresholdFlushQueued = new AtomicBoolean();
+    private final AtomicLong enqueuedChangeCount = new AtomicLong();
+    private final AtomicLong coalescedChangeCount = new AtomicLong();
+    private final AtomicLong writtenRowCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong droppedRowCount = new AtomicLong();
+    private Map<RowKey, PendingRow> pendingRows = new LinkedHashMap<>();
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new flusher and starts its timer. Since batches are written in transactions on the connections of
+     * given manager, it must not be shared with anything else, for example by passing a new {@link
+     * li.l1t.common.sql.sane.connection.SimpleConnectionManager} for the credentials of the wrappers' {@link
+     * li.l1t.common.sql.SafeSql}. The manager is not closed by this flusher, close it after closing the flusher.
+     *
+     * @param connectionManager the manager of the connections used by this flusher only
+     * @param flushInterval     the interval between timed flushes
+     * @param unit              the unit of the interval
+     * @param flushThreshold    the amount of pending rows that triggers a flush before the interval elapses
+     */
+    public WriteBehindFlusher(@Nonnull ConnectionManager connectionManager, long flushInterval,
+                              @Nonnull TimeUnit unit, int flushThreshold) {
+        Validate.notNull(connectionManager, "connectionManager");
+        Validate.isTrue(flushInterval > 0, "flushInterval must be positive: ", flushInterval);
+        Validate.isTrue(flushThreshold > 0, "flushThreshold must be positive: ", flushThreshold);
+        this.connectionManager = connectionManager;
+        this.flushThreshold = flushThreshold;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("xyc-write-behind-%d")
+                .setDaemon(true)
+                .build());
+        this.flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, unit);
+    }
+
+    /**
+     * Takes snapshots of the parts of given builder and queues them for the row identified by the builder's unique
+     * identifiers. The builder is not modified and can be reused immediately.
+     *
+     * @param builder the builder to take table, identifiers and parts from
+     * @return whether any change was queued, i.e. whether any part was modified
+     * @throws IllegalArgumentException if the builder has no unique identifiers
+     * @throws IllegalStateException    if this flusher has been closed
+     * @see #enqueue(String, Collection, Collection)
+     */
+    public boolean enqueue(@Nonnull QueryBuilder builder) {
+        Validate.notNull(builder, "builder");
+        return enqueue(builder.getTableName(),
+                nullToEmpty(builder.getUniqueIdentifiers()), nullToEmpty(builder.getQueryParts()));
+    }
+
+    /**
+     * Takes snapshots of given parts and queues them for the row identified by given identifiers. Identifier parts,
+     * holders that have not been modified and number modifications of zero are skipped. If this flusher is closed
+     * concurrently, changes that have already been taken are written by the calling thread instead of being lost.
+     *
+     * @param tableName   the table the row is in
+     * @param identifiers the snapshots identifying the row, joined with {@code AND}
+     * @param parts       the snapshots of the columns to write
+     * @return whether any change was queued
+     * @throws IllegalArgumentException if no identifiers are given
+     * @throws IllegalStateException    if this flusher has been closed
+     */
+    public boolean enqueue(@Nonnull String tableName, @Nonnull Collection<? extends QuerySnapshot> identifiers,
+                           @Nonnull Collection<? extends QuerySnapshot> parts) {
+        Validate.notNull(tableName, "tableName");
+        Validate.notEmpty(identifiers, "at least one identifier is required to prevent updating the whole table");
+        if (closed) {
+            throw new IllegalStateException("Write-behind flusher has been closed");
+        }
+        RowKey key = new RowKey(tableName, snapshotIdentifiers(identifiers));
+        List<PendingValue> changes = snapshotParts(parts);
+        if (changes.isEmpty()) {
+            return false;
+        }
+        int pendingCount;
+        boolean draining;
+        synchronized (pendingLock) {
+            draining = closed; //snapshots have consumed modifiers, so the changes must be written anyway
+            PendingRow row = pendingRows.get(key);
+            if (row == null) {
+                row = new PendingRow(key);
+                pendingRows.put(key, row);
+            }
+            for (PendingValue change : changes) {
+                if (row.merge(change)) {
+                    coalescedChangeCount.incrementAndGet();
+                }
+            }
+            if (row.isEmpty()) {
+                pendingRows.remove(key);
+            }
+            pendingCount = pendingRows.size();
+        }
+        enqueuedChangeCount.addAndGet(changes.size());
+        if (draining) {
+            flush();
+        } else if (pendingCount >= flushThreshold && thresholdFlushQueued.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(() -> {
+                    thresholdFlushQueued.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) { //drain started concurrently, it flushes our changes
+                thresholdFlushQueued.set(false);
+            }
+        }
+        return true;
+    }
+
+    private List<PendingValue> snapshotIdentifiers(Collection<? extends QuerySnapshot> identifiers) {
+        List<PendingValue> result = new ArrayList<>(identifiers.size());
+        for (QuerySnapshot identifier : identifiers) {
+            Validate.isTrue(isIdentifier(identifier.getType()), "Identifier type must be object identifier!");
+            result.add(new PendingValue(identifier.getColumnName(), identifier.getType(), identifier.getSnapshot(), null));
+        }
+        return result;
+    }
+
+    private List<PendingValue> snapshotParts(Collection<? extends QuerySnapshot> parts) {
+        List<PendingValue> result = new ArrayList<>(parts.size());
+        for (QuerySnapshot part : parts) {
+            if (part == null || isIdentifier(part.getType()) ||
+                    (part.getType() == QuerySnapshot.Type.OBJECT_UPDATE &&
+                            part instanceof SqlValueHolder && !((SqlValueHolder<?>) part).isModified())) {
+                continue;
+            }
+            Object value = part.getSnapshot(); //consumes number modifiers - from here on, we own the delta
+            MathOperator<Number> operator = findOperator(part, value);
+            if (part.getType() == QuerySnapshot.Type.NUMBER_MODIFICATION && isZero(value, operator)) {
+                continue;
+            }
+            result.add(new PendingValue(part.getColumnName(), part.getType(), value, operator));
+        }
+        return result;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private MathOperator<Number> findOperator(QuerySnapshot part, Object value) {
+        if (part instanceof ConcurrentSqlNumberHolder) {
+            return (MathOperator<Number>) ((ConcurrentSqlNumberHolder<?>) part).getMathOperator();
+        } else if (value instanceof Number) {
+            MathOperator<Number> operator = NumberHelper.getOperator((Class<Number>) value.getClass());
+            Validate.isTrue(operator != null || part.getType() != QuerySnapshot.Type.NUMBER_MODIFICATION,
+                    "Unsupported number type for modification of " + part.getColumnName() + ": " + value.getClass());
+            return operator;
+        } else {
+            Validate.isTrue(part.getType() != QuerySnapshot.Type.NUMBER_MODIFICATION,
+                    "Number modification of " + part.getColumnName() + " without numeric value: " + value);
+            return null;
+        }
+    }
+
+    private static boolean isZero(Object value, MathOperator<Number> operator) {
+        return value == null || operator.getZero().equals(value);
+    }
+
+    private static boolean isIdentifier(QuerySnapshot.Type type) {
+        return type == QuerySnapshot.Type.OBJECT_IDENTIFIER || type == QuerySnapshot.Type.NEGATED_OBJECT_IDENTIFIER;
+    }
+
+    private static <T> Collection<T> nullToEmpty(@Nullable Collection<T> collection) {
+        return collection == null ? Collections.<T>emptyList() : collection;
+    }
+
+    /**
+     * Writes all currently pending rows to the database, blocking until done. Concurrent flushes are serialised, so
+     * that updates of the same column are never written out of order. If a batch fails, the failure is logged and
+     * the rows that have not been written are queued again.
+     *
+     * @return the amount of rows written
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            Map<RowKey, PendingRow> rows;
+            synchronized (pendingLock) {
+                if (pendingRows.isEmpty()) {
+                    return 0;
+                }
+                rows = pendingRows;
+                pendingRows = new LinkedHashMap<>();
+            }
+            Map<String, List<PendingRow>> rowsByStatement = new LinkedHashMap<>();
+            for (PendingRow row : rows.values()) {
+                String sql = row.toSql();
+                List<PendingRow> batch = rowsByStatement.get(sql);
+                if (batch == null) {
+                    batch = new ArrayList<>();
+                    rowsByStatement.put(sql, batch);
+                }
+                batch.add(row);
+            }
+            int writtenCount = 0;
+            List<List<PendingRow>> batches = new ArrayList<>(rowsByStatement.values());
+            for (int i = 0; i < batches.size(); i++) {
+                List<PendingRow> batch = batches.get(i);
+                try {
+                    writeBatch(batch.get(0).toSql(), batch);
+                    writtenCount += batch.size();
+                } catch (SQLException e) {
+                    failedFlushCount.incrementAndGet();
+                    LOGGER.log(Level.WARNING, "Write-behind flush failed, re-queueing " +
+                            (rows.size() - writtenCount) + " rows", e);
+                    requeue(batches.subList(i, batches.size()));
+                    break;
+                } catch (UnknownOutcomeException e) {
+                    failedFlushCount.incrementAndGet();
+                    droppedRowCount.addAndGet(batch.size());
+                    LOGGER.log(Level.SEVERE, "Write-behind batch of " + batch.size() + " rows may or may not " +
+                            "have been written, dropping it to not apply changes twice", e.getCause());
+                    requeue(batches.subList(i + 1, batches.size()));
+                    break;
+                }
+            }
+            writtenRowCount.addAndGet(writtenCount);
+            return writtenCount;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) { //scheduled tasks are cancelled if they throw
+            failedFlushCount.incrementAndGet();
+            LOGGER.log(Level.SEVERE, "Unexpected error in write-behind flush", e);
+        }
+    }
+
+    /**
+     * Writes a batch of rows in a transaction.
+     *
+     * @throws SQLException           if the batch was not written, so that it can be retried
+     * @throws UnknownOutcomeException if committing or rolling back failed, so that the batch may have been written
+     */
+    private void writeBatch(String sql, List<PendingRow> rows) throws SQLException, UnknownOutcomeException {
+        Connection connection;
+        try {
+            connection = connectionManager.getConnection();
+        } catch (RuntimeException e) {
+            throw new SQLException("Failed to obtain connection for write-behind flush", e);
+        }
+        if (!connection.getAutoCommit()) {
+            throw new SQLException("Write-behind connection is already in a transaction, it must not be shared");
+        }
+        connection.setAutoCommit(false);
+        try {
+            executeBatch(connection, sql, rows);
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                throw new UnknownOutcomeException(e);
+            }
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Failed to restore auto-commit of write-behind connection, reconnecting", e);
+                reconnectQuietly();
+            }
+        }
+        batchCount.incrementAndGet();
+    }
+
+    private void reconnectQuietly() {
+        try {
+            connectionManager.forceReconnect();
+        } catch (RuntimeException e) { //the next flush tries again and re-queues if that fails
+            LOGGER.log(Level.WARNING, "Failed to reconnect write-behind connection", e);
+        }
+    }
+
+    private void executeBatch(Connection connection, String sql, List<PendingRow> rows)
+            throws SQLException, UnknownOutcomeException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (PendingRow row : rows) {
+                bind(statement, row.getArguments());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            rollback(connection, e);
+            throw e;
+        } catch (RuntimeException e) {
+            rollback(connection, e);
+            throw new SQLException("Failed to bind write-behind batch", e);
+        }
+    }
+
+    private static void rollback(Connection connection, Exception cause) throws UnknownOutcomeException {
+        try {
+            connection.rollback();
+        } catch (SQLException rollbackFailure) {
+            rollbackFailure.addSuppressed(cause);
+            throw new UnknownOutcomeException(rollbackFailure);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Object[] arguments) throws SQLException {
+        for (int i = 0; i < arguments.length; i++) { //like SafeSql#fillStatement, which the QueryBuilder path uses
+            if (arguments[i] == null) {
+                statement.setNull(i + 1, Types.OTHER);
+            } else {
+                statement.setObject(i + 1, arguments[i]);
+            }
+        }
+    }
+
+    private void requeue(List<List<PendingRow>> failedBatches) {
+        synchronized (pendingLock) {
+            Map<RowKey, PendingRow> merged = new LinkedHashMap<>();
+            for (List<PendingRow> batch : failedBatches) {
+                for (PendingRow row : batch) {
+                    merged.put(row.getKey(), row);
+                }
+            }
+            for (PendingRow newerRow : pendingRows.values()) { //changes queued during the flush are newer
+                PendingRow olderRow = merged.get(newerRow.getKey());
+                if (olderRow == null) {
+                    merged.put(newerRow.getKey(), newerRow);
+                } else {
+                    newerRow.values.values().forEach(olderRow::merge);
+                }
+            }
+            pendingRows = merged;
+        }
+    }
+
+    /**
+     * Stops the timer and flushes until no rows are pending or the timeout expires. After this method has been
+     * called, no further changes can be {@link #enqueue(QueryBuilder) enqueued}.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return whether all pending rows have been written
+     */
+    public boolean drain(long timeout, @Nonnull TimeUnit unit) {
+        closed = true;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(timeout, unit);
+            while (true) {
+                flushQuietly();
+                if (getPendingRowCount() == 0) {
+                    return true;
+                }
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    break;
+                }
+                Thread.sleep(Math.min(remainingMillis, DRAIN_RETRY_MILLIS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.severe("Write-behind drain gave up with " + getPendingRowCount() + " rows not written");
+        return false;
+    }
+
+    /**
+     * Drains this flusher with a timeout of {@link #DEFAULT_DRAIN_TIMEOUT_MILLIS}.
+     *
+     * @see #drain(long, TimeUnit)
+     */
+    @Override
+    public void close() {
+        drain(DEFAULT_DRAIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the amount of rows currently waiting to be written
+     */
+    public int getPendingRowCount() {
+        synchronized (pendingLock) {
+            return pendingRows.size();
+        }
+    }
+
+    /**
+     * @return the total amount of column changes accepted by this flusher
+     */
+    public long getEnqueuedChangeCount() {
+        return enqueuedChangeCount.get();
+    }
+
+    /**
+     * @return the amount of column changes that have been merged into an already pending change of the same column
+     */
+    public long getCoalescedChangeCount() {
+        return coalescedChangeCount.get();
+    }
+
+    /**
+     * @return the total amount of rows written to the database
+     */
+    public long getWrittenRowCount() {
+        return writtenRowCount.get();
+    }
+
+    /**
+     * @return the total amount of batches executed successfully
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return the amount of flushes that failed and had their rows re-queued or dropped
+     */
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+
+    /**
+     * @return the amount of rows dropped because it was unknown whether their batch had been written
+     */
+    public long getDroppedRowCount() {
+        return droppedRowCount.get();
+    }
+
+    public int getFlushThreshold() {
+        return flushThreshold;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private static class PendingValue implements QuerySnapshot {
+        private final String columnName;
+        private final QuerySnapshot.Type type;
+        private final Object value;
+        @Nullable
+        private final MathOperator<Number> operator;
+
+        PendingValue(String columnName, QuerySnapshot.Type type, Object value, @Nullable MathOperator<Number> operator) {
+            this.columnName = columnName;
+            this.type = type;
+            this.value = value;
+            this.operator = operator;
+        }
+
+        /**
+         * Merges a newer change to the same column into this one.
+         */
+        PendingValue mergeWith(PendingValue newer) {
+            if (newer.type != QuerySnapshot.Type.NUMBER_MODIFICATION) {
+                return newer;
+            }
+            MathOperator<Number> operator = newer.operator;
+            if (type == QuerySnapshot.Type.NUMBER_MODIFICATION) {
+                return new PendingValue(columnName, type, operator.add((Number) value, (Number) newer.value), operator);
+            }
+            Validate.isTrue(value == null || value instanceof Number,
+                    "Cannot apply number modification to non-numeric update of " + columnName + ": " + value);
+            Number base = value == null ? operator.getZero() : (Number) value;
+            return new PendingValue(columnName, type, operator.add(base, (Number) newer.value), operator);
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+
+        @Override
+        public Object getSnapshot() {
+            return value;
+        }
+
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        boolean isNoOp() {
+            return type == QuerySnapshot.Type.NUMBER_MODIFICATION && isZero(value, operator);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PendingValue that = (PendingValue) o;
+            return columnName.equals(that.columnName) && type == that.type && Objects.equals(value, that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(columnName, type, value);
+        }
+    }
+
+    private static class RowKey {
+        private final String tableName;
+        private final List<PendingValue> identifiers;
+
+        RowKey(String tableName, List<PendingValue> identifiers) {
+            this.tableName = tableName;
+            this.identifiers = identifiers;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RowKey rowKey = (RowKey) o;
+            return tableName.equals(rowKey.tableName) && identifiers.equals(rowKey.identifiers);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * tableName.hashCode() + identifiers.hashCode();
+        }
+    }
+
+    private static class PendingRow {
+        private final RowKey key;
+        private final Map<String, PendingValue> values = new TreeMap<>(); //sorted, so equal shapes share a statement
+
+        PendingRow(RowKey key) {
+            this.key = key;
+        }
+
+        /**
+         * @return whether the change has been merged into an existing change of the same column
+         */
+        boolean merge(PendingValue change) {
+            PendingValue existing = values.get(change.columnName);
+            PendingValue merged = existing == null ? change : existing.mergeWith(change);
+            if (merged.isNoOp()) {
+                values.remove(change.columnName);
+            } else {
+                values.put(change.columnName, merged);
+            }
+            return existing != null;
+        }
+
+        boolean isEmpty() {
+            return values.isEmpty();
+        }
+
+        RowKey getKey() {
+            return key;
+        }
+
+        String toSql() {
+            return QueryTemplate.update(key.tableName, values.values(), key.identifiers).getSql();
+        }
+
+        Object[] getArguments() {
+            Object[] arguments = new Object[values.size() + key.identifiers.size()];
+            int i = 0;
+            for (PendingValue value : values.values()) {
+                arguments[i++] = value.value;
+            }
+            for (PendingValue identifier : key.identifiers) {
+                arguments[i++] = identifier.value;
+            }
+            return arguments;
+        }
+    }
+
+    /**
+     * Thrown if it is unknown whether a batch has been written, because committing or rolling back failed.
+     */
+    private static class UnknownOutcomeException extends Exception {
+        private UnknownOutcomeException(SQLException cause) {
+            super(cause);
+        }
+    }
+}
@@ -65,7 +65,8 @@ public @interface SqlValueCache { //TO\DO In case I ever open-source XYC, this p
      * This is kept here to erase the need for a second annotation (and checking for it!).
      * It helps doubling performance, ok?
      *
-     * @return Expected number type for the holder, if {@link ConcurrentSqlNumberHolder} and {@link Type#NUMBER_MODIFICATION}.
+     * @return Expected number type for the holder, if {@link ConcurrentSqlNumberHolder} and {@link Type#NUMBER_MODIFICATION}
+     * or {@link AdderSqlNumberHolder} and {@link Type#NUMBER_ADDER}.
      */
     Class<? extends Number> numberType() default Integer.class;
 
@@ -107,6 +108,25 @@ public @interface SqlValueCache { //TO\DO In case I ever open-source XYC, this p
                 return annotation -> (T) ConcurrentSqlNumberHolder.fromAnnotation(annotation);
             }
         },
+        /**
+         * Stores modification of a number like {@link #NUMBER_MODIFICATION}, but accumulates the modifier lock-free.
+         * Supports {@link Integer}, {@link Long} and {@link Double}.
+         *
+         * @see AdderSqlNumberHolder
+         */
+        NUMBER_ADDER {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected Class getExpectedClass() {
+                return AdderSqlNumberHolder.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <T extends SqlValueHolder<?>> AnnotationToHolderFactory<T> getFactory() {
+                return annotation -> (T) AdderSqlNumberHolder.fromAnnotation(annotation);
+            }
+        },
         /**
          * Is an unique identifier for a column.
          *
@@ -167,6 +187,25 @@ public @interface SqlValueCache { //TO\DO In case I ever open-source XYC, this p
 
         protected abstract <T extends SqlValueHolder<?>> Class<T> getExpectedClass();
 
+        /**
+         * @return the class fields annotated with this type must be assignable from
+         */
+        @Nonnull
+        public Class<?> getHolderClass() {
+            return getExpectedClass();
+        }
+
+        /**
+         * Creates a new holder of this type from given annotation, without touching any field.
+         *
+         * @param annotation the annotation providing information about what kind of holder to generate
+         * @return the created holder
+         */
+        @Nonnull
+        public SqlValueHolder<?> newHolder(@Nonnull SqlValueCache annotation) {
+            return this.<SqlValueHolder<?>>getFactory().fromAnnotation(annotation);
+        }
+
         protected abstract <T extends SqlValueHolder<?>> AnnotationToHolderFactory<T> getFactory();
 
         /**
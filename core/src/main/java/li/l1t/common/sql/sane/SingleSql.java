@@ -28,44 +28,215 @@ import com.google.common.base.Preconditions;
 import li.l1t.common.exception.DatabaseException;
 import li.l1t.common.sql.SqlConnectable;
 import li.l1t.common.sql.sane.connection.ConnectionManager;
+import li.l1t.common.sql.sane.connection.PooledConnectionManager;
 import li.l1t.common.sql.sane.connection.SimpleConnectionManager;
 import li.l1t.common.sql.sane.exception.SqlExecutionException;
 import li.l1t.common.sql.sane.exception.SqlStatementException;
+import li.l1t.common.sql.sane.resilience.ResilientConnectionManager;
+import li.l1t.common.sql.sane.resilience.RetryPolicy;
+import li.l1t.common.sql.sane.resilience.SqlStates;
 import li.l1t.common.sql.sane.result.QueryResult;
 import li.l1t.common.sql.sane.result.SimpleQueryResult;
 import li.l1t.common.sql.sane.result.SimpleUpdateResult;
 import li.l1t.common.sql.sane.result.UpdateResult;
 import li.l1t.common.sql.sane.scoped.JdbcScopedSession;
 import li.l1t.common.sql.sane.scoped.ScopedSessionManager;
+import li.l1t.common.sql.sane.scoped.SessionCloseListener;
 import li.l1t.common.sql.sane.statement.GeneratedKeysStatementProvider;
+import li.l1t.common.sql.sane.statement.PreparedStatementCache;
 import li.l1t.common.sql.sane.statement.SimpleStatementProvider;
+import li.l1t.common.sql.sane.statement.SqlTimeoutException;
+import li.l1t.common.sql.sane.statement.StatementBinder;
+import li.l1t.common.sql.sane.statement.StatementPipeline;
 import li.l1t.common.sql.sane.statement.StatementProvider;
+import li.l1t.common.sql.sane.statement.StatementWatchdog;
 import li.l1t.common.util.Closer;
 import org.jetbrains.annotations.NotNull;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.function.Supplier;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 /**
- * Implementation of a sane SQL accessor class that manages a single database connection.
+ * Implementation of a sane SQL accessor class that manages a single database connection. If
+ * constructed with a {@link li.l1t.common.sql.sane.connection.PooledConnectionManager}, each thread
+ * uses its own connection from the pool instead. The connection is returned to the pool as soon as
+ * the thread has no open result or scoped session left, so that more threads than the pool has
+ * connections can share it. Statements that rely on connection state left by previous statements
+ * must therefore run in a {@link #scoped() scoped session}.
+ * <p>Statements may be given a query timeout, either {@link #setDefaultTimeout(long, TimeUnit)
+ * for all statements} or {@link #withTimeout(long, TimeUnit) for some calls}. Statements that
+ * exceed their timeout, as well as statements executing on a thread that is interrupted, are
+ * cancelled and fail with a {@link SqlTimeoutException}, so that a single stuck query does not
+ * hold the connection indefinitely.</p>
  *
  * @author <a href="https://l1t.li/">Literallie</a>
  * @since 2016-10-09
  */
-public class SingleSql implements SaneSql {
+public class SingleSql implements SaneSql, TransactionAware {
+    /**
+     * The default maximum amount of idle prepared statements cached by an instance.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
     private final ConnectionManager connectionManager;
+    private final PreparedStatementCache statementCache;
     private final StatementProvider simpleStatementProvider;
     private final StatementProvider generatedKeysStatementProvider;
+    private final StatementProvider uncachedStatementProvider;
     private final ScopedSessionManager<JdbcScopedSession> scopedSessionManager;
+    private final StatementWatchdog watchdog;
+    private final LongAdder timeoutCount;
+    private final boolean view;
+    private volatile int timeoutSeconds;
+    private volatile boolean multiStatementPipelines;
 
     public SingleSql(SqlConnectable connectable) {
-        this.connectionManager = new SimpleConnectionManager(connectable);
-        this.simpleStatementProvider = new SimpleStatementProvider(connectionManager);
-        this.generatedKeysStatementProvider = new GeneratedKeysStatementProvider(connectionManager);
-        Supplier<JdbcScopedSession> scopedSessionProvider = () -> new JdbcScopedSession(connectionManager.getConnection());
-        this.scopedSessionManager = new ScopedSessionManager<>(scopedSessionProvider);
+        this(new SimpleConnectionManager(connectable));
+    }
+
+    /**
+     * Creates a new sane SQL accessor that obtains its connections from given connection manager.
+     * The manager is closed when this accessor is closed.
+     *
+     * @param connectionManager the connection manager to use
+     */
+    public SingleSql(ConnectionManager connectionManager) {
+        this(connectionManager, new PreparedStatementCache(DEFAULT_STATEMENT_CACHE_SIZE));
+    }
+
+    /**
+     * Creates a new sane SQL accessor that obtains its connections from given connection manager
+     * and reuses prepared statements through given cache. The manager is closed when this accessor
+     * is closed.
+     *
+     * @param connectionManager the connection manager to use
+     * @param statementCache    the cache to reuse prepared statements from
+     */
+    public SingleSql(ConnectionManager connectionManager, PreparedStatementCache statementCache) {
+        this.connectionManager = Preconditions.checkNotNull(connectionManager, "connectionManager");
+        this.statementCache = Preconditions.checkNotNull(statementCache, "statementCache");
+        this.simpleStatementProvider = new SimpleStatementProvider(connectionManager, statementCache);
+        this.generatedKeysStatementProvider = new GeneratedKeysStatementProvider(connectionManager, statementCache);
+        this.uncachedStatementProvider = new SimpleStatementProvider(connectionManager, statementCache, false);
+        this.scopedSessionManager = new ScopedSessionManager<>(this::createSession);
+        this.watchdog = new StatementWatchdog();
+        if (connectionManager instanceof PooledConnectionManager) {
+            ((PooledConnectionManager) connectionManager).addUsageProbe(this::isInUse);
+        }
+        if (connectionManager instanceof ResilientConnectionManager) {
+            ((ResilientConnectionManager) connectionManager).addUsageProbe(() -> watchdog.getRunningCount() > 0);
+        }
+        this.timeoutCount = new LongAdder();
+        this.view = false;
+    }
+
+    private SingleSql(SingleSql parent, int timeoutSeconds) {
+        this.connectionManager = parent.connectionManager;
+        this.statementCache = parent.statementCache;
+        this.simpleStatementProvider = parent.simpleStatementProvider;
+        this.generatedKeysStatementProvider = parent.generatedKeysStatementProvider;
+        this.uncachedStatementProvider = parent.uncachedStatementProvider;
+        this.scopedSessionManager = parent.scopedSessionManager;
+        this.watchdog = parent.watchdog;
+        this.timeoutCount = parent.timeoutCount;
+        this.view = true;
+        this.timeoutSeconds = timeoutSeconds;
+        this.multiStatementPipelines = parent.multiStatementPipelines;
+    }
+
+    private boolean isInUse(Connection connection) {
+        return statementCache.hasCheckedOut(connection) ||
+                scopedSessionManager.hasOpenSession(session -> session.connection() == connection);
+    }
+
+    private JdbcScopedSession createSession(SessionCloseListener closeListener) {
+        return new JdbcScopedSession(connectionManager.getConnection(), (session, forcedRollback) -> {
+            closeListener.sessionClosed(session, forcedRollback);
+            releaseConnectionIfUnused();
+        });
+    }
+
+    private void release(PreparedStatement statement) {
+        statementCache.checkIn(statement);
+        releaseConnectionIfUnused();
+    }
+
+    private void releaseConnectionIfUnused() {
+        if (connectionManager instanceof PooledConnectionManager) {
+            ((PooledConnectionManager) connectionManager).releaseCurrentConnectionIfUnused();
+        }
+    }
+
+    /**
+     * Sets the query timeout applied to all statements executed through this accessor. Since
+     * JDBC only supports timeouts in whole seconds, the timeout is rounded up to the next second.
+     *
+     * @param timeout the maximum time a single statement may take, or zero for no limit
+     * @param unit    the unit of the timeout
+     */
+    public void setDefaultTimeout(long timeout, TimeUnit unit) {
+        this.timeoutSeconds = toTimeoutSeconds(timeout, unit);
+    }
+
+    /**
+     * @return the query timeout applied to all statements executed through this accessor, in
+     * seconds, or zero if there is no limit
+     */
+    public int getDefaultTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    /**
+     * Creates a view of this accessor that applies a different query timeout to the statements
+     * executed through it. The view shares connections, statements, scoped sessions, and counters
+     * with this accessor. Closing the view has no effect.
+     *
+     * @param timeout the maximum time a single statement may take, or zero for no limit
+     * @param unit    the unit of the timeout
+     * @return the view
+     * @see #setDefaultTimeout(long, TimeUnit)
+     */
+    public SingleSql withTimeout(long timeout, TimeUnit unit) {
+        return new SingleSql(this, toTimeoutSeconds(timeout, unit));
+    }
+
+    private static int toTimeoutSeconds(long timeout, TimeUnit unit) {
+        Preconditions.checkArgument(timeout >= 0, "timeout must not be negative: %s", timeout);
+        long millis = Preconditions.checkNotNull(unit, "unit").toMillis(timeout);
+        return (int) Math.min(Integer.MAX_VALUE, TimeUnit.MILLISECONDS.toSeconds(millis + 999L));
+    }
+
+    private <T> T execute(PreparedStatement statement, StatementCall<T> call) throws SQLException {
+        if (Thread.currentThread().isInterrupted()) {
+            timeoutCount.increment();
+            throw new SqlTimeoutException(new SQLTimeoutException(
+                    "Not executing statement since the current thread has been interrupted", "57014"
+            ), true);
+        }
+        int timeout = timeoutSeconds;
+        if (timeout > 0) {
+            statement.setQueryTimeout(timeout);
+        }
+        StatementWatchdog.Execution execution = watchdog.begin(statement);
+        try {
+            return call.execute(statement);
+        } catch (SQLException e) {
+            if (execution.isCancelled() || SqlStates.isTimeout(e)) {
+                timeoutCount.increment();
+                throw new SqlTimeoutException(e, execution.isCancelled());
+            }
+            throw e;
+        } finally {
+            execution.close();
+        }
     }
 
     @Override
@@ -77,6 +248,37 @@ public class SingleSql implements SaneSql {
         }
     }
 
+    /**
+     * Executes a query whose rows are fetched from the server in chunks of given size as the result
+     * is read, instead of being read into memory when the query is executed. The fetch size is set
+     * before execution on a statement that is not cached, so that it does not carry over to other
+     * queries. Note that MySQL Connector/J only honours positive fetch sizes with {@code
+     * useCursorFetch=true}, and streams row by row for {@link Integer#MIN_VALUE}, which blocks the
+     * connection for all other statements until the result is closed.
+     *
+     * @param sqlQuery   the query to execute
+     * @param fetchSize  the amount of rows to fetch per round trip
+     * @param parameters the parameters to bind to the query
+     * @return the result of the query, which must be closed
+     * @throws DatabaseException if a database error occurs
+     */
+    public QueryResult streamingQuery(String sqlQuery, int fetchSize, Object... parameters) throws DatabaseException {
+        Preconditions.checkNotNull(sqlQuery, "sqlQuery");
+        Preconditions.checkNotNull(parameters, "parameters");
+        PreparedStatement statement = uncachedStatementProvider.create(sqlQuery, parameters);
+        try {
+            statement.setFetchSize(fetchSize);
+        } catch (SQLException e) {
+            release(statement);
+            throw new SqlExecutionException(e);
+        }
+        try {
+            return executeQuery(statement);
+        } catch (SQLException e) {
+            throw new SqlExecutionException(e);
+        }
+    }
+
     private PreparedStatement simpleStatement(String sqlQuery, Object[] params) {
         Preconditions.checkNotNull(sqlQuery, "sqlQuery");
         Preconditions.checkNotNull(params, "params");
@@ -84,19 +286,138 @@ public class SingleSql implements SaneSql {
     }
 
     private QueryResult executeQuery(PreparedStatement statement) throws SQLException {
-        ResultSet resultSet = statement.executeQuery();
-        return new SimpleQueryResult(statement, resultSet);
+        try {
+            ResultSet resultSet = execute(statement, PreparedStatement::executeQuery);
+            return new SimpleQueryResult(statement, resultSet, this::release);
+        } catch (SQLException | RuntimeException e) {
+            release(statement);
+            throw e;
+        }
     }
 
     @Override
     public int updateRaw(String sqlQuery, Object... parameters) throws DatabaseException {
-        try (PreparedStatement statement = simpleStatement(sqlQuery, parameters)) {
-            return statement.executeUpdate();
+        PreparedStatement statement = simpleStatement(sqlQuery, parameters);
+        try {
+            return execute(statement, PreparedStatement::executeUpdate);
+        } catch (SQLException e) {
+            throw new SqlExecutionException(e);
+        } finally {
+            release(statement);
+        }
+    }
+
+    /**
+     * Executes an update once for each item of given iterable, sending the updates to the database
+     * in batches of given size. Items are consumed lazily, so that only a single chunk is held by
+     * the driver at a time. All chunks are executed in a single transaction. If the current thread
+     * already has a scoped transaction open, the batch joins it and leaves committing to its owner.
+     * Otherwise, the transaction is committed after the last chunk and rolled back if any chunk
+     * fails.
+     *
+     * @param sqlQuery  the update to execute for each item
+     * @param items     the items to bind to the update
+     * @param binder    the binder setting the update's parameters from an item
+     * @param chunkSize the maximum amount of updates sent to the database in a single batch
+     * @param <T>       the type of items
+     * @return the amount of rows affected by each chunk, in order, or {@link
+     * Statement#SUCCESS_NO_INFO} for chunks where the driver did not report a count
+     * @throws DatabaseException if a database error occurs
+     */
+    public <T> int[] updateBatch(String sqlQuery, Iterable<? extends T> items,
+                                 StatementBinder<? super T> binder, int chunkSize) throws DatabaseException {
+        Preconditions.checkNotNull(items, "items");
+        Preconditions.checkNotNull(binder, "binder");
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize must be positive: %s", chunkSize);
+        JdbcScopedSession session = scoped();
+        boolean joinsTransaction = session.hasTransaction();
+        session.tx();
+        try {
+            int[] chunkCounts = executeBatchInChunks(simpleStatement(sqlQuery, new Object[0]), items.iterator(), binder, chunkSize);
+            session.commitIfLast();
+            session.close();
+            return chunkCounts;
+        } catch (RuntimeException e) {
+            if (joinsTransaction) {
+                session.close();
+            } else {
+                session.rollbackAndClose();
+            }
+            throw e;
+        }
+    }
+
+    private <T> int[] executeBatchInChunks(PreparedStatement statement, Iterator<? extends T> items,
+                                           StatementBinder<? super T> binder, int chunkSize) {
+        try {
+            IntStream.Builder chunkCounts = IntStream.builder();
+            while (items.hasNext()) {
+                for (int i = 0; i < chunkSize && items.hasNext(); i++) {
+                    binder.bind(statement, items.next());
+                    statement.addBatch();
+                }
+                chunkCounts.add(sumOfUpdateCounts(execute(statement, PreparedStatement::executeBatch)));
+            }
+            return chunkCounts.build().toArray();
         } catch (SQLException e) {
             throw new SqlExecutionException(e);
+        } finally {
+            clearBatchQuietly(statement);
+            release(statement);
+        }
+    }
+
+    private int sumOfUpdateCounts(int[] updateCounts) {
+        int sum = 0;
+        for (int updateCount : updateCounts) {
+            if (updateCount < 0) {
+                return Statement.SUCCESS_NO_INFO;
+            }
+            sum += updateCount;
+        }
+        return sum;
+    }
+
+    private void clearBatchQuietly(PreparedStatement statement) {
+        try {
+            statement.clearBatch();
+        } catch (SQLException ignored) {
+            //statement is discarded by the cache if it is broken
         }
     }
 
+    /**
+     * Creates a pipeline that sends the statements queued to it to the database together. Unless
+     * {@link #setMultiStatementPipelines(boolean) multi-statement pipelines} are enabled, this only
+     * saves round trips for consecutive updates with the same SQL. Statements are executed on the
+     * connection of the current thread, with the timeouts of this accessor.
+     *
+     * @return a new empty pipeline
+     * @see #setMultiStatementPipelines(boolean)
+     */
+    public StatementPipeline pipeline() {
+        return new StatementPipeline(new PipelineRunner(), multiStatementPipelines);
+    }
+
+    /**
+     * Sets whether {@link #pipeline() pipelines} join their statements into a single request.
+     * This must only be enabled if the driver accepts multiple statements per request, which
+     * requires {@code allowMultiQueries=true} for MySQL. Otherwise, pipelines only batch
+     * consecutive updates with the same SQL. Views created afterwards inherit this setting.
+     *
+     * @param multiStatementPipelines whether to join pipelined statements into a single request
+     */
+    public void setMultiStatementPipelines(boolean multiStatementPipelines) {
+        this.multiStatementPipelines = multiStatementPipelines;
+    }
+
+    /**
+     * @return whether {@link #pipeline() pipelines} join their statements into a single request
+     */
+    public boolean isMultiStatementPipelines() {
+        return multiStatementPipelines;
+    }
+
     @Override
     public UpdateResult update(String sqlQuery, Object... parameters) throws DatabaseException {
         try {
@@ -108,9 +429,14 @@ public class SingleSql implements SaneSql {
 
     @NotNull
     private UpdateResult executeUpdate(PreparedStatement statement) throws SQLException {
-        int affectedRowCount = statement.executeUpdate();
-        ResultSet generatedKeys = statement.getGeneratedKeys();
-        return new SimpleUpdateResult(statement, generatedKeys, affectedRowCount);
+        try {
+            int affectedRowCount = execute(statement, PreparedStatement::executeUpdate);
+            ResultSet generatedKeys = statement.getGeneratedKeys();
+            return new SimpleUpdateResult(statement, generatedKeys, affectedRowCount, this::release);
+        } catch (SQLException | RuntimeException e) {
+            release(statement);
+            throw e;
+        }
     }
 
     private PreparedStatement genKeysStatement(String sqlQuery, Object[] params) {
@@ -124,8 +450,94 @@ public class SingleSql implements SaneSql {
         return scopedSessionManager.scoped();
     }
 
+    @Override
+    public boolean isInTransaction() {
+        return scopedSessionManager.isInTransaction();
+    }
+
+    /**
+     * Runs given body in a transaction and commits it, re-running it in a new transaction if it
+     * fails with a retryable error, such as a deadlock.
+     *
+     * @param body   the body to run, given the session it runs in
+     * @param policy the policy deciding whether and when failed attempts are retried
+     * @param <T>    the type of value computed by the body
+     * @return the value returned by the last attempt of the body
+     * @see ScopedSessionManager#retryingTx(Function, RetryPolicy)
+     */
+    public <T> T retryingTx(Function<? super JdbcScopedSession, ? extends T> body, RetryPolicy policy) {
+        return scopedSessionManager.retryingTx(body, policy);
+    }
+
+    /**
+     * @return the manager of this accessor's scoped sessions, for example to inspect its counters
+     */
+    public ScopedSessionManager<JdbcScopedSession> getScopedSessionManager() {
+        return scopedSessionManager;
+    }
+
+    /**
+     * @return the cache prepared statements are reused from, for example to inspect its hit and
+     * miss counters
+     */
+    public PreparedStatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * @return the watchdog tracking the statements currently executing, for example to cancel the
+     * statement of a specific thread
+     */
+    public StatementWatchdog getWatchdog() {
+        return watchdog;
+    }
+
+    /**
+     * @return the amount of statements that timed out or were cancelled since creation of this
+     * accessor, including those executed through {@link #withTimeout(long, TimeUnit) views}
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    /**
+     * Closes this accessor along with its connections and cached statements. Does nothing if
+     * this is a {@link #withTimeout(long, TimeUnit) view} of another accessor.
+     */
     @Override
     public void close() throws Exception {
+        if (view) {
+            return;
+        }
+        watchdog.close();
+        statementCache.clear();
         Closer.close(connectionManager);
     }
+
+    private class PipelineRunner implements StatementPipeline.Runner {
+        @Override
+        public PreparedStatement prepare(String sql, Object[] parameters) {
+            return simpleStatement(sql, parameters);
+        }
+
+        @Override
+        public PreparedStatement prepareUncached(String sql, Object[] parameters) {
+            return uncachedStatementProvider.create(sql, parameters);
+        }
+
+        @Override
+        public <T> T execute(PreparedStatement statement, StatementPipeline.Call<T> call) throws SQLException {
+            return SingleSql.this.execute(statement, call::execute);
+        }
+
+        @Override
+        public void release(PreparedStatement statement) {
+            SingleSql.this.release(statement);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementCall<T> {
+        T execute(PreparedStatement statement) throws SQLException;
+    }
 }
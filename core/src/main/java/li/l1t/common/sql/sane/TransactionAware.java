@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane;
+
+/**
+ * Implemented by sane SQL implementations that can tell whether the current thread has a
+ * transaction open, so that decorators can avoid behaviour that is unsafe inside transactions, such
+ * as routing reads elsewhere or retrying single statements.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public interface TransactionAware {
+    /**
+     * Checks whether the current thread has a transaction open, without starting a session if there
+     * is none.
+     *
+     * @return whether the current thread is in a transaction
+     */
+    boolean isInTransaction();
+
+    /**
+     * Checks whether given sane SQL instance might have a transaction open for the current thread.
+     * Decorators use this to implement {@link #isInTransaction()}, assuming a transaction if the
+     * decorated instance cannot tell, which is the safe choice for all current uses.
+     *
+     * @param sql the instance to check
+     * @return whether given instance has a transaction open for the current thread, or true if it
+     * does not implement this interface
+     */
+    static boolean mayBeInTransaction(Object sql) {
+        return !(sql instanceof TransactionAware) || ((TransactionAware) sql).isInTransaction();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.async;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.AbstractSqlConnected;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.sanebox.SqlSanebox;
+import li.l1t.common.sql.sane.scoped.ScopedSession;
+import li.l1t.common.sql.sane.util.JdbcEntityCreator;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Executes statements on a {@link SaneSql} instance asynchronously on a dedicated {@link
+ * BoundedSqlExecutor}, returning futures that complete with the result or with the exception that
+ * occurred. Query results are mapped to entities on the worker thread, so result sets never leave
+ * it.
+ * <p>Cancelling a returned future while its statement is executing interrupts the worker thread.
+ * If the sane SQL instance is a {@link li.l1t.common.sql.sane.SingleSql}, this cancels the
+ * statement, freeing the connection for the next task.</p>
+ * <p>Note that dependent actions attached to the returned futures without an explicit executor
+ * run on the worker thread as well.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class AsyncSaneSql extends AbstractSqlConnected implements AutoCloseable {
+    private final BoundedSqlExecutor executor;
+
+    /**
+     * @param saneSql  the sane SQL instance to execute statements on
+     * @param executor the executor to execute statements on
+     */
+    public AsyncSaneSql(SaneSql saneSql, BoundedSqlExecutor executor) {
+        super(saneSql);
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+    }
+
+    /**
+     * Creates a new async facade with its own bounded executor.
+     *
+     * @param saneSql       the sane SQL instance to execute statements on
+     * @param workerCount   the amount of worker threads, should not exceed the amount of
+     *                      connections available to the sane SQL instance
+     * @param queueCapacity the maximum amount of statements waiting for a worker
+     */
+    public AsyncSaneSql(SaneSql saneSql, int workerCount, int queueCapacity) {
+        this(saneSql, new BoundedSqlExecutor("xyc-sql-async", workerCount, queueCapacity));
+    }
+
+    /**
+     * Executes a query asynchronously and maps all rows of the result to entities on the worker
+     * thread.
+     *
+     * @param sqlQuery   the query to execute
+     * @param mapper     the creator mapping the current row to an entity
+     * @param parameters the parameters of the query
+     * @param <T>        the type of entity to map rows to
+     * @return a future completed with the entities in row order
+     */
+    public <T> CompletableFuture<List<T>> queryAsync(String sqlQuery, JdbcEntityCreator<? extends T> mapper,
+                                                     Object... parameters) {
+        Preconditions.checkNotNull(sqlQuery, "sqlQuery");
+        Preconditions.checkNotNull(mapper, "mapper");
+        Preconditions.checkNotNull(parameters, "parameters");
+        return executor.submit(() -> {
+            try (QueryResult result = sql().query(sqlQuery, parameters)) {
+                return SqlSanebox.run(() -> collectAll(result, mapper));
+            }
+        });
+    }
+
+    private <T> List<T> collectAll(QueryResult result, JdbcEntityCreator<? extends T> mapper) throws SQLException {
+        ImmutableList.Builder<T> entities = ImmutableList.builder();
+        while (result.rs().next()) {
+            entities.add(mapper.createFromCurrentRow(result.rs()));
+        }
+        return entities.build();
+    }
+
+    /**
+     * Executes an update asynchronously.
+     *
+     * @param sqlQuery   the update to execute
+     * @param parameters the parameters of the update
+     * @return a future completed with the amount of affected rows
+     * @see SaneSql#updateRaw(String, Object...)
+     */
+    public CompletableFuture<Integer> updateAsync(String sqlQuery, Object... parameters) {
+        Preconditions.checkNotNull(sqlQuery, "sqlQuery");
+        Preconditions.checkNotNull(parameters, "parameters");
+        return executor.submit(() -> sql().updateRaw(sqlQuery, parameters));
+    }
+
+    /**
+     * Runs given body asynchronously in a transaction on the worker thread. The transaction is
+     * committed if the body returns normally and rolled back if it throws an exception, in which
+     * case the future completes exceptionally. The body must not hand out any results it obtained
+     * from the database.
+     *
+     * @param body the code to run in the transaction, given the sane SQL instance to use
+     * @param <R>  the type of value computed by the body
+     * @return a future completed with the value returned by the body
+     */
+    public <R> CompletableFuture<R> inTransactionAsync(Function<? super SaneSql, ? extends R> body) {
+        Preconditions.checkNotNull(body, "body");
+        return executor.submit(() -> runInTransaction(body));
+    }
+
+    private <R> R runInTransaction(Function<? super SaneSql, ? extends R> body) throws DatabaseException {
+        ScopedSession<?> session = sql().scoped().tx();
+        try {
+            R result = body.apply(sql());
+            session.commitIfLast();
+            session.close();
+            return result;
+        } catch (RuntimeException e) {
+            rollbackQuietly(session, e);
+            throw e;
+        }
+    }
+
+    private void rollbackQuietly(ScopedSession<?> session, RuntimeException cause) {
+        try {
+            if (session.hasTransaction()) {
+                session.rollbackAndClose();
+            } else {
+                session.close();
+            }
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * @return the executor statements are executed on
+     */
+    public BoundedSqlExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Stops accepting new statements, letting queued statements complete in the background. This
+     * does not close the underlying sane SQL instance.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.async;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import li.l1t.common.sql.sane.metrics.LatencyHistogram;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * An executor for database work with a fixed amount of worker threads and a bounded task queue.
+ * Once the queue is full, further tasks are rejected instead of piling up, so that a stalled
+ * database cannot cause unbounded memory growth. Rejected tasks surface as a {@link
+ * RejectedExecutionException}, either thrown by {@link #execute(Runnable)} or as exceptional
+ * completion of the future returned by {@link #submit(Supplier)}.
+ * <p>Worker threads are created by a custom thread factory if one is given. On Java 21 and later,
+ * a virtual thread factory may be passed to run database work on virtual threads, with the worker
+ * count still bounding the amount of concurrent statements.</p>
+ * <p>The time tasks spend waiting in the queue and the time from submission to completion are
+ * recorded in histograms, so that a stalling database shows up before the queue fills up.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class BoundedSqlExecutor implements Executor, AutoCloseable {
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram taskLatency = new LatencyHistogram();
+
+    /**
+     * Creates a new bounded executor with daemon platform worker threads.
+     *
+     * @param name          the name of the executor, used for naming worker threads
+     * @param workerCount   the amount of worker threads
+     * @param queueCapacity the maximum amount of tasks waiting for a worker
+     */
+    public BoundedSqlExecutor(String name, int workerCount, int queueCapacity) {
+        this(workerCount, queueCapacity, new ThreadFactoryBuilder()
+                .setNameFormat(Preconditions.checkNotNull(name, "name") + "-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Creates a new bounded executor.
+     *
+     * @param workerCount   the amount of worker threads
+     * @param queueCapacity the maximum amount of tasks waiting for a worker
+     * @param threadFactory the factory creating worker threads
+     */
+    public BoundedSqlExecutor(int workerCount, int queueCapacity, ThreadFactory threadFactory) {
+        Preconditions.checkArgument(workerCount > 0, "workerCount must be positive: %s", workerCount);
+        Preconditions.checkArgument(queueCapacity > 0, "queueCapacity must be positive: %s", queueCapacity);
+        Preconditions.checkNotNull(threadFactory, "threadFactory");
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(
+                workerCount, workerCount, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, this::reject
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    private void reject(Runnable task, ThreadPoolExecutor executor) {
+        rejectedCount.increment();
+        throw new RejectedExecutionException(executor.isShutdown() ?
+                "SQL executor has been shut down" :
+                "SQL executor queue is full (" + queueCapacity + " tasks waiting)");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws RejectedExecutionException if the queue is full or this executor has been shut down
+     */
+    @Override
+    public void execute(Runnable task) throws RejectedExecutionException {
+        Preconditions.checkNotNull(task, "task");
+        executor.execute(new TimedTask(task, System.nanoTime()));
+    }
+
+    /**
+     * Submits a task computing a value to this executor. If the task is rejected, the returned
+     * future is completed exceptionally with a {@link RejectedExecutionException} instead of
+     * throwing. Cancelling the returned future interrupts the worker thread if the task is
+     * already running, which causes statements executed by {@link li.l1t.common.sql.sane.SingleSql}
+     * to be cancelled.
+     *
+     * @param task the task to execute
+     * @param <T>  the type of value computed by the task
+     * @return a future completed with the value computed by the task, or with the exception thrown
+     * by it
+     */
+    public <T> CompletableFuture<T> submit(Supplier<? extends T> task) {
+        Preconditions.checkNotNull(task, "task");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        InterruptibleTask<T> interruptibleTask = new InterruptibleTask<>(future, task);
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                interruptibleTask.interruptIfRunning();
+            }
+        });
+        try {
+            execute(interruptibleTask);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @return the amount of tasks currently waiting for a worker
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the maximum amount of tasks that may wait for a worker
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return the approximate amount of workers currently executing a task
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the amount of tasks rejected since creation of this executor
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return the histogram of the time tasks spent waiting for a worker, in nanoseconds
+     */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * @return the histogram of the time from submission to completion of tasks, including the
+     * time spent in the queue, in nanoseconds
+     */
+    public LatencyHistogram getTaskLatency() {
+        return taskLatency;
+    }
+
+    /**
+     * Stops accepting new tasks and waits for queued and running tasks to complete, up to given
+     * timeout.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return whether all tasks completed before the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Stops accepting new tasks, letting queued and running tasks complete in the background.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private class TimedTask implements Runnable {
+        private final Runnable task;
+        private final long submittedNanos;
+
+        TimedTask(Runnable task, long submittedNanos) {
+            this.task = task;
+            this.submittedNanos = submittedNanos;
+        }
+
+        @Override
+        public void run() {
+            queueWait.record(System.nanoTime() - submittedNanos);
+            try {
+                task.run();
+            } finally {
+                taskLatency.record(System.nanoTime() - submittedNanos);
+            }
+        }
+    }
+
+    private static class InterruptibleTask<T> implements Runnable {
+        private final CompletableFuture<T> future;
+        private final Supplier<? extends T> task;
+        private Thread runner; //guarded by this
+
+        InterruptibleTask(CompletableFuture<T> future, Supplier<? extends T> task) {
+            this.future = future;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return; //cancelled while queued
+            }
+            setRunner(Thread.currentThread());
+            try {
+                if (!future.isDone()) { //cancelled before the runner was known
+                    future.complete(task.get());
+                }
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                setRunner(null);
+                Thread.interrupted(); //do not leak an interrupt caused by cancellation to the next task
+            }
+        }
+
+        private synchronized void setRunner(Thread runner) {
+            this.runner = runner;
+        }
+
+        synchronized void interruptIfRunning() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.async;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.exception.InternalException;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.SingleSql;
+import li.l1t.common.sql.sane.sanebox.SaneboxCallable;
+import li.l1t.common.sql.sane.sanebox.SqlSanebox;
+import li.l1t.common.sql.sane.scoped.JdbcScopedSession;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Opt-in group commit for small transactions. Units of work submitted from different callers
+ * within a short window are run one after another on a single committer thread, in a single
+ * transaction on one connection, and committed together. This trades a little latency for a
+ * single commit round trip, and a single log flush on the database side, per group instead of
+ * per transaction.
+ * <p>Every unit runs after its own savepoint. If a unit throws, only its changes are rolled back
+ * to that savepoint and only its future fails. Futures of successful units complete once the
+ * whole group is committed. If the commit itself fails, all units of the group fail.</p>
+ * <p>Units run on the committer thread with its scoped session open, so scoped sessions they open
+ * on the same {@link SingleSql} join the group transaction. Units must not commit or roll back
+ * that session themselves. Throwing an exception is how a unit rolls back its changes. Units must
+ * also not hand out any results they obtained from the database.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class GroupCommitter implements AutoCloseable {
+    public static final long DEFAULT_CLOSE_TIMEOUT_MILLIS = 10_000L;
+    private static final long IDLE_POLL_MILLIS = 100L;
+    private static final Logger LOGGER = Logger.getLogger(GroupCommitter.class.getName());
+    private final SingleSql sql;
+    private final long windowNanos;
+    private final int maxGroupSize;
+    private final BlockingQueue<PendingUnit<?>> queue;
+    private final Thread committerThread;
+    private final LongAdder committedGroupCount = new LongAdder();
+    private final LongAdder committedUnitCount = new LongAdder();
+    private final LongAdder rolledBackUnitCount = new LongAdder();
+    private final LongAdder failedGroupCount = new LongAdder();
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new group committer and starts its committer thread.
+     *
+     * @param sql           the sane SQL instance to run units on
+     * @param window        how long to wait for further units after the first unit of a group
+     * @param unit          the unit of the window
+     * @param maxGroupSize  the maximum amount of units committed together
+     * @param queueCapacity the maximum amount of units waiting for the committer thread
+     */
+    public GroupCommitter(SingleSql sql, long window, TimeUnit unit, int maxGroupSize, int queueCapacity) {
+        this.sql = Preconditions.checkNotNull(sql, "sql");
+        Preconditions.checkArgument(window >= 0, "window must not be negative: %s", window);
+        Preconditions.checkArgument(maxGroupSize > 0, "maxGroupSize must be positive: %s", maxGroupSize);
+        this.windowNanos = unit.toNanos(window);
+        this.maxGroupSize = maxGroupSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.committerThread = new ThreadFactoryBuilder()
+                .setNameFormat("xyc-sql-group-commit-%d")
+                .setDaemon(true)
+                .build()
+                .newThread(this::runCommitLoop);
+        this.committerThread.start();
+    }
+
+    /**
+     * Submits a unit of work to be committed with the next group.
+     *
+     * @param body the unit of work, given the sane SQL instance to use
+     * @param <R>  the type of value computed by the body
+     * @return a future completed with the value returned by the body once its group has been
+     * committed, or exceptionally if the body throws, the group fails to commit, or the queue is
+     * full or closed
+     */
+    public <R> CompletableFuture<R> submit(Function<? super SaneSql, ? extends R> body) {
+        Preconditions.checkNotNull(body, "body");
+        PendingUnit<R> pending = new PendingUnit<>(body);
+        if (closed) {
+            pending.future.completeExceptionally(new RejectedExecutionException("group committer closed"));
+        } else if (!queue.offer(pending)) {
+            pending.future.completeExceptionally(new RejectedExecutionException(
+                    "group commit queue full (" + queue.size() + " units waiting)"
+            ));
+        }
+        return pending.future;
+    }
+
+    /**
+     * Submits a unit of work and waits for its group to be committed. Exceptions thrown by the
+     * body are rethrown as-is. If called from a unit that is already running on the committer
+     * thread, the body runs immediately as part of the current unit.
+     *
+     * @param body the unit of work, given the sane SQL instance to use
+     * @param <R>  the type of value computed by the body
+     * @return the value returned by the body
+     * @throws DatabaseException if the group could not be committed
+     */
+    public <R> R execute(Function<? super SaneSql, ? extends R> body) throws DatabaseException {
+        if (Thread.currentThread() == committerThread) {
+            return body.apply(sql);
+        }
+        try {
+            return submit(body).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalException("Interrupted while waiting for group commit", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new InternalException(cause);
+        }
+    }
+
+    private void runCommitLoop() {
+        while (!closed || !queue.isEmpty()) {
+            try {
+                List<PendingUnit<?>> group = collectGroup();
+                if (!group.isEmpty()) {
+                    commitGroup(group);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        List<PendingUnit<?>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        failAll(remaining, new RejectedExecutionException("group committer closed"));
+    }
+
+    private List<PendingUnit<?>> collectGroup() throws InterruptedException {
+        List<PendingUnit<?>> group = new ArrayList<>();
+        PendingUnit<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return group;
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (group.size() < maxGroupSize) {
+            long remainingNanos = deadline - System.nanoTime();
+            PendingUnit<?> next = remainingNanos <= 0 ? queue.poll() : queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+        return group;
+    }
+
+    private void commitGroup(List<PendingUnit<?>> group) {
+        JdbcScopedSession session;
+        try {
+            session = sql.scoped().tx();
+        } catch (RuntimeException e) {
+            failGroup(group, e);
+            return;
+        }
+        List<PendingUnit<?>> applied = new ArrayList<>(group.size());
+        try {
+            Connection connection = session.connection();
+            for (PendingUnit<?> unit : group) {
+                Savepoint savepoint = SqlSanebox.run((SaneboxCallable<Savepoint>) connection::setSavepoint);
+                try {
+                    unit.apply(sql);
+                    applied.add(unit);
+                } catch (RuntimeException e) {
+                    checkGroupTransactionIntact(session);
+                    SqlSanebox.run(() -> connection.rollback(savepoint));
+                    rolledBackUnitCount.increment();
+                    unit.future.completeExceptionally(e);
+                }
+                checkGroupTransactionIntact(session);
+            }
+            session.commit();
+            session.close();
+        } catch (RuntimeException | Error e) {
+            rollbackQuietly(session, e);
+            failGroup(group, e);
+            return;
+        }
+        committedGroupCount.increment();
+        committedUnitCount.add(applied.size());
+        applied.forEach(PendingUnit::complete);
+    }
+
+    private void checkGroupTransactionIntact(JdbcScopedSession session) {
+        if (!session.hasTransaction() || !session.acceptsFurtherReferences()) {
+            throw new InternalException("A unit ended the group commit transaction");
+        }
+    }
+
+    private void rollbackQuietly(JdbcScopedSession session, Throwable cause) {
+        try {
+            if (session.hasTransaction()) {
+                session.rollbackAndClose();
+            } else if (session.acceptsFurtherReferences()) {
+                session.close();
+            }
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void failGroup(List<PendingUnit<?>> group, Throwable cause) {
+        failedGroupCount.increment();
+        LOGGER.log(Level.WARNING, "Group commit of " + group.size() + " units failed", cause);
+        failAll(group, cause);
+    }
+
+    private void failAll(List<PendingUnit<?>> units, Throwable cause) {
+        for (PendingUnit<?> unit : units) {
+            unit.future.completeExceptionally(cause); //no-op for units that already failed individually
+        }
+    }
+
+    /**
+     * Stops accepting new units and waits for queued units to be committed.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return whether all queued units have been processed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+        closed = true;
+        committerThread.join(unit.toMillis(timeout));
+        return !committerThread.isAlive();
+    }
+
+    /**
+     * Drains this committer with a timeout of {@link #DEFAULT_CLOSE_TIMEOUT_MILLIS}.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!drain(DEFAULT_CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warning("Group committer did not finish within timeout, " + queue.size() + " units left");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the sane SQL instance units are run on
+     */
+    public SingleSql getSql() {
+        return sql;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getCommittedGroupCount() {
+        return committedGroupCount.sum();
+    }
+
+    /**
+     * @return the amount of units that have been committed successfully
+     */
+    public long getCommittedUnitCount() {
+        return committedUnitCount.sum();
+    }
+
+    /**
+     * @return the amount of units that threw and were rolled back to their savepoint
+     */
+    public long getRolledBackUnitCount() {
+        return rolledBackUnitCount.sum();
+    }
+
+    /**
+     * @return the amount of groups that could not be committed as a whole
+     */
+    public long getFailedGroupCount() {
+        return failedGroupCount.sum();
+    }
+
+    /**
+     * @return the average amount of units per committed group, or zero if nothing has been
+     * committed yet
+     */
+    public double getAverageGroupSize() {
+        long groups = committedGroupCount.sum();
+        return groups == 0 ? 0D : (double) committedUnitCount.sum() / groups;
+    }
+
+    private static class PendingUnit<R> {
+        private final Function<? super SaneSql, ? extends R> body;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private R result;
+
+        PendingUnit(Function<? super SaneSql, ? extends R> body) {
+            this.body = body;
+        }
+
+        void apply(SaneSql sql) {
+            result = body.apply(sql);
+        }
+
+        void complete() {
+            future.complete(result);
+        }
+    }
+}
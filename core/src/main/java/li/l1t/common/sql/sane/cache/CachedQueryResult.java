@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.cache;
+
+import li.l1t.common.sql.sane.result.QueryResult;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * A query result served from memory by a {@link CachingSaneSql}. It is not backed by a statement
+ * and shares its rows with the cache entry, so closing it does nothing.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+class CachedQueryResult implements QueryResult {
+    private final ResultSet resultSet;
+
+    CachedQueryResult(ResultSet resultSet) {
+        this.resultSet = resultSet;
+    }
+
+    @Override
+    public ResultSet rs() {
+        return resultSet;
+    }
+
+    /**
+     * @return null, since cached results are not backed by a statement
+     */
+    @Override
+    public PreparedStatement getStatement() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        //closing a shared row set would clear the rows of the cache entry as well
+    }
+}
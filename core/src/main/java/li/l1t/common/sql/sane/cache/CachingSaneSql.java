@@ -0,0 +1,459 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.TransactionAware;
+import li.l1t.common.sql.sane.exception.SqlExecutionException;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.result.UpdateResult;
+import li.l1t.common.sql.sane.scoped.ScopedSession;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Decorates a sane SQL instance to cache the results of queries in memory, keyed by their SQL and
+ * parameters. Each entry is tagged with the tables its query reads, and any update executed
+ * through this decorator that writes one of these tables invalidates the entry. Updates whose
+ * tables cannot be determined invalidate all entries. Entries are further bounded in amount and
+ * expire after a fixed time, which also bounds staleness caused by writes that bypass this
+ * decorator.
+ * <p>Results are read completely into memory before they are returned, so only queries with
+ * small results should be executed through this decorator. Queries are not cached while the
+ * current thread is in a transaction, which requires the decorated instance to implement {@link
+ * TransactionAware}, or if their tables or parameters cannot be used as a key.</p>
+ * <p>Tables written in a transaction are marked as pending until the transaction has ended, and
+ * queries reading pending tables bypass the cache, so that no thread caches rows that are about to
+ * change with a commit. Once the transaction has ended, these tables are invalidated once more.
+ * The end of a transaction is noticed when a scoped session obtained from this decorator is
+ * committed, rolled back or closed, or otherwise with the next statement the writing thread
+ * executes through this decorator.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class CachingSaneSql implements SaneSql, TransactionAware {
+    private static final String ALL_TABLES = "*";
+    private final SaneSql delegate;
+    private final int maxRowsPerEntry;
+    private final Set<String> cacheableTables;
+    private final Cache<CacheKey, CacheEntry> entries;
+    private final RowSetFactory rowSetFactory;
+    private final ConcurrentMap<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final ConcurrentMap<String, Integer> pendingTables = new ConcurrentHashMap<>();
+    private final ThreadLocal<Set<String>> transactionWrites = new ThreadLocal<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder bypassCount = new LongAdder();
+    private final LongAdder staleCount = new LongAdder();
+
+    private CachingSaneSql(Builder builder) {
+        this.delegate = builder.delegate;
+        this.maxRowsPerEntry = builder.maxRowsPerEntry;
+        this.cacheableTables = builder.cacheableTables;
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(builder.maximumSize)
+                .expireAfterWrite(builder.ttlNanos, TimeUnit.NANOSECONDS)
+                .build();
+        try {
+            this.rowSetFactory = RowSetProvider.newFactory();
+        } catch (SQLException e) {
+            throw new SqlExecutionException(e);
+        }
+    }
+
+    /**
+     * Creates a builder for a caching decorator.
+     *
+     * @param delegate the sane SQL instance to execute statements on
+     * @return a new builder
+     */
+    public static Builder builder(SaneSql delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public QueryResult query(String sqlQuery, Object... parameters) throws DatabaseException {
+        Preconditions.checkNotNull(sqlQuery, "sqlQuery");
+        Preconditions.checkNotNull(parameters, "parameters");
+        invalidateIfTransactionEnded();
+        Set<String> tables = TableTags.readBy(sqlQuery);
+        if (!isCacheable(tables, parameters)) {
+            bypassCount.increment();
+            return delegate.query(sqlQuery, parameters);
+        }
+        CacheKey key = new CacheKey(sqlQuery, parameters);
+        CacheEntry entry = entries.getIfPresent(key);
+        if (entry != null && entry.isCurrent()) {
+            hitCount.increment();
+            return entry.newResult();
+        } else if (entry != null) {
+            staleCount.increment();
+            entries.asMap().remove(key, entry);
+        }
+        missCount.increment();
+        return load(key, tables, () -> delegate.query(sqlQuery, parameters));
+    }
+
+    private boolean isCacheable(Set<String> tables, Object[] parameters) {
+        if (tables.isEmpty() || (!cacheableTables.isEmpty() && !cacheableTables.containsAll(tables))) {
+            return false;
+        } else if (hasPendingWrites(tables)) {
+            return false;
+        } else if (isInTransaction()) {
+            return false;
+        }
+        return Arrays.stream(parameters).allMatch(CachingSaneSql::isKeyable);
+    }
+
+    private static boolean isKeyable(Object parameter) {
+        return parameter == null || parameter instanceof Number || parameter instanceof CharSequence ||
+                parameter instanceof Boolean || parameter instanceof UUID || parameter instanceof Enum ||
+                parameter instanceof Date || parameter instanceof Temporal;
+    }
+
+    private QueryResult load(CacheKey key, Set<String> tables, Supplier<QueryResult> query) {
+        List<String> tableList = ImmutableList.copyOf(tables);
+        long[] versions = currentVersions(tableList);
+        long global = globalVersion.get();
+        try (QueryResult result = query.get()) {
+            CachedRowSet rows = rowSetFactory.createCachedRowSet();
+            rows.populate(result.rs());
+            CacheEntry entry = new CacheEntry(rows, tableList, versions, global);
+            if (rows.size() <= maxRowsPerEntry) {
+                entries.put(key, entry);
+            }
+            return entry.newResult();
+        } catch (SQLException e) {
+            throw new SqlExecutionException(e);
+        }
+    }
+
+    private long[] currentVersions(List<String> tables) {
+        long[] versions = new long[tables.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = versionOf(tables.get(i)).get();
+        }
+        return versions;
+    }
+
+    private AtomicLong versionOf(String table) {
+        return tableVersions.computeIfAbsent(table, key -> new AtomicLong());
+    }
+
+    @Override
+    public int updateRaw(String sqlQuery, Object... parameters) throws DatabaseException {
+        return invalidatingAfter(sqlQuery, () -> delegate.updateRaw(sqlQuery, parameters));
+    }
+
+    @Override
+    public UpdateResult update(String sqlQuery, Object... parameters) throws DatabaseException {
+        return invalidatingAfter(sqlQuery, () -> delegate.update(sqlQuery, parameters));
+    }
+
+    private <T> T invalidatingAfter(String sqlQuery, Supplier<T> update) {
+        Preconditions.checkNotNull(sqlQuery, "sqlQuery");
+        invalidateIfTransactionEnded();
+        Set<String> tables = TableTags.writtenBy(sqlQuery);
+        if (isInTransaction()) {
+            markPending(tables);
+        }
+        try {
+            return update.get();
+        } finally { //invalidate even on failure, since the statement might have been applied partially
+            invalidateTables(tables);
+        }
+    }
+
+    private boolean hasPendingWrites(Set<String> tables) {
+        if (pendingTables.isEmpty()) {
+            return false;
+        }
+        return pendingTables.containsKey(ALL_TABLES) || tables.stream().anyMatch(pendingTables::containsKey);
+    }
+
+    private void markPending(Set<String> tables) {
+        Set<String> written = transactionWrites.get();
+        if (written == null) {
+            written = new HashSet<>();
+            transactionWrites.set(written);
+        }
+        for (String table : tables.isEmpty() ? Collections.singleton(ALL_TABLES) : tables) {
+            if (written.add(table)) {
+                pendingTables.merge(table, 1, Integer::sum);
+            }
+        }
+    }
+
+    private void invalidateIfTransactionEnded() {
+        Set<String> written = transactionWrites.get();
+        if (written == null || isInTransaction()) {
+            return;
+        }
+        transactionWrites.remove();
+        for (String table : written) {
+            invalidateTables(table.equals(ALL_TABLES) ? Collections.emptySet() : Collections.singleton(table));
+            pendingTables.computeIfPresent(table, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * Invalidates all cached results that read any of given tables, for example after they have
+     * been written without going through this decorator. If no tables are given, all cached
+     * results are invalidated.
+     *
+     * @param tables the names of the tables
+     */
+    public void invalidate(String... tables) {
+        invalidateTables(TableTags.normalizeAll(tables));
+    }
+
+    private void invalidateTables(Set<String> tables) {
+        if (tables.isEmpty()) {
+            globalVersion.incrementAndGet();
+            entries.invalidateAll();
+        } else {
+            tables.forEach(table -> versionOf(table).incrementAndGet());
+        }
+    }
+
+    /**
+     * {@inheritDoc} The returned session invalidates the tables written in its transaction once
+     * more after the transaction has ended.
+     */
+    @Override
+    public ScopedSession<?> scoped() {
+        return new InvalidatingScopedSession(delegate.scoped(), this::invalidateIfTransactionEnded);
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return TransactionAware.mayBeInTransaction(delegate);
+    }
+
+    /**
+     * @return the amount of queries served from the cache
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the amount of cacheable queries that were executed on the database, including those
+     * whose entry had been invalidated
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the amount of queries that were executed on the database since they were not
+     * cacheable
+     */
+    public long getBypassCount() {
+        return bypassCount.sum();
+    }
+
+    /**
+     * @return the amount of entries found to be invalidated by an update when looked up
+     */
+    public long getStaleCount() {
+        return staleCount.sum();
+    }
+
+    /**
+     * @return the ratio of cacheable queries served from the cache, or zero if there were none
+     */
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0D : hits / (double) total;
+    }
+
+    /**
+     * @return the approximate amount of cached results
+     */
+    public long getSize() {
+        return entries.size();
+    }
+
+    /**
+     * @return the sane SQL instance statements are executed on
+     */
+    public SaneSql getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void close() throws Exception {
+        entries.invalidateAll();
+        delegate.close();
+    }
+
+    private final class CacheEntry {
+        private final CachedRowSet rows;
+        private final List<String> tables;
+        private final long[] versions;
+        private final long global;
+
+        private CacheEntry(CachedRowSet rows, List<String> tables, long[] versions, long global) {
+            this.rows = rows;
+            this.tables = tables;
+            this.versions = versions;
+            this.global = global;
+        }
+
+        private boolean isCurrent() {
+            if (global != globalVersion.get()) {
+                return false;
+            }
+            for (int i = 0; i < versions.length; i++) {
+                if (versions[i] != versionOf(tables.get(i)).get()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private QueryResult newResult() {
+            try {
+                return new CachedQueryResult(rows.createShared());
+            } catch (SQLException e) {
+                throw new SqlExecutionException(e);
+            }
+        }
+    }
+
+    private static final class CacheKey {
+        private final String sql;
+        private final List<Object> parameters;
+
+        private CacheKey(String sql, Object[] parameters) {
+            this.sql = sql;
+            this.parameters = Arrays.asList(parameters.clone());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey that = (CacheKey) o;
+            return sql.equals(that.sql) && parameters.equals(that.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + parameters.hashCode();
+        }
+    }
+
+    /**
+     * Builds caching sane SQL decorators.
+     */
+    public static class Builder {
+        private final SaneSql delegate;
+        private long maximumSize = 1_000L;
+        private long ttlNanos = TimeUnit.SECONDS.toNanos(30L);
+        private int maxRowsPerEntry = 1_000;
+        private Set<String> cacheableTables = ImmutableSet.of();
+
+        private Builder(SaneSql delegate) {
+            this.delegate = Preconditions.checkNotNull(delegate, "delegate");
+        }
+
+        /**
+         * @param maximumSize the maximum amount of cached results, 1000 by default
+         * @return this builder
+         */
+        public Builder maximumSize(long maximumSize) {
+            Preconditions.checkArgument(maximumSize >= 0, "maximumSize must not be negative: %s", maximumSize);
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * @param ttl  the time after which cached results expire, 30 seconds by default
+         * @param unit the unit of the time
+         * @return this builder
+         */
+        public Builder ttl(long ttl, TimeUnit unit) {
+            Preconditions.checkArgument(ttl > 0, "ttl must be positive: %s", ttl);
+            this.ttlNanos = unit.toNanos(ttl);
+            return this;
+        }
+
+        /**
+         * @param maxRowsPerEntry the maximum amount of rows of a cached result, larger results are
+         *                        returned without caching them, 1000 by default
+         * @return this builder
+         */
+        public Builder maxRowsPerEntry(int maxRowsPerEntry) {
+            Preconditions.checkArgument(maxRowsPerEntry >= 0, "maxRowsPerEntry must not be negative: %s", maxRowsPerEntry);
+            this.maxRowsPerEntry = maxRowsPerEntry;
+            return this;
+        }
+
+        /**
+         * Restricts caching to queries that only read given tables. By default, queries reading
+         * any tables are cached.
+         *
+         * @param tables the names of the tables
+         * @return this builder
+         */
+        public Builder cacheableTables(String... tables) {
+            this.cacheableTables = TableTags.normalizeAll(tables);
+            return this;
+        }
+
+        public CachingSaneSql build() {
+            return new CachingSaneSql(this);
+        }
+    }
+}
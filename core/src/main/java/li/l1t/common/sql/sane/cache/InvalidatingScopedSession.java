@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.cache;
+
+import li.l1t.common.exception.InternalException;
+import li.l1t.common.sql.sane.scoped.ScopedSession;
+
+/**
+ * Decorates the scoped sessions handed out by a {@link CachingSaneSql}, so that the tables
+ * written in a transaction are invalidated once more as soon as the transaction has ended.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+class InvalidatingScopedSession implements ScopedSession<InvalidatingScopedSession> {
+    private final ScopedSession<?> delegate;
+    private final Runnable transactionEndCheck;
+
+    InvalidatingScopedSession(ScopedSession<?> delegate, Runnable transactionEndCheck) {
+        this.delegate = delegate;
+        this.transactionEndCheck = transactionEndCheck;
+    }
+
+    @Override
+    public InvalidatingScopedSession join() {
+        delegate.join();
+        return this;
+    }
+
+    @Override
+    public InvalidatingScopedSession tx() {
+        delegate.tx();
+        return this;
+    }
+
+    @Override
+    public void commit() {
+        try {
+            delegate.commit();
+        } finally {
+            transactionEndCheck.run();
+        }
+    }
+
+    @Override
+    public void rollbackAndClose() {
+        try {
+            delegate.rollbackAndClose();
+        } finally {
+            transactionEndCheck.run();
+        }
+    }
+
+    @Override
+    public void commitIfLast() {
+        try {
+            delegate.commitIfLast();
+        } finally {
+            transactionEndCheck.run();
+        }
+    }
+
+    @Override
+    public void commitIfLastAndChanged() {
+        try {
+            delegate.commitIfLastAndChanged();
+        } finally {
+            transactionEndCheck.run();
+        }
+    }
+
+    @Override
+    public void close() throws InternalException {
+        try {
+            delegate.close();
+        } finally {
+            transactionEndCheck.run();
+        }
+    }
+
+    @Override
+    public boolean hasReferences() {
+        return delegate.hasReferences();
+    }
+
+    @Override
+    public boolean acceptsFurtherReferences() {
+        return delegate.acceptsFurtherReferences();
+    }
+
+    @Override
+    public boolean hasTransaction() {
+        return delegate.hasTransaction();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the names of the tables read or written by SQL statements, so that cached query
+ * results can be tagged with the tables they depend on. Names are normalized to lower case
+ * without schema and quotes, which may invalidate more entries than necessary, but never less.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+final class TableTags {
+    private static final String IDENTIFIER = "[`\"\\w.]+";
+    private static final Pattern FROM_CLAUSE = Pattern.compile(
+            "\\bFROM\\s+([^()]+?)(?=\\bWHERE\\b|\\bGROUP\\b|\\bORDER\\b|\\bLIMIT\\b|\\bHAVING\\b|\\bUNION\\b|" +
+                    "\\bFOR\\b|\\bINNER\\b|\\bLEFT\\b|\\bRIGHT\\b|\\bCROSS\\b|\\bNATURAL\\b|\\bJOIN\\b|\\bSTRAIGHT_JOIN\\b|" +
+                    "\\(|\\)|;|$)",
+            Pattern.CASE_INSENSITIVE
+    );
+    private static final Pattern JOIN = Pattern.compile("\\b(?:STRAIGHT_)?JOIN\\s+(" + IDENTIFIER + ")", Pattern.CASE_INSENSITIVE);
+    private static final Pattern INSERT = Pattern.compile(
+            "^\\s*(?:INSERT|REPLACE)\\s+(?:(?:LOW_PRIORITY|DELAYED|HIGH_PRIORITY|IGNORE)\\s+)*(?:INTO\\s+)?(" + IDENTIFIER + ")",
+            Pattern.CASE_INSENSITIVE
+    );
+    private static final Pattern UPDATE = Pattern.compile(
+            "^\\s*UPDATE\\s+(?:(?:LOW_PRIORITY|IGNORE)\\s+)*(.+?)\\s+SET\\b", Pattern.CASE_INSENSITIVE | Pattern.DOTALL
+    );
+    private static final Pattern DELETE = Pattern.compile(
+            "^\\s*DELETE\\s+.*?\\bFROM\\s+(" + IDENTIFIER + ")", Pattern.CASE_INSENSITIVE | Pattern.DOTALL
+    );
+    private static final Pattern DDL = Pattern.compile(
+            "^\\s*(?:ALTER|DROP|TRUNCATE|CREATE|RENAME)\\s+(?:TEMPORARY\\s+)?TABLE\\s+(?:IF\\s+(?:NOT\\s+)?EXISTS\\s+)?(" +
+                    IDENTIFIER + ")",
+            Pattern.CASE_INSENSITIVE
+    );
+    private static final Pattern PLAIN_IDENTIFIER = Pattern.compile(IDENTIFIER);
+
+    private TableTags() {
+
+    }
+
+    /**
+     * @param sql the query to inspect
+     * @return the tables read by given query, or an empty set if they cannot be determined
+     */
+    static Set<String> readBy(String sql) {
+        ImmutableSet.Builder<String> tables = ImmutableSet.builder();
+        Matcher from = FROM_CLAUSE.matcher(sql);
+        while (from.find()) {
+            for (String part : from.group(1).split(",")) {
+                String table = part.trim().split("\\s+")[0];
+                if (PLAIN_IDENTIFIER.matcher(table).matches()) {
+                    tables.add(normalize(table));
+                }
+            }
+        }
+        addAll(JOIN.matcher(sql), tables);
+        return tables.build();
+    }
+
+    /**
+     * @param sql the statement to inspect
+     * @return the tables written by given statement, or an empty set if they cannot be
+     * determined
+     */
+    static Set<String> writtenBy(String sql) {
+        ImmutableSet.Builder<String> tables = ImmutableSet.builder();
+        Matcher update = UPDATE.matcher(sql);
+        if (update.find()) {
+            for (String part : update.group(1).split(",")) {
+                String table = part.trim().split("\\s+")[0];
+                if (PLAIN_IDENTIFIER.matcher(table).matches()) {
+                    tables.add(normalize(table));
+                }
+            }
+            addAll(JOIN.matcher(update.group(1)), tables);
+        }
+        addFirst(INSERT.matcher(sql), tables);
+        addFirst(DELETE.matcher(sql), tables);
+        addFirst(DDL.matcher(sql), tables);
+        return tables.build();
+    }
+
+    private static void addAll(Matcher matcher, ImmutableSet.Builder<String> tables) {
+        while (matcher.find()) {
+            tables.add(normalize(matcher.group(1)));
+        }
+    }
+
+    private static void addFirst(Matcher matcher, ImmutableSet.Builder<String> tables) {
+        if (matcher.find()) {
+            tables.add(normalize(matcher.group(1)));
+        }
+    }
+
+    /**
+     * @param tables the table names to normalize
+     * @return the normalized names of given tables
+     */
+    static Set<String> normalizeAll(String... tables) {
+        ImmutableSet.Builder<String> normalized = ImmutableSet.builder();
+        for (String table : tables) {
+            normalized.add(normalize(Preconditions.checkNotNull(table, "table")));
+        }
+        return normalized.build();
+    }
+
+    private static String normalize(String table) {
+        String unquoted = table.replace("`", "").replace("\"", "");
+        return unquoted.substring(unquoted.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.connection;
+
+import com.google.common.base.Preconditions;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.util.function.Predicate;
+
+/**
+ * Binds a physical connection from a {@link PooledConnectionManager} to the thread that borrowed
+ * it. A lease may be revoked by the pool once it has been idle for long enough or its owner thread
+ * has died, after which the owner has to borrow a new lease.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+class ConnectionLease {
+    private final WeakReference<Thread> owner;
+    private Connection connection;
+    private long lastUsedNanos = System.nanoTime();
+    private boolean revoked = false;
+
+    ConnectionLease(Thread owner, Connection connection) {
+        this.owner = new WeakReference<>(Preconditions.checkNotNull(owner, "owner"));
+        this.connection = Preconditions.checkNotNull(connection, "connection");
+    }
+
+    /**
+     * Marks this lease as used right now, unless it has already been revoked.
+     *
+     * @return whether this lease is still valid
+     */
+    synchronized boolean touchIfValid() {
+        if (revoked) {
+            return false;
+        }
+        lastUsedNanos = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Revokes this lease, so that its owner no longer uses its connection.
+     *
+     * @return whether this call revoked the lease, false if it had already been revoked before
+     */
+    synchronized boolean revoke() {
+        if (revoked) {
+            return false;
+        }
+        revoked = true;
+        return true;
+    }
+
+    /**
+     * Revokes this lease if it has not been used for given time and its connection is not in use
+     * according to given predicate. Both are checked while holding the lock of this lease, so that
+     * the owner cannot start using the connection in between.
+     *
+     * @param minIdleNanos the minimum time this lease must not have been used for
+     * @param inUse        the predicate telling whether the connection is still in use
+     * @return whether this call revoked the lease
+     */
+    synchronized boolean revokeIfIdle(long minIdleNanos, Predicate<? super Connection> inUse) {
+        if (revoked || System.nanoTime() - lastUsedNanos < minIdleNanos || inUse.test(connection)) {
+            return false;
+        }
+        revoked = true;
+        return true;
+    }
+
+    synchronized boolean isRevoked() {
+        return revoked;
+    }
+
+    synchronized long getIdleNanos() {
+        return System.nanoTime() - lastUsedNanos;
+    }
+
+    boolean isOwnerDead() {
+        Thread thread = owner.get();
+        return thread == null || !thread.isAlive();
+    }
+
+    synchronized Connection connection() {
+        return connection;
+    }
+
+    synchronized Connection replaceConnection(Connection newConnection) {
+        Connection previous = this.connection;
+        this.connection = Preconditions.checkNotNull(newConnection, "newConnection");
+        return previous;
+    }
+}
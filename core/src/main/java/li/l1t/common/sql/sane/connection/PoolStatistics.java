@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.connection;
+
+/**
+ * An immutable snapshot of the state and usage counters of a {@link PooledConnectionManager}.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class PoolStatistics {
+    private final int totalConnections;
+    private final int idleConnections;
+    private final int leasedConnections;
+    private final long createdConnections;
+    private final long discardedConnections;
+    private final long validationFailures;
+    private final long borrowCount;
+    private final long borrowTimeouts;
+    private final long totalBorrowWaitNanos;
+    private final long maxBorrowWaitNanos;
+
+    PoolStatistics(int totalConnections, int idleConnections, int leasedConnections,
+                   long createdConnections, long discardedConnections, long validationFailures,
+                   long borrowCount, long borrowTimeouts, long totalBorrowWaitNanos, long maxBorrowWaitNanos) {
+        this.totalConnections = totalConnections;
+        this.idleConnections = idleConnections;
+        this.leasedConnections = leasedConnections;
+        this.createdConnections = createdConnections;
+        this.discardedConnections = discardedConnections;
+        this.validationFailures = validationFailures;
+        this.borrowCount = borrowCount;
+        this.borrowTimeouts = borrowTimeouts;
+        this.totalBorrowWaitNanos = totalBorrowWaitNanos;
+        this.maxBorrowWaitNanos = maxBorrowWaitNanos;
+    }
+
+    /**
+     * @return the amount of physical connections currently held by the pool, idle or leased
+     */
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    /**
+     * @return the amount of connections currently waiting to be borrowed
+     */
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    /**
+     * @return the amount of connections currently leased to a thread
+     */
+    public int getLeasedConnections() {
+        return leasedConnections;
+    }
+
+    /**
+     * @return the amount of physical connections opened since the pool was created
+     */
+    public long getCreatedConnections() {
+        return createdConnections;
+    }
+
+    /**
+     * @return the amount of physical connections closed by the pool due to idle eviction, failed
+     * validation or a forced reconnect
+     */
+    public long getDiscardedConnections() {
+        return discardedConnections;
+    }
+
+    /**
+     * @return the amount of idle connections that failed validation on borrow
+     */
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    /**
+     * @return the amount of successful lease borrows
+     */
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    /**
+     * @return the amount of borrow attempts that timed out waiting for a free connection
+     */
+    public long getBorrowTimeouts() {
+        return borrowTimeouts;
+    }
+
+    /**
+     * @return the mean time in milliseconds that successful borrows waited for a free connection
+     */
+    public double getAverageBorrowWaitMillis() {
+        return borrowCount == 0 ? 0D : (totalBorrowWaitNanos / (double) borrowCount) / 1_000_000D;
+    }
+
+    /**
+     * @return the longest time in milliseconds any successful borrow waited for a free connection
+     */
+    public double getMaxBorrowWaitMillis() {
+        return maxBorrowWaitNanos / 1_000_000D;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStatistics{" +
+                "totalConnections=" + totalConnections +
+                ", idleConnections=" + idleConnections +
+                ", leasedConnections=" + leasedConnections +
+                ", createdConnections=" + createdConnections +
+                ", discardedConnections=" + discardedConnections +
+                ", validationFailures=" + validationFailures +
+                ", borrowCount=" + borrowCount +
+                ", borrowTimeouts=" + borrowTimeouts +
+                ", averageBorrowWaitMillis=" + getAverageBorrowWaitMillis() +
+                ", maxBorrowWaitMillis=" + getMaxBorrowWaitMillis() +
+                '}';
+    }
+}
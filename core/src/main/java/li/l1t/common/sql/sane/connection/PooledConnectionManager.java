@@ -0,0 +1,529 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.connection;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import li.l1t.common.sql.SqlConnectable;
+import li.l1t.common.sql.sane.exception.SqlConnectionException;
+import li.l1t.common.util.Closer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A connection manager that maintains a bounded pool of connections to a JDBC data source. Each
+ * thread calling {@link #getConnection()} is leased its own connection, which it keeps for
+ * subsequent calls, so that statements and transactions issued from a thread always use the same
+ * connection while different threads run their statements concurrently.
+ * <p>Leases are returned to the pool when {@link #releaseCurrentConnection()} is called, when
+ * {@link #releaseCurrentConnectionIfUnused()} is called and no {@link #addUsageProbe(Predicate)
+ * usage probe} reports the connection as in use, for example because of an open result or scoped
+ * session, when the owning thread dies, or when the lease has not been used for the configured
+ * lease idle timeout and no probe reports it as in use. Without any probes, leases of living
+ * threads are never reclaimed, since the pool cannot tell whether they are still in use. Idle
+ * connections exceeding the minimum pool size are closed after the idle timeout. Connections are
+ * validated when they are taken from the idle pool.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class PooledConnectionManager implements ConnectionManager {
+    private static final Logger LOGGER = Logger.getLogger(PooledConnectionManager.class.getName());
+    private final SqlConnectable credentials;
+    private final SqlConnector connector;
+    private final int minSize;
+    private final long idleTimeoutNanos;
+    private final long leaseIdleTimeoutNanos;
+    private final long borrowTimeoutNanos;
+    private final int validationTimeoutSeconds;
+    private final Semaphore leasePermits;
+    private final BlockingDeque<IdleConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<ConnectionLease> activeLeases = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<ConnectionLease> currentLease = new ThreadLocal<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private final LongAdder createdConnections = new LongAdder();
+    private final LongAdder discardedConnections = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowTimeouts = new LongAdder();
+    private final LongAdder totalBorrowWaitNanos = new LongAdder();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final List<Predicate<? super Connection>> usageProbes = new CopyOnWriteArrayList<>();
+    private volatile boolean closed = false;
+
+    private PooledConnectionManager(Builder builder) {
+        this.credentials = builder.credentials;
+        this.connector = builder.connector;
+        this.minSize = builder.minSize;
+        this.idleTimeoutNanos = builder.idleTimeout.toNanos();
+        this.leaseIdleTimeoutNanos = builder.leaseIdleTimeout.toNanos();
+        this.borrowTimeoutNanos = builder.borrowTimeout.toNanos();
+        this.validationTimeoutSeconds = builder.validationTimeoutSeconds;
+        this.leasePermits = new Semaphore(builder.maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("xyc-sql-pool-housekeeper-%d")
+                .setDaemon(true)
+                .build());
+        long periodMillis = builder.housekeepingPeriod.toMillis();
+        housekeeper.scheduleWithFixedDelay(this::runHousekeeping, 0L, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new builder for a pooled connection manager.
+     *
+     * @param credentials the credentials to connect to the data source with
+     * @return a new builder with default settings
+     */
+    public static Builder builder(SqlConnectable credentials) {
+        return new Builder(credentials);
+    }
+
+    /**
+     * {@inheritDoc} <p>If the current thread does not hold a lease yet, a connection is borrowed
+     * from the pool, waiting up to the configured borrow timeout for one to become available.</p>
+     *
+     * @throws SqlConnectionException if no connection could be obtained in time or connecting fails
+     */
+    @Override
+    public Connection getConnection() throws SqlConnectionException {
+        checkNotClosed();
+        ConnectionLease lease = currentLease.get();
+        if (lease == null || !lease.touchIfValid()) {
+            lease = borrowLease();
+            currentLease.set(lease);
+        }
+        return lease.connection();
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new SqlConnectionException(new SQLException("connection pool already closed"));
+        }
+    }
+
+    private ConnectionLease borrowLease() throws SqlConnectionException {
+        long waitStartNanos = System.nanoTime();
+        acquireLeasePermit();
+        recordBorrowWait(System.nanoTime() - waitStartNanos);
+        try {
+            ConnectionLease lease = new ConnectionLease(Thread.currentThread(), takeValidIdleOrConnect());
+            activeLeases.add(lease);
+            return lease;
+        } catch (RuntimeException e) {
+            leasePermits.release();
+            throw e;
+        }
+    }
+
+    private void acquireLeasePermit() throws SqlConnectionException {
+        try {
+            if (!leasePermits.tryAcquire(borrowTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                borrowTimeouts.increment();
+                throw new SqlConnectionException(new SQLTimeoutException(
+                        "Timed out waiting for a pooled connection after " +
+                                TimeUnit.NANOSECONDS.toMillis(borrowTimeoutNanos) + "ms"
+                ));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SqlConnectionException(new SQLException("Interrupted while waiting for a pooled connection", e));
+        }
+    }
+
+    private void recordBorrowWait(long waitNanos) {
+        borrowCount.increment();
+        totalBorrowWaitNanos.add(waitNanos);
+        maxBorrowWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private Connection takeValidIdleOrConnect() throws SqlConnectionException {
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            if (isValid(idle.connection)) {
+                return idle.connection;
+            }
+            validationFailures.increment();
+            discard(idle.connection);
+        }
+        return connect();
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection connect() throws SqlConnectionException {
+        try {
+            Connection connection = connector.obtainConnection(credentials);
+            totalConnections.incrementAndGet();
+            createdConnections.increment();
+            return connection;
+        } catch (SQLException e) {
+            throw new SqlConnectionException(e);
+        }
+    }
+
+    private void discard(Connection connection) {
+        totalConnections.decrementAndGet();
+        discardedConnections.increment();
+        Closer.close(connection);
+    }
+
+    /**
+     * Returns the connection leased by the current thread to the pool, if any. Callers that know
+     * that the current thread will not issue further statements for a while, for example at the
+     * end of an asynchronous task, should call this to make the connection available to other
+     * threads immediately. This must not be called while the current thread still uses a result,
+     * statement or scoped session obtained from the connection.
+     */
+    public void releaseCurrentConnection() {
+        ConnectionLease lease = currentLease.get();
+        currentLease.remove();
+        if (lease != null && lease.revoke()) {
+            returnToPool(lease);
+        }
+    }
+
+    /**
+     * Returns the connection leased by the current thread to the pool if no {@link
+     * #addUsageProbe(Predicate) usage probe} reports it as in use. Accessors call this whenever
+     * they release a result or scoped session, so that threads only hold a connection while they
+     * actually use it, instead of until the lease idle timeout. Connections are considered in use
+     * if there are no probes. Note that the thread may get a different connection on its next
+     * borrow, so state that must span multiple statements, such as a transaction, requires a
+     * scoped session.
+     */
+    public void releaseCurrentConnectionIfUnused() {
+        ConnectionLease lease = currentLease.get();
+        if (lease != null && (lease.isRevoked() || !isInUse(lease.connection()))) {
+            releaseCurrentConnection();
+        }
+    }
+
+    private void returnToPool(ConnectionLease lease) {
+        activeLeases.remove(lease);
+        Connection connection = lease.connection();
+        if (closed || !resetForReuse(connection)) {
+            discard(connection);
+        } else {
+            idleConnections.offerFirst(new IdleConnection(connection));
+        }
+        leasePermits.release();
+    }
+
+    private boolean resetForReuse(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                LOGGER.warning("Rolling back unfinished transaction on connection returned to pool");
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return !connection.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void runHousekeeping() {
+        try {
+            reclaimAbandonedLeases();
+            evictIdleConnections();
+            fillToMinimumSize();
+        } catch (Exception e) { //must not escape, would cancel further executions
+            LOGGER.log(Level.WARNING, "Exception in connection pool housekeeping", e);
+        }
+    }
+
+    private void reclaimAbandonedLeases() {
+        for (ConnectionLease lease : activeLeases) {
+            boolean revoked = lease.isOwnerDead() ? lease.revoke() :
+                    lease.revokeIfIdle(leaseIdleTimeoutNanos, this::isInUse);
+            if (revoked) {
+                returnToPool(lease);
+            }
+        }
+    }
+
+    private boolean isInUse(Connection connection) {
+        if (usageProbes.isEmpty()) {
+            return true;
+        }
+        for (Predicate<? super Connection> probe : usageProbes) {
+            if (probe.test(connection)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a probe that reports whether a leased connection is still in use by its owner, for
+     * example because a result or scoped session obtained from it is still open. Leases of living
+     * threads are only reclaimed after the lease idle timeout if no probe reports their connection
+     * as in use. Probes are called from the housekeeping thread and must not access the connection.
+     *
+     * @param probe the probe returning true for connections that are in use
+     */
+    public void addUsageProbe(Predicate<? super Connection> probe) {
+        usageProbes.add(Preconditions.checkNotNull(probe, "probe"));
+    }
+
+    private void evictIdleConnections() {
+        Iterator<IdleConnection> oldestFirst = idleConnections.descendingIterator();
+        while (oldestFirst.hasNext() && totalConnections.get() > minSize) {
+            IdleConnection idle = oldestFirst.next();
+            if (idle.getIdleNanos() >= idleTimeoutNanos && idleConnections.removeFirstOccurrence(idle)) {
+                discard(idle.connection);
+            }
+        }
+    }
+
+    private void fillToMinimumSize() {
+        while (!closed && totalConnections.get() < minSize && leasePermits.tryAcquire()) {
+            try {
+                idleConnections.offerLast(new IdleConnection(connect()));
+            } finally {
+                leasePermits.release();
+            }
+        }
+    }
+
+    /**
+     * @return the connection currently leased by the calling thread, or null if it does not hold a
+     * lease
+     */
+    @Override
+    public Connection getCurrentConnection() {
+        ConnectionLease lease = currentLease.get();
+        return lease == null || lease.isRevoked() ? null : lease.connection();
+    }
+
+    /**
+     * Replaces the connection leased by the current thread with a newly opened one, closing the
+     * previous connection. Borrows a new lease if the current thread does not hold one.
+     *
+     * @throws SqlConnectionException if connecting fails
+     */
+    @Override
+    public void forceReconnect() throws SqlConnectionException {
+        ConnectionLease lease = currentLease.get();
+        if (lease == null || !lease.touchIfValid()) {
+            getConnection();
+        } else {
+            discard(lease.replaceConnection(connect()));
+        }
+    }
+
+    /**
+     * @return whether the current thread holds a lease on a connection that is still valid
+     */
+    @Override
+    public boolean hasActiveConnection() {
+        Connection connection = getCurrentConnection();
+        return connection != null && isValid(connection);
+    }
+
+    /**
+     * @return a snapshot of the current state and usage counters of this pool
+     */
+    public PoolStatistics getStatistics() {
+        return new PoolStatistics(
+                totalConnections.get(), idleConnections.size(), activeLeases.size(),
+                createdConnections.sum(), discardedConnections.sum(), validationFailures.sum(),
+                borrowCount.sum(), borrowTimeouts.sum(), totalBorrowWaitNanos.sum(), maxBorrowWaitNanos.get()
+        );
+    }
+
+    /**
+     * Closes all connections held by this pool, including connections currently leased to
+     * threads. Further attempts to obtain connections will fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        for (ConnectionLease lease : activeLeases) {
+            if (lease.revoke()) {
+                returnToPool(lease);
+            }
+        }
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            discard(idle.connection);
+        }
+    }
+
+    private static class IdleConnection {
+        private final Connection connection;
+        private final long idleSinceNanos = System.nanoTime();
+
+        IdleConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        long getIdleNanos() {
+            return System.nanoTime() - idleSinceNanos;
+        }
+    }
+
+    /**
+     * Builds pooled connection managers.
+     */
+    public static class Builder {
+        private final SqlConnectable credentials;
+        private SqlConnector connector = new DriverManagerConnector();
+        private int minSize = 1;
+        private int maxSize = 10;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Duration leaseIdleTimeout = Duration.ofSeconds(30);
+        private Duration borrowTimeout = Duration.ofSeconds(5);
+        private Duration housekeepingPeriod = Duration.ofSeconds(5);
+        private int validationTimeoutSeconds = 2;
+
+        private Builder(SqlConnectable credentials) {
+            this.credentials = Preconditions.checkNotNull(credentials, "credentials");
+        }
+
+        /**
+         * @param connector the connector used to open new physical connections
+         * @return this builder
+         */
+        public Builder connector(SqlConnector connector) {
+            this.connector = Preconditions.checkNotNull(connector, "connector");
+            return this;
+        }
+
+        /**
+         * @param minSize the amount of connections the pool keeps open even if they are idle
+         * @return this builder
+         */
+        public Builder minSize(int minSize) {
+            Preconditions.checkArgument(minSize >= 0, "minSize must not be negative: %s", minSize);
+            this.minSize = minSize;
+            return this;
+        }
+
+        /**
+         * @param maxSize the maximum amount of connections the pool may open, and therefore the
+         *                maximum amount of threads that may hold a connection at the same time
+         * @return this builder
+         */
+        public Builder maxSize(int maxSize) {
+            Preconditions.checkArgument(maxSize > 0, "maxSize must be positive: %s", maxSize);
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * @param idleTimeout how long a connection may stay in the idle pool before it is closed,
+         *                    as long as the pool has more than the minimum amount of connections
+         * @return this builder
+         */
+        public Builder idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = Preconditions.checkNotNull(idleTimeout, "idleTimeout");
+            return this;
+        }
+
+        /**
+         * @param leaseIdleTimeout how long a thread may hold a lease without using it before it is
+         *                         returned to the pool, as long as no usage probe reports its
+         *                         connection as in use
+         * @return this builder
+         */
+        public Builder leaseIdleTimeout(Duration leaseIdleTimeout) {
+            this.leaseIdleTimeout = Preconditions.checkNotNull(leaseIdleTimeout, "leaseIdleTimeout");
+            return this;
+        }
+
+        /**
+         * @param borrowTimeout how long a thread waits for a connection to become available if the
+         *                      pool is exhausted
+         * @return this builder
+         */
+        public Builder borrowTimeout(Duration borrowTimeout) {
+            this.borrowTimeout = Preconditions.checkNotNull(borrowTimeout, "borrowTimeout");
+            return this;
+        }
+
+        /**
+         * @param housekeepingPeriod the delay between runs of the background task that reclaims
+         *                           leases and evicts idle connections
+         * @return this builder
+         */
+        public Builder housekeepingPeriod(Duration housekeepingPeriod) {
+            Preconditions.checkNotNull(housekeepingPeriod, "housekeepingPeriod");
+            Preconditions.checkArgument(!housekeepingPeriod.isNegative() && !housekeepingPeriod.isZero(),
+                    "housekeepingPeriod must be positive: %s", housekeepingPeriod);
+            this.housekeepingPeriod = housekeepingPeriod;
+            return this;
+        }
+
+        /**
+         * @param validationTimeoutSeconds the timeout passed to {@link Connection#isValid(int)}
+         *                                 when validating connections on borrow
+         * @return this builder
+         */
+        public Builder validationTimeoutSeconds(int validationTimeoutSeconds) {
+            Preconditions.checkArgument(validationTimeoutSeconds >= 0,
+                    "validationTimeoutSeconds must not be negative: %s", validationTimeoutSeconds);
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            return this;
+        }
+
+        /**
+         * @return a new pooled connection manager with this builder's settings
+         */
+        public PooledConnectionManager build() {
+            Preconditions.checkState(minSize <= maxSize, "minSize %s exceeds maxSize %s", minSize, maxSize);
+            return new PooledConnectionManager(this);
+        }
+    }
+}
@@ -24,28 +24,27 @@
 
 package li.l1t.common.sql.sane.connection;
 
-import com.google.common.base.Verify;
 import li.l1t.common.sql.SqlConnectable;
-import li.l1t.common.sql.SqlConnectables;
 import li.l1t.common.sql.sane.exception.SqlConnectionException;
 import li.l1t.common.util.Closer;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
  * A simple implementation of a connection manager that takes a {@link SqlConnectable} and connects
  * to a JDBC data source using its credentials. Connections created by this manager are retained
  * until they are either closed or a reconnect is forced. There will only be a single open
- * connection at all times.
+ * connection at all times. Methods opening and closing the connection are synchronized, so that
+ * the connection may be replaced from a background thread.
  *
  * @author <a href="https://l1t.li/">Literallie</a>
  * @since 2016-10-09
  */
 public class SimpleConnectionManager implements ConnectionManager {
     private final SqlConnectable credentials;
-    private Connection currentConnection;
+    private final SqlConnector connector = new DriverManagerConnector();
+    private volatile Connection currentConnection;
 
 
     public SimpleConnectionManager(SqlConnectable credentials) {
@@ -59,7 +58,7 @@ public class SimpleConnectionManager implements ConnectionManager {
     }
 
     @Override
-    public Connection getConnection() throws SqlConnectionException {
+    public synchronized Connection getConnection() throws SqlConnectionException {
         if (!hasOpenConnection()) {
             currentConnection = connect();
         }
@@ -75,38 +74,37 @@ public class SimpleConnectionManager implements ConnectionManager {
     }
 
     @Override
-    public void forceReconnect() throws SqlConnectionException {
+    public synchronized void forceReconnect() throws SqlConnectionException {
         close();
         currentConnection = connect();
     }
 
+    /**
+     * Validates the current connection. This does not hold the lock of this manager during the
+     * round trip, so that other threads may obtain the connection meanwhile.
+     *
+     * @return whether there is an open connection that responds to validation
+     */
     @Override
     public boolean hasActiveConnection() {
+        Connection connection = currentConnection;
         try {
-            return hasOpenConnection() && currentConnection.isValid(2);
+            return connection != null && !connection.isClosed() && connection.isValid(2);
         } catch (SQLException ignore) { //This should not happen - timeout is static > 0
             return false;
         }
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         Closer.close(currentConnection);
     }
 
     private Connection connect() throws SqlConnectionException {
         try {
-            return obtainConnectionFrom(credentials);
+            return connector.obtainConnection(credentials);
         } catch (SQLException e) {
             throw new SqlConnectionException(e);
         }
     }
-
-    private Connection obtainConnectionFrom(SqlConnectable credentials) throws SQLException {
-        String jdbcUrl = SqlConnectables.getHostString(credentials);
-        Connection connection = DriverManager.getConnection(
-                jdbcUrl, credentials.getSqlUser(), credentials.getSqlPwd()
-        );
-        return Verify.verifyNotNull(connection, "connection returned by JDBC driver", credentials);
-    }
 }
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.mapping;
+
+import com.google.common.collect.MapMaker;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves a fixed list of column labels to their indices in result sets, once per result set.
+ * The result set resolved last is remembered, so that reading consecutive rows of the same result
+ * does not involve any map lookup. Result sets are only referenced weakly, so that closed results
+ * do not leak.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public final class ColumnResolver {
+    private final ConcurrentMap<ResultSet, ResolvedColumns> resolved = new MapMaker().weakKeys().makeMap();
+    private final String[] columnLabels;
+    private volatile Resolution last;
+
+    /**
+     * @param columnLabels the labels of the columns to resolve, addressed by their position in
+     *                     this array afterwards
+     */
+    public ColumnResolver(String... columnLabels) {
+        this.columnLabels = columnLabels.clone();
+    }
+
+    /**
+     * @param rs the result set to resolve the columns in
+     * @return the indices of the columns in given result set
+     * @throws SQLException if a column does not exist or a database error occurs while reading
+     *                      the meta data
+     */
+    public ResolvedColumns resolve(ResultSet rs) throws SQLException {
+        Resolution last = this.last;
+        if (last != null && last.resultSet.get() == rs) {
+            return last.columns;
+        }
+        ResolvedColumns columns = resolved.get(rs);
+        if (columns == null) {
+            columns = ResolvedColumns.resolve(rs, columnLabels);
+            resolved.put(rs, columns);
+        }
+        this.last = new Resolution(rs, columns);
+        return columns;
+    }
+
+    String[] getColumnLabels() {
+        return columnLabels;
+    }
+
+    private static class Resolution {
+        private final WeakReference<ResultSet> resultSet;
+        private final ResolvedColumns columns;
+
+        private Resolution(ResultSet resultSet, ResolvedColumns columns) {
+            this.resultSet = new WeakReference<>(resultSet);
+            this.columns = columns;
+        }
+    }
+}
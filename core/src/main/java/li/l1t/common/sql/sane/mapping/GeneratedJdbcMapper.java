@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.mapping;
+
+import com.google.common.collect.ImmutableList;
+import li.l1t.common.sql.sane.util.JdbcEntityCreator;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base class for entity creators generated from {@link JdbcEntity} constructors. Column indices
+ * are resolved once per result set and rows are then read by index, without any reflection.
+ * Writable mappers additionally convert entities to statement parameters in column order, for
+ * example for use with {@link li.l1t.common.sql.sane.statement.MultiRowInsert}.
+ *
+ * @param <T> the type of entity mapped
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public abstract class GeneratedJdbcMapper<T> implements JdbcEntityCreator<T> {
+    private final ColumnResolver resolver;
+
+    protected GeneratedJdbcMapper(String... columnLabels) {
+        this.resolver = new ColumnResolver(columnLabels);
+    }
+
+    @Override
+    public T createFromCurrentRow(ResultSet rs) throws SQLException {
+        return createFromRow(rs, resolver.resolve(rs));
+    }
+
+    /**
+     * Creates an entity from the current row of a result set.
+     *
+     * @param rs      the result set positioned at the row to read
+     * @param columns the indices of this mapper's columns in the result set
+     * @return the created entity
+     * @throws SQLException if a database error occurs
+     */
+    protected abstract T createFromRow(ResultSet rs, ResolvedColumns columns) throws SQLException;
+
+    /**
+     * @return the labels of the columns read by this mapper, in constructor parameter order
+     */
+    public List<String> getColumnLabels() {
+        return ImmutableList.copyOf(resolver.getColumnLabels());
+    }
+
+    /**
+     * @return the labels of the columns read by this mapper as array, for example to pass to
+     * {@link li.l1t.common.sql.sane.statement.MultiRowInsert#into(String, java.util.function.Function, String...)}
+     */
+    public String[] getColumnLabelArray() {
+        return resolver.getColumnLabels().clone();
+    }
+
+    /**
+     * Converts an entity to statement parameters in the order of {@link #getColumnLabels()}. UUIDs
+     * are converted to their string representation, instants and date-times to timestamps and
+     * enum constants to their names.
+     *
+     * @param entity the entity to convert
+     * @return the parameters representing the entity
+     * @throws UnsupportedOperationException if this mapper was not generated as {@link
+     *                                       JdbcEntity#writable() writable}
+     */
+    public Object[] toParameters(T entity) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is not writable");
+    }
+
+    protected static String parameter(UUID value) {
+        return value == null ? null : value.toString();
+    }
+
+    protected static Timestamp parameter(Instant value) {
+        return value == null ? null : Timestamp.from(value);
+    }
+
+    protected static Timestamp parameter(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+
+    protected static String parameter(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.mapping;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a {@link GeneratedJdbcMapper} for each {@link JdbcEntity} constructor at compile time.
+ * Generated mappers read each column by index using the getter matching the type of its
+ * constructor parameter, so that mapping costs as much as hand-written code. Unsupported
+ * parameter types and missing accessors of writable entities are reported as compile errors.
+ * <p>This processor is registered as a service, so that it runs automatically for every module
+ * compiled with XYC Core on the class path.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+@SupportedAnnotationTypes("li.l1t.common.sql.sane.mapping.JdbcEntity")
+public class JdbcMapperProcessor extends AbstractProcessor {
+    static final String MAPPER_SUFFIX = "JdbcMapper";
+    private final Set<String> generatedMappers = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(roundEnv.getElementsAnnotatedWith(JdbcEntity.class))) {
+            try {
+                generateMapper(constructor);
+            } catch (MappingException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Unable to write JDBC mapper: " + e.getMessage(), constructor);
+            }
+        }
+        return true;
+    }
+
+    private void generateMapper(ExecutableElement constructor) throws MappingException, IOException {
+        TypeElement entity = (TypeElement) constructor.getEnclosingElement();
+        checkMappable(entity, constructor);
+        String packageName = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+        String mapperName = mapperNameOf(entity);
+        String qualifiedMapperName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        if (!generatedMappers.add(qualifiedMapperName)) {
+            throw new MappingException("Only a single constructor per type may be annotated with @JdbcEntity", constructor);
+        }
+        boolean writable = constructor.getAnnotation(JdbcEntity.class).writable();
+        List<MappedParameter> parameters = new ArrayList<>();
+        for (VariableElement parameter : constructor.getParameters()) {
+            parameters.add(mapParameter(entity, parameter, writable));
+        }
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedMapperName, entity).openWriter()) {
+            writeMapper(new PrintWriter(writer), packageName, mapperName, entity, isPublic(entity, constructor),
+                    parameters, writable);
+        }
+    }
+
+    private void checkMappable(TypeElement entity, ExecutableElement constructor) throws MappingException {
+        if (entity.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new MappingException("@JdbcEntity types must not be abstract", constructor);
+        }
+        if (entity.getNestingKind() == NestingKind.MEMBER && !entity.getModifiers().contains(Modifier.STATIC)) {
+            throw new MappingException("@JdbcEntity types must not be inner classes", constructor);
+        }
+        if (entity.getNestingKind() == NestingKind.LOCAL || entity.getNestingKind() == NestingKind.ANONYMOUS) {
+            throw new MappingException("@JdbcEntity types must be top-level or static nested classes", constructor);
+        }
+        if (!entity.getTypeParameters().isEmpty()) {
+            throw new MappingException("@JdbcEntity types must not be generic", constructor);
+        }
+        if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new MappingException("@JdbcEntity constructors must not be private", constructor);
+        }
+    }
+
+    static String mapperNameOf(TypeElement entity) {
+        StringBuilder name = new StringBuilder(entity.getSimpleName());
+        Element enclosing = entity.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.append(MAPPER_SUFFIX).toString();
+    }
+
+    private boolean isPublic(TypeElement entity, ExecutableElement constructor) {
+        if (!constructor.getModifiers().contains(Modifier.PUBLIC)) {
+            return false;
+        }
+        Element current = entity;
+        while (current != null && !(current instanceof PackageElement)) {
+            if (!current.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private MappedParameter mapParameter(TypeElement entity, VariableElement parameter, boolean writable)
+            throws MappingException {
+        Column column = parameter.getAnnotation(Column.class);
+        String name = parameter.getSimpleName().toString();
+        String label = column == null ? toSnakeCase(name) : column.value();
+        if (label.isEmpty()) {
+            throw new MappingException("Column label must not be empty", parameter);
+        }
+        TypeMirror type = parameter.asType();
+        ValueType valueType = valueTypeOf(type);
+        if (valueType == null) {
+            throw new MappingException("Unsupported column type " + type + " for JDBC mapping", parameter);
+        }
+        String accessor = writable ? findAccessor(entity, name, type, parameter) : null;
+        return new MappedParameter(label, valueType, accessor);
+    }
+
+    static String toSnakeCase(String name) {
+        StringBuilder result = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    result.append('_');
+                }
+                result.append(Character.toLowerCase(c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private ValueType valueTypeOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return ValueType.direct("getInt");
+            case LONG:
+                return ValueType.direct("getLong");
+            case SHORT:
+                return ValueType.direct("getShort");
+            case BYTE:
+                return ValueType.direct("getByte");
+            case DOUBLE:
+                return ValueType.direct("getDouble");
+            case FLOAT:
+                return ValueType.direct("getFloat");
+            case BOOLEAN:
+                return ValueType.direct("getBoolean");
+            case ARRAY:
+                return ((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE ?
+                        ValueType.direct("getBytes") : null;
+            case DECLARED:
+                return declaredValueTypeOf((DeclaredType) type);
+            default:
+                return null;
+        }
+    }
+
+    private ValueType declaredValueTypeOf(DeclaredType type) {
+        TypeElement element = (TypeElement) type.asElement();
+        if (element.getKind() == ElementKind.ENUM) {
+            return ValueType.resolved("getEnum", element.getQualifiedName() + ".class", true);
+        }
+        switch (element.getQualifiedName().toString()) {
+            case "java.lang.String":
+                return ValueType.direct("getString");
+            case "java.math.BigDecimal":
+                return ValueType.direct("getBigDecimal");
+            case "java.sql.Timestamp":
+                return ValueType.direct("getTimestamp");
+            case "java.sql.Date":
+                return ValueType.direct("getDate");
+            case "java.lang.Integer":
+                return ValueType.resolved("getNullableInt", null, false);
+            case "java.lang.Long":
+                return ValueType.resolved("getNullableLong", null, false);
+            case "java.lang.Short":
+                return ValueType.resolved("getNullableShort", null, false);
+            case "java.lang.Byte":
+                return ValueType.resolved("getNullableByte", null, false);
+            case "java.lang.Double":
+                return ValueType.resolved("getNullableDouble", null, false);
+            case "java.lang.Float":
+                return ValueType.resolved("getNullableFloat", null, false);
+            case "java.lang.Boolean":
+                return ValueType.resolved("getNullableBoolean", null, false);
+            case "java.util.UUID":
+                return ValueType.resolved("getUuid", null, true);
+            case "java.time.Instant":
+                return ValueType.resolved("getInstant", null, true);
+            case "java.time.LocalDateTime":
+                return ValueType.resolved("getLocalDateTime", null, true);
+            default:
+                return null;
+        }
+    }
+
+    private String findAccessor(TypeElement entity, String name, TypeMirror type, VariableElement parameter)
+            throws MappingException {
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        List<String> candidates = new ArrayList<>();
+        candidates.add("get" + capitalized);
+        if (type.getKind() == TypeKind.BOOLEAN || type.toString().equals("java.lang.Boolean")) {
+            candidates.add("is" + capitalized);
+        }
+        candidates.add(name);
+        List<? extends Element> members = processingEnv.getElementUtils().getAllMembers(entity);
+        for (String candidate : candidates) {
+            for (ExecutableElement method : ElementFilter.methodsIn(members)) {
+                if (method.getSimpleName().contentEquals(candidate) && method.getParameters().isEmpty() &&
+                        isAccessible(method) && isAssignable(method.getReturnType(), type)) {
+                    return candidate + "()";
+                }
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(members)) {
+            if (field.getSimpleName().contentEquals(name) && isAccessible(field) &&
+                    isAssignable(field.asType(), type)) {
+                return name;
+            }
+        }
+        throw new MappingException("Writable @JdbcEntity has no accessible getter or field for parameter " +
+                name + " of type " + type, parameter);
+    }
+
+    private boolean isAccessible(Element member) {
+        Set<Modifier> modifiers = member.getModifiers();
+        return !modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.STATIC);
+    }
+
+    private boolean isAssignable(TypeMirror actual, TypeMirror expected) {
+        return processingEnv.getTypeUtils().isAssignable(actual, expected);
+    }
+
+    private void writeMapper(PrintWriter out, String packageName, String mapperName, TypeElement entity,
+                             boolean isPublic, List<MappedParameter> parameters, boolean writable) {
+        String entityName = entity.getQualifiedName().toString();
+        String visibility = isPublic ? "public " : "";
+        if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("import li.l1t.common.sql.sane.mapping.GeneratedJdbcMapper;");
+        out.println("import li.l1t.common.sql.sane.mapping.ResolvedColumns;");
+        out.println();
+        out.println("import java.sql.ResultSet;");
+        out.println("import java.sql.SQLException;");
+        out.println();
+        out.println("/**");
+        out.println(" * Maps {@link " + entityName + "} from and to JDBC rows.");
+        out.println(" * Generated by " + JdbcMapperProcessor.class.getName() + ", do not edit.");
+        out.println(" */");
+        out.println(visibility + "final class " + mapperName + " extends GeneratedJdbcMapper<" + entityName + "> {");
+        out.println("    " + visibility + mapperName + "() {");
+        out.println("        super(" + joinLabels(parameters) + ");");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    protected " + entityName + " createFromRow(ResultSet rs, ResolvedColumns columns) throws SQLException {");
+        out.println("        return new " + entityName + "(");
+        for (int position = 0; position < parameters.size(); position++) {
+            out.println("                " + parameters.get(position).readExpression(position) +
+                    (position < parameters.size() - 1 ? "," : ""));
+        }
+        out.println("        );");
+        out.println("    }");
+        if (writable) {
+            out.println();
+            out.println("    @Override");
+            out.println("    public Object[] toParameters(" + entityName + " entity) {");
+            out.println("        return new Object[]{");
+            for (int position = 0; position < parameters.size(); position++) {
+                out.println("                " + parameters.get(position).parameterExpression() +
+                        (position < parameters.size() - 1 ? "," : ""));
+            }
+            out.println("        };");
+            out.println("    }");
+        }
+        out.println("}");
+        out.flush();
+    }
+
+    private String joinLabels(List<MappedParameter> parameters) {
+        StringBuilder labels = new StringBuilder();
+        for (MappedParameter parameter : parameters) {
+            if (labels.length() > 0) {
+                labels.append(", ");
+            }
+            labels.append('"').append(parameter.label.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return labels.toString();
+    }
+
+    private static class ValueType {
+        private final String getter;
+        private final boolean viaColumns;
+        private final String extraArgument;
+        private final boolean convertedAsParameter;
+
+        private ValueType(String getter, boolean viaColumns, String extraArgument, boolean convertedAsParameter) {
+            this.getter = getter;
+            this.viaColumns = viaColumns;
+            this.extraArgument = extraArgument;
+            this.convertedAsParameter = convertedAsParameter;
+        }
+
+        static ValueType direct(String resultSetGetter) {
+            return new ValueType(resultSetGetter, false, null, false);
+        }
+
+        static ValueType resolved(String columnsGetter, String extraArgument, boolean convertedAsParameter) {
+            return new ValueType(columnsGetter, true, extraArgument, convertedAsParameter);
+        }
+    }
+
+    private static class MappedParameter {
+        private final String label;
+        private final ValueType valueType;
+        private final String accessor;
+
+        MappedParameter(String label, ValueType valueType, String accessor) {
+            this.label = label;
+            this.valueType = valueType;
+            this.accessor = accessor;
+        }
+
+        String readExpression(int position) {
+            if (!valueType.viaColumns) {
+                return "rs." + valueType.getter + "(columns.index(" + position + "))";
+            } else if (valueType.extraArgument == null) {
+                return "columns." + valueType.getter + "(rs, " + position + ")";
+            } else {
+                return "columns." + valueType.getter + "(rs, " + position + ", " + valueType.extraArgument + ")";
+            }
+        }
+
+        String parameterExpression() {
+            String value = "entity." + accessor;
+            return valueType.convertedAsParameter ? "parameter(" + value + ")" : value;
+        }
+    }
+
+    private static class MappingException extends Exception {
+        private final Element element;
+
+        MappingException(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.mapping;
+
+import li.l1t.common.sql.sane.util.ColumnIndexPlan;
+import li.l1t.common.sql.sane.util.UuidDecoder;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The indices of the columns a {@link GeneratedJdbcMapper} reads, resolved once per result set.
+ * Columns are addressed by their position in the mapper's column list, and values are read by
+ * index, without looking up labels for each row.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public final class ResolvedColumns {
+    private final int[] indices;
+    private final boolean[] binary;
+
+    private ResolvedColumns(int[] indices, boolean[] binary) {
+        this.indices = indices;
+        this.binary = binary;
+    }
+
+    static ResolvedColumns resolve(ResultSet rs, String[] labels) throws SQLException {
+        ColumnIndexPlan plan = ColumnIndexPlan.of(rs.getMetaData());
+        int[] indices = new int[labels.length];
+        boolean[] binary = new boolean[labels.length];
+        for (int position = 0; position < labels.length; position++) {
+            indices[position] = plan.indexOf(labels[position]);
+            binary[position] = plan.isBinary(indices[position]);
+        }
+        return new ResolvedColumns(indices, binary);
+    }
+
+    /**
+     * @param position the position of the column in the mapper's column list
+     * @return the one-based index of the column in the result set
+     */
+    public int index(int position) {
+        return indices[position];
+    }
+
+    public Integer getNullableInt(ResultSet rs, int position) throws SQLException {
+        int value = rs.getInt(indices[position]);
+        return rs.wasNull() ? null : value;
+    }
+
+    public Long getNullableLong(ResultSet rs, int position) throws SQLException {
+        long value = rs.getLong(indices[position]);
+        return rs.wasNull() ? null : value;
+    }
+
+    public Short getNullableShort(ResultSet rs, int position) throws SQLException {
+        short value = rs.getShort(indices[position]);
+        return rs.wasNull() ? null : value;
+    }
+
+    public Byte getNullableByte(ResultSet rs, int position) throws SQLException {
+        byte value = rs.getByte(indices[position]);
+        return rs.wasNull() ? null : value;
+    }
+
+    public Double getNullableDouble(ResultSet rs, int position) throws SQLException {
+        double value = rs.getDouble(indices[position]);
+        return rs.wasNull() ? null : value;
+    }
+
+    public Float getNullableFloat(ResultSet rs, int position) throws SQLException {
+        float value = rs.getFloat(indices[position]);
+        return rs.wasNull() ? null : value;
+    }
+
+    public Boolean getNullableBoolean(ResultSet rs, int position) throws SQLException {
+        boolean value = rs.getBoolean(indices[position]);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * Reads a UUID, decoding it from bytes for binary columns and from its string representation
+     * otherwise.
+     *
+     * @param rs       the result set to read from
+     * @param position the position of the column in the mapper's column list
+     * @return the UUID in the column, or null if it is null
+     * @throws SQLException             if a database error occurs
+     * @throws IllegalArgumentException if the column does not contain a valid UUID
+     */
+    public UUID getUuid(ResultSet rs, int position) throws SQLException {
+        int index = indices[position];
+        if (binary[position]) {
+            return UuidDecoder.fromBytes(rs.getBytes(index));
+        } else {
+            return UuidDecoder.fromString(rs.getString(index));
+        }
+    }
+
+    public Instant getInstant(ResultSet rs, int position) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(indices[position]);
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    public LocalDateTime getLocalDateTime(ResultSet rs, int position) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(indices[position]);
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    /**
+     * @param rs       the result set to read from
+     * @param position the position of the column in the mapper's column list
+     * @param type     the type of enum stored by constant name
+     * @param <E>      the type of enum
+     * @return the enum constant named in the column, or null if it is null
+     * @throws SQLException             if a database error occurs
+     * @throws IllegalArgumentException if there is no constant with the stored name
+     */
+    public <E extends Enum<E>> E getEnum(ResultSet rs, int position, Class<E> type) throws SQLException {
+        String name = rs.getString(indices[position]);
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.metrics;
+
+import li.l1t.common.sql.sane.result.QueryResult;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps a query result to count the rows read from it, which are recorded when the result is
+ * closed.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+class CountingQueryResult implements QueryResult {
+    private final QueryResult delegate;
+    private final StatementMetrics metrics;
+    private final LongAdder rowCount = new LongAdder();
+    private final ResultSet resultSet;
+    private final ResultSet countingResultSet;
+    private boolean closed = false;
+
+    CountingQueryResult(QueryResult delegate, StatementMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.resultSet = delegate.rs();
+        this.countingResultSet = (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, this::invokeCounting
+        );
+    }
+
+    private Object invokeCounting(Object proxy, Method method, Object[] args) throws Throwable {
+        try {
+            Object result = method.invoke(resultSet, args);
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                rowCount.increment();
+            }
+            return result;
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public ResultSet rs() {
+        return countingResultSet;
+    }
+
+    @Override
+    public PreparedStatement getStatement() {
+        return delegate.getStatement();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            metrics.addRows(rowCount.sum());
+        }
+        delegate.close();
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.metrics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.TransactionAware;
+import li.l1t.common.sql.sane.connection.PooledConnectionManager;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.result.UpdateResult;
+import li.l1t.common.sql.sane.scoped.ScopedSession;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Decorates a sane SQL instance to record metrics about the executed statements. Statements are
+ * grouped by their normalized SQL, with literals replaced by placeholders. For each statement, call
+ * and error counts, a latency histogram and the amount of rows read or affected are recorded.
+ * Executions exceeding a configurable threshold are logged, with the values of bound parameters
+ * redacted. Metrics may be obtained as a {@link #getSnapshot() snapshot}.
+ * <p>Latency of queries covers execution only, as rows are fetched while the caller reads the
+ * result. If a {@link PooledConnectionManager} is attached, snapshots also include the time spent
+ * waiting for connections from it.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class InstrumentedSaneSql implements SaneSql, TransactionAware {
+    private static final Logger LOGGER = Logger.getLogger(InstrumentedSaneSql.class.getName());
+    static final String OVERFLOW_SQL = "<other statements>";
+    private final SaneSql delegate;
+    private final long slowQueryThresholdNanos;
+    private final int maxTrackedStatements;
+    private final PooledConnectionManager connectionPool;
+    private final ConcurrentMap<String, StatementMetrics> metrics = new ConcurrentHashMap<>();
+    private final LongAdder slowStatementCount = new LongAdder();
+    private final LoadingCache<String, String> normalizedSql;
+
+    private InstrumentedSaneSql(Builder builder) {
+        this.delegate = builder.delegate;
+        this.slowQueryThresholdNanos = builder.slowQueryThresholdNanos;
+        this.maxTrackedStatements = builder.maxTrackedStatements;
+        this.connectionPool = builder.connectionPool;
+        this.normalizedSql = CacheBuilder.newBuilder()
+                .maximumSize(builder.maxTrackedStatements * 2L)
+                .build(CacheLoader.from(SqlNormalizer::normalize));
+    }
+
+    /**
+     * Creates a builder for an instrumented decorator.
+     *
+     * @param delegate the sane SQL instance to execute statements on
+     * @return a new builder
+     */
+    public static Builder builder(SaneSql delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public QueryResult query(String sqlQuery, Object... parameters) throws DatabaseException {
+        StatementMetrics statementMetrics = metricsFor(sqlQuery);
+        QueryResult result = measure(sqlQuery, parameters, statementMetrics, () -> delegate.query(sqlQuery, parameters));
+        return new CountingQueryResult(result, statementMetrics);
+    }
+
+    @Override
+    public int updateRaw(String sqlQuery, Object... parameters) throws DatabaseException {
+        StatementMetrics statementMetrics = metricsFor(sqlQuery);
+        int affectedRowCount = measure(sqlQuery, parameters, statementMetrics, () -> delegate.updateRaw(sqlQuery, parameters));
+        statementMetrics.addRows(affectedRowCount);
+        return affectedRowCount;
+    }
+
+    @Override
+    public UpdateResult update(String sqlQuery, Object... parameters) throws DatabaseException {
+        StatementMetrics statementMetrics = metricsFor(sqlQuery);
+        UpdateResult result = measure(sqlQuery, parameters, statementMetrics, () -> delegate.update(sqlQuery, parameters));
+        statementMetrics.addRows(result.getAffectedRowCount());
+        return result;
+    }
+
+    private StatementMetrics metricsFor(String sqlQuery) {
+        Preconditions.checkNotNull(sqlQuery, "sqlQuery");
+        String normalized = normalizedSql.getUnchecked(sqlQuery);
+        StatementMetrics existing = metrics.get(normalized);
+        if (existing != null) {
+            return existing;
+        } else if (metrics.size() >= maxTrackedStatements) {
+            return metrics.computeIfAbsent(OVERFLOW_SQL, key -> new StatementMetrics());
+        } else {
+            return metrics.computeIfAbsent(normalized, key -> new StatementMetrics());
+        }
+    }
+
+    private <T> T measure(String sqlQuery, Object[] parameters, StatementMetrics statementMetrics, Supplier<T> execution) {
+        long startNanos = System.nanoTime();
+        try {
+            T result = execution.get();
+            long elapsedNanos = System.nanoTime() - startNanos;
+            statementMetrics.recordExecution(elapsedNanos);
+            logIfSlow(sqlQuery, parameters, elapsedNanos);
+            return result;
+        } catch (RuntimeException e) {
+            statementMetrics.recordFailure(System.nanoTime() - startNanos);
+            throw e;
+        }
+    }
+
+    private void logIfSlow(String sqlQuery, Object[] parameters, long elapsedNanos) {
+        if (elapsedNanos >= slowQueryThresholdNanos) {
+            slowStatementCount.increment();
+            LOGGER.log(Level.WARNING, "Slow SQL statement took {0}ms: {1} with parameters {2}", new Object[]{
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), normalizedSql.getUnchecked(sqlQuery), redact(parameters)
+            });
+        }
+    }
+
+    private static String redact(Object[] parameters) {
+        return Arrays.stream(parameters)
+                .map(parameter -> parameter == null ? "null" : "<" + parameter.getClass().getSimpleName() + ">")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    @Override
+    public ScopedSession<?> scoped() {
+        return delegate.scoped();
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return TransactionAware.mayBeInTransaction(delegate);
+    }
+
+    /**
+     * @return a snapshot of the metrics recorded so far
+     */
+    public SqlMetricsSnapshot getSnapshot() {
+        List<StatementStatistics> statements = metrics.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .collect(Collectors.toList());
+        return new SqlMetricsSnapshot(
+                Instant.now(), statements, slowStatementCount.sum(),
+                connectionPool == null ? null : connectionPool.getStatistics()
+        );
+    }
+
+    /**
+     * Discards all statement metrics recorded so far. Pool statistics are not affected.
+     */
+    public void reset() {
+        metrics.clear();
+        slowStatementCount.reset();
+    }
+
+    /**
+     * @return the sane SQL instance statements are executed on
+     */
+    public SaneSql getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void close() throws Exception {
+        delegate.close();
+    }
+
+    /**
+     * Builds instrumented sane SQL decorators.
+     */
+    public static class Builder {
+        private final SaneSql delegate;
+        private long slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(200);
+        private int maxTrackedStatements = 500;
+        private PooledConnectionManager connectionPool;
+
+        private Builder(SaneSql delegate) {
+            this.delegate = Preconditions.checkNotNull(delegate, "delegate");
+        }
+
+        /**
+         * @param threshold the minimum duration of executions to log as slow, 200 milliseconds by
+         *                  default
+         * @param unit      the unit of the threshold
+         * @return this builder
+         */
+        public Builder slowQueryThreshold(long threshold, TimeUnit unit) {
+            Preconditions.checkArgument(threshold >= 0, "threshold must not be negative: %s", threshold);
+            this.slowQueryThresholdNanos = unit.toNanos(threshold);
+            return this;
+        }
+
+        /**
+         * @param maxTrackedStatements the maximum amount of distinct normalized statements to
+         *                             record separately, further statements are recorded together,
+         *                             500 by default
+         * @return this builder
+         */
+        public Builder maxTrackedStatements(int maxTrackedStatements) {
+            Preconditions.checkArgument(maxTrackedStatements > 0, "maxTrackedStatements must be positive: %s", maxTrackedStatements);
+            this.maxTrackedStatements = maxTrackedStatements;
+            return this;
+        }
+
+        /**
+         * @param connectionPool the pool the decorated instance obtains connections from, to
+         *                       include its wait times in snapshots
+         * @return this builder
+         */
+        public Builder connectionPool(PooledConnectionManager connectionPool) {
+            this.connectionPool = connectionPool;
+            return this;
+        }
+
+        public InstrumentedSaneSql build() {
+            return new InstrumentedSaneSql(this);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.metrics;
+
+import com.google.common.collect.ImmutableList;
+import li.l1t.common.sql.sane.connection.PoolStatistics;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable snapshot of the metrics recorded by an {@link InstrumentedSaneSql}.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class SqlMetricsSnapshot {
+    private final Instant takenAt;
+    private final List<StatementStatistics> statements;
+    private final long slowStatementCount;
+    private final PoolStatistics poolStatistics;
+
+    SqlMetricsSnapshot(Instant takenAt, List<StatementStatistics> statements, long slowStatementCount,
+                       PoolStatistics poolStatistics) {
+        this.takenAt = takenAt;
+        this.statements = ImmutableList.copyOf(statements.stream()
+                .sorted(Comparator.comparingLong(StatementStatistics::getTotalNanos).reversed())
+                .collect(Collectors.toList()));
+        this.slowStatementCount = slowStatementCount;
+        this.poolStatistics = poolStatistics;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * @return the statistics of each recorded statement, the statements taking the most total time
+     * first
+     */
+    public List<StatementStatistics> getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the amount of executions that exceeded the slow query threshold
+     */
+    public long getSlowStatementCount() {
+        return slowStatementCount;
+    }
+
+    /**
+     * @return the statistics of the connection pool, including the time spent waiting for
+     * connections, or an empty optional if no pool is attached
+     */
+    public Optional<PoolStatistics> getPoolStatistics() {
+        return Optional.ofNullable(poolStatistics);
+    }
+
+    /**
+     * @param limit the maximum amount of statements to include
+     * @return human-readable lines describing this snapshot, suitable for printing to a console
+     */
+    public List<String> toLines(int limit) {
+        ImmutableList.Builder<String> lines = ImmutableList.builder();
+        lines.add("SQL metrics at " + takenAt + ", " + slowStatementCount + " slow executions");
+        getPoolStatistics().ifPresent(pool -> lines.add("Pool: " + pool));
+        statements.stream().limit(limit).map(String::valueOf).forEach(lines::add);
+        return lines.build();
+    }
+
+    @Override
+    public String toString() {
+        return "SqlMetricsSnapshot{" +
+                "takenAt=" + takenAt +
+                ", statements=" + statements.size() +
+                ", slowStatementCount=" + slowStatementCount +
+                ", poolStatistics=" + poolStatistics +
+                '}';
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable snapshot of the metrics recorded for a single normalized SQL statement.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class StatementStatistics {
+    private final String sql;
+    private final long callCount;
+    private final long errorCount;
+    private final long rowCount;
+    private final long totalNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    StatementStatistics(String sql, long errorCount, long rowCount, LatencyHistogram latencies) {
+        this.sql = sql;
+        this.callCount = latencies.getCount();
+        this.errorCount = errorCount;
+        this.rowCount = rowCount;
+        this.totalNanos = latencies.getTotalNanos();
+        this.p50Nanos = latencies.getPercentileNanos(50);
+        this.p99Nanos = latencies.getPercentileNanos(99);
+        this.maxNanos = latencies.getMaxNanos();
+    }
+
+    /**
+     * @return the normalized SQL of the statement, with literals replaced by placeholders
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return the amount of executions, including failed ones
+     */
+    public long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * @return the amount of executions that failed with an exception
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return the total amount of rows read from results of queries or affected by updates
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dx (%d failed), %d rows, p50=%.2fms p99=%.2fms max=%.2fms total=%dms: %s",
+                callCount, errorCount, rowCount, millis(p50Nanos), millis(p99Nanos), millis(maxNanos),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos), sql);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000D;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.resilience;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Fails fast while the database is unavailable. After a configurable amount of consecutive
+ * connection failures, the breaker opens and rejects all operations for a cool-down period. After
+ * that, a single trial operation is permitted. If it succeeds, the breaker closes again, otherwise
+ * the cool-down starts over.
+ * <p>Every permitted operation must report its outcome using {@link #recordSuccess()} or {@link
+ * #recordFailure()}. Failures that do not indicate an unavailable database, such as syntax errors,
+ * count as success.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class CircuitBreaker {
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder rejectedCount = new LongAdder();
+    private volatile long stateChangedNanos = System.nanoTime();
+
+    /**
+     * @param failureThreshold the amount of consecutive failures after which the breaker opens
+     * @param openDuration     the time to reject operations for after opening
+     * @param unit             the unit of the open duration
+     */
+    public CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+        Preconditions.checkArgument(failureThreshold > 0, "failureThreshold must be positive: %s", failureThreshold);
+        Preconditions.checkArgument(openDuration > 0, "openDuration must be positive: %s", openDuration);
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+    }
+
+    /**
+     * Checks whether an operation may be attempted.
+     *
+     * @throws CircuitOpenException if the breaker is open or a trial operation is already in
+     *                              progress
+     */
+    public void checkPermitted() throws CircuitOpenException {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return;
+        }
+        long sinceChange = System.nanoTime() - stateChangedNanos;
+        if (sinceChange >= openNanos && state.compareAndSet(current, State.HALF_OPEN)) {
+            stateChangedNanos = System.nanoTime();
+            return; //trial, also re-permitted if a previous trial never reported back
+        }
+        rejectedCount.increment();
+        throw new CircuitOpenException(TimeUnit.NANOSECONDS.toMillis(Math.max(0L, openNanos - sinceChange)));
+    }
+
+    /**
+     * Records that an operation reached the database.
+     */
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            stateChangedNanos = System.nanoTime();
+            LOGGER.info("Database available again, closing circuit breaker");
+        }
+    }
+
+    /**
+     * Records that an operation failed because the database could not be reached.
+     */
+    public void recordFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            if (state.compareAndSet(current, State.OPEN)) {
+                stateChangedNanos = System.nanoTime();
+                LOGGER.warning("Database unavailable after " + failures + " consecutive failures, " +
+                        "opening circuit breaker for " + TimeUnit.NANOSECONDS.toMillis(openNanos) + "ms");
+            }
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return the amount of operations rejected since creation of this breaker
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * The states a circuit breaker can be in.
+     */
+    public enum State {
+        /**
+         * Operations are permitted.
+         */
+        CLOSED,
+        /**
+         * Operations are rejected.
+         */
+        OPEN,
+        /**
+         * A single trial operation has been permitted and further operations are rejected until
+         * it reports back.
+         */
+        HALF_OPEN
+    }
+}
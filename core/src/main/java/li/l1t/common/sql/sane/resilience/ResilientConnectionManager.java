@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.resilience;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import li.l1t.common.sql.sane.connection.ConnectionManager;
+import li.l1t.common.sql.sane.connection.PooledConnectionManager;
+import li.l1t.common.sql.sane.exception.SqlConnectionException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decorates a single-connection manager, such as {@link li.l1t.common.sql.sane.connection.SimpleConnectionManager},
+ * with a background keep-alive. The connection is validated periodically on a daemon thread, which
+ * keeps the server from dropping it while idle and reconnects if it has been dropped anyway, so
+ * that the first statement after an idle period does not have to wait for a reconnect. Outcomes of
+ * the validation are reported to a circuit breaker, if given, so that it closes as soon as the
+ * database is reachable again.
+ * <p>Since the connection is shared, it is only validated while idle: not while it has been handed
+ * out since the previous validation, not while it is in a transaction, and not while any {@link
+ * #addUsageProbe(BooleanSupplier) usage probe} reports it as busy. Validation does not hold any
+ * lock of the delegate, and the connection is only replaced if it is still idle after failing
+ * validation, so that work in progress on it is never aborted.</p>
+ * <p>Pooled managers validate their connections themselves and are therefore not supported.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class ResilientConnectionManager implements ConnectionManager {
+    private static final Logger LOGGER = Logger.getLogger(ResilientConnectionManager.class.getName());
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private final ConnectionManager delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final ScheduledExecutorService keepAliveExecutor;
+    private final List<BooleanSupplier> usageProbes = new CopyOnWriteArrayList<>();
+    private final LongAdder checkoutCount = new LongAdder();
+    private long checkoutsAtLastKeepAlive; //only accessed by the keep-alive thread
+
+    /**
+     * @param delegate          the connection manager to keep alive
+     * @param keepAliveInterval the interval between validations of the connection
+     * @param unit              the unit of the interval
+     * @param circuitBreaker    the breaker to report validation outcomes to, or null
+     */
+    public ResilientConnectionManager(ConnectionManager delegate, long keepAliveInterval, TimeUnit unit,
+                                      CircuitBreaker circuitBreaker) {
+        this.delegate = Preconditions.checkNotNull(delegate, "delegate");
+        Preconditions.checkArgument(!(delegate instanceof PooledConnectionManager),
+                "pooled connections are validated by the pool itself");
+        Preconditions.checkArgument(keepAliveInterval > 0, "keepAliveInterval must be positive: %s", keepAliveInterval);
+        this.circuitBreaker = circuitBreaker;
+        this.keepAliveExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("xyc-sql-keepalive-%d")
+                .setDaemon(true)
+                .build());
+        this.keepAliveExecutor.scheduleWithFixedDelay(this::keepAlive, keepAliveInterval, keepAliveInterval, unit);
+    }
+
+    /**
+     * Adds a probe that reports whether the connection is currently in use by its owner, for
+     * example because a statement is executing on it. The connection is not validated while any
+     * probe reports it as busy.
+     *
+     * @param probe the probe returning true while the connection is in use
+     */
+    public void addUsageProbe(BooleanSupplier probe) {
+        usageProbes.add(Preconditions.checkNotNull(probe, "probe"));
+    }
+
+    void keepAlive() {
+        try {
+            Connection connection = delegate.getCurrentConnection();
+            if (connection == null || isClosed(connection)) {
+                delegate.getConnection(); //only connects if there is no open connection
+            } else if (!isIdle(connection)) {
+                return; //validation might fail just because the connection is busy
+            } else if (!isValid(connection)) {
+                if (!isIdle(connection) || connection != delegate.getCurrentConnection()) {
+                    return; //not confirmed dead, since it was used or replaced meanwhile
+                }
+                LOGGER.info("Database connection lost while idle, reconnecting in background");
+                delegate.forceReconnect();
+            }
+            if (circuitBreaker != null) {
+                circuitBreaker.recordSuccess();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Background reconnect to database failed", e);
+            if (circuitBreaker != null) {
+                circuitBreaker.recordFailure();
+            }
+        }
+    }
+
+    private boolean isIdle(Connection connection) {
+        long checkouts = checkoutCount.sum();
+        boolean checkedOut = checkouts != checkoutsAtLastKeepAlive;
+        checkoutsAtLastKeepAlive = checkouts;
+        if (checkedOut) {
+            return false;
+        }
+        for (BooleanSupplier probe : usageProbes) {
+            if (probe.getAsBoolean()) {
+                return false;
+            }
+        }
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SqlConnectionException {
+        checkoutCount.increment();
+        return delegate.getConnection();
+    }
+
+    @Override
+    public Connection getCurrentConnection() {
+        return delegate.getCurrentConnection();
+    }
+
+    @Override
+    public void forceReconnect() throws SqlConnectionException {
+        delegate.forceReconnect();
+    }
+
+    @Override
+    public boolean hasActiveConnection() {
+        return delegate.hasActiveConnection();
+    }
+
+    @Override
+    public void close() {
+        keepAliveExecutor.shutdownNow();
+        delegate.close();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.resilience;
+
+import com.google.common.base.Preconditions;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.TransactionAware;
+import li.l1t.common.sql.sane.connection.ConnectionManager;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.result.UpdateResult;
+import li.l1t.common.sql.sane.scoped.ScopedSession;
+import li.l1t.common.sql.sane.statement.SqlTimeoutException;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decorates a sane SQL instance to retry failed queries and fail fast while the database is
+ * unavailable. Queries are considered idempotent and retried according to a {@link RetryPolicy},
+ * unless the current thread is in a transaction, since a failure usually aborts the whole
+ * transaction. Updates are never retried, since they might have been applied before the failure
+ * was reported. If a connection manager is given, a reconnect is forced before retrying after a
+ * connection error.
+ * <p>All statements pass a {@link CircuitBreaker}, which opens after repeated connection errors.
+ * Retries are only attempted if the delegate implements {@link TransactionAware}, since it would
+ * be unsafe to retry inside a transaction otherwise.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class ResilientSaneSql implements SaneSql, TransactionAware {
+    private static final Logger LOGGER = Logger.getLogger(ResilientSaneSql.class.getName());
+    private final SaneSql delegate;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final ConnectionManager reconnectManager;
+    private final LongAdder retryCount = new LongAdder();
+
+    /**
+     * @param delegate         the sane SQL instance to execute statements on
+     * @param retryPolicy      the policy deciding which queries to retry
+     * @param circuitBreaker   the breaker to pass for each statement
+     * @param reconnectManager the connection manager of the delegate to force reconnects on after
+     *                         connection errors, or null to not force reconnects
+     */
+    public ResilientSaneSql(SaneSql delegate, RetryPolicy retryPolicy, CircuitBreaker circuitBreaker,
+                            ConnectionManager reconnectManager) {
+        this.delegate = Preconditions.checkNotNull(delegate, "delegate");
+        this.retryPolicy = Preconditions.checkNotNull(retryPolicy, "retryPolicy");
+        this.circuitBreaker = Preconditions.checkNotNull(circuitBreaker, "circuitBreaker");
+        this.reconnectManager = reconnectManager;
+    }
+
+    @Override
+    public QueryResult query(String sqlQuery, Object... parameters) throws DatabaseException {
+        if (isInTransaction()) {
+            return guarded(() -> delegate.query(sqlQuery, parameters));
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return guarded(() -> delegate.query(sqlQuery, parameters));
+            } catch (CircuitOpenException | SqlTimeoutException e) {
+                throw e; //retrying a timed out query would hold the connection for another timeout
+            } catch (RuntimeException e) {
+                SQLException cause = SqlStates.findSqlException(e);
+                if (!retryPolicy.shouldRetry(cause, attempt) || !retryPolicy.awaitBackoff(attempt)) {
+                    throw e;
+                }
+                retryCount.increment();
+                LOGGER.log(Level.FINE, "Retrying query after transient error, attempt " + (attempt + 1), e);
+                reconnectIfConnectionError(cause);
+            }
+        }
+    }
+
+    private void reconnectIfConnectionError(SQLException cause) {
+        if (reconnectManager != null && SqlStates.isConnectionError(cause)) {
+            try {
+                reconnectManager.forceReconnect();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Reconnect before retry failed", e);
+            }
+        }
+    }
+
+    private <T> T guarded(Supplier<T> execution) {
+        circuitBreaker.checkPermitted();
+        try {
+            T result = execution.get();
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            SQLException cause = SqlStates.findSqlException(e);
+            if (cause != null && SqlStates.isConnectionError(cause)) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int updateRaw(String sqlQuery, Object... parameters) throws DatabaseException {
+        return guarded(() -> delegate.updateRaw(sqlQuery, parameters));
+    }
+
+    @Override
+    public UpdateResult update(String sqlQuery, Object... parameters) throws DatabaseException {
+        return guarded(() -> delegate.update(sqlQuery, parameters));
+    }
+
+    @Override
+    public ScopedSession<?> scoped() {
+        return delegate.scoped();
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return TransactionAware.mayBeInTransaction(delegate);
+    }
+
+    /**
+     * @return the amount of retries made since creation of this instance
+     */
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @Override
+    public void close() throws Exception {
+        delegate.close();
+    }
+}
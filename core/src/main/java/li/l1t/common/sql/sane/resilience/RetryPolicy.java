@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.resilience;
+
+import com.google.common.base.Preconditions;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Decides whether and when failed database operations are retried. Delays grow exponentially with
+ * each attempt and are jittered randomly between half and all of the computed delay, so that
+ * clients failing at the same time do not retry in lockstep.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Predicate<? super SQLException> retryable;
+
+    /**
+     * @param maxAttempts     the maximum amount of attempts, including the first one
+     * @param baseDelayMillis the delay before the first retry, before jitter
+     * @param maxDelayMillis  the maximum delay between attempts, before jitter
+     * @param retryable       the predicate deciding whether an exception may be retried
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis,
+                       Predicate<? super SQLException> retryable) {
+        Preconditions.checkArgument(maxAttempts > 0, "maxAttempts must be positive: %s", maxAttempts);
+        Preconditions.checkArgument(baseDelayMillis >= 0, "baseDelayMillis must not be negative: %s", baseDelayMillis);
+        Preconditions.checkArgument(maxDelayMillis >= baseDelayMillis, "maxDelayMillis must be at least baseDelayMillis");
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.retryable = Preconditions.checkNotNull(retryable, "retryable");
+    }
+
+    /**
+     * Creates a policy retrying {@link SqlStates#isTransient(SQLException) transient errors}.
+     *
+     * @param maxAttempts the maximum amount of attempts, including the first one
+     * @param baseDelay   the delay before the first retry, before jitter
+     * @param maxDelay    the maximum delay between attempts, before jitter
+     * @param unit        the unit of the delays
+     * @return the created policy
+     */
+    public static RetryPolicy transientErrors(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit) {
+        return new RetryPolicy(maxAttempts, unit.toMillis(baseDelay), unit.toMillis(maxDelay), SqlStates::isTransient);
+    }
+
+    /**
+     * Creates a policy retrying {@link SqlStates#isLockConflict(SQLException) lock conflicts}, such
+     * as deadlocks, which are best resolved by re-running the whole transaction.
+     *
+     * @param maxAttempts the maximum amount of attempts, including the first one
+     * @param baseDelay   the delay before the first retry, before jitter
+     * @param maxDelay    the maximum delay between attempts, before jitter
+     * @param unit        the unit of the delays
+     * @return the created policy
+     */
+    public static RetryPolicy lockConflicts(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit) {
+        return new RetryPolicy(maxAttempts, unit.toMillis(baseDelay), unit.toMillis(maxDelay), SqlStates::isLockConflict);
+    }
+
+    /**
+     * @return a policy that never retries
+     */
+    public static RetryPolicy never() {
+        return new RetryPolicy(1, 0, 0, e -> false);
+    }
+
+    /**
+     * @param cause   the exception that caused the attempt to fail, may be null
+     * @param attempt the one-based number of the attempt that failed
+     * @return whether another attempt should be made
+     */
+    public boolean shouldRetry(SQLException cause, int attempt) {
+        return attempt < maxAttempts && cause != null && retryable.test(cause);
+    }
+
+    /**
+     * @param attempt the one-based number of the attempt that failed
+     * @return the jittered delay in milliseconds to wait before the next attempt
+     */
+    public long getBackoffMillis(int attempt) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(Math.max(attempt - 1, 0), 30));
+        if (cap <= 0) {
+            return 0L;
+        }
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    /**
+     * Waits for the backoff delay of given attempt.
+     *
+     * @param attempt the one-based number of the attempt that failed
+     * @return false if the thread was interrupted while waiting, with its interrupt flag restored
+     */
+    public boolean awaitBackoff(int attempt) {
+        try {
+            Thread.sleep(getBackoffMillis(attempt));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.resilience;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+
+/**
+ * Classifies SQL exceptions by their SQLState and vendor error code.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public final class SqlStates {
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private static final String POSTGRES_DEADLOCK_DETECTED = "40P01";
+    private static final String TIMEOUT_EXPIRED = "HYT00";
+    private static final String CONNECTION_TIMEOUT_EXPIRED = "HYT01";
+    private static final String QUERY_CANCELED = "57014";
+    private static final int MYSQL_QUERY_INTERRUPTED = 1317;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MYSQL_DEADLOCK = 1213;
+
+    private SqlStates() {
+
+    }
+
+    /**
+     * Finds the first SQL exception in the cause chain of given throwable, for example to inspect
+     * the cause of a {@link li.l1t.common.exception.DatabaseException}.
+     *
+     * @param throwable the throwable to search
+     * @return the first SQL exception found, or null if there is none
+     */
+    public static SQLException findSqlException(Throwable throwable) {
+        Throwable current = throwable;
+        while (current != null) {
+            if (current instanceof SQLException) {
+                return (SQLException) current;
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return null;
+    }
+
+    /**
+     * @param e the exception to check
+     * @return whether the exception indicates that the connection to the database is broken
+     */
+    public static boolean isConnectionError(SQLException e) {
+        return e instanceof SQLNonTransientConnectionException || e instanceof SQLTransientConnectionException ||
+                e instanceof SQLRecoverableException || hasStateClass(e, CONNECTION_EXCEPTION_CLASS);
+    }
+
+    /**
+     * @param e the exception to check
+     * @return whether the exception indicates that the transaction was aborted due to a deadlock
+     * or serialization conflict with a concurrent transaction
+     */
+    public static boolean isSerializationFailure(SQLException e) {
+        return hasState(e, SERIALIZATION_FAILURE) || hasState(e, POSTGRES_DEADLOCK_DETECTED) ||
+                e.getErrorCode() == MYSQL_DEADLOCK;
+    }
+
+    /**
+     * @param e the exception to check
+     * @return whether the exception indicates that the transaction lost a conflict over locks with a
+     * concurrent transaction, either as a {@link #isSerializationFailure(SQLException) deadlock or
+     * serialization failure} or because it timed out waiting for a lock
+     */
+    public static boolean isLockConflict(SQLException e) {
+        return isSerializationFailure(e) || e.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT;
+    }
+
+    /**
+     * @param e the exception to check
+     * @return whether the operation that caused the exception might succeed if it is retried
+     */
+    public static boolean isTransient(SQLException e) {
+        return isConnectionError(e) || isSerializationFailure(e) || e instanceof SQLTransientException ||
+                hasState(e, TIMEOUT_EXPIRED) || e.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT;
+    }
+
+    /**
+     * @param e the exception to check
+     * @return whether the exception indicates that a statement was aborted because its query
+     * timeout elapsed or because it was cancelled
+     */
+    public static boolean isTimeout(SQLException e) {
+        return e instanceof SQLTimeoutException || hasState(e, TIMEOUT_EXPIRED) ||
+                hasState(e, CONNECTION_TIMEOUT_EXPIRED) || hasState(e, QUERY_CANCELED) ||
+                e.getErrorCode() == MYSQL_QUERY_INTERRUPTED;
+    }
+
+    private static boolean hasState(SQLException e, String sqlState) {
+        return sqlState.equals(e.getSQLState());
+    }
+
+    private static boolean hasStateClass(SQLException e, String stateClass) {
+        return e.getSQLState() != null && e.getSQLState().startsWith(stateClass);
+    }
+}
@@ -25,9 +25,9 @@
 package li.l1t.common.sql.sane.result;
 
 import com.google.common.base.Preconditions;
-import li.l1t.common.util.Closer;
 
 import java.sql.PreparedStatement;
+import java.util.function.Consumer;
 
 /**
  * Abstract base class for closeable results.
@@ -37,14 +37,25 @@ import java.sql.PreparedStatement;
  */
 abstract class AbstractCloseableResult implements CloseableResult {
     private final PreparedStatement statement;
+    private final Consumer<? super PreparedStatement> statementReleaser;
+    private boolean closed = false;
 
-    AbstractCloseableResult(PreparedStatement statement) {
+    AbstractCloseableResult(PreparedStatement statement, Consumer<? super PreparedStatement> statementReleaser) {
         this.statement = Preconditions.checkNotNull(statement, "statement");
+        this.statementReleaser = Preconditions.checkNotNull(statementReleaser, "statementReleaser");
     }
 
+    /**
+     * Releases the statement of this result using the releaser given at construction time. Closing
+     * an already closed result does nothing, since the statement may have been handed out to
+     * somebody else after it was released.
+     */
     @Override
     public void close() {
-        Closer.close(statement);
+        if (!closed) {
+            closed = true;
+            statementReleaser.accept(statement);
+        }
     }
 
     @Override
@@ -25,10 +25,12 @@
 package li.l1t.common.sql.sane.result;
 
 import com.google.common.base.Preconditions;
+import li.l1t.common.util.Closer;
 
 import javax.annotation.Nonnull;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.function.Consumer;
 
 /**
  * A simple implementation of a query result.
@@ -40,7 +42,20 @@ public class SimpleQueryResult extends AbstractCloseableResult implements QueryR
     private final ResultSet resultSet;
 
     public SimpleQueryResult(@Nonnull PreparedStatement statement, @Nonnull ResultSet resultSet) {
-        super(statement);
+        this(statement, resultSet, Closer::close);
+    }
+
+    /**
+     * Creates a new query result that hands its statement to given releaser when closed instead of
+     * closing it, for example to return it to a {@link li.l1t.common.sql.sane.statement.PreparedStatementCache}.
+     *
+     * @param statement         the statement that was executed
+     * @param resultSet         the result set returned by the statement
+     * @param statementReleaser the consumer to release the statement to
+     */
+    public SimpleQueryResult(@Nonnull PreparedStatement statement, @Nonnull ResultSet resultSet,
+                             @Nonnull Consumer<? super PreparedStatement> statementReleaser) {
+        super(statement, statementReleaser);
         this.resultSet = Preconditions.checkNotNull(resultSet, "resultSet");
     }
 
@@ -51,6 +66,7 @@ public class SimpleQueryResult extends AbstractCloseableResult implements QueryR
 
     @Override
     public void close() {
-        super.close(); //closing a prepared statement also closes its result set, so nothing to do here
+        Closer.close(resultSet); //the statement might not be closed by the releaser
+        super.close();
     }
 }
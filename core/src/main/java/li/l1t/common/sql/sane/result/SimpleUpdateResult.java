@@ -30,6 +30,7 @@ import li.l1t.common.util.Closer;
 import javax.annotation.Nonnull;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.function.Consumer;
 
 /**
  * A simple implementation of an update result.
@@ -43,7 +44,21 @@ public class SimpleUpdateResult extends AbstractCloseableResult implements Updat
 
     public SimpleUpdateResult(@Nonnull PreparedStatement statement, @Nonnull ResultSet generatedKeys,
                               int affectedRowCount) {
-        super(statement);
+        this(statement, generatedKeys, affectedRowCount, Closer::close);
+    }
+
+    /**
+     * Creates a new update result that hands its statement to given releaser when closed instead of
+     * closing it, for example to return it to a {@link li.l1t.common.sql.sane.statement.PreparedStatementCache}.
+     *
+     * @param statement         the statement that was executed
+     * @param generatedKeys     the generated keys returned by the statement
+     * @param affectedRowCount  the amount of rows affected by the statement
+     * @param statementReleaser the consumer to release the statement to
+     */
+    public SimpleUpdateResult(@Nonnull PreparedStatement statement, @Nonnull ResultSet generatedKeys,
+                              int affectedRowCount, @Nonnull Consumer<? super PreparedStatement> statementReleaser) {
+        super(statement, statementReleaser);
         this.generatedKeys = Preconditions.checkNotNull(generatedKeys, "generatedKeys");
         this.affectedRowCount = affectedRowCount;
     }
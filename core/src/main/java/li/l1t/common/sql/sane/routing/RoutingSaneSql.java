@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.routing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.SingleSql;
+import li.l1t.common.sql.sane.TransactionAware;
+import li.l1t.common.sql.sane.connection.ConnectionManager;
+import li.l1t.common.sql.sane.exception.SqlConnectionException;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.result.UpdateResult;
+import li.l1t.common.sql.sane.scoped.JdbcScopedSession;
+import li.l1t.common.util.Closer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A sane SQL implementation that sends read queries to a set of read replicas and everything else
+ * to a primary database. Updates and scoped sessions always use the primary. Queries issued while
+ * the current thread has a transaction open on the primary are sent to the primary as well, so
+ * that they see the transaction's own writes. If a replica cannot be connected to, the query falls
+ * back to the primary.
+ * <p>Note that replicas may lag behind the primary, so that queries outside of transactions might
+ * not see writes made just before.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class RoutingSaneSql implements SaneSql, TransactionAware {
+    private static final Logger LOGGER = Logger.getLogger(RoutingSaneSql.class.getName());
+    private final SingleSql primary;
+    private final List<Replica> replicas;
+    private final ReplicaSelection selection;
+    private final AtomicInteger nextReplicaIndex = new AtomicInteger();
+
+    /**
+     * @param primary   the sane SQL instance for the primary database
+     * @param replicas  the sane SQL instances for the read replicas, queries are sent to the
+     *                  primary if this is empty
+     * @param selection the strategy for selecting the replica to send a query to
+     */
+    public RoutingSaneSql(SingleSql primary, List<? extends SaneSql> replicas, ReplicaSelection selection) {
+        this.primary = Preconditions.checkNotNull(primary, "primary");
+        this.selection = Preconditions.checkNotNull(selection, "selection");
+        Preconditions.checkNotNull(replicas, "replicas");
+        ImmutableList.Builder<Replica> replicaBuilder = ImmutableList.builder();
+        replicas.forEach(replica -> replicaBuilder.add(new Replica(replica)));
+        this.replicas = replicaBuilder.build();
+    }
+
+    /**
+     * Creates a new routing instance from connection managers.
+     *
+     * @param primary   the connection manager for the primary database
+     * @param replicas  the connection managers for the read replicas
+     * @param selection the strategy for selecting the replica to send a query to
+     * @return the created routing instance
+     */
+    public static RoutingSaneSql of(ConnectionManager primary, List<? extends ConnectionManager> replicas,
+                                    ReplicaSelection selection) {
+        Preconditions.checkNotNull(replicas, "replicas");
+        ImmutableList.Builder<SaneSql> replicaSqls = ImmutableList.builder();
+        replicas.forEach(replica -> replicaSqls.add(new SingleSql(replica)));
+        return new RoutingSaneSql(new SingleSql(primary), replicaSqls.build(), selection);
+    }
+
+    @Override
+    public QueryResult query(String sqlQuery, Object... parameters) throws DatabaseException {
+        if (replicas.isEmpty() || primary.isInTransaction()) {
+            return primary.query(sqlQuery, parameters);
+        }
+        Replica replica = selectReplica();
+        replica.acquire();
+        try {
+            return new ReplicaQueryResult(replica.sql().query(sqlQuery, parameters), replica);
+        } catch (SqlConnectionException e) {
+            replica.release();
+            LOGGER.log(Level.WARNING, "Replica unavailable, falling back to primary for query", e);
+            return primary.query(sqlQuery, parameters);
+        } catch (RuntimeException e) {
+            replica.release();
+            throw e;
+        }
+    }
+
+    private Replica selectReplica() {
+        switch (selection) {
+            case LEAST_LOADED:
+                return findLeastLoadedReplica();
+            case ROUND_ROBIN:
+            default:
+                return replicas.get(Math.floorMod(nextReplicaIndex.getAndIncrement(), replicas.size()));
+        }
+    }
+
+    private Replica findLeastLoadedReplica() {
+        Replica leastLoaded = replicas.get(0);
+        for (Replica replica : replicas) {
+            if (replica.getOpenQueries() < leastLoaded.getOpenQueries()) {
+                leastLoaded = replica;
+            }
+        }
+        return leastLoaded;
+    }
+
+    @Override
+    public int updateRaw(String sqlQuery, Object... parameters) throws DatabaseException {
+        return primary.updateRaw(sqlQuery, parameters);
+    }
+
+    @Override
+    public UpdateResult update(String sqlQuery, Object... parameters) throws DatabaseException {
+        return primary.update(sqlQuery, parameters);
+    }
+
+    @Override
+    public JdbcScopedSession scoped() {
+        return primary.scoped();
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return primary.isInTransaction();
+    }
+
+    /**
+     * @return the sane SQL instance for the primary database
+     */
+    public SingleSql getPrimary() {
+        return primary;
+    }
+
+    @Override
+    public void close() throws Exception {
+        replicas.forEach(replica -> Closer.close(replica.sql()));
+        primary.close();
+    }
+}
@@ -47,11 +47,22 @@ public class JdbcScopedSession implements RawScopedSession {
     private final AtomicInteger refCount = new AtomicInteger(0);
     private final AtomicBoolean transactionOpen = new AtomicBoolean(false);
     private final Connection connection;
+    private final SessionCloseListener closeListener;
     private boolean previousAutoCommit = true;
     private boolean closed = false;
+    private boolean forcedRollback = false;
 
     public JdbcScopedSession(Connection connection) {
+        this(connection, null);
+    }
+
+    /**
+     * @param connection    the connection to use
+     * @param closeListener the listener to notify when this session is closed, or null
+     */
+    public JdbcScopedSession(Connection connection, SessionCloseListener closeListener) {
         this.connection = Preconditions.checkNotNull(connection, "connection");
+        this.closeListener = closeListener;
     }
 
     @Override
@@ -145,6 +156,7 @@ public class JdbcScopedSession implements RawScopedSession {
 
     private void forceClose() {
         if (transactionOpen.get()) {
+            forcedRollback = true;
             rollbackAndClose();
             throw new InternalException("Transaction was not completed cleanly in last ref count! Rolled back forcefully.");
         }
@@ -154,7 +166,16 @@ public class JdbcScopedSession implements RawScopedSession {
     private void closeInternal() {
         refCount.set(0);
         transactionOpen.set(false);
-        closed = true;
+        if (!closed) {
+            closed = true;
+            notifyCloseListener();
+        }
+    }
+
+    private void notifyCloseListener() {
+        if (closeListener != null) {
+            closeListener.sessionClosed(this, forcedRollback);
+        }
     }
 
     @Override
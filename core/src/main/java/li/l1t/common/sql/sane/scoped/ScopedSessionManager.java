@@ -22,31 +22,66 @@
  * SOFTWARE.
  */
 
+
 package li.l1t.common.sql.sane.scoped;
 
-import li.l1t.common.exception.InternalException;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.MapMaker;
+import li.l1t.common.sql.sane.resilience.RetryPolicy;
+import li.l1t.common.sql.sane.resilience.SqlStates;
 
+import java.lang.ref.WeakReference;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Keeps record of a single scoped session per thread. Messes up everything if anybody fails to
- * properly join and close their sessions.
+ * properly join and close their sessions. To help find such cases, open sessions are tracked so
+ * that sessions open for a suspiciously long time can be {@link #reportLeakedSessions(long,
+ * TimeUnit) reported}, optionally along with the stack trace of their creation. Open sessions are
+ * tracked weakly, and sessions of threads that have died are reported and dropped, so that
+ * tracking does not keep their connections alive. Sessions are handed out without any locking,
+ * since each thread only ever accesses its own session.
  *
  * @param <S> the type of scoped session provided
  * @author <a href="https://l1t.li/">Literallie</a>
  * @since 2016-10-18
  */
 public class ScopedSessionManager<S extends ScopedSession<?>> {
-    private final Supplier<? extends S> sessionFactory;
-    private ThreadLocal<S> sessionLocal = new ThreadLocal<>();
-    private ReentrantLock sessionLock = new ReentrantLock();
+    private static final Logger LOGGER = Logger.getLogger(ScopedSessionManager.class.getName());
+    private final Function<SessionCloseListener, ? extends S> sessionFactory;
+    private final ThreadLocal<S> sessionLocal = new ThreadLocal<>();
+    private final ConcurrentMap<S, OpenSession> openSessions = new MapMaker().weakKeys().makeMap();
+    private final LongAdder closedSessionCount = new LongAdder();
+    private final LongAdder totalLifetimeNanos = new LongAdder();
+    private final LongAdder forcedRollbackCount = new LongAdder();
+    private final LongAdder transactionRetryCount = new LongAdder();
+    private volatile boolean captureCreationTraces = false;
 
     /**
+     * Creates a new manager for sessions that do not notify it when they are closed. Closed
+     * sessions are detected lazily instead, so that lifetimes are less accurate and forced
+     * rollbacks are not counted.
+     *
      * @param sessionFactory the supplier to get new scoped session instances from
      */
     public ScopedSessionManager(Supplier<? extends S> sessionFactory) {
+        this(listener -> sessionFactory.get());
+    }
+
+    /**
+     * @param sessionFactory the function creating new scoped session instances, given the listener
+     *                       they must notify when they are closed
+     */
+    public ScopedSessionManager(Function<SessionCloseListener, ? extends S> sessionFactory) {
         this.sessionFactory = sessionFactory;
     }
 
@@ -55,33 +90,237 @@ public class ScopedSessionManager<S extends ScopedSession<?>> {
      * crates a new session and scope otherwise.
      *
      * @return a scoped session
-     * @throws InternalException if the session lock cannot be obtained
      */
     public S scoped() {
-        attemptLockSessionLock();
+        S currentSession = sessionLocal.get();
+        if (!isValidSession(currentSession)) {
+            if (currentSession != null) {
+                recordClosedIfTracked(currentSession, false);
+            }
+            currentSession = sessionFactory.apply(this::recordClosedIfTracked);
+            openSessions.put(currentSession, new OpenSession(captureCreationTraces));
+            sessionLocal.set(currentSession);
+        }
+        return currentSession;
+    }
+
+    /**
+     * Checks whether the current thread has a scoped session with an open transaction, without
+     * creating a session if there is none.
+     *
+     * @return whether the current thread is in a transaction
+     */
+    public boolean isInTransaction() {
+        S currentSession = sessionLocal.get();
+        return isValidSession(currentSession) && currentSession.hasTransaction();
+    }
+
+    /**
+     * Runs given body in a transaction of the current thread's scoped session and commits it. If
+     * the body or the commit fails with an exception whose {@link SqlStates#findSqlException(Throwable)
+     * SQL cause} is retryable according to given policy, for example a deadlock, the transaction is
+     * rolled back and the body is run again in a new transaction after the policy's backoff. Scopes
+     * opened by the body on the same manager join the transaction. Since the body may run multiple
+     * times, it must not have any side effects outside of the transaction.
+     * <p>If the current thread is already in a transaction, the body joins it and is run exactly
+     * once, since rolling back would also discard the changes of the enclosing transaction. Retrying
+     * is left to its owner in that case.</p>
+     *
+     * @param body   the body to run, given the session it runs in
+     * @param policy the policy deciding whether and when failed attempts are retried
+     * @param <T>    the type of value computed by the body
+     * @return the value returned by the last attempt of the body
+     * @throws RuntimeException the exception thrown by the last attempt, if it failed
+     */
+    public <T> T retryingTx(Function<? super S, ? extends T> body, RetryPolicy policy) {
+        Preconditions.checkNotNull(body, "body");
+        Preconditions.checkNotNull(policy, "policy");
+        if (isInTransaction()) {
+            return runInTransaction(body, false);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return runInTransaction(body, true);
+            } catch (RuntimeException e) {
+                SQLException cause = SqlStates.findSqlException(e);
+                if (!policy.shouldRetry(cause, attempt) || !policy.awaitBackoff(attempt)) {
+                    throw e;
+                }
+                transactionRetryCount.increment();
+                LOGGER.log(Level.FINE, "Retrying transaction after attempt " + attempt + " failed", e);
+            }
+        }
+    }
+
+    private <T> T runInTransaction(Function<? super S, ? extends T> body, boolean outermost) {
+        S session = scoped();
+        session.tx();
+        T result;
+        try {
+            result = body.apply(session);
+            session.commitIfLast();
+        } catch (RuntimeException | Error e) {
+            abortTransaction(session, outermost, e);
+            throw e;
+        }
+        session.close();
+        return result;
+    }
+
+    private void abortTransaction(S session, boolean outermost, Throwable cause) {
         try {
-            S currentSession = sessionLocal.get();
-            if (!isValidSession(currentSession)) {
-                currentSession = sessionFactory.get();
-                sessionLocal.set(currentSession);
+            if (outermost && session.hasTransaction()) {
+                session.rollbackAndClose();
+            } else {
+                session.close();
             }
-            return currentSession;
-        } finally {
-            sessionLock.unlock();
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
         }
     }
 
-    private boolean isValidSession(ScopedSession session) {
+    private boolean isValidSession(ScopedSession<?> session) {
         return session != null && session.acceptsFurtherReferences();
     }
 
-    private void attemptLockSessionLock() {
-        try {
-            if (!sessionLock.tryLock(1, TimeUnit.SECONDS)) {
-                throw new InternalException("Failed to obtain lock for getting a session in a second");
+    private void recordClosedIfTracked(ScopedSession<?> session, boolean forcedRollback) {
+        OpenSession openSession = openSessions.remove(session);
+        if (openSession != null) {
+            closedSessionCount.increment();
+            totalLifetimeNanos.add(openSession.getAgeNanos());
+        }
+        if (forcedRollback) {
+            forcedRollbackCount.increment();
+        }
+    }
+
+    private void sweepClosedSessions() {
+        openSessions.keySet().stream()
+                .filter(session -> !session.acceptsFurtherReferences())
+                .forEach(session -> recordClosedIfTracked(session, false));
+        for (Map.Entry<S, OpenSession> entry : openSessions.entrySet()) {
+            OpenSession openSession = entry.getValue();
+            if (openSession.isOwnerDead() && openSessions.remove(entry.getKey(), openSession)) {
+                LOGGER.log(Level.WARNING, "Scoped session " + entry.getKey() + " was never closed by thread " +
+                        openSession.getThreadName() + ", which has died", openSession.getCreationTrace());
             }
-        } catch (InterruptedException e) {
-            throw new InternalException("Interrupted while waiting for session lock", e);
+        }
+    }
+
+    /**
+     * Checks whether any session that has not been closed yet matches given filter, across all
+     * threads, for example to find out whether a connection is still held by a session.
+     *
+     * @param filter the filter to test open sessions with
+     * @return whether any open session matches the filter
+     */
+    public boolean hasOpenSession(Predicate<? super S> filter) {
+        Preconditions.checkNotNull(filter, "filter");
+        return openSessions.keySet().stream()
+                .anyMatch(session -> session.acceptsFurtherReferences() && filter.test(session));
+    }
+
+    /**
+     * @return the amount of sessions that have been created and not yet closed, across all threads
+     */
+    public int getActiveSessionCount() {
+        sweepClosedSessions();
+        return openSessions.size();
+    }
+
+    /**
+     * @return the amount of sessions closed since creation of this manager
+     */
+    public long getClosedSessionCount() {
+        sweepClosedSessions();
+        return closedSessionCount.sum();
+    }
+
+    /**
+     * @return the average time between creation and closing of sessions in milliseconds, or zero if
+     * no session has been closed yet
+     */
+    public double getAverageLifetimeMillis() {
+        long closedCount = getClosedSessionCount();
+        return closedCount == 0 ? 0D : totalLifetimeNanos.sum() / (double) closedCount / 1_000_000D;
+    }
+
+    /**
+     * @return the amount of transactions that were rolled back because the last reference to their
+     * session closed it without completing them
+     */
+    public long getForcedRollbackCount() {
+        return forcedRollbackCount.sum();
+    }
+
+    /**
+     * @return the amount of times a transaction was {@link #retryingTx(Function, RetryPolicy)
+     * rolled back and run again} since creation of this manager
+     */
+    public long getTransactionRetryCount() {
+        return transactionRetryCount.sum();
+    }
+
+    /**
+     * Sets whether the stack trace of the code creating a session is captured for {@link
+     * #reportLeakedSessions(long, TimeUnit) leak reports}. This is off by default since capturing
+     * stack traces is expensive.
+     *
+     * @param captureCreationTraces whether to capture creation stack traces for new sessions
+     */
+    public void setCaptureCreationTraces(boolean captureCreationTraces) {
+        this.captureCreationTraces = captureCreationTraces;
+    }
+
+    /**
+     * Logs a warning for each session that has been open for longer than given duration, since
+     * this usually indicates that some code failed to close its scope.
+     *
+     * @param maxAge the maximum age of sessions not to report
+     * @param unit   the unit of the maximum age
+     * @return the amount of reported sessions
+     */
+    public int reportLeakedSessions(long maxAge, TimeUnit unit) {
+        sweepClosedSessions();
+        long maxAgeNanos = unit.toNanos(maxAge);
+        int leakedCount = 0;
+        for (Map.Entry<S, OpenSession> entry : openSessions.entrySet()) {
+            OpenSession openSession = entry.getValue();
+            if (openSession.getAgeNanos() > maxAgeNanos) {
+                leakedCount++;
+                LOGGER.log(Level.WARNING, "Scoped session " + entry.getKey() + " created by thread " +
+                        openSession.getThreadName() + " has been open for " +
+                        TimeUnit.NANOSECONDS.toMillis(openSession.getAgeNanos()) + "ms", openSession.getCreationTrace());
+            }
+        }
+        return leakedCount;
+    }
+
+    private static class OpenSession {
+        private final long createdNanos = System.nanoTime();
+        private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+        private final String threadName = Thread.currentThread().getName();
+        private final Throwable creationTrace;
+
+        OpenSession(boolean captureCreationTrace) {
+            this.creationTrace = captureCreationTrace ? new Throwable("Scoped session created here") : null;
+        }
+
+        long getAgeNanos() {
+            return System.nanoTime() - createdNanos;
+        }
+
+        boolean isOwnerDead() {
+            Thread thread = owner.get();
+            return thread == null || !thread.isAlive();
+        }
+
+        String getThreadName() {
+            return threadName;
+        }
+
+        Throwable getCreationTrace() {
+            return creationTrace;
         }
     }
 }
@@ -28,6 +28,7 @@ import com.google.common.base.Verify;
 import li.l1t.common.exception.DatabaseException;
 import li.l1t.common.sql.sane.connection.ConnectionProvider;
 import li.l1t.common.sql.sane.exception.SqlStatementException;
+import li.l1t.common.util.Closer;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nonnull;
@@ -44,24 +45,61 @@ import java.util.UUID;
  */
 abstract class AbstractStatementProvider implements StatementProvider {
     private final ConnectionProvider connectionProvider;
+    private final PreparedStatementCache statementCache;
+    private final boolean reuseStatements;
 
-    AbstractStatementProvider(ConnectionProvider connectionProvider) {
+    AbstractStatementProvider(ConnectionProvider connectionProvider, PreparedStatementCache statementCache) {
+        this(connectionProvider, statementCache, true);
+    }
+
+    AbstractStatementProvider(ConnectionProvider connectionProvider, PreparedStatementCache statementCache,
+                              boolean reuseStatements) {
         this.connectionProvider = connectionProvider;
+        this.statementCache = statementCache;
+        this.reuseStatements = reuseStatements;
     }
 
     @Override
     public PreparedStatement create(String sql, Object... parameters) {
         try {
-            PreparedStatement statement = prepareStatement(sql, connectionProvider.getConnection());
+            PreparedStatement statement = obtainStatement(sql, connectionProvider.getConnection());
             Verify.verifyNotNull(statement, "statement from driver");
-            return fillStatement(statement, parameters);
+            try {
+                return fillStatement(statement, parameters);
+            } catch (RuntimeException e) { //the caller never sees the statement, so it cannot release it
+                release(statement);
+                throw e;
+            }
         } catch (SQLException e) {
             throw new SqlStatementException(e);
         }
     }
 
+    private void release(PreparedStatement statement) {
+        if (statementCache == null) {
+            Closer.close(statement);
+        } else {
+            statementCache.checkIn(statement);
+        }
+    }
+
+    private PreparedStatement obtainStatement(String sql, Connection connection) throws SQLException {
+        if (statementCache == null) {
+            return prepareStatement(sql, connection);
+        } else if (!reuseStatements) {
+            return statementCache.checkOutUncached(connection, sql, this::prepareStatement);
+        } else {
+            return statementCache.checkOut(connection, sql, returnsGeneratedKeys(), this::prepareStatement);
+        }
+    }
+
     protected abstract PreparedStatement prepareStatement(String sql, Connection connection) throws SQLException;
 
+    /**
+     * @return whether statements created by this provider return generated keys
+     */
+    protected abstract boolean returnsGeneratedKeys();
+
     private PreparedStatement fillStatement(@Nonnull PreparedStatement statement, @Nonnull Object[] parameters) {
         try {
             return fillStatementRaw(statement, parameters);
@@ -73,12 +111,12 @@ abstract class AbstractStatementProvider implements StatementProvider {
     @NotNull
     private PreparedStatement fillStatementRaw(@Nonnull PreparedStatement statement, @Nonnull Object[] parameters) throws SQLException {
         for (int i = 0; i < parameters.length; i++) {
-            setStatementParameter(statement, i + 1, parameters[i]);
+            setParameter(statement, i + 1, parameters[i]);
         }
         return statement;
     }
 
-    private void setStatementParameter(@Nonnull PreparedStatement statement, int parameterNumber, Object parameter) throws SQLException {
+    static void setParameter(@Nonnull PreparedStatement statement, int parameterNumber, Object parameter) throws SQLException {
         if (parameter == null) {
             statement.setNull(parameterNumber, Types.OTHER);
         } else if (parameter instanceof Temporal) {
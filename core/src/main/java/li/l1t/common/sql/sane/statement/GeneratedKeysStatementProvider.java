@@ -39,11 +39,25 @@ import java.sql.SQLException;
  */
 public class GeneratedKeysStatementProvider extends AbstractStatementProvider {
     public GeneratedKeysStatementProvider(ConnectionProvider provider) {
-        super(provider);
+        super(provider, null);
+    }
+
+    /**
+     * @param provider       the provider to get connections from
+     * @param statementCache the cache to check statements out from, or null to always prepare new
+     *                       statements
+     */
+    public GeneratedKeysStatementProvider(ConnectionProvider provider, PreparedStatementCache statementCache) {
+        super(provider, statementCache);
     }
 
     @Override
     protected PreparedStatement prepareStatement(String sql, Connection connection) throws SQLException {
         return connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
     }
+
+    @Override
+    protected boolean returnsGeneratedKeys() {
+        return true;
+    }
 }
@@ -0,0 +1,415 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.statement;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.result.UpdateResult;
+import li.l1t.common.sql.sane.sanebox.SqlSanebox;
+import li.l1t.common.sql.sane.scoped.ScopedSession;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Inserts many rows into a table using multi-row {@code INSERT INTO table (columns) VALUES
+ * (...), (...)} statements, so that N rows take N/chunk round trips instead of N. Rows are split
+ * into chunks that respect a maximum amount of rows, bound parameters and estimated statement
+ * size, the latter to stay below the server's maximum packet size. If more than one statement is
+ * needed, all of them are executed in a single transaction, joining the current thread's
+ * transaction if it has one.
+ * <p>Chunks smaller than the maximum amount of rows are split further into chunks whose sizes are
+ * powers of two. This costs a few more statements for the remainder, but bounds the amount of
+ * distinct statements, so that they do not evict other entries from the prepared statement
+ * cache.</p>
+ * <p>Optionally, rows that conflict with an existing unique key update the existing row instead,
+ * using MySQL's {@code ON DUPLICATE KEY UPDATE}. Generated keys are returned per inserted row if
+ * requested and supported by the driver. Keys are not reliable for rows that updated an existing
+ * row instead.</p>
+ *
+ * @param <T> the type of items inserted as rows
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class MultiRowInsert<T> {
+    /**
+     * The default maximum amount of rows per statement.
+     */
+    public static final int DEFAULT_MAX_ROWS = 500;
+    /**
+     * The default maximum amount of bound parameters per statement, which is the limit of MySQL
+     * prepared statements.
+     */
+    public static final int DEFAULT_MAX_PARAMETERS = 65_535;
+    /**
+     * The default maximum estimated size of a statement in bytes, which is a quarter of MySQL's
+     * default maximum packet size.
+     */
+    public static final long DEFAULT_MAX_STATEMENT_BYTES = 1024L * 1024L;
+    private static final int FIXED_SIZE_PARAMETER_BYTES = 16;
+    private final String tableName;
+    private final List<String> columns;
+    private final List<String> updateColumns;
+    private final Function<? super T, Object[]> rowMapper;
+    private final int maxRows;
+    private final int maxParameters;
+    private final long maxStatementBytes;
+    private final boolean returnGeneratedKeys;
+    private final String fullChunkSql;
+    private final long statementOverheadBytes;
+
+    private MultiRowInsert(Builder<T> builder) {
+        this.tableName = builder.tableName;
+        this.columns = builder.columns;
+        this.updateColumns = builder.updateColumns;
+        this.rowMapper = builder.rowMapper;
+        this.maxParameters = builder.maxParameters;
+        this.maxRows = Math.min(builder.maxRows, maxParameters / columns.size());
+        this.maxStatementBytes = builder.maxStatementBytes;
+        this.returnGeneratedKeys = builder.returnGeneratedKeys;
+        this.fullChunkSql = createSql(maxRows);
+        this.statementOverheadBytes = createSql(0).length();
+    }
+
+    /**
+     * Creates a builder for a multi-row insert.
+     *
+     * @param tableName the name of the table to insert into
+     * @param rowMapper the function mapping an item to the values of its row, in column order
+     * @param columns   the columns to set for each row
+     * @param <T>       the type of items inserted as rows
+     * @return a new builder
+     */
+    public static <T> Builder<T> into(String tableName, Function<? super T, Object[]> rowMapper, String... columns) {
+        return new Builder<>(tableName, rowMapper, columns);
+    }
+
+    /**
+     * Inserts given items as rows.
+     *
+     * @param sql   the sane SQL instance to execute the statements on
+     * @param items the items to insert
+     * @return the outcome of the insert
+     * @throws DatabaseException if a database error occurs, in which case no rows are inserted,
+     *                           unless a transaction of the current thread was joined and is
+     *                           committed by its owner anyway
+     */
+    public Result execute(SaneSql sql, Iterable<? extends T> items) throws DatabaseException {
+        Preconditions.checkNotNull(sql, "sql");
+        List<List<Object[]>> chunks = splitIntoChunks(mapRows(items));
+        if (chunks.isEmpty()) {
+            return new Result(0, ImmutableList.of(), 0);
+        } else if (chunks.size() == 1) {
+            return executeChunks(sql, chunks);
+        }
+        ScopedSession<?> session = sql.scoped();
+        boolean joinsTransaction = session.hasTransaction();
+        session.tx();
+        try {
+            Result result = executeChunks(sql, chunks);
+            session.commitIfLast();
+            session.close();
+            return result;
+        } catch (RuntimeException e) {
+            try {
+                if (joinsTransaction) {
+                    session.close();
+                } else {
+                    session.rollbackAndClose();
+                }
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private List<Object[]> mapRows(Iterable<? extends T> items) {
+        Preconditions.checkNotNull(items, "items");
+        List<Object[]> rows = new ArrayList<>();
+        for (T item : items) {
+            Object[] row = Preconditions.checkNotNull(rowMapper.apply(item), "row of %s", item);
+            Preconditions.checkArgument(row.length == columns.size(),
+                    "expected %s values, got %s for %s", columns.size(), row.length, item);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<List<Object[]>> splitIntoChunks(List<Object[]> rows) {
+        List<List<Object[]>> chunks = new ArrayList<>();
+        List<Object[]> chunk = new ArrayList<>();
+        long chunkBytes = statementOverheadBytes;
+        for (Object[] row : rows) {
+            long rowBytes = estimateBytes(row);
+            if (!chunk.isEmpty() && (chunk.size() >= maxRows || chunkBytes + rowBytes > maxStatementBytes)) {
+                addChunk(chunks, chunk);
+                chunk = new ArrayList<>();
+                chunkBytes = statementOverheadBytes;
+            }
+            chunk.add(row);
+            chunkBytes += rowBytes;
+        }
+        if (!chunk.isEmpty()) {
+            addChunk(chunks, chunk);
+        }
+        return chunks;
+    }
+
+    private void addChunk(List<List<Object[]>> chunks, List<Object[]> chunk) {
+        if (chunk.size() == maxRows) {
+            chunks.add(chunk);
+            return;
+        }
+        int offset = 0;
+        while (offset < chunk.size()) {
+            int bucketSize = Integer.highestOneBit(chunk.size() - offset);
+            chunks.add(chunk.subList(offset, offset + bucketSize));
+            offset += bucketSize;
+        }
+    }
+
+    private long estimateBytes(Object[] row) {
+        long bytes = row.length * 2L + 3L; //placeholders, separators and parentheses
+        for (Object value : row) {
+            if (value instanceof CharSequence) {
+                bytes += ((CharSequence) value).length() * 3L; //worst case for BMP characters in UTF-8
+            } else if (value instanceof byte[]) {
+                bytes += ((byte[]) value).length;
+            } else {
+                bytes += FIXED_SIZE_PARAMETER_BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    private Result executeChunks(SaneSql sql, List<List<Object[]>> chunks) {
+        int affectedRowCount = 0;
+        ImmutableList.Builder<Object> generatedKeys = ImmutableList.builder();
+        for (List<Object[]> chunk : chunks) {
+            String chunkSql = chunk.size() == maxRows ? fullChunkSql : createSql(chunk.size());
+            Object[] parameters = flatten(chunk);
+            if (returnGeneratedKeys) {
+                try (UpdateResult result = sql.update(chunkSql, parameters)) {
+                    affectedRowCount += result.getAffectedRowCount();
+                    SqlSanebox.run(() -> collectKeys(result.gk(), generatedKeys));
+                }
+            } else {
+                affectedRowCount += sql.updateRaw(chunkSql, parameters);
+            }
+        }
+        return new Result(affectedRowCount, generatedKeys.build(), chunks.size());
+    }
+
+    private Object[] flatten(List<Object[]> chunk) {
+        Object[] parameters = new Object[chunk.size() * columns.size()];
+        int offset = 0;
+        for (Object[] row : chunk) {
+            System.arraycopy(row, 0, parameters, offset, row.length);
+            offset += row.length;
+        }
+        return parameters;
+    }
+
+    private void collectKeys(ResultSet keys, ImmutableList.Builder<Object> target) throws SQLException {
+        if (keys == null) {
+            return; //driver does not support generated keys
+        }
+        while (keys.next()) {
+            target.add(keys.getObject(1));
+        }
+    }
+
+    String createSql(int rowCount) {
+        StringBuilder builder = new StringBuilder("INSERT INTO ").append(tableName)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        String rowPlaceholders = createRowPlaceholders();
+        for (int i = 0; i < rowCount; i++) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+            builder.append(rowPlaceholders);
+        }
+        if (!updateColumns.isEmpty()) {
+            builder.append(" ON DUPLICATE KEY UPDATE ");
+            for (int i = 0; i < updateColumns.size(); i++) {
+                if (i != 0) {
+                    builder.append(", ");
+                }
+                String column = updateColumns.get(i);
+                builder.append(column).append("=VALUES(").append(column).append(')');
+            }
+        }
+        return builder.toString();
+    }
+
+    private String createRowPlaceholders() {
+        StringBuilder builder = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            builder.append(i == 0 ? "?" : ", ?");
+        }
+        return builder.append(')').toString();
+    }
+
+    /**
+     * @return the maximum amount of rows inserted by a single statement, considering the limit
+     * of bound parameters
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * The outcome of a multi-row insert.
+     */
+    public static class Result {
+        private final int affectedRowCount;
+        private final List<Object> generatedKeys;
+        private final int statementCount;
+
+        Result(int affectedRowCount, List<Object> generatedKeys, int statementCount) {
+            this.affectedRowCount = affectedRowCount;
+            this.generatedKeys = generatedKeys;
+            this.statementCount = statementCount;
+        }
+
+        /**
+         * @return the sum of the affected row counts reported by the driver, note that MySQL counts
+         * rows updated by {@code ON DUPLICATE KEY UPDATE} twice
+         */
+        public int getAffectedRowCount() {
+            return affectedRowCount;
+        }
+
+        /**
+         * @return the first generated key of each inserted row, in row order, or an empty list if
+         * keys were not requested or are not supported by the driver
+         */
+        public List<Object> getGeneratedKeys() {
+            return generatedKeys;
+        }
+
+        /**
+         * @return the amount of statements executed
+         */
+        public int getStatementCount() {
+            return statementCount;
+        }
+    }
+
+    /**
+     * Builds multi-row inserts.
+     *
+     * @param <T> the type of items inserted as rows
+     */
+    public static class Builder<T> {
+        private final String tableName;
+        private final Function<? super T, Object[]> rowMapper;
+        private final List<String> columns;
+        private List<String> updateColumns = ImmutableList.of();
+        private int maxRows = DEFAULT_MAX_ROWS;
+        private int maxParameters = DEFAULT_MAX_PARAMETERS;
+        private long maxStatementBytes = DEFAULT_MAX_STATEMENT_BYTES;
+        private boolean returnGeneratedKeys;
+
+        private Builder(String tableName, Function<? super T, Object[]> rowMapper, String[] columns) {
+            this.tableName = Preconditions.checkNotNull(tableName, "tableName");
+            this.rowMapper = Preconditions.checkNotNull(rowMapper, "rowMapper");
+            Preconditions.checkArgument(columns.length > 0, "at least one column is required");
+            this.columns = ImmutableList.copyOf(columns);
+        }
+
+        /**
+         * Updates given columns of existing rows with the values of conflicting inserted rows
+         * instead of failing.
+         *
+         * @param updateColumns the columns to update, must be a subset of the inserted columns
+         * @return this builder
+         */
+        public Builder<T> onDuplicateKeyUpdate(String... updateColumns) {
+            Preconditions.checkArgument(columns.containsAll(Arrays.asList(updateColumns)),
+                    "update columns %s must be inserted as well", Arrays.toString(updateColumns));
+            this.updateColumns = ImmutableList.copyOf(updateColumns);
+            return this;
+        }
+
+        /**
+         * @param maxRows the maximum amount of rows inserted by a single statement, {@value
+         *                #DEFAULT_MAX_ROWS} by default
+         * @return this builder
+         */
+        public Builder<T> maxRows(int maxRows) {
+            Preconditions.checkArgument(maxRows > 0, "maxRows must be positive: %s", maxRows);
+            this.maxRows = maxRows;
+            return this;
+        }
+
+        /**
+         * @param maxParameters the maximum amount of parameters bound to a single statement,
+         *                      {@value #DEFAULT_MAX_PARAMETERS} by default
+         * @return this builder
+         */
+        public Builder<T> maxParameters(int maxParameters) {
+            Preconditions.checkArgument(maxParameters >= columns.size(),
+                    "maxParameters must allow at least one row: %s", maxParameters);
+            this.maxParameters = maxParameters;
+            return this;
+        }
+
+        /**
+         * @param maxStatementBytes the maximum estimated size of a single statement in bytes,
+         *                          should be well below the server's maximum packet size, one
+         *                          megabyte by default. Single rows exceeding this are still
+         *                          inserted on their own.
+         * @return this builder
+         */
+        public Builder<T> maxStatementBytes(long maxStatementBytes) {
+            Preconditions.checkArgument(maxStatementBytes > 0, "maxStatementBytes must be positive: %s", maxStatementBytes);
+            this.maxStatementBytes = maxStatementBytes;
+            return this;
+        }
+
+        /**
+         * @param returnGeneratedKeys whether to return the generated keys of inserted rows, false
+         *                            by default
+         * @return this builder
+         */
+        public Builder<T> returnGeneratedKeys(boolean returnGeneratedKeys) {
+            this.returnGeneratedKeys = returnGeneratedKeys;
+            return this;
+        }
+
+        public MultiRowInsert<T> build() {
+            return new MultiRowInsert<>(this);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.statement;
+
+import com.google.common.base.Preconditions;
+import li.l1t.common.sql.sane.result.QueryResult;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * The results of an executed {@link StatementPipeline}, in the order the statements were queued.
+ * Closing this closes the results of all queries.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class PipelineResults implements AutoCloseable {
+    private final List<Object> results;
+
+    PipelineResults(List<Object> results) {
+        this.results = results;
+    }
+
+    /**
+     * @return the amount of results, equal to the amount of statements in the pipeline
+     */
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * @param index the zero-based position of the statement in the pipeline
+     * @return whether the statement at given position was queued as query
+     */
+    public boolean isQuery(int index) {
+        return result(index) instanceof QueryResult;
+    }
+
+    /**
+     * @param index the zero-based position of the query in the pipeline
+     * @return the result of the query, which is closed when these results are closed
+     * @throws IllegalArgumentException if the statement at given position is not a query
+     */
+    public QueryResult query(int index) {
+        Object result = result(index);
+        Preconditions.checkArgument(result instanceof QueryResult, "statement %s is not a query", index);
+        return (QueryResult) result;
+    }
+
+    /**
+     * @param index the zero-based position of the update in the pipeline
+     * @return the amount of rows affected by the update, or {@link Statement#SUCCESS_NO_INFO} if
+     * it was executed in a batch and the driver did not report a count
+     * @throws IllegalArgumentException if the statement at given position is not an update
+     */
+    public int updateCount(int index) {
+        Object result = result(index);
+        Preconditions.checkArgument(result instanceof Integer, "statement %s is not an update", index);
+        return (Integer) result;
+    }
+
+    private Object result(int index) {
+        Preconditions.checkElementIndex(index, results.size(), "index");
+        return results.get(index);
+    }
+
+    @Override
+    public void close() {
+        closeAll(results);
+    }
+
+    static void closeAll(List<Object> results) {
+        for (Object result : results) {
+            if (result instanceof QueryResult) {
+                ((QueryResult) result).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.statement;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.MapMaker;
+import li.l1t.common.util.Closer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A least-recently-used cache of prepared statements, keyed by the connection they were prepared
+ * on, their SQL string and whether they return generated keys. Statements are checked out from the
+ * cache for exclusive use and checked back in when their result is closed, instead of being
+ * closed. Statements evicted from the cache are closed.
+ * <p>A cache with a maximum size of zero caches nothing and closes every statement on check-in.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class PreparedStatementCache {
+    private final int maxSize;
+    private final Map<StatementKey, PreparedStatement> idleStatements;
+    private final ConcurrentMap<PreparedStatement, StatementKey> checkedOutStatements = new MapMaker()
+            .weakKeys()
+            .makeMap();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize the maximum amount of idle statements to keep open, over all connections
+     */
+    public PreparedStatementCache(int maxSize) {
+        Preconditions.checkArgument(maxSize >= 0, "maxSize must not be negative: %s", maxSize);
+        this.maxSize = maxSize;
+        this.idleStatements = new LinkedHashMap<StatementKey, PreparedStatement>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+                if (size() > PreparedStatementCache.this.maxSize) {
+                    Closer.close(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Checks out a statement for given parameters, reusing an idle cached statement if there is
+     * one, or preparing a new one otherwise. The returned statement has no parameters set and must
+     * be returned using {@link #checkIn(PreparedStatement)} once it is no longer used.
+     *
+     * @param connection    the connection to prepare the statement on
+     * @param sql           the SQL string of the statement
+     * @param generatedKeys whether the statement returns generated keys
+     * @param preparer      the function preparing new statements on cache misses
+     * @return a statement exclusively checked out for the caller
+     * @throws SQLException if preparing or resetting the statement fails
+     */
+    public PreparedStatement checkOut(Connection connection, String sql, boolean generatedKeys,
+                                      StatementPreparer preparer) throws SQLException {
+        StatementKey key = new StatementKey(connection, sql, generatedKeys, true);
+        PreparedStatement statement = takeIdle(key);
+        if (statement != null) {
+            hits.increment();
+            statement.clearParameters();
+        } else {
+            misses.increment();
+            statement = preparer.prepare(sql, connection);
+        }
+        checkedOutStatements.put(statement, key);
+        return statement;
+    }
+
+    /**
+     * Prepares a new statement that is never reused, but is still tracked as checked out until it
+     * is {@link #checkIn(PreparedStatement) checked in}, which closes it. This is meant for
+     * statements whose settings must not carry over to other users, such as a fetch size, so that
+     * {@link #hasCheckedOut(Connection)} still accounts for them. Check-outs of such statements
+     * count neither as hits nor as misses.
+     *
+     * @param connection the connection to prepare the statement on
+     * @param sql        the SQL string of the statement
+     * @param preparer   the function preparing the statement
+     * @return a statement exclusively checked out for the caller
+     * @throws SQLException if preparing the statement fails
+     */
+    public PreparedStatement checkOutUncached(Connection connection, String sql,
+                                              StatementPreparer preparer) throws SQLException {
+        StatementKey key = new StatementKey(connection, sql, false, false);
+        PreparedStatement statement = preparer.prepare(sql, connection);
+        checkedOutStatements.put(statement, key);
+        return statement;
+    }
+
+    private PreparedStatement takeIdle(StatementKey key) throws SQLException {
+        PreparedStatement statement;
+        synchronized (idleStatements) {
+            statement = idleStatements.remove(key);
+        }
+        if (statement != null && statement.isClosed()) {
+            return null; //connection was closed in the meantime
+        }
+        return statement;
+    }
+
+    /**
+     * Returns a statement to this cache after use. The caller must have closed any result sets
+     * obtained from the statement. Statements not checked out from this cache, statements {@link
+     * #checkOutUncached(Connection, String, StatementPreparer) checked out uncached}, statements for
+     * which an idle statement is already cached, and statements that do not fit into the cache are
+     * closed. Statements that are already idle in this cache are ignored, so that releasing a
+     * statement twice does not close it. The query timeout of cached statements is reset, so that
+     * a timeout set for a single execution does not carry over to the next user of the statement.
+     *
+     * @param statement the statement to return, may be null
+     */
+    public void checkIn(PreparedStatement statement) {
+        if (statement == null) {
+            return;
+        }
+        StatementKey key = checkedOutStatements.remove(statement);
+        if (key == null && isIdle(statement)) {
+            return; //released twice, closing would break the cached statement
+        }
+        if (key == null || !key.reusable || maxSize == 0 ||
+                isClosed(statement) || !resetQueryTimeout(statement)) {
+            Closer.close(statement);
+            return;
+        }
+        synchronized (idleStatements) {
+            if (!idleStatements.containsKey(key)) {
+                idleStatements.put(key, statement);
+                return;
+            }
+        }
+        Closer.close(statement);
+    }
+
+    private boolean isIdle(PreparedStatement statement) {
+        synchronized (idleStatements) {
+            return idleStatements.containsValue(statement);
+        }
+    }
+
+    private boolean resetQueryTimeout(PreparedStatement statement) {
+        try {
+            if (statement.getQueryTimeout() != 0) {
+                statement.setQueryTimeout(0);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isClosed(PreparedStatement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Closes all idle statements held by this cache.
+     */
+    public void clear() {
+        synchronized (idleStatements) {
+            idleStatements.values().forEach(Closer::close);
+            idleStatements.clear();
+        }
+    }
+
+    /**
+     * @return the amount of check-outs that reused an idle statement
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the amount of check-outs that had to prepare a new statement
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the ratio of check-outs that reused an idle statement, or zero if there were none
+     */
+    public double getHitRatio() {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+        return total == 0 ? 0D : hitCount / (double) total;
+    }
+
+    /**
+     * Checks whether any statement prepared on given connection is currently checked out, which
+     * means that a result obtained from the connection is still open.
+     *
+     * @param connection the connection to check
+     * @return whether a statement of given connection is checked out
+     */
+    public boolean hasCheckedOut(Connection connection) {
+        for (StatementKey key : checkedOutStatements.values()) {
+            if (key.connection == connection) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the amount of idle statements currently held by this cache
+     */
+    public int getIdleCount() {
+        synchronized (idleStatements) {
+            return idleStatements.size();
+        }
+    }
+
+    /**
+     * Prepares statements on cache misses.
+     */
+    @FunctionalInterface
+    public interface StatementPreparer {
+        PreparedStatement prepare(String sql, Connection connection) throws SQLException;
+    }
+
+    private static class StatementKey {
+        private final Connection connection;
+        private final String sql;
+        private final boolean generatedKeys;
+        private final boolean reusable;
+
+        StatementKey(Connection connection, String sql, boolean generatedKeys, boolean reusable) {
+            this.connection = Preconditions.checkNotNull(connection, "connection");
+            this.sql = Preconditions.checkNotNull(sql, "sql");
+            this.generatedKeys = generatedKeys;
+            this.reusable = reusable;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatementKey)) return false;
+            StatementKey that = (StatementKey) o;
+            return connection == that.connection &&
+                    generatedKeys == that.generatedKeys &&
+                    sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(connection), sql, generatedKeys);
+        }
+    }
+}
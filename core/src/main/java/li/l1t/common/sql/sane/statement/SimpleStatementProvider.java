@@ -38,11 +38,37 @@ import java.sql.SQLException;
  */
 public class SimpleStatementProvider extends AbstractStatementProvider {
     public SimpleStatementProvider(ConnectionProvider provider) {
-        super(provider);
+        super(provider, null);
+    }
+
+    /**
+     * @param provider       the provider to get connections from
+     * @param statementCache the cache to check statements out from, or null to always prepare new
+     *                       statements
+     */
+    public SimpleStatementProvider(ConnectionProvider provider, PreparedStatementCache statementCache) {
+        super(provider, statementCache);
+    }
+
+    /**
+     * @param provider        the provider to get connections from
+     * @param statementCache  the cache to check statements out from, or null to always prepare new
+     *                        statements
+     * @param reuseStatements whether to reuse cached statements, or to always prepare new
+     *                        statements that are only tracked by the cache while checked out
+     */
+    public SimpleStatementProvider(ConnectionProvider provider, PreparedStatementCache statementCache,
+                                   boolean reuseStatements) {
+        super(provider, statementCache, reuseStatements);
     }
 
     @Override
     protected PreparedStatement prepareStatement(String sql, Connection connection) throws SQLException {
         return connection.prepareStatement(sql);
     }
+
+    @Override
+    protected boolean returnsGeneratedKeys() {
+        return false;
+    }
 }
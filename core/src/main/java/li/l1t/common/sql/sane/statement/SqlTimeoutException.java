@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.statement;
+
+import li.l1t.common.sql.sane.exception.SqlExecutionException;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown if a statement did not complete because its query timeout elapsed or because it was
+ * cancelled, for example since the thread executing it was interrupted. Such failures only affect
+ * the statement in question, the connection remains usable afterwards.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class SqlTimeoutException extends SqlExecutionException {
+    private final boolean cancelled;
+
+    /**
+     * @param cause     the exception reported by the driver
+     * @param cancelled whether the statement was cancelled explicitly rather than timing out
+     */
+    public SqlTimeoutException(SQLException cause, boolean cancelled) {
+        super(cause);
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * @return whether the statement was cancelled explicitly rather than timing out
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -22,28 +22,28 @@
  * SOFTWARE.
  */
 
-package li.l1t.lanatus.sql.product;
 
-import li.l1t.common.sql.sane.util.AbstractJdbcEntityCreator;
-import li.l1t.lanatus.api.product.Product;
+package li.l1t.common.sql.sane.statement;
 
-import java.sql.ResultSet;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 /**
- * Creates product instances from results of JDBC queries.
+ * Binds the values of an item to the parameters of a prepared statement, for example to add the
+ * item to a batch.
  *
+ * @param <T> the type of item to bind
  * @author <a href="https://l1t.li/">Literallie</a>
- * @since 2016-10-10
+ * @since 2026-10-17
  */
-class JdbcProductCreator extends AbstractJdbcEntityCreator<Product> {
-    @Override
-    public Product createFromCurrentRow(ResultSet rs) throws SQLException {
-        return new SqlProduct(
-                uuid(rs, "id"), rs.getString("module"),
-                rs.getString("displayname"), rs.getString("description"),
-                rs.getString("icon"), rs.getInt("melonscost"), rs.getBoolean("active"),
-                rs.getBoolean("permanent")
-        );
-    }
+@FunctionalInterface
+public interface StatementBinder<T> {
+    /**
+     * Sets the parameters of given statement to the values of given item.
+     *
+     * @param statement the statement to bind to
+     * @param item      the item to bind
+     * @throws SQLException if a database error occurs while setting parameters
+     */
+    void bind(PreparedStatement statement, T item) throws SQLException;
 }
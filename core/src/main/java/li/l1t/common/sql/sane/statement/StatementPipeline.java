@@ -0,0 +1,346 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.statement;
+
+import com.google.common.base.Preconditions;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.exception.SqlExecutionException;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.result.SimpleQueryResult;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Queues independent queries and updates and sends them to the database together, so that a
+ * chatty flow waits for a single network round trip instead of one per statement. Results are
+ * returned in the order the statements were queued.
+ * <p>If multi-statement execution is enabled, for example because the MySQL driver was configured
+ * with {@code allowMultiQueries=true}, all statements are joined into a single request and the
+ * rows of queries are read into memory. The joined SQL is prepared without the statement cache,
+ * since it is unlikely to be queued in the same combination again.</p>
+ * <p>Otherwise, statements are executed one after another on the same connection and only
+ * consecutive updates with the same SQL are sent as a single batch. Queries and mixed statements
+ * then take one round trip each, just like executing them directly, so pipelines without
+ * multi-statement support only pay off for repeated updates.</p>
+ * <p>Each queued statement must be a single SQL statement. Statements are executed in order, but
+ * not atomically: if one fails, the preceding ones remain applied unless the pipeline is executed
+ * in a transaction.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class StatementPipeline {
+    private final Runner runner;
+    private final boolean multiStatements;
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * Creates a new empty pipeline.
+     *
+     * @param runner          the runner preparing and executing statements
+     * @param multiStatements whether the driver accepts multiple statements in a single request
+     */
+    public StatementPipeline(Runner runner, boolean multiStatements) {
+        this.runner = Preconditions.checkNotNull(runner, "runner");
+        this.multiStatements = multiStatements;
+    }
+
+    /**
+     * Queues a query whose result is available from {@link PipelineResults#query(int)}.
+     *
+     * @param sqlQuery   the query to execute
+     * @param parameters the parameters to bind to the query
+     * @return this pipeline
+     */
+    public StatementPipeline query(String sqlQuery, Object... parameters) {
+        return add(sqlQuery, parameters, true);
+    }
+
+    /**
+     * Queues an update whose affected row count is available from {@link
+     * PipelineResults#updateCount(int)}.
+     *
+     * @param sqlQuery   the update to execute
+     * @param parameters the parameters to bind to the update
+     * @return this pipeline
+     */
+    public StatementPipeline update(String sqlQuery, Object... parameters) {
+        return add(sqlQuery, parameters, false);
+    }
+
+    private StatementPipeline add(String sqlQuery, Object[] parameters, boolean query) {
+        Preconditions.checkNotNull(sqlQuery, "sqlQuery");
+        Preconditions.checkNotNull(parameters, "parameters");
+        steps.add(new Step(sqlQuery, parameters.clone(), query));
+        return this;
+    }
+
+    /**
+     * @return the amount of statements queued in this pipeline
+     */
+    public int size() {
+        return steps.size();
+    }
+
+    /**
+     * Executes all queued statements. The pipeline may be executed again afterwards.
+     *
+     * @return the results of the statements, in the order they were queued, which must be closed
+     * to release the results of queries
+     * @throws DatabaseException if a database error occurs, in which case all results obtained so
+     *                           far are closed
+     */
+    public PipelineResults execute() throws DatabaseException {
+        List<Object> results = new ArrayList<>(steps.size());
+        try {
+            if (multiStatements && steps.size() > 1) {
+                executeJoined(results);
+            } else {
+                executeSequentially(results);
+            }
+            return new PipelineResults(results);
+        } catch (SQLException e) {
+            PipelineResults.closeAll(results);
+            throw new SqlExecutionException(e);
+        } catch (RuntimeException e) {
+            PipelineResults.closeAll(results);
+            throw e;
+        }
+    }
+
+    private void executeJoined(List<Object> results) throws SQLException {
+        StringBuilder joinedSql = new StringBuilder();
+        List<Object> joinedParameters = new ArrayList<>();
+        for (Step step : steps) {
+            joinedSql.append(step.sql).append(";\n");
+            joinedParameters.addAll(Arrays.asList(step.parameters));
+        }
+        PreparedStatement statement = runner.prepareUncached(joinedSql.toString(), joinedParameters.toArray());
+        try {
+            boolean hasResultSet = runner.execute(statement, PreparedStatement::execute);
+            RowSetFactory rowSetFactory = RowSetProvider.newFactory();
+            for (int i = 0; i < steps.size(); i++) {
+                if (i > 0) {
+                    hasResultSet = statement.getMoreResults();
+                }
+                if (steps.get(i).query) {
+                    results.add(readRows(statement, hasResultSet, rowSetFactory, i));
+                } else {
+                    results.add(readUpdateCount(statement, hasResultSet, i));
+                }
+            }
+        } finally {
+            runner.release(statement);
+        }
+    }
+
+    private QueryResult readRows(PreparedStatement statement, boolean hasResultSet,
+                                 RowSetFactory rowSetFactory, int index) throws SQLException {
+        if (!hasResultSet) {
+            throw new IllegalStateException("Statement " + index + " of pipeline did not return rows: " +
+                    steps.get(index).sql);
+        }
+        try (ResultSet resultSet = statement.getResultSet()) {
+            CachedRowSet rows = rowSetFactory.createCachedRowSet();
+            rows.populate(resultSet);
+            return new DetachedQueryResult(rows);
+        }
+    }
+
+    private int readUpdateCount(PreparedStatement statement, boolean hasResultSet, int index) throws SQLException {
+        int updateCount = statement.getUpdateCount();
+        if (hasResultSet || updateCount == -1) {
+            throw new IllegalStateException("Statement " + index + " of pipeline did not return an update count: " +
+                    steps.get(index).sql);
+        }
+        return updateCount;
+    }
+
+    private void executeSequentially(List<Object> results) throws SQLException {
+        int index = 0;
+        while (index < steps.size()) {
+            Step step = steps.get(index);
+            if (step.query) {
+                results.add(executeQuery(step));
+                index++;
+            } else {
+                int batchEnd = findBatchEnd(index);
+                executeUpdates(index, batchEnd, results);
+                index = batchEnd;
+            }
+        }
+    }
+
+    private QueryResult executeQuery(Step step) throws SQLException {
+        PreparedStatement statement = runner.prepare(step.sql, step.parameters);
+        try {
+            ResultSet resultSet = runner.execute(statement, PreparedStatement::executeQuery);
+            return new SimpleQueryResult(statement, resultSet, runner::release);
+        } catch (SQLException | RuntimeException e) {
+            runner.release(statement);
+            throw e;
+        }
+    }
+
+    private int findBatchEnd(int start) {
+        String sql = steps.get(start).sql;
+        int end = start + 1;
+        while (end < steps.size() && !steps.get(end).query && steps.get(end).sql.equals(sql)) {
+            end++;
+        }
+        return end;
+    }
+
+    private void executeUpdates(int start, int end, List<Object> results) throws SQLException {
+        PreparedStatement statement = runner.prepare(steps.get(start).sql, steps.get(start).parameters);
+        try {
+            if (end - start == 1) {
+                results.add(runner.execute(statement, PreparedStatement::executeUpdate));
+                return;
+            }
+            statement.addBatch();
+            for (int i = start + 1; i < end; i++) {
+                Object[] parameters = steps.get(i).parameters;
+                for (int parameter = 0; parameter < parameters.length; parameter++) {
+                    AbstractStatementProvider.setParameter(statement, parameter + 1, parameters[parameter]);
+                }
+                statement.addBatch();
+            }
+            try {
+                for (int updateCount : runner.execute(statement, PreparedStatement::executeBatch)) {
+                    results.add(updateCount);
+                }
+            } finally {
+                statement.clearBatch();
+            }
+        } finally {
+            runner.release(statement);
+        }
+    }
+
+    /**
+     * Prepares, executes, and releases the statements of a pipeline.
+     */
+    public interface Runner {
+        /**
+         * @param sql        the SQL of the statement
+         * @param parameters the parameters to bind to the statement
+         * @return a statement with given parameters bound
+         */
+        PreparedStatement prepare(String sql, Object[] parameters);
+
+        /**
+         * Prepares a statement for SQL that is unlikely to be executed again, so that it does not
+         * evict reusable statements from a cache.
+         *
+         * @param sql        the SQL of the statement
+         * @param parameters the parameters to bind to the statement
+         * @return a statement with given parameters bound
+         */
+        PreparedStatement prepareUncached(String sql, Object[] parameters);
+
+        /**
+         * Executes a prepared statement, applying timeouts and cancellation like any other
+         * statement of the runner's owner.
+         *
+         * @param statement the statement to execute
+         * @param call      the call executing the statement
+         * @param <T>       the type of value returned by the call
+         * @return the value returned by the call
+         * @throws SQLException if a database error occurs
+         */
+        <T> T execute(PreparedStatement statement, Call<T> call) throws SQLException;
+
+        /**
+         * @param statement the statement that is no longer used
+         */
+        void release(PreparedStatement statement);
+    }
+
+    /**
+     * Executes a prepared statement.
+     *
+     * @param <T> the type of value returned
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T execute(PreparedStatement statement) throws SQLException;
+    }
+
+    private static class Step {
+        private final String sql;
+        private final Object[] parameters;
+        private final boolean query;
+
+        private Step(String sql, Object[] parameters, boolean query) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.query = query;
+        }
+    }
+
+    /**
+     * A query result whose rows have been read into memory, so that further results can be read
+     * from the statement it came from.
+     */
+    private static class DetachedQueryResult implements QueryResult {
+        private final CachedRowSet rows;
+
+        private DetachedQueryResult(CachedRowSet rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public ResultSet rs() {
+            return rows;
+        }
+
+        /**
+         * @return null, since the statement has already been released
+         */
+        @Override
+        public PreparedStatement getStatement() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+            try {
+                rows.close();
+            } catch (SQLException ignored) {
+                //rows are in memory only
+            }
+        }
+    }
+}
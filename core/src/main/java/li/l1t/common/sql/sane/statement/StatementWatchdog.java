@@ -0,0 +1,206 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.statement;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps track of the statements currently executing on each thread, so that they can be
+ * cancelled from other threads. JDBC drivers do not react to thread interrupts, so a background
+ * thread periodically cancels the statements of threads that have been interrupted. The
+ * background thread is only started once the first statement is executed.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class StatementWatchdog implements AutoCloseable {
+    /**
+     * The default interval between checks for interrupted threads, in milliseconds.
+     */
+    public static final long DEFAULT_SCAN_INTERVAL_MILLIS = 100L;
+    private static final Logger LOGGER = Logger.getLogger(StatementWatchdog.class.getName());
+    private final ConcurrentMap<Thread, Execution> executions = new ConcurrentHashMap<>();
+    private final long scanIntervalMillis;
+    private final LongAdder cancelCount = new LongAdder();
+    private ScheduledExecutorService scanner; //guarded by this
+    private boolean closed; //guarded by this
+    private volatile boolean started; //scanner was started or closed, set once
+
+    /**
+     * Creates a new watchdog with the {@link #DEFAULT_SCAN_INTERVAL_MILLIS default scan interval}.
+     */
+    public StatementWatchdog() {
+        this(DEFAULT_SCAN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param scanInterval the interval between checks for interrupted threads
+     * @param unit         the unit of the interval
+     */
+    public StatementWatchdog(long scanInterval, TimeUnit unit) {
+        Preconditions.checkArgument(scanInterval > 0, "scanInterval must be positive: %s", scanInterval);
+        this.scanIntervalMillis = Preconditions.checkNotNull(unit, "unit").toMillis(scanInterval);
+    }
+
+    /**
+     * Registers given statement as executing on the current thread until the returned execution
+     * is closed. A thread may only execute a single statement at a time.
+     *
+     * @param statement the statement about to be executed
+     * @return the execution, to be closed once the statement has completed
+     */
+    public Execution begin(Statement statement) {
+        Preconditions.checkNotNull(statement, "statement");
+        if (!started) { //avoid taking the lock for every statement
+            ensureScanning();
+        }
+        Execution execution = new Execution(Thread.currentThread(), statement);
+        executions.put(execution.thread, execution);
+        return execution;
+    }
+
+    private synchronized void ensureScanning() {
+        if (scanner != null || closed) {
+            return;
+        }
+        scanner = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("xyc-sql-statement-watchdog-%d")
+                .setDaemon(true)
+                .build());
+        scanner.scheduleWithFixedDelay(this::cancelInterrupted, scanIntervalMillis, scanIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        started = true;
+    }
+
+    /**
+     * Cancels the statements of all threads that have been interrupted while executing them. This
+     * is called periodically by the background thread.
+     */
+    public void cancelInterrupted() {
+        executions.values().stream()
+                .filter(execution -> execution.thread.isInterrupted())
+                .forEach(Execution::cancel);
+    }
+
+    /**
+     * Cancels the statement currently executing on given thread, if any.
+     *
+     * @param thread the thread whose statement to cancel
+     * @return whether a statement was executing on given thread
+     */
+    public boolean cancel(Thread thread) {
+        Execution execution = executions.get(Preconditions.checkNotNull(thread, "thread"));
+        if (execution == null) {
+            return false;
+        }
+        execution.cancel();
+        return true;
+    }
+
+    /**
+     * @return the amount of statements currently executing
+     */
+    public int getRunningCount() {
+        return executions.size();
+    }
+
+    /**
+     * @return the amount of statements cancelled since creation of this watchdog
+     */
+    public long getCancelCount() {
+        return cancelCount.sum();
+    }
+
+    /**
+     * Stops the background thread. Statements that are still executing are not cancelled.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        started = true;
+        if (scanner != null) {
+            scanner.shutdownNow();
+            scanner = null;
+        }
+    }
+
+    /**
+     * A statement executing on a thread.
+     */
+    public final class Execution implements AutoCloseable {
+        private final Thread thread;
+        private final Statement statement;
+        private volatile boolean cancelled;
+        private boolean completed; //guarded by this
+
+        private Execution(Thread thread, Statement statement) {
+            this.thread = thread;
+            this.statement = statement;
+        }
+
+        private synchronized void cancel() {
+            if (cancelled || completed) {
+                return;
+            }
+            cancelled = true;
+            cancelCount.increment();
+            try {
+                statement.cancel();
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Failed to cancel statement executing on " + thread.getName(), e);
+            }
+        }
+
+        /**
+         * @return whether the statement has been cancelled while executing
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Marks the statement as completed. Cancelling the statement concurrently is prevented
+         * from now on, so that a statement is never cancelled after it has been handed back.
+         */
+        @Override
+        public synchronized void close() {
+            completed = true;
+            executions.remove(thread, this);
+        }
+    }
+}
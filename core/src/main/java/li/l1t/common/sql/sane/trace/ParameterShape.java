@@ -0,0 +1,244 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.trace;
+
+import com.google.common.base.Preconditions;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.temporal.Temporal;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Describes the type and size of a parameter bound to a traced statement, without its value.
+ * Replays substitute synthetic values of the same shape.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public final class ParameterShape {
+    private static final Pattern UUID_PATTERN = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}"
+    );
+    private static final String ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyz0123456789";
+    private final Type type;
+    private final int length;
+
+    private ParameterShape(Type type, int length) {
+        this.type = type;
+        this.length = length;
+    }
+
+    /**
+     * @param type   the type of parameter
+     * @param length the length of variable-length parameters, ignored for other types
+     * @return the shape
+     */
+    public static ParameterShape of(Type type, int length) {
+        Preconditions.checkNotNull(type, "type");
+        Preconditions.checkArgument(length >= 0, "length must not be negative: %s", length);
+        return new ParameterShape(type, type.hasLength() ? length : 0);
+    }
+
+    /**
+     * @param value the parameter value to describe, may be null
+     * @return the shape of given value
+     */
+    public static ParameterShape ofValue(Object value) {
+        if (value == null) {
+            return of(Type.NULL, 0);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return of(Type.INT, 0);
+        } else if (value instanceof Long) {
+            return of(Type.LONG, 0);
+        } else if (value instanceof Float || value instanceof Double || value instanceof BigDecimal) {
+            return of(Type.DECIMAL, 0);
+        } else if (value instanceof Boolean) {
+            return of(Type.BOOLEAN, 0);
+        } else if (value instanceof UUID) {
+            return of(Type.UUID, 0);
+        } else if (value instanceof CharSequence) {
+            return ofString(value.toString());
+        } else if (value instanceof Date || value instanceof Temporal) {
+            return of(Type.TIMESTAMP, 0);
+        } else if (value instanceof byte[]) {
+            return of(Type.BYTES, ((byte[]) value).length);
+        } else {
+            return of(Type.OTHER, 0);
+        }
+    }
+
+    private static ParameterShape ofString(String value) {
+        if (UUID_PATTERN.matcher(value).matches()) {
+            return of(Type.UUID_STRING, 0);
+        } else {
+            return of(Type.STRING, value.length());
+        }
+    }
+
+    /**
+     * @param encoded the shape in the compact form written to trace files
+     * @return the decoded shape
+     * @throws IllegalArgumentException if the shape is malformed
+     * @see #encode()
+     */
+    public static ParameterShape decode(String encoded) {
+        Preconditions.checkArgument(encoded != null && !encoded.isEmpty(), "empty parameter shape");
+        Type type = Type.fromCode(encoded.charAt(0));
+        try {
+            int length = encoded.length() == 1 ? 0 : Integer.parseInt(encoded.substring(1));
+            return of(type, length);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed parameter shape: " + encoded, e);
+        }
+    }
+
+    /**
+     * @return this shape in the compact form written to trace files
+     */
+    public String encode() {
+        return type.hasLength() ? type.code + String.valueOf(length) : String.valueOf(type.code);
+    }
+
+    /**
+     * Creates a synthetic value of this shape.
+     *
+     * @param random the source of randomness to use
+     * @return the synthetic value, or null for null and unknown parameters
+     */
+    public Object synthesize(Random random) {
+        switch (type) {
+            case INT:
+                return random.nextInt(1000);
+            case LONG:
+                return (long) random.nextInt(1000);
+            case DECIMAL:
+                return random.nextDouble() * 1000D;
+            case BOOLEAN:
+                return random.nextBoolean();
+            case STRING:
+                return randomString(random);
+            case UUID:
+                return new UUID(random.nextLong(), random.nextLong());
+            case UUID_STRING:
+                return new UUID(random.nextLong(), random.nextLong()).toString();
+            case TIMESTAMP:
+                return new Timestamp(System.currentTimeMillis());
+            case BYTES:
+                byte[] bytes = new byte[length];
+                random.nextBytes(bytes);
+                return bytes;
+            default:
+                return null;
+        }
+    }
+
+    private String randomString(Random random) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length())));
+        }
+        return builder.toString();
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the length of variable-length parameters, or zero for other types
+     */
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ParameterShape)) return false;
+        ParameterShape that = (ParameterShape) o;
+        return length == that.length && type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, length);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+
+    /**
+     * The types of parameters distinguished by traces.
+     */
+    public enum Type {
+        NULL('n', false),
+        INT('i', false),
+        LONG('l', false),
+        DECIMAL('d', false),
+        BOOLEAN('b', false),
+        STRING('s', true),
+        UUID('u', false),
+        UUID_STRING('g', false),
+        TIMESTAMP('t', false),
+        BYTES('x', true),
+        OTHER('o', false);
+
+        private final char code;
+        private final boolean hasLength;
+
+        Type(char code, boolean hasLength) {
+            this.code = code;
+            this.hasLength = hasLength;
+        }
+
+        public char getCode() {
+            return code;
+        }
+
+        /**
+         * @return whether shapes of this type record the length of the value
+         */
+        public boolean hasLength() {
+            return hasLength;
+        }
+
+        static Type fromCode(char code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown parameter type: " + code);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.trace;
+
+import li.l1t.common.sql.sane.metrics.LatencyHistogram;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of replaying a {@link SqlTrace} with a {@link TraceReplayer}.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class ReplayReport {
+    private final double speedFactor;
+    private final long eventCount;
+    private final long failedCount;
+    private final long rejectedCount;
+    private final long elapsedNanos;
+    private final LatencyHistogram latency;
+    private final LatencyHistogram scheduleLag;
+
+    ReplayReport(double speedFactor, long eventCount, long failedCount, long rejectedCount, long elapsedNanos,
+                 LatencyHistogram latency, LatencyHistogram scheduleLag) {
+        this.speedFactor = speedFactor;
+        this.eventCount = eventCount;
+        this.failedCount = failedCount;
+        this.rejectedCount = rejectedCount;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+        this.scheduleLag = scheduleLag;
+    }
+
+    /**
+     * @return the factor the trace was sped up by
+     */
+    public double getSpeedFactor() {
+        return speedFactor;
+    }
+
+    /**
+     * @return the amount of events in the replayed trace
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return the amount of statements that failed during the replay
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return the amount of statements not executed since the replayer's queue was full
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the amount of statements executed per second, including failed statements
+     */
+    public double getThroughputPerSecond() {
+        long executed = eventCount - rejectedCount;
+        return elapsedNanos == 0 ? 0D : executed * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return the latencies of the executed statements, including fetching all rows of queries
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the delays between the time statements were due according to the trace and the time
+     * they were started, which grow if the database cannot keep up with the replay speed
+     */
+    public LatencyHistogram getScheduleLag() {
+        return scheduleLag;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Replayed %d statements at %.1fx in %.3fs: %.1f statements/s, %d failed, %d rejected, " +
+                        "latency p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms, schedule lag p99=%.3fms",
+                eventCount, speedFactor, elapsedNanos / 1e9D, getThroughputPerSecond(), failedCount, rejectedCount,
+                millis(latency.getPercentileNanos(50)), millis(latency.getPercentileNanos(95)),
+                millis(latency.getPercentileNanos(99)), millis(latency.getMaxNanos()),
+                millis(scheduleLag.getPercentileNanos(99)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6D;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.trace;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A trace of statements recorded by a {@link SqlTraceWriter}, with events ordered by the time
+ * they were started.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class SqlTrace {
+    private static final Splitter FIELD_SPLITTER = Splitter.on(SqlTraceWriter.SEPARATOR);
+    private static final Splitter SHAPE_SPLITTER = Splitter.on(',');
+    private final List<TraceEvent> events;
+    private final int templateCount;
+
+    /**
+     * @param events        the events of the trace, in any order
+     * @param templateCount the amount of distinct SQL templates used by the events
+     */
+    public SqlTrace(List<TraceEvent> events, int templateCount) {
+        Preconditions.checkNotNull(events, "events");
+        List<TraceEvent> sorted = new ArrayList<>(events);
+        sorted.sort(Comparator.comparingLong(TraceEvent::getOffsetNanos));
+        this.events = ImmutableList.copyOf(sorted);
+        this.templateCount = templateCount;
+    }
+
+    /**
+     * Reads a trace from given file.
+     *
+     * @param path the file to read
+     * @return the trace
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid trace
+     */
+    public static SqlTrace read(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads a trace from given reader, which is not closed.
+     *
+     * @param reader the reader to read from
+     * @return the trace
+     * @throws IOException              if the reader fails
+     * @throws IllegalArgumentException if the input is not a valid trace
+     */
+    public static SqlTrace read(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        Preconditions.checkArgument(SqlTraceWriter.HEADER.equals(lines.readLine()), "not a SQL trace");
+        Map<Integer, String> templates = new HashMap<>();
+        List<TraceEvent> events = new ArrayList<>();
+        String line;
+        int lineNumber = 1;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                parseLine(line, templates, events);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Malformed SQL trace at line " + lineNumber + ": " + line, e);
+            }
+        }
+        return new SqlTrace(events, templates.size());
+    }
+
+    private static void parseLine(String line, Map<Integer, String> templates, List<TraceEvent> events) {
+        List<String> fields = FIELD_SPLITTER.splitToList(line);
+        if (line.charAt(0) == SqlTraceWriter.TEMPLATE_LINE) {
+            Preconditions.checkArgument(fields.size() == 3, "template needs 3 fields");
+            templates.put(Integer.parseInt(fields.get(1)), unescape(fields.get(2)));
+        } else if (line.charAt(0) == SqlTraceWriter.EVENT_LINE) {
+            Preconditions.checkArgument(fields.size() == 7, "event needs 7 fields");
+            String sql = templates.get(Integer.parseInt(fields.get(2)));
+            Preconditions.checkArgument(sql != null, "unknown template");
+            Preconditions.checkArgument(fields.get(3).length() == 1, "kind must be a single character");
+            events.add(new TraceEvent(
+                    TimeUnit.MICROSECONDS.toNanos(Long.parseLong(fields.get(1))),
+                    TraceEvent.Kind.fromCode(fields.get(3).charAt(0)),
+                    sql,
+                    parseShapes(fields.get(4)),
+                    TimeUnit.MICROSECONDS.toNanos(Long.parseLong(fields.get(5))),
+                    "1".equals(fields.get(6))
+            ));
+        } else {
+            throw new IllegalArgumentException("unknown line type");
+        }
+    }
+
+    private static List<ParameterShape> parseShapes(String encoded) {
+        if (SqlTraceWriter.NO_PARAMETERS.equals(encoded)) {
+            return ImmutableList.of();
+        }
+        ImmutableList.Builder<ParameterShape> shapes = ImmutableList.builder();
+        for (String shape : SHAPE_SPLITTER.split(encoded)) {
+            shapes.add(ParameterShape.decode(shape));
+        }
+        return shapes.build();
+    }
+
+    static String unescape(String escaped) {
+        StringBuilder builder = new StringBuilder(escaped.length());
+        for (int i = 0; i < escaped.length(); i++) {
+            char c = escaped.charAt(i);
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            Preconditions.checkArgument(++i < escaped.length(), "dangling escape");
+            char escapedChar = escaped.charAt(i);
+            switch (escapedChar) {
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case '\\':
+                    builder.append('\\');
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown escape: \\" + escapedChar);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return the events of this trace, ordered by the time they were started
+     */
+    public List<TraceEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * @return the amount of distinct SQL templates used by the events of this trace
+     */
+    public int getTemplateCount() {
+        return templateCount;
+    }
+
+    /**
+     * @return the time between the start of the trace and the start of its last event
+     */
+    public long getDurationNanos() {
+        return events.isEmpty() ? 0L : events.get(events.size() - 1).getOffsetNanos();
+    }
+}
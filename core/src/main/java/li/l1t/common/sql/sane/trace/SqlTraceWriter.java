@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.trace;
+
+import com.google.common.base.Preconditions;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes statements to a trace file in a compact line-based format. Each distinct SQL template is
+ * written once and referenced by id from the events using it. Event times are written relative to
+ * the creation of the writer, in microseconds. Parameter values are never written, only their
+ * {@link ParameterShape shape}.
+ * <p>Recording is meant to run against production traffic, so it never fails a statement: once
+ * the maximum amount of events has been written, further events are dropped, and if writing
+ * fails, recording stops with a warning.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ * @see SqlTrace for reading traces
+ */
+public class SqlTraceWriter implements AutoCloseable {
+    static final String HEADER = "# xyc-sql-trace 1";
+    static final char TEMPLATE_LINE = 'T';
+    static final char EVENT_LINE = 'E';
+    static final char SEPARATOR = '\t';
+    static final String NO_PARAMETERS = "-";
+    private static final Logger LOGGER = Logger.getLogger(SqlTraceWriter.class.getName());
+    private final Writer writer;
+    private final long maxEvents;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Integer> templateIds = new HashMap<>(); //guarded by this
+    private long recordedCount; //guarded by this
+    private long droppedCount; //guarded by this
+    private boolean stopped; //guarded by this
+
+    /**
+     * @param writer    the writer to write the trace to, closed when this writer is closed
+     * @param maxEvents the maximum amount of events to write, further events are dropped
+     * @throws IOException if the header cannot be written
+     */
+    public SqlTraceWriter(Writer writer, long maxEvents) throws IOException {
+        Preconditions.checkArgument(maxEvents > 0, "maxEvents must be positive: %s", maxEvents);
+        this.writer = Preconditions.checkNotNull(writer, "writer");
+        this.maxEvents = maxEvents;
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    /**
+     * Creates a writer writing to given file, replacing any existing content.
+     *
+     * @param path      the file to write the trace to
+     * @param maxEvents the maximum amount of events to write, further events are dropped
+     * @return the writer
+     * @throws IOException if the file cannot be opened
+     */
+    public static SqlTraceWriter open(Path path, long maxEvents) throws IOException {
+        BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        try {
+            return new SqlTraceWriter(writer, maxEvents);
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Records a statement that has completed.
+     *
+     * @param kind         the kind of call that executed the statement
+     * @param sql          the SQL template of the statement
+     * @param parameters   the parameters bound to the statement
+     * @param startNanos   the value of {@link System#nanoTime()} when the statement was started
+     * @param latencyNanos the time the statement took
+     * @param failed       whether the statement failed
+     */
+    public synchronized void record(TraceEvent.Kind kind, String sql, Object[] parameters,
+                                    long startNanos, long latencyNanos, boolean failed) {
+        if (stopped) {
+            return;
+        } else if (recordedCount >= maxEvents) {
+            droppedCount++;
+            return;
+        }
+        try {
+            writeEvent(kind, templateIdFor(sql), parameters, startNanos, latencyNanos, failed);
+            recordedCount++;
+        } catch (IOException e) {
+            stopped = true;
+            LOGGER.log(Level.WARNING, "Failed to write SQL trace, stopping recording", e);
+        }
+    }
+
+    private int templateIdFor(String sql) throws IOException {
+        Integer existing = templateIds.get(sql);
+        if (existing != null) {
+            return existing;
+        }
+        int id = templateIds.size();
+        writer.append(TEMPLATE_LINE).append(SEPARATOR).append(String.valueOf(id)).append(SEPARATOR)
+                .append(escape(sql)).append('\n');
+        templateIds.put(sql, id);
+        return id;
+    }
+
+    private void writeEvent(TraceEvent.Kind kind, int templateId, Object[] parameters, long startNanos,
+                            long latencyNanos, boolean failed) throws IOException {
+        writer.append(EVENT_LINE).append(SEPARATOR)
+                .append(String.valueOf(toMicros(startNanos - this.startNanos))).append(SEPARATOR)
+                .append(String.valueOf(templateId)).append(SEPARATOR)
+                .append(kind.getCode()).append(SEPARATOR)
+                .append(encodeShapes(parameters)).append(SEPARATOR)
+                .append(String.valueOf(toMicros(latencyNanos))).append(SEPARATOR)
+                .append(failed ? '1' : '0').append('\n');
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(Math.max(0L, nanos));
+    }
+
+    private static String encodeShapes(Object[] parameters) {
+        if (parameters.length == 0) {
+            return NO_PARAMETERS;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (Object parameter : parameters) {
+            if (builder.length() != 0) {
+                builder.append(',');
+            }
+            builder.append(ParameterShape.ofValue(parameter).encode());
+        }
+        return builder.toString();
+    }
+
+    static String escape(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        for (char c : sql.toCharArray()) {
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return the amount of events written so far
+     */
+    public synchronized long getRecordedCount() {
+        return recordedCount;
+    }
+
+    /**
+     * @return the amount of events dropped since the maximum amount of events had been reached
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Stops recording and closes the underlying writer.
+     *
+     * @throws IOException if the trace cannot be written completely
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        stopped = true;
+        writer.close();
+    }
+}
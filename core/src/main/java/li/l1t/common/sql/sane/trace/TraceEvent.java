@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.trace;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A single statement recorded in a {@link SqlTrace}. Events do not contain the values of bound
+ * parameters, only their shape, so that traces of production traffic do not leak user data.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class TraceEvent {
+    private final long offsetNanos;
+    private final Kind kind;
+    private final String sql;
+    private final List<ParameterShape> parameters;
+    private final long latencyNanos;
+    private final boolean failed;
+
+    /**
+     * @param offsetNanos  the time between the start of the trace and the start of the statement
+     * @param kind         the kind of call that executed the statement
+     * @param sql          the SQL template of the statement
+     * @param parameters   the shapes of the parameters bound to the statement, in order
+     * @param latencyNanos the time the statement took when it was recorded
+     * @param failed       whether the statement failed when it was recorded
+     */
+    public TraceEvent(long offsetNanos, Kind kind, String sql, List<ParameterShape> parameters,
+                      long latencyNanos, boolean failed) {
+        Preconditions.checkArgument(offsetNanos >= 0, "offsetNanos must not be negative: %s", offsetNanos);
+        this.offsetNanos = offsetNanos;
+        this.kind = Preconditions.checkNotNull(kind, "kind");
+        this.sql = Preconditions.checkNotNull(sql, "sql");
+        this.parameters = ImmutableList.copyOf(parameters);
+        this.latencyNanos = latencyNanos;
+        this.failed = failed;
+    }
+
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<ParameterShape> getParameters() {
+        return parameters;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TraceEvent)) return false;
+        TraceEvent that = (TraceEvent) o;
+        return offsetNanos == that.offsetNanos && latencyNanos == that.latencyNanos && failed == that.failed &&
+                kind == that.kind && sql.equals(that.sql) && parameters.equals(that.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offsetNanos, kind, sql, parameters, latencyNanos, failed);
+    }
+
+    @Override
+    public String toString() {
+        return "TraceEvent{" +
+                "offsetNanos=" + offsetNanos +
+                ", kind=" + kind +
+                ", sql='" + sql + '\'' +
+                ", parameters=" + parameters +
+                ", latencyNanos=" + latencyNanos +
+                ", failed=" + failed +
+                '}';
+    }
+
+    /**
+     * The kind of call a statement was executed with, corresponding to the methods of {@link
+     * li.l1t.common.sql.sane.SaneSql}.
+     */
+    public enum Kind {
+        QUERY('Q'),
+        UPDATE_RAW('R'),
+        UPDATE('U');
+
+        private final char code;
+
+        Kind(char code) {
+            this.code = code;
+        }
+
+        public char getCode() {
+            return code;
+        }
+
+        /**
+         * @param code the code of the kind to find
+         * @return the kind with given code
+         * @throws IllegalArgumentException if there is no kind with given code
+         */
+        public static Kind fromCode(char code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown statement kind: " + code);
+        }
+    }
+}
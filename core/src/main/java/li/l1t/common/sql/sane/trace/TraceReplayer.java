@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.trace;
+
+import com.google.common.base.Preconditions;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.async.BoundedSqlExecutor;
+import li.l1t.common.sql.sane.metrics.LatencyHistogram;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.sanebox.SqlSanebox;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Replays a {@link SqlTrace} against a sane SQL instance, preserving the inter-arrival times of
+ * the recorded statements, optionally sped up by a constant factor. Statements are executed on a
+ * pool of worker threads, so that a slow statement does not delay the following ones. Parameters
+ * are substituted with synthetic values of the recorded shape, drawn from a seeded random source
+ * so that replays are repeatable.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class TraceReplayer {
+    private static final Logger LOGGER = Logger.getLogger(TraceReplayer.class.getName());
+    private final SaneSql sql;
+    private final double speedFactor;
+    private final int workerCount;
+    private final int queueCapacity;
+    private final long seed;
+
+    private TraceReplayer(Builder builder) {
+        this.sql = builder.sql;
+        this.speedFactor = builder.speedFactor;
+        this.workerCount = builder.workerCount;
+        this.queueCapacity = builder.queueCapacity;
+        this.seed = builder.seed;
+    }
+
+    /**
+     * Creates a builder for a replayer.
+     *
+     * @param sql the sane SQL instance to replay statements on
+     * @return a new builder
+     */
+    public static Builder builder(SaneSql sql) {
+        return new Builder(sql);
+    }
+
+    /**
+     * Replays given trace, blocking until all statements have completed.
+     *
+     * @param trace the trace to replay
+     * @return a report of the replay
+     * @throws InterruptedException if interrupted while waiting for statements to become due or
+     *                              complete
+     */
+    public ReplayReport replay(SqlTrace trace) throws InterruptedException {
+        Preconditions.checkNotNull(trace, "trace");
+        Random random = new Random(seed);
+        LatencyHistogram latency = new LatencyHistogram();
+        LatencyHistogram scheduleLag = new LatencyHistogram();
+        LongAdder failedCount = new LongAdder();
+        long rejectedCount = 0;
+        BoundedSqlExecutor executor = new BoundedSqlExecutor("xyc-sql-replay", workerCount, queueCapacity);
+        long startNanos = System.nanoTime();
+        try {
+            for (TraceEvent event : trace.getEvents()) {
+                long dueNanos = startNanos + (long) (event.getOffsetNanos() / speedFactor);
+                TimeUnit.NANOSECONDS.sleep(dueNanos - System.nanoTime());
+                Object[] parameters = synthesizeParameters(event, random);
+                try {
+                    executor.execute(() -> {
+                        scheduleLag.record(System.nanoTime() - dueNanos);
+                        execute(event, parameters, latency, failedCount);
+                    });
+                } catch (RejectedExecutionException e) {
+                    rejectedCount++;
+                }
+            }
+            executor.drain(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            executor.close(); //lets remaining statements complete in the background if interrupted
+        }
+        return new ReplayReport(speedFactor, trace.getEvents().size(), failedCount.sum(), rejectedCount,
+                System.nanoTime() - startNanos, latency, scheduleLag);
+    }
+
+    private Object[] synthesizeParameters(TraceEvent event, Random random) {
+        return event.getParameters().stream()
+                .map(shape -> shape.synthesize(random))
+                .toArray();
+    }
+
+    private void execute(TraceEvent event, Object[] parameters, LatencyHistogram latency, LongAdder failedCount) {
+        long startNanos = System.nanoTime();
+        try {
+            if (event.getKind() == TraceEvent.Kind.QUERY) {
+                try (QueryResult result = sql.query(event.getSql(), parameters)) {
+                    SqlSanebox.run(() -> consumeAll(result.rs()));
+                }
+            } else if (event.getKind() == TraceEvent.Kind.UPDATE) {
+                sql.update(event.getSql(), parameters).close();
+            } else {
+                sql.updateRaw(event.getSql(), parameters);
+            }
+        } catch (RuntimeException e) {
+            failedCount.increment();
+            LOGGER.log(Level.FINE, "Replayed statement failed: " + event.getSql(), e);
+        } finally {
+            latency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static void consumeAll(ResultSet resultSet) throws SQLException {
+        while (resultSet.next()) {
+            resultSet.getObject(1);
+        }
+    }
+
+    /**
+     * Builds trace replayers.
+     */
+    public static class Builder {
+        private final SaneSql sql;
+        private double speedFactor = 1D;
+        private int workerCount = 1;
+        private int queueCapacity = 10_000;
+        private long seed = 0L;
+
+        private Builder(SaneSql sql) {
+            this.sql = Preconditions.checkNotNull(sql, "sql");
+        }
+
+        /**
+         * @param speedFactor the factor to speed up the trace by, for example 10 to replay ten
+         *                    times as fast as recorded, 1 by default
+         * @return this builder
+         */
+        public Builder speedFactor(double speedFactor) {
+            Preconditions.checkArgument(speedFactor > 0, "speedFactor must be positive: %s", speedFactor);
+            this.speedFactor = speedFactor;
+            return this;
+        }
+
+        /**
+         * @param workerCount the amount of threads executing statements concurrently, should not
+         *                    exceed the amount of connections available, 1 by default
+         * @return this builder
+         */
+        public Builder workerCount(int workerCount) {
+            Preconditions.checkArgument(workerCount > 0, "workerCount must be positive: %s", workerCount);
+            this.workerCount = workerCount;
+            return this;
+        }
+
+        /**
+         * @param queueCapacity the maximum amount of due statements waiting for a worker, further
+         *                      statements are counted as rejected, 10000 by default
+         * @return this builder
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            Preconditions.checkArgument(queueCapacity > 0, "queueCapacity must be positive: %s", queueCapacity);
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param seed the seed of the random source synthetic parameters are drawn from, 0 by
+         *             default
+         * @return this builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public TraceReplayer build() {
+            return new TraceReplayer(this);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.trace;
+
+import com.google.common.base.Preconditions;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.TransactionAware;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.result.UpdateResult;
+import li.l1t.common.sql.sane.scoped.ScopedSession;
+
+import java.util.function.Supplier;
+
+/**
+ * Decorates a sane SQL instance to record all executed statements to a {@link SqlTraceWriter}.
+ * Traces capture the SQL template, the shape of the parameters and the timing of each statement,
+ * so that production traffic can be replayed offline using a {@link TraceReplayer}. Statements
+ * executed directly on a scoped session are not recorded.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class TracingSaneSql implements SaneSql, TransactionAware {
+    private final SaneSql delegate;
+    private final SqlTraceWriter traceWriter;
+
+    /**
+     * @param delegate    the sane SQL instance to execute statements on
+     * @param traceWriter the writer to record statements to, not closed by this decorator
+     */
+    public TracingSaneSql(SaneSql delegate, SqlTraceWriter traceWriter) {
+        this.delegate = Preconditions.checkNotNull(delegate, "delegate");
+        this.traceWriter = Preconditions.checkNotNull(traceWriter, "traceWriter");
+    }
+
+    @Override
+    public QueryResult query(String sqlQuery, Object... parameters) throws DatabaseException {
+        return record(TraceEvent.Kind.QUERY, sqlQuery, parameters, () -> delegate.query(sqlQuery, parameters));
+    }
+
+    @Override
+    public int updateRaw(String sqlQuery, Object... parameters) throws DatabaseException {
+        return record(TraceEvent.Kind.UPDATE_RAW, sqlQuery, parameters, () -> delegate.updateRaw(sqlQuery, parameters));
+    }
+
+    @Override
+    public UpdateResult update(String sqlQuery, Object... parameters) throws DatabaseException {
+        return record(TraceEvent.Kind.UPDATE, sqlQuery, parameters, () -> delegate.update(sqlQuery, parameters));
+    }
+
+    private <T> T record(TraceEvent.Kind kind, String sqlQuery, Object[] parameters, Supplier<T> execution) {
+        Preconditions.checkNotNull(sqlQuery, "sqlQuery");
+        Preconditions.checkNotNull(parameters, "parameters");
+        long startNanos = System.nanoTime();
+        try {
+            T result = execution.get();
+            traceWriter.record(kind, sqlQuery, parameters, startNanos, System.nanoTime() - startNanos, false);
+            return result;
+        } catch (RuntimeException e) {
+            traceWriter.record(kind, sqlQuery, parameters, startNanos, System.nanoTime() - startNanos, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public ScopedSession<?> scoped() {
+        return delegate.scoped();
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return TransactionAware.mayBeInTransaction(delegate);
+    }
+
+    /**
+     * @return the sane SQL instance statements are executed on
+     */
+    public SaneSql getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the writer statements are recorded to
+     */
+    public SqlTraceWriter getTraceWriter() {
+        return traceWriter;
+    }
+
+    /**
+     * Closes the decorated instance. The trace writer is not closed.
+     */
+    @Override
+    public void close() throws Exception {
+        delegate.close();
+    }
+}
@@ -24,19 +24,46 @@
 
 package li.l1t.common.sql.sane.util;
 
+import li.l1t.common.sql.sane.mapping.ColumnResolver;
+import li.l1t.common.sql.sane.mapping.ResolvedColumns;
+
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.UUID;
 
 /**
- * Abstract base class for JDBC entity creators providing common methods.
+ * Abstract base class for JDBC entity creators providing common methods. Creators that declare
+ * the labels of the columns they read have them resolved to indices once per result set, and
+ * read rows by index through {@link #columns(ResultSet)}.
  *
  * @author <a href="https://l1t.li/">Literallie</a>
  * @since 2016-10-10
  */
 public abstract class AbstractJdbcEntityCreator<T> implements JdbcEntityCreator<T> {
+    private final ColumnResolver resolver;
+
+    protected AbstractJdbcEntityCreator() {
+        this(new String[0]);
+    }
+
+    /**
+     * @param columnLabels the labels of the columns read by this creator, addressed by their
+     *                     position in this array when reading through {@link #columns(ResultSet)}
+     */
+    protected AbstractJdbcEntityCreator(String... columnLabels) {
+        this.resolver = new ColumnResolver(columnLabels);
+    }
+
     protected UUID uuid(ResultSet rs, String column) throws SQLException {
-        String idString = rs.getString(column);
-        return idString == null ? null : UUID.fromString(idString);
+        return UuidDecoder.fromString(rs.getString(column));
+    }
+
+    /**
+     * @param rs the result set to read from
+     * @return the indices of this creator's columns in given result set
+     * @throws SQLException if a column does not exist or a database error occurs
+     */
+    protected ResolvedColumns columns(ResultSet rs) throws SQLException {
+        return resolver.resolve(rs);
     }
 }
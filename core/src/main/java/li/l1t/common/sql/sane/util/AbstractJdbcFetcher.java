@@ -24,13 +24,27 @@
 
 package li.l1t.common.sql.sane.util;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ObjectArrays;
+import li.l1t.common.exception.DatabaseException;
 import li.l1t.common.sql.sane.AbstractSqlConnected;
 import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.SingleSql;
 import li.l1t.common.sql.sane.result.QueryResult;
 
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Abstract base class for fetchers that fetch data from JDBC SQL data sources.
@@ -39,6 +53,10 @@ import java.util.Collection;
  * @since 2016-10-10
  */
 public abstract class AbstractJdbcFetcher<T> extends AbstractSqlConnected {
+    /**
+     * The default amount of rows the driver is asked to fetch per round trip when streaming.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 100;
     protected final JdbcEntityCreator<? extends T> creator;
 
     protected AbstractJdbcFetcher(JdbcEntityCreator<? extends T> creator, SaneSql saneSql) {
@@ -54,8 +72,108 @@ public abstract class AbstractJdbcFetcher<T> extends AbstractSqlConnected {
         return sql().query(buildSelect(whereClause), parameters);
     }
 
+    /**
+     * Builds a select statement for the entities of this fetcher. Implementations must end the
+     * statement with {@code WHERE} followed by the given condition, so that keyset pagination can
+     * append further conditions, ordering and limits.
+     *
+     * @param whereClause the condition to select entities by, without the {@code WHERE} keyword
+     * @return the select statement
+     */
     protected abstract String buildSelect(String whereClause);
 
+    /**
+     * Selects entities and maps rows lazily as the returned stream is consumed. The underlying
+     * result is held open until the stream is closed, so it must be used in a try-with-resources
+     * statement.
+     * <p>Rows are only fetched in chunks of {@link #getFetchSize()} if the sane SQL instance is a
+     * {@link SingleSql} and the driver supports it, which requires {@code useCursorFetch=true} for
+     * MySQL. Otherwise, the driver reads the whole result into memory when the query is executed.
+     * To keep memory usage flat regardless of configuration, use {@link #streamByKeyset(String,
+     * String, Function, int, Object...)} or {@link #fetchPageAfter(String, String, Object, int,
+     * Object...)} instead.</p>
+     *
+     * @param whereClause the condition to select entities by
+     * @param parameters  the parameters for the condition
+     * @return a sequential stream of the selected entities
+     * @throws DatabaseException if a database error occurs, also while consuming the stream
+     */
+    protected Stream<T> stream(String whereClause, Object... parameters) throws DatabaseException {
+        QueryResult result = selectStreaming(whereClause, parameters);
+        return StreamSupport.stream(new ResultSpliterator(result), false)
+                .onClose(result::close);
+    }
+
+    private QueryResult selectStreaming(String whereClause, Object[] parameters) {
+        if (sql() instanceof SingleSql) {
+            return ((SingleSql) sql()).streamingQuery(buildSelect(whereClause), getFetchSize(), parameters);
+        } else {
+            return select(whereClause, parameters);
+        }
+    }
+
+    /**
+     * @return the amount of rows the driver is asked to fetch per round trip when streaming, set
+     * before the query is executed, {@link #DEFAULT_FETCH_SIZE} unless overridden
+     */
+    protected int getFetchSize() {
+        return DEFAULT_FETCH_SIZE;
+    }
+
+    /**
+     * Fetches a single page of entities ordered by a unique key column, starting after given key.
+     * In contrast to offset-based pagination, the cost of fetching a page does not grow with the
+     * amount of preceding rows.
+     *
+     * @param whereClause the condition to select entities by
+     * @param keyColumn   the unique column to order by, must not be user input
+     * @param afterKey    the key of the last entity of the previous page, or null for the first
+     *                    page
+     * @param pageSize    the maximum amount of entities on the page
+     * @param parameters  the parameters for the condition
+     * @return the entities on the page, in key order, or an empty list if there are no more
+     * @throws DatabaseException if a database error occurs
+     */
+    protected List<T> fetchPageAfter(String whereClause, String keyColumn, Object afterKey, int pageSize,
+                                     Object... parameters) throws DatabaseException {
+        Preconditions.checkNotNull(keyColumn, "keyColumn");
+        Preconditions.checkArgument(pageSize > 0, "pageSize must be positive: %s", pageSize);
+        String pageClause = "(" + whereClause + ")";
+        Object[] pageParameters = parameters;
+        if (afterKey != null) {
+            pageClause += " AND " + keyColumn + " > ?";
+            pageParameters = ObjectArrays.concat(pageParameters, afterKey);
+        }
+        pageClause += " ORDER BY " + keyColumn + " LIMIT ?";
+        pageParameters = ObjectArrays.concat(pageParameters, pageSize);
+        try (QueryResult result = select(pageClause, pageParameters)) {
+            return ImmutableList.copyOf(collectAll(result));
+        } catch (SQLException e) {
+            throw DatabaseException.wrap(e);
+        }
+    }
+
+    /**
+     * Lazily streams all entities matching a condition by fetching them page by page using {@link
+     * #fetchPageAfter(String, String, Object, int, Object...) keyset pagination}. At most a single
+     * page is held in memory and no result is held open between pages, so the returned stream does
+     * not need to be closed.
+     *
+     * @param whereClause  the condition to select entities by
+     * @param keyColumn    the unique column to order by, must not be user input
+     * @param keyExtractor the function extracting the value of the key column from an entity
+     * @param pageSize     the maximum amount of entities to fetch per page
+     * @param parameters   the parameters for the condition
+     * @return a sequential stream of the matching entities, in key order
+     * @throws DatabaseException if a database error occurs while consuming the stream
+     */
+    protected Stream<T> streamByKeyset(String whereClause, String keyColumn, Function<? super T, ?> keyExtractor,
+                                       int pageSize, Object... parameters) throws DatabaseException {
+        Preconditions.checkNotNull(keyExtractor, "keyExtractor");
+        Iterator<T> iterator = new KeysetIterator(whereClause, keyColumn, keyExtractor, pageSize, parameters);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
     protected Collection<T> collectAll(QueryResult result) throws SQLException {
         ImmutableList.Builder<T> products = ImmutableList.builder();
         while (proceedToNextRow(result)) {
@@ -67,4 +185,72 @@ public abstract class AbstractJdbcFetcher<T> extends AbstractSqlConnected {
     protected T entityFromCurrentRow(QueryResult result) throws SQLException {
         return creator.createFromCurrentRow(result.rs());
     }
+
+    private class ResultSpliterator extends Spliterators.AbstractSpliterator<T> {
+        private final QueryResult result;
+
+        ResultSpliterator(QueryResult result) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.result = result;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (proceedToNextRow(result)) {
+                    action.accept(entityFromCurrentRow(result));
+                    return true;
+                } else {
+                    return false;
+                }
+            } catch (SQLException e) {
+                throw DatabaseException.wrap(e);
+            }
+        }
+    }
+
+    private class KeysetIterator implements Iterator<T> {
+        private final String whereClause;
+        private final String keyColumn;
+        private final Function<? super T, ?> keyExtractor;
+        private final int pageSize;
+        private final Object[] parameters;
+        private Iterator<T> currentPage = Collections.emptyIterator();
+        private Object lastKey;
+        private boolean exhausted = false;
+
+        KeysetIterator(String whereClause, String keyColumn, Function<? super T, ?> keyExtractor,
+                       int pageSize, Object[] parameters) {
+            this.whereClause = whereClause;
+            this.keyColumn = keyColumn;
+            this.keyExtractor = keyExtractor;
+            this.pageSize = pageSize;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!currentPage.hasNext() && !exhausted) {
+                fetchNextPage();
+            }
+            return currentPage.hasNext();
+        }
+
+        private void fetchNextPage() {
+            List<T> page = fetchPageAfter(whereClause, keyColumn, lastKey, pageSize, parameters);
+            exhausted = page.size() < pageSize;
+            if (!page.isEmpty()) {
+                lastKey = keyExtractor.apply(page.get(page.size() - 1));
+            }
+            currentPage = page.iterator();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentPage.next();
+        }
+    }
 }
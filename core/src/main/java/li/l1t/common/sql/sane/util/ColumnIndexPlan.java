@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.util;
+
+import com.google.common.base.Preconditions;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps the column labels of a result to their indices, so that rows can be read by index instead
+ * of having the driver look up each column by name for every row. Lookups are case-insensitive,
+ * with lower-case labels being the fastest to look up.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public final class ColumnIndexPlan {
+    private final Map<String, Integer> indices;
+    private final boolean[] binaryColumns;
+
+    private ColumnIndexPlan(Map<String, Integer> indices, boolean[] binaryColumns) {
+        this.indices = indices;
+        this.binaryColumns = binaryColumns;
+    }
+
+    /**
+     * Resolves the column indices of a result.
+     *
+     * @param metaData the meta data of the result
+     * @return the resolved plan
+     * @throws SQLException if a database error occurs while reading the meta data
+     */
+    public static ColumnIndexPlan of(ResultSetMetaData metaData) throws SQLException {
+        Preconditions.checkNotNull(metaData, "metaData");
+        int columnCount = metaData.getColumnCount();
+        Map<String, Integer> indices = new HashMap<>(columnCount * 4);
+        boolean[] binaryColumns = new boolean[columnCount + 1];
+        for (int index = 1; index <= columnCount; index++) {
+            String label = metaData.getColumnLabel(index);
+            indices.putIfAbsent(label, index);
+            indices.putIfAbsent(label.toLowerCase(Locale.ROOT), index);
+            binaryColumns[index] = isBinaryType(metaData.getColumnType(index));
+        }
+        return new ColumnIndexPlan(indices, binaryColumns);
+    }
+
+    private static boolean isBinaryType(int sqlType) {
+        return sqlType == Types.BINARY || sqlType == Types.VARBINARY || sqlType == Types.LONGVARBINARY;
+    }
+
+    /**
+     * @param label the label of the column to find
+     * @return the one-based index of the first column with given label
+     * @throws SQLException if there is no column with given label
+     */
+    public int indexOf(String label) throws SQLException {
+        Integer index = indices.get(label);
+        if (index == null) {
+            index = indices.get(label.toLowerCase(Locale.ROOT));
+            if (index == null) {
+                throw new SQLException("Column '" + label + "' not found in result", "S0022");
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @param index the one-based index of the column
+     * @return whether the column at given index has a binary type
+     */
+    public boolean isBinary(int index) {
+        return binaryColumns[index];
+    }
+}
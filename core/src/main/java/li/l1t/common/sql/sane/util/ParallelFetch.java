@@ -0,0 +1,281 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import li.l1t.common.sql.sane.async.BoundedSqlExecutor;
+import li.l1t.common.sql.sane.statement.SqlTimeoutException;
+
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent lookups, such as calls to different {@link AbstractJdbcFetcher}s,
+ * concurrently on a {@link BoundedSqlExecutor}, so that the latency of the whole becomes that of
+ * the slowest lookup instead of the sum. All lookups share a single deadline. If any lookup fails
+ * or the deadline passes, the remaining lookups are cancelled, which interrupts their worker
+ * threads and thereby cancels their statements, and the first failure is propagated to the caller.
+ * <p>Lookups only run in parallel on the database if the sane SQL instance they use gives each
+ * thread its own connection, for example using a {@link
+ * li.l1t.common.sql.sane.connection.PooledConnectionManager}. Lookups must not rely on the
+ * transaction of the calling thread, since they run on other threads.</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class ParallelFetch {
+    private final BoundedSqlExecutor executor;
+    private final long timeoutNanos;
+
+    /**
+     * @param executor the executor to run lookups on, should have at least as many workers as
+     *                 lookups are fetched together
+     * @param timeout  the maximum time all lookups of a single fetch may take together
+     * @param unit     the unit of the timeout
+     */
+    public ParallelFetch(BoundedSqlExecutor executor, long timeout, TimeUnit unit) {
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+        Preconditions.checkArgument(timeout > 0, "timeout must be positive: %s", timeout);
+        this.timeoutNanos = Preconditions.checkNotNull(unit, "unit").toNanos(timeout);
+    }
+
+    /**
+     * Runs two lookups concurrently.
+     *
+     * @param first  the first lookup
+     * @param second the second lookup
+     * @param <A>    the type of result of the first lookup
+     * @param <B>    the type of result of the second lookup
+     * @return the results of both lookups
+     * @throws SqlTimeoutException if the lookups did not complete before the deadline, or if the
+     *                             calling thread was interrupted while waiting
+     * @throws RuntimeException    the first exception thrown by any lookup
+     */
+    public <A, B> Pair<A, B> fetch(Supplier<? extends A> first, Supplier<? extends B> second) {
+        List<Object> results = fetchAll(Arrays.asList(first, second));
+        return new Pair<>(cast(results.get(0)), cast(results.get(1)));
+    }
+
+    /**
+     * Runs three lookups concurrently.
+     *
+     * @param first  the first lookup
+     * @param second the second lookup
+     * @param third  the third lookup
+     * @param <A>    the type of result of the first lookup
+     * @param <B>    the type of result of the second lookup
+     * @param <C>    the type of result of the third lookup
+     * @return the results of all lookups
+     * @throws SqlTimeoutException if the lookups did not complete before the deadline, or if the
+     *                             calling thread was interrupted while waiting
+     * @throws RuntimeException    the first exception thrown by any lookup
+     */
+    public <A, B, C> Triple<A, B, C> fetch(Supplier<? extends A> first, Supplier<? extends B> second,
+                                           Supplier<? extends C> third) {
+        List<Object> results = fetchAll(Arrays.asList(first, second, third));
+        return new Triple<>(cast(results.get(0)), cast(results.get(1)), cast(results.get(2)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object result) {
+        return (T) result;
+    }
+
+    /**
+     * Runs any amount of lookups concurrently.
+     *
+     * @param lookups the lookups to run
+     * @param <T>     the common type of result of the lookups
+     * @return the results of the lookups, in the order of the lookups
+     * @throws SqlTimeoutException if the lookups did not complete before the deadline, or if the
+     *                             calling thread was interrupted while waiting
+     * @throws RuntimeException    the first exception thrown by any lookup
+     */
+    public <T> List<T> fetchAll(List<? extends Supplier<? extends T>> lookups) {
+        Preconditions.checkNotNull(lookups, "lookups");
+        long deadlineNanos = System.nanoTime() + timeoutNanos;
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        List<CompletableFuture<T>> futures = submitAll(lookups, firstFailure);
+        try {
+            CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+            CompletableFuture.anyOf(all, firstFailure).get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            return collectResults(futures);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw propagate(e.getCause());
+        } catch (TimeoutException e) {
+            cancelAll(futures);
+            throw new SqlTimeoutException(new SQLTimeoutException(
+                    "Parallel fetch did not complete within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms"
+            ), false);
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new SqlTimeoutException(new SQLTimeoutException("Interrupted while waiting for parallel fetch"), true);
+        }
+    }
+
+    private <T> List<CompletableFuture<T>> submitAll(List<? extends Supplier<? extends T>> lookups,
+                                                     CompletableFuture<Void> firstFailure) {
+        ImmutableList.Builder<CompletableFuture<T>> futures = ImmutableList.builder();
+        for (Supplier<? extends T> lookup : lookups) {
+            CompletableFuture<T> future = executor.submit(Preconditions.checkNotNull(lookup, "lookup"));
+            future.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    firstFailure.completeExceptionally(failure);
+                }
+            });
+            futures.add(future);
+        }
+        return futures.build();
+    }
+
+    private static <T> List<T> collectResults(List<CompletableFuture<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join()); //all completed normally at this point
+        }
+        return results;
+    }
+
+    private static void cancelAll(List<? extends CompletableFuture<?>> futures) {
+        futures.forEach(future -> future.cancel(true));
+    }
+
+    private static RuntimeException propagate(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ?
+                failure.getCause() : failure;
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        } else {
+            return new CompletionException(cause);
+        }
+    }
+
+    /**
+     * The results of two lookups.
+     *
+     * @param <A> the type of result of the first lookup
+     * @param <B> the type of result of the second lookup
+     */
+    public static final class Pair<A, B> {
+        private final A first;
+        private final B second;
+
+        Pair(A first, B second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        public A getFirst() {
+            return first;
+        }
+
+        public B getSecond() {
+            return second;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Pair)) return false;
+            Pair<?, ?> pair = (Pair<?, ?>) o;
+            return Objects.equals(first, pair.first) && Objects.equals(second, pair.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(first, second);
+        }
+
+        @Override
+        public String toString() {
+            return "Pair{first=" + first + ", second=" + second + '}';
+        }
+    }
+
+    /**
+     * The results of three lookups.
+     *
+     * @param <A> the type of result of the first lookup
+     * @param <B> the type of result of the second lookup
+     * @param <C> the type of result of the third lookup
+     */
+    public static final class Triple<A, B, C> {
+        private final A first;
+        private final B second;
+        private final C third;
+
+        Triple(A first, B second, C third) {
+            this.first = first;
+            this.second = second;
+            this.third = third;
+        }
+
+        public A getFirst() {
+            return first;
+        }
+
+        public B getSecond() {
+            return second;
+        }
+
+        public C getThird() {
+            return third;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Triple)) return false;
+            Triple<?, ?, ?> triple = (Triple<?, ?, ?>) o;
+            return Objects.equals(first, triple.first) && Objects.equals(second, triple.second) &&
+                    Objects.equals(third, triple.third);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(first, second, third);
+        }
+
+        @Override
+        public String toString() {
+            return "Triple{first=" + first + ", second=" + second + ", third=" + third + '}';
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Decodes UUIDs from their database representations without the overhead of {@link
+ * UUID#fromString(String)}, which splits its argument and parses each component separately.
+ * Supports the canonical 36-character form as stored in {@code CHAR(36)} columns and the 16-byte
+ * big-endian form as stored in {@code BINARY(16)} columns.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public final class UuidDecoder {
+    private static final int CANONICAL_LENGTH = 36;
+    private static final int BINARY_LENGTH = 16;
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private UuidDecoder() {
+
+    }
+
+    /**
+     * Decodes a UUID from its string representation. Strings in the canonical form, such as
+     * produced by {@link UUID#toString()}, are decoded directly, others are passed to {@link
+     * UUID#fromString(String)}.
+     *
+     * @param input the string to decode, may be null
+     * @return the decoded UUID, or null if the input is null
+     * @throws IllegalArgumentException if the input is not a valid UUID
+     */
+    public static UUID fromString(CharSequence input) {
+        if (input == null) {
+            return null;
+        } else if (input.length() != CANONICAL_LENGTH || !hasCanonicalDashes(input)) {
+            return UUID.fromString(input.toString());
+        }
+        long mostSignificant = hexToLong(input, 0, 8) << 32 |
+                hexToLong(input, 9, 13) << 16 |
+                hexToLong(input, 14, 18);
+        long leastSignificant = hexToLong(input, 19, 23) << 48 |
+                hexToLong(input, 24, 36);
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    private static boolean hasCanonicalDashes(CharSequence input) {
+        return input.charAt(8) == '-' && input.charAt(13) == '-' &&
+                input.charAt(18) == '-' && input.charAt(23) == '-';
+    }
+
+    private static long hexToLong(CharSequence input, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            int value = c < HEX_VALUES.length ? HEX_VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid UUID string: " + input);
+            }
+            result = (result << 4) | value;
+        }
+        return result;
+    }
+
+    /**
+     * Decodes a UUID from its 16-byte big-endian binary representation.
+     *
+     * @param input the bytes to decode, may be null
+     * @return the decoded UUID, or null if the input is null
+     * @throws IllegalArgumentException if the input is not exactly 16 bytes long
+     */
+    public static UUID fromBytes(byte[] input) {
+        if (input == null) {
+            return null;
+        }
+        Preconditions.checkArgument(input.length == BINARY_LENGTH,
+                "binary UUID must have %s bytes, got %s", BINARY_LENGTH, input.length);
+        return new UUID(bytesToLong(input, 0), bytesToLong(input, 8));
+    }
+
+    private static long bytesToLong(byte[] input, int offset) {
+        long result = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            result = (result << 8) | (input[i] & 0xFF);
+        }
+        return result;
+    }
+}
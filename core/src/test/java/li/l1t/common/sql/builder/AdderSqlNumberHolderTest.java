@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AdderSqlNumberHolderTest {
+    @Test
+    public void testSnapshot__consumesModifier() {
+        //given
+        SqlIntAdderHolder holder = new SqlIntAdderHolder("kills", 10);
+        holder.setFetched(true);
+        holder.add(3);
+        holder.add(-1);
+        //when
+        Object snapshot = holder.getSnapshot();
+        //then
+        assertThat(snapshot, is((Object) 2));
+        assertThat(holder.isModified(), is(false));
+        assertThat(holder.getValue(), is(12));
+    }
+
+    @Test
+    public void testSetValue__queuesDifference() {
+        //given
+        SqlLongAdderHolder holder = new SqlLongAdderHolder("points", 5L);
+        holder.setFetched(true);
+        //when
+        holder.setValue(8L);
+        //then
+        assertThat(holder.getModifier(), is(3L));
+        assertThat(holder.longValue(), is(8L));
+    }
+
+    @Test
+    public void testUpdateValue__keepsPendingModifier() {
+        //given
+        SqlDoubleAdderHolder holder = new SqlDoubleAdderHolder("coins");
+        holder.add(1.5D);
+        //when
+        holder.updateValue(10D);
+        //then
+        assertThat(holder.doubleValue(), is(11.5D));
+        assertThat(holder.getModifier(), is(1.5D));
+    }
+
+    @Test
+    public void testConcurrentAdd__noDeltaLost() throws InterruptedException {
+        //given
+        SqlIntAdderHolder holder = new SqlIntAdderHolder("kills");
+        holder.setFetched(true);
+        int threadCount = 4;
+        int addsPerThread = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                for (int j = 0; j < addsPerThread; j++) {
+                    holder.add(1);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        //when
+        start.countDown();
+        long snapshotSum = 0;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                snapshotSum += (Integer) holder.getSnapshot();
+            }
+            thread.join();
+        }
+        snapshotSum += (Integer) holder.getSnapshot();
+        //then
+        assertThat(snapshotSum, is((long) threadCount * addsPerThread));
+        assertThat(holder.intValue(), is(threadCount * addsPerThread));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
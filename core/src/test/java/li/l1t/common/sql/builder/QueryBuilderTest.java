@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import li.l1t.common.sql.PreparedStatementFactory;
+import li.l1t.common.sql.sane.statement.PreparedStatementCache;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueryBuilderTest {
+    private final PreparedStatementFactory statementFactory = mock(PreparedStatementFactory.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+
+    @Test
+    public void testBuildUpdate__bindsValuesTwice() throws SQLException {
+        //given
+        when(statementFactory.prepareStatement(anyString())).thenReturn(statement);
+        QueryBuilder builder = new QueryBuilder("users")
+                .addPart(new SimpleQuerySnapshot("kills", 3, QuerySnapshot.Type.NUMBER_MODIFICATION))
+                .addUniqueIdentifier(new SimpleQuerySnapshot("id", "abc", QuerySnapshot.Type.OBJECT_IDENTIFIER));
+        //when
+        builder.buildUpdate(statementFactory);
+        //then
+        verify(statementFactory).prepareStatement("INSERT INTO users SET kills=?,id=? ON DUPLICATE KEY UPDATE kills=kills+?,id=?");
+        verify(statementFactory).fillStatement(eq(statement), aryEq(new Object[]{3, "abc", 3, "abc"}));
+    }
+
+    @Test
+    public void testBuildTrueUpdate__sql() throws SQLException {
+        //given
+        when(statementFactory.prepareStatement(anyString())).thenReturn(statement);
+        QueryBuilder builder = new QueryBuilder("users")
+                .addPart(new SimpleQuerySnapshot("name", "x", QuerySnapshot.Type.OBJECT_UPDATE))
+                .addUniqueIdentifier(new SimpleQuerySnapshot("id", "abc", QuerySnapshot.Type.OBJECT_IDENTIFIER));
+        //when
+        builder.buildTrueUpdate(statementFactory);
+        //then
+        verify(statementFactory).prepareStatement("UPDATE users SET name=? WHERE id=?");
+        verify(statementFactory).fillStatement(eq(statement), aryEq(new Object[]{"x", "abc"}));
+    }
+
+    @Test
+    public void testBuildSelect__star() throws SQLException {
+        //given
+        when(statementFactory.prepareStatement(anyString())).thenReturn(statement);
+        QueryBuilder builder = new QueryBuilder("users")
+                .addUniqueIdentifier(new SimpleQuerySnapshot("id", "abc", QuerySnapshot.Type.OBJECT_IDENTIFIER));
+        //when
+        builder.buildSelect(statementFactory, true);
+        //then
+        verify(statementFactory).prepareStatement("SELECT * FROM users WHERE id=?");
+        verify(statementFactory).fillStatement(eq(statement), aryEq(new Object[]{"abc"}));
+    }
+
+    @Test
+    public void testTemplate__sharedBetweenEqualShapes() {
+        //given
+        QuerySnapshot first = new SimpleQuerySnapshot("kills", 1, QuerySnapshot.Type.NUMBER_MODIFICATION);
+        QuerySnapshot second = new SimpleQuerySnapshot("kills", 7, QuerySnapshot.Type.NUMBER_MODIFICATION);
+        QuerySnapshot id = new SimpleQuerySnapshot("id", "abc", QuerySnapshot.Type.OBJECT_IDENTIFIER);
+        //when
+        QueryTemplate firstTemplate = QueryTemplate.update("users", Collections.singletonList(first),
+                Collections.singletonList(id));
+        QueryTemplate secondTemplate = QueryTemplate.update("users", Collections.singletonList(second),
+                Collections.singletonList(id));
+        //then
+        assertThat(secondTemplate, is(sameInstance(firstTemplate)));
+        assertThat(firstTemplate.getParameterCount(), is(2));
+    }
+
+    @Test
+    public void testTemplate__cachedStatementBoundLikeFactory() throws SQLException {
+        //given
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement("SELECT * FROM users WHERE id=?")).thenReturn(statement);
+        QueryTemplate template = QueryTemplate.select("users", Collections.emptyList(),
+                Collections.singletonList(new SimpleQuerySnapshot("id", null, QuerySnapshot.Type.OBJECT_IDENTIFIER)));
+        //when
+        PreparedStatement prepared = template.prepare(new PreparedStatementCache(4), connection, statementFactory,
+                new Object[]{null});
+        //then
+        assertThat(prepared, is(statement));
+        verify(statementFactory).fillStatement(eq(statement), aryEq(new Object[]{null}));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import li.l1t.common.sql.builder.annotation.SqlValueCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static li.l1t.common.sql.builder.annotation.SqlValueCache.Type.NUMBER_ADDER;
+import static li.l1t.common.sql.builder.annotation.SqlValueCache.Type.NUMBER_MODIFICATION;
+import static li.l1t.common.sql.builder.annotation.SqlValueCache.Type.OBJECT_IDENTIFIER;
+import static li.l1t.common.sql.builder.annotation.SqlValueCache.Type.OBJECT_UPDATE;
+import static li.l1t.common.sql.builder.annotation.SqlValueCache.Type.UUID_IDENTIFIER;
+
+/**
+ * Measures the cost of creating the holders of a wrapper shaped like {@code PlayerWrapperBase}.
+ * {@link #reflectiveProcessClass()} is the per-instance reflective path, {@link #bindingPlanBuild()} uses the
+ * precomputed binding plan of {@link SqlHolders.CacheBuilder}.
+ * Run with {@code java -cp <test classpath> org.openjdk.jmh.Main SqlHoldersBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class SqlHoldersBenchmark {
+    private final SqlHolders.CacheBuilder cacheBuilder = SqlHolders.processClassStructure(SampleWrapper.class);
+
+    @Benchmark
+    public Collection<SqlValueHolder<?>> reflectiveProcessClass() throws IllegalAccessException {
+        return SqlHolders.processClass(SampleWrapper.class, new SampleWrapper(), null);
+    }
+
+    @Benchmark
+    public Collection<SqlValueHolder<?>> bindingPlanBuild() throws IllegalAccessException {
+        return cacheBuilder.build(new SampleWrapper(), null);
+    }
+
+    static class SampleWrapper {
+        @SqlValueCache(value = "username", type = OBJECT_IDENTIFIER)
+        SqlIdentifierHolder<String> name;
+        @SqlValueCache(value = "uuid", type = UUID_IDENTIFIER)
+        SqlUUIDHolder uuid;
+        @SqlValueCache(value = "passes_used", numberType = Integer.class, type = NUMBER_MODIFICATION)
+        ConcurrentSqlNumberHolder<Integer> passesUsed;
+        @SqlValueCache(value = "passes_amount", numberType = Integer.class, type = NUMBER_MODIFICATION)
+        ConcurrentSqlNumberHolder<Integer> passesAmount;
+        @SqlValueCache(value = "nickname", type = OBJECT_UPDATE)
+        SqlValueHolder<String> nick;
+        @SqlValueCache(value = "groupname", type = OBJECT_UPDATE)
+        SqlValueHolder<String> groupName;
+        @SqlValueCache(value = "kills", numberType = Integer.class, type = NUMBER_ADDER)
+        SqlIntAdderHolder kills;
+        @SqlValueCache(value = "deaths", numberType = Integer.class, type = NUMBER_ADDER)
+        SqlIntAdderHolder deaths;
+    }
+}
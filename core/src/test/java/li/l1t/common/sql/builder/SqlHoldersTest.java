@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import li.l1t.common.sql.builder.annotation.SqlValueCache;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class SqlHoldersTest {
+    @Test
+    public void testBuild__populatesFields() throws IllegalAccessException {
+        //given
+        SqlHolders.CacheBuilder builder = SqlHolders.processClassStructure(SqlHoldersBenchmark.SampleWrapper.class);
+        SqlHoldersBenchmark.SampleWrapper wrapper = new SqlHoldersBenchmark.SampleWrapper();
+        //when
+        List<SqlValueHolder<?>> holders = builder.build(wrapper, null);
+        //then
+        assertThat(holders.size(), is(8));
+        assertThat(wrapper.kills, is(instanceOf(SqlIntAdderHolder.class)));
+        assertThat(wrapper.passesUsed.getColumnName(), is("passes_used"));
+        assertThat(holders.contains(wrapper.nick), is(true));
+    }
+
+    @Test
+    public void testBuild__keepsExistingHolders() throws IllegalAccessException {
+        //given
+        SqlHolders.CacheBuilder builder = SqlHolders.processClassStructure(FinalFieldWrapper.class);
+        FinalFieldWrapper wrapper = new FinalFieldWrapper();
+        //when
+        List<SqlValueHolder<?>> holders = builder.build(wrapper, null);
+        //then
+        assertThat(holders.size(), is(1));
+        assertThat(holders.get(0), is(sameInstance(wrapper.nick)));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testBuild__instanceFieldWithoutInstance() throws IllegalAccessException {
+        //given
+        SqlHolders.CacheBuilder builder = SqlHolders.processClassStructure(FinalFieldWrapper.class);
+        //when
+        builder.build(null, null);
+        //then an exception is thrown
+    }
+
+    private static class FinalFieldWrapper {
+        @SqlValueCache(value = "nickname")
+        private final SqlValueHolder<String> nick = new SqlValueHolder<>("nickname", "x");
+    }
+}
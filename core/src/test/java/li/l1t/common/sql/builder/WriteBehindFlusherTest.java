@@ -0,0 +1,211 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.builder;
+
+import li.l1t.common.sql.sane.connection.ConnectionManager;
+import li.l1t.common.util.math.MathOperator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WriteBehindFlusherTest {
+    private static final String TABLE = "game_users";
+    private final ConnectionManager connectionManager = mock(ConnectionManager.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final Connection connection = mock(Connection.class);
+    private final SqlIdentifierHolder<String> id = new SqlIdentifierHolder<>("id", "abc");
+    private final ConcurrentSqlNumberHolder<Integer> kills =
+            new ConcurrentSqlNumberHolder<>("kills", MathOperator.INTEGER_MATH_OPERATOR);
+    private WriteBehindFlusher flusher;
+
+    @Before
+    public void setUp() throws SQLException {
+        when(connectionManager.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("UPDATE game_users SET kills=kills+? WHERE id=?")).thenReturn(statement);
+        when(connection.getAutoCommit()).thenReturn(true);
+        id.setFetched(true);
+        flusher = new WriteBehindFlusher(connectionManager, 1, TimeUnit.HOURS, 100);
+    }
+
+    @After
+    public void tearDown() {
+        flusher.close();
+    }
+
+    @Test
+    public void testFlush__coalescesModifications() throws SQLException {
+        //given
+        kills.modify(2);
+        enqueueKills();
+        kills.modify(3);
+        enqueueKills();
+        //when
+        int written = flusher.flush();
+        //then
+        assertThat(written, is(1));
+        assertThat(flusher.getCoalescedChangeCount(), is(1L));
+        verify(statement).setObject(1, 5);
+        verify(statement).executeBatch();
+        verify(connection).commit();
+        assertThat(flusher.getPendingRowCount(), is(0));
+    }
+
+    @Test
+    public void testEnqueue__skipsUnmodified() {
+        //given
+        //when
+        boolean queued = enqueueKills();
+        //then
+        assertThat(queued, is(false));
+        assertThat(flusher.getPendingRowCount(), is(0));
+    }
+
+    @Test
+    public void testFlush__requeuesOnFailure() throws SQLException {
+        //given
+        when(statement.executeBatch()).thenThrow(new BatchUpdateException()).thenReturn(new int[]{1});
+        kills.modify(2);
+        enqueueKills();
+        //when
+        int failedWrite = flusher.flush();
+        kills.modify(4);
+        enqueueKills();
+        int written = flusher.flush();
+        //then
+        assertThat(failedWrite, is(0));
+        assertThat(written, is(1));
+        assertThat(flusher.getFailedFlushCount(), is(1L));
+        verify(connection).rollback();
+        verify(statement).setObject(1, 6);
+        verify(statement, times(2)).executeBatch();
+    }
+
+    @Test
+    public void testFlush__dropsOnFailedCommit() throws SQLException {
+        //given
+        doThrow(new SQLException("connection lost")).when(connection).commit();
+        kills.modify(2);
+        enqueueKills();
+        //when
+        int written = flusher.flush();
+        //then
+        assertThat(written, is(0));
+        assertThat(flusher.getDroppedRowCount(), is(1L));
+        assertThat(flusher.getPendingRowCount(), is(0));
+    }
+
+    @Test
+    public void testFlush__dropsOnFailedRollback() throws SQLException {
+        //given
+        when(statement.executeBatch()).thenThrow(new BatchUpdateException());
+        doThrow(new SQLException("connection lost")).when(connection).rollback();
+        kills.modify(2);
+        enqueueKills();
+        //when
+        flusher.flush();
+        //then
+        assertThat(flusher.getDroppedRowCount(), is(1L));
+        assertThat(flusher.getPendingRowCount(), is(0));
+    }
+
+    @Test
+    public void testFlush__refusesConnectionInTransaction() throws SQLException {
+        //given
+        when(connection.getAutoCommit()).thenReturn(false);
+        kills.modify(2);
+        enqueueKills();
+        //when
+        flusher.flush();
+        //then
+        verify(connection, never()).setAutoCommit(anyBoolean());
+        verify(connection, never()).rollback();
+        assertThat(flusher.getPendingRowCount(), is(1));
+        when(connection.getAutoCommit()).thenReturn(true); //so that tearDown can drain the re-queued row
+    }
+
+    @Test
+    public void testDrain__writesRemaining() throws SQLException {
+        //given
+        kills.modify(1);
+        enqueueKills();
+        //when
+        boolean drained = flusher.drain(1, TimeUnit.SECONDS);
+        //then
+        assertThat(drained, is(true));
+        assertThat(flusher.getWrittenRowCount(), is(1L));
+        verify(statement).executeBatch();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEnqueue__afterClose() {
+        //given
+        flusher.close();
+        kills.modify(1);
+        //when
+        enqueueKills();
+        //then an exception is thrown
+    }
+
+    @Test
+    public void testEnqueue__closedWhileTakingSnapshots() throws SQLException {
+        //given
+        QuerySnapshot closingPart = mock(QuerySnapshot.class);
+        when(closingPart.getColumnName()).thenReturn("kills");
+        when(closingPart.getType()).thenReturn(QuerySnapshot.Type.NUMBER_MODIFICATION);
+        when(closingPart.getSnapshot()).then(invocation -> {
+            flusher.close();
+            return 4;
+        });
+        //when
+        boolean queued = flusher.enqueue(TABLE, Collections.singletonList(id), Collections.singletonList(closingPart));
+        //then
+        assertThat(queued, is(true));
+        assertThat(flusher.getPendingRowCount(), is(0));
+        verify(statement).setObject(1, 4);
+    }
+
+    private boolean enqueueKills() {
+        return flusher.enqueue(TABLE, Collections.singletonList(id), Arrays.asList(id, kills));
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane;
+
+import com.google.common.collect.ImmutableList;
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.SqlConnectable;
+import li.l1t.common.sql.sane.connection.ConnectionManager;
+import li.l1t.common.sql.sane.connection.PooledConnectionManager;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.scoped.JdbcScopedSession;
+import li.l1t.common.sql.sane.statement.SqlTimeoutException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SingleSqlTest {
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private SingleSql sql;
+
+    @Before
+    public void setUp() throws SQLException {
+        ConnectionManager connectionManager = mock(ConnectionManager.class);
+        when(connectionManager.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        sql = new SingleSql(connectionManager);
+    }
+
+    @Test
+    public void testUpdateBatch__chunks() throws SQLException {
+        //given
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1}, new int[]{1});
+        //when
+        int[] counts = sql.updateBatch("UPDATE x SET y=?", ImmutableList.of(1, 2, 3), (stmt, item) -> stmt.setInt(1, item), 2);
+        //then
+        assertThat(counts.length, is(2));
+        assertThat(counts[0], is(2));
+        assertThat(counts[1], is(1));
+        verify(statement, times(3)).addBatch();
+        verify(statement, times(2)).executeBatch();
+        verify(connection).commit();
+    }
+
+    @Test
+    public void testUpdateBatch__joinsOpenTransaction() throws SQLException {
+        //given
+        when(statement.executeBatch()).thenReturn(new int[]{1});
+        JdbcScopedSession outer = sql.scoped().tx();
+        //when
+        sql.updateBatch("UPDATE x SET y=?", ImmutableList.of(1), (stmt, item) -> stmt.setInt(1, item), 10);
+        //then
+        verify(connection, never()).commit();
+        outer.commitIfLast();
+        outer.close();
+        verify(connection).commit();
+    }
+
+    @Test
+    public void testUpdateBatch__rollsBackOnFailure() throws SQLException {
+        //given
+        when(statement.executeBatch()).thenThrow(new BatchUpdateException());
+        //when
+        try {
+            sql.updateBatch("UPDATE x SET y=?", ImmutableList.of(1), (stmt, item) -> stmt.setInt(1, item), 10);
+            fail("expected DatabaseException");
+        } catch (DatabaseException expected) {
+            //then
+            verify(connection).rollback();
+            verify(connection, never()).commit();
+            verify(statement).clearBatch();
+        }
+    }
+
+    @Test
+    public void testStreamingQuery__fetchSizeBeforeExecution() throws SQLException {
+        //given
+        when(statement.executeQuery()).thenReturn(mock(ResultSet.class));
+        //when
+        try (QueryResult result = sql.streamingQuery("SELECT x FROM y", 50)) {
+            //then
+            InOrder inOrder = inOrder(statement);
+            inOrder.verify(statement).setFetchSize(50);
+            inOrder.verify(statement).executeQuery();
+        }
+        verify(statement).close(); //not cached, so that the fetch size does not carry over
+    }
+
+    @Test
+    public void testUpdateRaw__moreThreadsThanPooledConnections() throws Exception {
+        //given
+        PooledConnectionManager pool = givenAPool(2);
+        SingleSql pooledSql = new SingleSql(pool);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            //when
+            for (int i = 0; i < 6; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 10; j++) {
+                        pooledSql.updateRaw("UPDATE x SET y=1");
+                    }
+                }));
+            }
+            //then
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS); //throws if a borrow timed out
+            }
+            assertThat(pool.getStatistics().getBorrowTimeouts(), is(0L));
+            assertThat(pool.getStatistics().getLeasedConnections(), is(0));
+        } finally {
+            executor.shutdownNow();
+            pooledSql.close();
+        }
+    }
+
+    @Test
+    public void testQuery__keepsPooledConnectionWhileResultOpen() throws Exception {
+        //given
+        PooledConnectionManager pool = givenAPool(1);
+        SingleSql pooledSql = new SingleSql(pool);
+        try {
+            QueryResult result = pooledSql.query("SELECT x FROM y");
+            //when
+            pooledSql.updateRaw("UPDATE x SET y=1");
+            //then
+            assertThat(pool.getStatistics().getLeasedConnections(), is(1));
+            result.close();
+            assertThat(pool.getStatistics().getLeasedConnections(), is(0));
+        } finally {
+            pooledSql.close();
+        }
+    }
+
+    @Test
+    public void testScoped__keepsPooledConnectionWhileSessionOpen() throws Exception {
+        //given
+        PooledConnectionManager pool = givenAPool(1);
+        SingleSql pooledSql = new SingleSql(pool);
+        try {
+            JdbcScopedSession session = pooledSql.scoped();
+            //when
+            pooledSql.updateRaw("UPDATE x SET y=1");
+            //then
+            assertThat(pool.getStatistics().getLeasedConnections(), is(1));
+            session.close();
+            assertThat(pool.getStatistics().getLeasedConnections(), is(0));
+        } finally {
+            pooledSql.close();
+        }
+    }
+
+    @Test
+    public void testUpdateRaw__defaultTimeout() throws SQLException {
+        //given
+        sql.setDefaultTimeout(1500, TimeUnit.MILLISECONDS);
+        //when
+        sql.updateRaw("UPDATE x SET y=1");
+        //then
+        assertThat(sql.getDefaultTimeoutSeconds(), is(2));
+        verify(statement).setQueryTimeout(2);
+    }
+
+    @Test
+    public void testUpdateRaw__noTimeout() throws SQLException {
+        //given
+        //when
+        sql.updateRaw("UPDATE x SET y=1");
+        //then
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    public void testWithTimeout__appliesToViewOnly() throws Exception {
+        //given
+        SingleSql view = sql.withTimeout(5, TimeUnit.SECONDS);
+        //when
+        view.updateRaw("UPDATE x SET y=1");
+        view.close();
+        //then
+        assertThat(view.getDefaultTimeoutSeconds(), is(5));
+        assertThat(sql.getDefaultTimeoutSeconds(), is(0));
+        verify(statement).setQueryTimeout(5);
+        verify(connection, never()).close();
+    }
+
+    @Test
+    public void testUpdateRaw__timeout() throws SQLException {
+        //given
+        when(statement.executeUpdate()).thenThrow(new SQLTimeoutException("timed out"));
+        //when
+        try {
+            sql.updateRaw("UPDATE x SET y=1");
+            fail("expected SqlTimeoutException");
+        } catch (SqlTimeoutException expected) {
+            //then
+            assertThat(expected.isCancelled(), is(false));
+            assertThat(sql.getTimeoutCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void testUpdateRaw__cancelledOnInterrupt() throws Exception {
+        //given
+        CountDownLatch cancelled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+        when(statement.executeUpdate()).thenAnswer(invocation -> {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+            while (cancelled.getCount() > 0 && System.nanoTime() < deadline) {
+                Thread.yield(); //like a blocked driver, keep the interrupt flag set
+            }
+            throw new SQLException("Statement was canceled", "57014");
+        });
+        AtomicReference<Exception> thrown = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                sql.updateRaw("UPDATE x SET y=1");
+            } catch (Exception e) {
+                thrown.set(e);
+            }
+        });
+        //when
+        thread.start();
+        while (sql.getWatchdog().getRunningCount() == 0) {
+            Thread.sleep(5L);
+        }
+        thread.interrupt();
+        thread.join(5000L);
+        //then
+        assertThat(thrown.get() instanceof SqlTimeoutException, is(true));
+        assertThat(((SqlTimeoutException) thrown.get()).isCancelled(), is(true));
+        assertThat(sql.getWatchdog().getCancelCount(), is(1L));
+        assertThat(sql.getTimeoutCount(), is(1L));
+    }
+
+    @Test
+    public void testUpdateRaw__interruptedBeforeExecution() throws SQLException {
+        //given
+        Thread.currentThread().interrupt();
+        //when
+        try {
+            sql.updateRaw("UPDATE x SET y=1");
+            fail("expected SqlTimeoutException");
+        } catch (SqlTimeoutException expected) {
+            //then
+            assertThat(expected.isCancelled(), is(true));
+            verify(statement, never()).executeUpdate();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private PooledConnectionManager givenAPool(int maxSize) {
+        return PooledConnectionManager.builder(mock(SqlConnectable.class))
+                .connector(connectable -> givenAPooledConnection())
+                .minSize(0)
+                .maxSize(maxSize)
+                .borrowTimeout(Duration.ofSeconds(1))
+                .build();
+    }
+
+    private Connection givenAPooledConnection() throws SQLException {
+        Connection pooled = mock(Connection.class);
+        when(pooled.isValid(anyInt())).thenReturn(true);
+        when(pooled.getAutoCommit()).thenReturn(true);
+        when(pooled.prepareStatement(anyString())).thenAnswer(invocation -> givenAPooledStatement());
+        return pooled;
+    }
+
+    private PreparedStatement givenAPooledStatement() throws SQLException {
+        PreparedStatement pooledStatement = mock(PreparedStatement.class);
+        when(pooledStatement.executeQuery()).thenReturn(mock(ResultSet.class));
+        return pooledStatement;
+    }
+}
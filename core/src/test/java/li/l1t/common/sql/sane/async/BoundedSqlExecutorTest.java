@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.async;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests the backpressure and cancellation behaviour of {@link BoundedSqlExecutor}.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class BoundedSqlExecutorTest {
+    @Test
+    public void testSubmit__result() throws Exception {
+        //given
+        BoundedSqlExecutor executor = new BoundedSqlExecutor("test", 1, 1);
+        //when
+        CompletableFuture<String> future = executor.submit(() -> "result");
+        //then
+        assertThat(future.get(1, TimeUnit.SECONDS), is("result"));
+        executor.close();
+    }
+
+    @Test
+    public void testSubmit__queueFull() throws Exception {
+        //given
+        BoundedSqlExecutor executor = new BoundedSqlExecutor("test", 1, 1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> await(started, blocker));
+        started.await(1, TimeUnit.SECONDS);
+        executor.submit(() -> "queued");
+        //when
+        CompletableFuture<String> rejected = executor.submit(() -> "rejected");
+        //then
+        assertThat(rejected.isCompletedExceptionally(), is(true));
+        assertThat(causeOf(rejected), instanceOf(RejectedExecutionException.class));
+        assertThat(executor.getRejectedCount(), is(1L));
+        assertThat(executor.getQueueDepth(), is(1));
+        blocker.countDown();
+        assertThat(executor.drain(1, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testSubmit__exception() throws Exception {
+        //given
+        BoundedSqlExecutor executor = new BoundedSqlExecutor("test", 1, 1);
+        //when
+        CompletableFuture<Object> future = executor.submit(() -> {
+            throw new IllegalStateException("fail");
+        });
+        //then
+        assertThat(executor.drain(1, TimeUnit.SECONDS), is(true));
+        assertThat(causeOf(future), instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void testSubmit__cancelInterruptsRunningTask() throws Exception {
+        //given
+        BoundedSqlExecutor executor = new BoundedSqlExecutor("test", 1, 1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Object> future = executor.submit(() -> awaitInterrupt(started, blocker));
+        started.await(1, TimeUnit.SECONDS);
+        //when
+        future.cancel(true);
+        //then
+        assertThat(executor.drain(1, TimeUnit.SECONDS), is(true));
+        assertThat(blocker.getCount(), is(1L));
+    }
+
+    private Object awaitInterrupt(CountDownLatch started, CountDownLatch blocker) {
+        started.countDown();
+        try {
+            blocker.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            return "interrupted";
+        }
+        throw new AssertionError("not interrupted");
+    }
+
+    private Object await(CountDownLatch started, CountDownLatch blocker) {
+        started.countDown();
+        try {
+            blocker.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private Throwable causeOf(CompletableFuture<?> future) throws InterruptedException {
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            throw new AssertionError("expected exceptional completion");
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (TimeoutException e) {
+            throw new AssertionError("future did not complete", e);
+        }
+    }
+
+    @Test
+    public void testSubmit__recordsLatency() throws Exception {
+        //given
+        BoundedSqlExecutor executor = new BoundedSqlExecutor("test", 1, 1);
+        //when
+        executor.submit(() -> "result").get(1, TimeUnit.SECONDS);
+        //then
+        assertThat(executor.drain(1, TimeUnit.SECONDS), is(true));
+        assertThat(executor.getQueueWait().getCount(), is(1L));
+        assertThat(executor.getTaskLatency().getCount(), is(1L));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.async;
+
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SingleSql;
+import li.l1t.common.sql.sane.connection.ConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GroupCommitterTest {
+    private final Connection connection = mock(Connection.class);
+    private final Savepoint savepoint = mock(Savepoint.class);
+    private GroupCommitter committer;
+
+    @Before
+    public void setUp() throws SQLException {
+        ConnectionManager connectionManager = mock(ConnectionManager.class);
+        when(connectionManager.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.setSavepoint()).thenReturn(savepoint);
+        committer = new GroupCommitter(new SingleSql(connectionManager), 200, TimeUnit.MILLISECONDS, 10, 10);
+    }
+
+    @After
+    public void tearDown() {
+        committer.close();
+    }
+
+    @Test
+    public void testSubmit__commitsTogether() throws Exception {
+        //given
+        //when
+        CompletableFuture<Integer> first = committer.submit(sql -> 1);
+        CompletableFuture<Integer> second = committer.submit(sql -> 2);
+        //then
+        assertThat(first.get(5, TimeUnit.SECONDS), is(1));
+        assertThat(second.get(5, TimeUnit.SECONDS), is(2));
+        verify(connection).commit();
+        assertThat(committer.getCommittedGroupCount(), is(1L));
+        assertThat(committer.getCommittedUnitCount(), is(2L));
+    }
+
+    @Test
+    public void testSubmit__failingUnitRolledBackToSavepoint() throws Exception {
+        //given
+        //when
+        CompletableFuture<Integer> failing = committer.submit(sql -> {
+            throw new IllegalStateException("nope");
+        });
+        CompletableFuture<Integer> succeeding = committer.submit(sql -> 2);
+        //then
+        assertThat(succeeding.get(5, TimeUnit.SECONDS), is(2));
+        assertThat(causeOf(failing), is(instanceOf(IllegalStateException.class)));
+        verify(connection).rollback(savepoint);
+        verify(connection).commit();
+        assertThat(committer.getRolledBackUnitCount(), is(1L));
+    }
+
+    @Test
+    public void testSubmit__commitFailureFailsAll() throws Exception {
+        //given
+        doThrow(new SQLException("disk full")).when(connection).commit();
+        //when
+        CompletableFuture<Integer> first = committer.submit(sql -> 1);
+        CompletableFuture<Integer> second = committer.submit(sql -> 2);
+        //then
+        assertThat(causeOf(first), is(instanceOf(DatabaseException.class)));
+        assertThat(causeOf(second), is(instanceOf(DatabaseException.class)));
+        verify(connection, times(1)).rollback();
+        assertThat(committer.getFailedGroupCount(), is(1L));
+    }
+
+    @Test
+    public void testExecute__rethrowsUnitException() {
+        //given
+        //when
+        try {
+            committer.execute(sql -> {
+                throw new IllegalArgumentException("bad");
+            });
+            fail("expected exception");
+        } catch (IllegalArgumentException e) {
+            //then
+            assertThat(e.getMessage(), is("bad"));
+        }
+    }
+
+    private Throwable causeOf(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("expected failure");
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+}
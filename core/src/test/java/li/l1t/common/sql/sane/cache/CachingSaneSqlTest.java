@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.cache;
+
+import li.l1t.common.sql.sane.SingleSql;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.scoped.JdbcScopedSession;
+import li.l1t.common.sql.sane.scoped.ScopedSession;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingSaneSqlTest {
+    private static final String QUERY = "SELECT name FROM mt_main.product WHERE id=?";
+    private final SingleSql delegate = mock(SingleSql.class);
+    private CachingSaneSql sql;
+
+    @Before
+    public void setUp() throws SQLException {
+        when(delegate.query(anyString(), any())).thenAnswer(invocation -> resultOf("melon"));
+        sql = CachingSaneSql.builder(delegate).build();
+    }
+
+    @Test
+    public void testQuery__hit() throws SQLException {
+        //given
+        readName(sql.query(QUERY, 1));
+        //when
+        String name = readName(sql.query(QUERY, 1));
+        //then
+        assertThat(name, is("melon"));
+        verify(delegate, times(1)).query(QUERY, 1);
+        assertThat(sql.getHitCount(), is(1L));
+        assertThat(sql.getMissCount(), is(1L));
+        assertThat(sql.getHitRatio(), is(0.5D));
+    }
+
+    @Test
+    public void testQuery__keyedByParameters() throws SQLException {
+        //given
+        readName(sql.query(QUERY, 1));
+        //when
+        readName(sql.query(QUERY, 2));
+        //then
+        assertThat(sql.getHitCount(), is(0L));
+        assertThat(sql.getMissCount(), is(2L));
+    }
+
+    @Test
+    public void testUpdate__invalidatesTable() throws SQLException {
+        //given
+        readName(sql.query(QUERY, 1));
+        //when
+        sql.updateRaw("UPDATE product SET name=? WHERE id=?", "kiwi", 1);
+        readName(sql.query(QUERY, 1));
+        //then
+        verify(delegate, times(2)).query(QUERY, 1);
+        assertThat(sql.getStaleCount(), is(1L));
+    }
+
+    @Test
+    public void testUpdate__otherTableKeepsEntry() throws SQLException {
+        //given
+        readName(sql.query(QUERY, 1));
+        //when
+        sql.updateRaw("UPDATE account SET melons=? WHERE id=?", 5, 1);
+        readName(sql.query(QUERY, 1));
+        //then
+        verify(delegate, times(1)).query(QUERY, 1);
+    }
+
+    @Test
+    public void testQuery__bypassedInTransaction() throws SQLException {
+        //given
+        when(delegate.isInTransaction()).thenReturn(true);
+        //when
+        readName(sql.query(QUERY, 1));
+        readName(sql.query(QUERY, 1));
+        //then
+        verify(delegate, times(2)).query(QUERY, 1);
+        assertThat(sql.getBypassCount(), is(2L));
+        assertThat(sql.getSize(), is(0L));
+    }
+
+    @Test
+    public void testQuery__pendingTransactionalWriteBypassed() throws Exception {
+        //given
+        Thread writer = Thread.currentThread();
+        AtomicBoolean inTransaction = new AtomicBoolean(true);
+        when(delegate.isInTransaction()).thenAnswer(
+                invocation -> inTransaction.get() && Thread.currentThread() == writer
+        );
+        when(delegate.scoped()).thenReturn(mock(JdbcScopedSession.class));
+        ScopedSession<?> session = sql.scoped().tx();
+        sql.updateRaw("UPDATE product SET name=? WHERE id=?", "kiwi", 1);
+        //when
+        readNameAsync(1);
+        readNameAsync(1);
+        //then
+        verify(delegate, times(2)).query(QUERY, 1);
+        assertThat(sql.getSize(), is(0L));
+        inTransaction.set(false);
+        session.commit();
+        readNameAsync(1);
+        readNameAsync(1);
+        assertThat(sql.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void testQuery__transactionEndNoticedWithNextStatement() throws Exception {
+        //given
+        AtomicBoolean inTransaction = new AtomicBoolean(true);
+        when(delegate.isInTransaction()).thenAnswer(invocation -> inTransaction.get());
+        sql.updateRaw("UPDATE product SET name=? WHERE id=?", "kiwi", 1);
+        inTransaction.set(false);
+        //when
+        readName(sql.query(QUERY, 1));
+        readName(sql.query(QUERY, 1));
+        //then
+        verify(delegate, times(1)).query(QUERY, 1);
+        assertThat(sql.getHitCount(), is(1L));
+    }
+
+    private void readNameAsync(int id) throws Exception {
+        CompletableFuture.runAsync(() -> {
+            try {
+                readName(sql.query(QUERY, id));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get();
+    }
+
+    private String readName(QueryResult result) throws SQLException {
+        try (QueryResult closing = result) {
+            assertThat(closing.rs().next(), is(true));
+            return closing.rs().getString(1);
+        }
+    }
+
+    private static QueryResult resultOf(String name) throws SQLException {
+        CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(1);
+        metaData.setColumnName(1, "name");
+        metaData.setColumnType(1, Types.VARCHAR);
+        rows.setMetaData(metaData);
+        rows.moveToInsertRow();
+        rows.updateString(1, name);
+        rows.insertRow();
+        rows.moveToCurrentRow();
+        rows.beforeFirst();
+        QueryResult result = mock(QueryResult.class);
+        when(result.rs()).thenReturn(rows);
+        return result;
+    }
+}
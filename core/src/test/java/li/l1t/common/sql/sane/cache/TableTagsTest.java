@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.cache;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TableTagsTest {
+    @Test
+    public void testReadBy__joinsAndCommaLists() {
+        //given
+        String sql = "SELECT * FROM mt_main.`a` x, b JOIN c ON x.id=c.id LEFT JOIN d USING (id) WHERE x.id=?";
+        //when
+        //then
+        assertThat(TableTags.readBy(sql), is(ImmutableSet.of("a", "b", "c", "d")));
+    }
+
+    @Test
+    public void testReadBy__subquery() {
+        //given
+        String sql = "SELECT * FROM a WHERE id IN (SELECT a_id FROM b WHERE x=?) ORDER BY id";
+        //when
+        //then
+        assertThat(TableTags.readBy(sql), is(ImmutableSet.of("a", "b")));
+    }
+
+    @Test
+    public void testReadBy__derivedTable() {
+        //given
+        String sql = "SELECT * FROM (SELECT id FROM a) AS d";
+        //when
+        //then
+        assertThat(TableTags.readBy(sql), is(ImmutableSet.of("a")));
+    }
+
+    @Test
+    public void testWrittenBy__statements() {
+        //given
+        //when
+        //then
+        assertThat(TableTags.writtenBy("INSERT IGNORE INTO mt_main.a SET x=?"), is(ImmutableSet.of("a")));
+        assertThat(TableTags.writtenBy("REPLACE b (x) VALUES (?)"), is(ImmutableSet.of("b")));
+        assertThat(TableTags.writtenBy("UPDATE c JOIN d ON c.id=d.id SET c.x=?"), is(ImmutableSet.of("c", "d")));
+        assertThat(TableTags.writtenBy("DELETE FROM `e` WHERE id=?"), is(ImmutableSet.of("e")));
+        assertThat(TableTags.writtenBy("TRUNCATE TABLE f"), is(ImmutableSet.of("f")));
+        assertThat(TableTags.writtenBy("CALL something()").isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.connection;
+
+import li.l1t.common.sql.SqlConnectable;
+import li.l1t.common.sql.sane.exception.SqlConnectionException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PooledConnectionManagerTest {
+    private PooledConnectionManager pool;
+
+    @After
+    public void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testGetConnection__sameThread() {
+        //given
+        pool = givenAPool(2);
+        //when
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        //then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(pool.getStatistics().getLeasedConnections(), is(1));
+    }
+
+    @Test
+    public void testGetConnection__differentThreads() throws Exception {
+        //given
+        pool = givenAPool(2);
+        Connection own = pool.getConnection();
+        //when
+        Connection other = CompletableFuture.supplyAsync(pool::getConnection).get();
+        //then
+        assertThat(other, is(not(sameInstance(own))));
+        assertThat(pool.getStatistics().getTotalConnections(), is(2));
+    }
+
+    @Test
+    public void testReleaseCurrentConnection__reused() throws Exception {
+        //given
+        pool = givenAPool(1);
+        Connection own = pool.getConnection();
+        //when
+        pool.releaseCurrentConnection();
+        Connection other = CompletableFuture.supplyAsync(pool::getConnection).get();
+        //then
+        assertThat(other, is(sameInstance(own)));
+        assertThat(pool.getStatistics().getCreatedConnections(), is(1L));
+    }
+
+    @Test
+    public void testReleaseCurrentConnectionIfUnused__released() throws Exception {
+        //given
+        pool = givenAPool(1);
+        pool.addUsageProbe(connection -> false);
+        pool.getConnection();
+        //when
+        pool.releaseCurrentConnectionIfUnused();
+        //then
+        assertThat(pool.getStatistics().getLeasedConnections(), is(0));
+    }
+
+    @Test
+    public void testReleaseCurrentConnectionIfUnused__keptInUse() throws Exception {
+        //given
+        pool = givenAPool(1);
+        Connection own = pool.getConnection();
+        pool.addUsageProbe(connection -> connection == own);
+        //when
+        pool.releaseCurrentConnectionIfUnused();
+        //then
+        assertThat(pool.getStatistics().getLeasedConnections(), is(1));
+        assertThat(pool.getConnection(), is(sameInstance(own)));
+    }
+
+    @Test
+    public void testGetConnection__exhausted() throws Exception {
+        //given
+        pool = givenAPool(1);
+        pool.getConnection();
+        //when
+        Throwable thrown = CompletableFuture.supplyAsync(() -> {
+            try {
+                pool.getConnection();
+                return null;
+            } catch (SqlConnectionException e) {
+                return e;
+            }
+        }).get();
+        //then
+        if (thrown == null) {
+            fail("borrow from exhausted pool did not time out");
+        }
+        assertThat(pool.getStatistics().getBorrowTimeouts(), is(1L));
+    }
+
+    @Test
+    public void testGetConnection__invalidIdleDiscarded() throws Exception {
+        //given
+        pool = givenAPool(1);
+        Connection broken = pool.getConnection();
+        pool.releaseCurrentConnection();
+        when(broken.isValid(anyInt())).thenReturn(false);
+        //when
+        Connection replacement = pool.getConnection();
+        //then
+        assertThat(replacement, is(not(sameInstance(broken))));
+        verify(broken).close();
+        assertThat(pool.getStatistics().getValidationFailures(), is(1L));
+    }
+
+    @Test
+    public void testHousekeeping__reclaimsIdleLeaseNotInUse() throws Exception {
+        //given
+        pool = givenAQuicklyReclaimingPool();
+        pool.addUsageProbe(connection -> false);
+        //when
+        pool.getConnection();
+        //then
+        assertThat(awaitLeasedConnections(0), is(0));
+    }
+
+    @Test
+    public void testHousekeeping__keepsIdleLeaseInUse() throws Exception {
+        //given
+        pool = givenAQuicklyReclaimingPool();
+        Connection own = pool.getConnection();
+        pool.addUsageProbe(connection -> connection == own);
+        //when
+        int leased = awaitLeasedConnections(0);
+        //then
+        assertThat(leased, is(1));
+        assertThat(pool.getConnection(), is(sameInstance(own)));
+    }
+
+    @Test
+    public void testHousekeeping__keepsIdleLeaseWithoutProbes() throws Exception {
+        //given
+        pool = givenAQuicklyReclaimingPool();
+        //when
+        Connection own = pool.getConnection();
+        //then
+        assertThat(awaitLeasedConnections(0), is(1));
+        assertThat(pool.getConnection(), is(sameInstance(own)));
+        verify(own, never()).getAutoCommit();
+    }
+
+    private PooledConnectionManager givenAQuicklyReclaimingPool() {
+        return PooledConnectionManager.builder(mock(SqlConnectable.class))
+                .connector(connectable -> givenAValidConnection())
+                .minSize(0)
+                .maxSize(1)
+                .leaseIdleTimeout(Duration.ofMillis(1))
+                .housekeepingPeriod(Duration.ofMillis(5))
+                .build();
+    }
+
+    private int awaitLeasedConnections(int expected) throws InterruptedException {
+        for (int i = 0; i < 20 && pool.getStatistics().getLeasedConnections() != expected; i++) {
+            Thread.sleep(10L);
+        }
+        return pool.getStatistics().getLeasedConnections();
+    }
+
+    private PooledConnectionManager givenAPool(int maxSize) {
+        return PooledConnectionManager.builder(mock(SqlConnectable.class))
+                .connector(connectable -> givenAValidConnection())
+                .minSize(0)
+                .maxSize(maxSize)
+                .borrowTimeout(Duration.ofMillis(50))
+                .build();
+    }
+
+    private Connection givenAValidConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.getAutoCommit()).thenReturn(true);
+        return connection;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.mapping;
+
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ColumnResolverTest {
+    @Test
+    public void testResolve__indicesByPosition() throws SQLException {
+        //given
+        ColumnResolver resolver = new ColumnResolver("b", "a");
+        ResultSet rs = resultSetWith("a", "B");
+        //when
+        ResolvedColumns columns = resolver.resolve(rs);
+        //then
+        assertThat(columns.index(0), is(2));
+        assertThat(columns.index(1), is(1));
+    }
+
+    @Test
+    public void testResolve__oncePerResultSet() throws SQLException {
+        //given
+        ColumnResolver resolver = new ColumnResolver("a");
+        ResultSet first = resultSetWith("a");
+        ResultSet second = resultSetWith("x", "a");
+        ResolvedColumns firstColumns = resolver.resolve(first);
+        resolver.resolve(second);
+        //when
+        ResolvedColumns again = resolver.resolve(first);
+        resolver.resolve(first);
+        //then
+        assertThat(again, is(sameInstance(firstColumns)));
+        verify(first, times(1)).getMetaData();
+        assertThat(resolver.resolve(second).index(0), is(2));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testResolve__missingColumn() throws SQLException {
+        //given
+        ColumnResolver resolver = new ColumnResolver("missing");
+        ResultSet rs = resultSetWith("a");
+        //when
+        resolver.resolve(rs);
+        //then an exception is thrown
+    }
+
+    private ResultSet resultSetWith(String... labels) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+            when(metaData.getColumnType(i + 1)).thenReturn(Types.VARCHAR);
+        }
+        return rs;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.mapping;
+
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JdbcMapperProcessorTest {
+    private static final UUID ID = UUID.fromString("a2b1c4d3-0000-4000-8000-000000000001");
+    private static final Instant CREATED_AT = Instant.parse("2026-10-17T12:00:00Z");
+
+    @Test
+    public void testColumnLabels__annotatedOrSnakeCase() {
+        //given
+        SampleEntityJdbcMapper mapper = new SampleEntityJdbcMapper();
+        //when
+        //then
+        assertThat(mapper.getColumnLabels(), is(Arrays.asList(
+                "id", "name", "amount", "score", "active", "created_at", "kind"
+        )));
+    }
+
+    @Test
+    public void testCreateFromCurrentRow__readsByResolvedIndex() throws SQLException {
+        //given
+        ResultSet rs = resultSet("kind", "created_at", "active", "score", "amount", "name", "id");
+        when(rs.getString(7)).thenReturn(ID.toString());
+        when(rs.getString(6)).thenReturn("foo");
+        when(rs.getInt(5)).thenReturn(42);
+        when(rs.getLong(4)).thenReturn(17L);
+        when(rs.getBoolean(3)).thenReturn(true);
+        when(rs.getTimestamp(2)).thenReturn(Timestamp.from(CREATED_AT));
+        when(rs.getString(1)).thenReturn("SPECIAL");
+        //when
+        SampleEntity entity = new SampleEntityJdbcMapper().createFromCurrentRow(rs);
+        //then
+        assertThat(entity.getUniqueId(), is(ID));
+        assertThat(entity.getName(), is("foo"));
+        assertThat(entity.getAmount(), is(42));
+        assertThat(entity.getScore(), is(17L));
+        assertThat(entity.isActive(), is(true));
+        assertThat(entity.getCreatedAt(), is(CREATED_AT));
+        assertThat(entity.kind(), is(SampleEntity.Kind.SPECIAL));
+    }
+
+    @Test
+    public void testCreateFromCurrentRow__nullColumns() throws SQLException {
+        //given
+        ResultSet rs = resultSet("id", "name", "amount", "score", "active", "created_at", "kind");
+        when(rs.getString(1)).thenReturn(ID.toString());
+        when(rs.wasNull()).thenReturn(true);
+        //when
+        SampleEntity entity = new SampleEntityJdbcMapper().createFromCurrentRow(rs);
+        //then
+        assertThat(entity.getScore(), is(nullValue()));
+        assertThat(entity.getCreatedAt(), is(nullValue()));
+        assertThat(entity.kind(), is(nullValue()));
+    }
+
+    @Test
+    public void testCreateFromCurrentRow__resolvesColumnsOncePerResultSet() throws SQLException {
+        //given
+        ResultSet rs = resultSet("id", "name", "amount", "score", "active", "created_at", "kind");
+        when(rs.getString(1)).thenReturn(ID.toString());
+        SampleEntityJdbcMapper mapper = new SampleEntityJdbcMapper();
+        //when
+        mapper.createFromCurrentRow(rs);
+        mapper.createFromCurrentRow(rs);
+        //then
+        verify(rs, times(1)).getMetaData();
+    }
+
+    @Test
+    public void testToParameters__columnOrderWithConversions() {
+        //given
+        SampleEntity entity = new SampleEntity(ID, "foo", 42, null, true, CREATED_AT, SampleEntity.Kind.PLAIN);
+        //when
+        Object[] parameters = new SampleEntityJdbcMapper().toParameters(entity);
+        //then
+        assertThat(Arrays.asList(parameters), is(Arrays.<Object>asList(
+                ID.toString(), "foo", 42, null, true, Timestamp.from(CREATED_AT), "PLAIN"
+        )));
+    }
+
+    private ResultSet resultSet(String... labels) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+        }
+        return rs;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.mapping;
+
+import java.time.Instant;
+import java.util.UUID;
+
+class SampleEntity {
+    private final UUID uniqueId;
+    private final String name;
+    private final int amount;
+    private final Long score;
+    private final boolean active;
+    private final Instant createdAt;
+    private final Kind kind;
+
+    @JdbcEntity(writable = true)
+    SampleEntity(@Column("id") UUID uniqueId, String name, int amount, Long score, boolean active,
+                 Instant createdAt, Kind kind) {
+        this.uniqueId = uniqueId;
+        this.name = name;
+        this.amount = amount;
+        this.score = score;
+        this.active = active;
+        this.createdAt = createdAt;
+        this.kind = kind;
+    }
+
+    UUID getUniqueId() {
+        return uniqueId;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getAmount() {
+        return amount;
+    }
+
+    Long getScore() {
+        return score;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    enum Kind {
+        PLAIN, SPECIAL
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.metrics;
+
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.exception.SqlExecutionException;
+import li.l1t.common.sql.sane.result.QueryResult;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InstrumentedSaneSqlTest {
+    private final SaneSql delegate = mock(SaneSql.class);
+    private final InstrumentedSaneSql sql = InstrumentedSaneSql.builder(delegate)
+            .slowQueryThreshold(1, TimeUnit.HOURS)
+            .build();
+
+    @Test
+    public void testUpdateRaw__groupsByNormalizedSql() {
+        //given
+        when(delegate.updateRaw(anyString(), any())).thenReturn(2);
+        //when
+        sql.updateRaw("UPDATE t SET a=1 WHERE id='x'");
+        sql.updateRaw("UPDATE t   SET a=2 WHERE id='y'");
+        //then
+        SqlMetricsSnapshot snapshot = sql.getSnapshot();
+        assertThat(snapshot.getStatements().size(), is(1));
+        StatementStatistics statistics = snapshot.getStatements().get(0);
+        assertThat(statistics.getSql(), is("UPDATE t SET a=? WHERE id=?"));
+        assertThat(statistics.getCallCount(), is(2L));
+        assertThat(statistics.getRowCount(), is(4L));
+    }
+
+    @Test
+    public void testQuery__countsRowsOnClose() throws SQLException {
+        //given
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, true, true, false);
+        QueryResult result = mock(QueryResult.class);
+        when(result.rs()).thenReturn(rs);
+        when(delegate.query(anyString(), any())).thenReturn(result);
+        //when
+        try (QueryResult instrumented = sql.query("SELECT * FROM t WHERE id IN (?, ?, ?)", 1, 2, 3)) {
+            while (instrumented.rs().next()) {
+                instrumented.rs().getString(1);
+            }
+        }
+        //then
+        StatementStatistics statistics = sql.getSnapshot().getStatements().get(0);
+        assertThat(statistics.getSql(), is("SELECT * FROM t WHERE id IN (?...)"));
+        assertThat(statistics.getRowCount(), is(3L));
+        verify(result).close();
+    }
+
+    @Test
+    public void testUpdateRaw__recordsFailure() {
+        //given
+        when(delegate.updateRaw(anyString(), any())).thenThrow(new SqlExecutionException(new SQLException()));
+        //when
+        try {
+            sql.updateRaw("DELETE FROM t");
+            fail("expected exception");
+        } catch (SqlExecutionException expected) {
+            //then
+            StatementStatistics statistics = sql.getSnapshot().getStatements().get(0);
+            assertThat(statistics.getCallCount(), is(1L));
+            assertThat(statistics.getErrorCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void testUpdateRaw__slowQuery() {
+        //given
+        InstrumentedSaneSql slowSql = InstrumentedSaneSql.builder(delegate)
+                .slowQueryThreshold(0, TimeUnit.MILLISECONDS)
+                .build();
+        //when
+        slowSql.updateRaw("DELETE FROM t WHERE id=?", "secret");
+        //then
+        assertThat(slowSql.getSnapshot().getSlowStatementCount(), is(1L));
+    }
+}
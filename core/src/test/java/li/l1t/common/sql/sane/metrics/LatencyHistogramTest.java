@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class LatencyHistogramTest {
+    @Test
+    public void testPercentile__withinBucketError() {
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+        //when
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        //then
+        long p50 = histogram.getPercentileNanos(50);
+        assertThat(p50, is(greaterThanOrEqualTo(500_000L)));
+        assertThat(p50, is(lessThanOrEqualTo(625_000L)));
+        long p99 = histogram.getPercentileNanos(99);
+        assertThat(p99, is(greaterThanOrEqualTo(990_000L)));
+        assertThat(p99, is(lessThanOrEqualTo(1_000_000L)));
+        assertThat(histogram.getMaxNanos(), is(1_000_000L));
+        assertThat(histogram.getCount(), is(1000L));
+        assertThat(histogram.getMeanNanos(), is(500_500L));
+    }
+
+    @Test
+    public void testPercentile__empty() {
+        assertThat(new LatencyHistogram().getPercentileNanos(99), is(0L));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.resilience;
+
+import li.l1t.common.sql.sane.connection.ConnectionManager;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResilientConnectionManagerTest {
+    private final ConnectionManager delegate = mock(ConnectionManager.class);
+    private final Connection connection = mock(Connection.class);
+    private final ResilientConnectionManager manager = new ResilientConnectionManager(
+            delegate, 1, TimeUnit.HOURS, null
+    );
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    public void testKeepAlive__reconnectsDeadIdleConnection() throws SQLException {
+        //given
+        givenIdleConnection(false);
+        //when
+        manager.keepAlive();
+        //then
+        verify(delegate).forceReconnect();
+    }
+
+    @Test
+    public void testKeepAlive__keepsValidConnection() throws SQLException {
+        //given
+        givenIdleConnection(true);
+        //when
+        manager.keepAlive();
+        //then
+        verify(connection).isValid(anyInt());
+        verify(delegate, never()).forceReconnect();
+    }
+
+    @Test
+    public void testKeepAlive__skipsInTransaction() throws SQLException {
+        //given
+        givenIdleConnection(false);
+        when(connection.getAutoCommit()).thenReturn(false);
+        //when
+        manager.keepAlive();
+        //then
+        verify(connection, never()).isValid(anyInt());
+        verify(delegate, never()).forceReconnect();
+    }
+
+    @Test
+    public void testKeepAlive__skipsWhenCheckedOut() throws SQLException {
+        //given
+        givenIdleConnection(false);
+        manager.getConnection();
+        //when
+        manager.keepAlive();
+        //then
+        verify(connection, never()).isValid(anyInt());
+        verify(delegate, never()).forceReconnect();
+    }
+
+    @Test
+    public void testKeepAlive__skipsWhenProbeBusy() throws SQLException {
+        //given
+        givenIdleConnection(false);
+        manager.addUsageProbe(() -> true);
+        //when
+        manager.keepAlive();
+        //then
+        verify(connection, never()).isValid(anyInt());
+        verify(delegate, never()).forceReconnect();
+    }
+
+    @Test
+    public void testKeepAlive__noReconnectIfUsedDuringValidation() throws SQLException {
+        //given
+        givenIdleConnection(false);
+        when(connection.isValid(anyInt())).then(invocation -> {
+            manager.getConnection();
+            return false;
+        });
+        //when
+        manager.keepAlive();
+        //then
+        verify(delegate, never()).forceReconnect();
+    }
+
+    private void givenIdleConnection(boolean valid) throws SQLException {
+        when(delegate.getCurrentConnection()).thenReturn(connection);
+        when(delegate.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.isValid(anyInt())).thenReturn(valid);
+    }
+}
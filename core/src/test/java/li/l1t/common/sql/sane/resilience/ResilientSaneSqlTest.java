@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.resilience;
+
+import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.TransactionAware;
+import li.l1t.common.sql.sane.exception.SqlExecutionException;
+import li.l1t.common.sql.sane.result.QueryResult;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class ResilientSaneSqlTest {
+    private static final String QUERY = "SELECT 1";
+    private final SaneSql delegate = mock(SaneSql.class, withSettings().extraInterfaces(TransactionAware.class));
+    private final CircuitBreaker breaker = new CircuitBreaker(2, 1, TimeUnit.HOURS);
+    private final ResilientSaneSql sql = new ResilientSaneSql(
+            delegate, RetryPolicy.transientErrors(3, 0, 0, TimeUnit.MILLISECONDS), breaker, null
+    );
+
+    @Test
+    public void testQuery__retriesTransientError() {
+        //given
+        QueryResult result = mock(QueryResult.class);
+        when(delegate.query(anyString(), any()))
+                .thenThrow(givenAnExceptionWithState("40001"))
+                .thenReturn(result);
+        //when
+        QueryResult actual = sql.query(QUERY);
+        //then
+        assertThat(actual, is(sameInstance(result)));
+        assertThat(sql.getRetryCount(), is(1L));
+    }
+
+    @Test
+    public void testQuery__noRetryForPermanentError() {
+        //given
+        when(delegate.query(anyString(), any())).thenThrow(givenAnExceptionWithState("42000"));
+        //when
+        try {
+            sql.query(QUERY);
+            fail("expected exception");
+        } catch (SqlExecutionException expected) {
+            //then
+            verify(delegate, times(1)).query(QUERY);
+            assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+        }
+    }
+
+    @Test
+    public void testQuery__noRetryInTransaction() {
+        //given
+        when(((TransactionAware) delegate).isInTransaction()).thenReturn(true);
+        when(delegate.query(anyString(), any())).thenThrow(givenAnExceptionWithState("40001"));
+        //when
+        try {
+            sql.query(QUERY);
+            fail("expected exception");
+        } catch (SqlExecutionException expected) {
+            //then
+            verify(delegate, times(1)).query(QUERY);
+        }
+    }
+
+    @Test
+    public void testQuery__opensBreakerAndFailsFast() {
+        //given
+        when(delegate.query(anyString(), any())).thenThrow(givenAnExceptionWithState("08S01"));
+        try {
+            sql.query(QUERY);
+            fail("expected exception");
+        } catch (DatabaseException expected) {
+            //breaker opens after the second attempt and rejects the third
+        }
+        //when
+        try {
+            sql.query(QUERY);
+            fail("expected exception");
+        } catch (CircuitOpenException expected) {
+            //then
+            verify(delegate, times(2)).query(QUERY);
+            assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+            assertThat(breaker.getRejectedCount(), is(2L));
+        }
+    }
+
+    @Test
+    public void testCircuitBreaker__halfOpenTrial() throws InterruptedException {
+        //given
+        CircuitBreaker shortBreaker = new CircuitBreaker(1, 1, TimeUnit.MILLISECONDS);
+        shortBreaker.recordFailure();
+        Thread.sleep(5);
+        //when
+        shortBreaker.checkPermitted();
+        //then
+        assertThat(shortBreaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        shortBreaker.recordSuccess();
+        assertThat(shortBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    private SqlExecutionException givenAnExceptionWithState(String sqlState) {
+        return new SqlExecutionException(new SQLException("test", sqlState));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.routing;
+
+import com.google.common.collect.ImmutableList;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.SingleSql;
+import li.l1t.common.sql.sane.connection.ConnectionManager;
+import li.l1t.common.sql.sane.exception.SqlConnectionException;
+import li.l1t.common.sql.sane.result.QueryResult;
+import li.l1t.common.sql.sane.scoped.JdbcScopedSession;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RoutingSaneSqlTest {
+    private static final String QUERY = "SELECT 1";
+    private final Connection primaryConnection = mock(Connection.class);
+    private final PreparedStatement primaryStatement = mock(PreparedStatement.class);
+    private final SaneSql firstReplica = mock(SaneSql.class);
+    private final SaneSql secondReplica = mock(SaneSql.class);
+    private SingleSql primary;
+
+    @Before
+    public void setUp() throws SQLException {
+        ConnectionManager connectionManager = mock(ConnectionManager.class);
+        when(connectionManager.getConnection()).thenReturn(primaryConnection);
+        when(primaryConnection.getAutoCommit()).thenReturn(true);
+        when(primaryConnection.prepareStatement(anyString())).thenReturn(primaryStatement);
+        when(primaryStatement.executeQuery()).thenReturn(mock(ResultSet.class));
+        when(firstReplica.query(anyString(), any())).thenReturn(mock(QueryResult.class));
+        when(secondReplica.query(anyString(), any())).thenReturn(mock(QueryResult.class));
+        primary = new SingleSql(connectionManager);
+    }
+
+    @Test
+    public void testQuery__roundRobin() {
+        //given
+        RoutingSaneSql sql = givenRouting(ReplicaSelection.ROUND_ROBIN);
+        //when
+        sql.query(QUERY).close();
+        sql.query(QUERY).close();
+        sql.query(QUERY).close();
+        //then
+        verify(firstReplica, times(2)).query(QUERY);
+        verify(secondReplica).query(QUERY);
+    }
+
+    @Test
+    public void testQuery__leastLoaded() {
+        //given
+        RoutingSaneSql sql = givenRouting(ReplicaSelection.LEAST_LOADED);
+        QueryResult openResult = sql.query(QUERY);
+        //when
+        sql.query(QUERY).close();
+        //then
+        verify(firstReplica).query(QUERY);
+        verify(secondReplica).query(QUERY);
+        openResult.close();
+    }
+
+    @Test
+    public void testClose__twiceClosesDelegateOnce() {
+        //given
+        RoutingSaneSql sql = givenRouting(ReplicaSelection.ROUND_ROBIN);
+        QueryResult replicaResult = mock(QueryResult.class);
+        when(firstReplica.query(anyString(), any())).thenReturn(replicaResult);
+        QueryResult result = sql.query(QUERY);
+        //when
+        result.close();
+        result.close();
+        //then
+        verify(replicaResult).close();
+    }
+
+    @Test
+    public void testQuery__inTransactionUsesPrimary() throws SQLException {
+        //given
+        RoutingSaneSql sql = givenRouting(ReplicaSelection.ROUND_ROBIN);
+        JdbcScopedSession session = sql.scoped().tx();
+        //when
+        sql.query(QUERY).close();
+        //then
+        verify(primaryStatement).executeQuery();
+        verify(firstReplica, never()).query(QUERY);
+        session.commitIfLast();
+        session.close();
+    }
+
+    @Test
+    public void testQuery__fallbackOnConnectionFailure() throws SQLException {
+        //given
+        RoutingSaneSql sql = givenRouting(ReplicaSelection.ROUND_ROBIN);
+        when(firstReplica.query(anyString(), any())).thenThrow(new SqlConnectionException(new SQLException()));
+        //when
+        sql.query(QUERY).close();
+        //then
+        verify(primaryStatement).executeQuery();
+    }
+
+    @Test
+    public void testUpdateRaw__usesPrimary() throws SQLException {
+        //given
+        RoutingSaneSql sql = givenRouting(ReplicaSelection.ROUND_ROBIN);
+        //when
+        sql.updateRaw("DELETE FROM t");
+        //then
+        verify(primaryStatement).executeUpdate();
+        verify(firstReplica, never()).updateRaw(anyString(), any());
+    }
+
+    private RoutingSaneSql givenRouting(ReplicaSelection selection) {
+        return new RoutingSaneSql(primary, ImmutableList.of(firstReplica, secondReplica), selection);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.scoped;
+
+import li.l1t.common.exception.InternalException;
+import li.l1t.common.sql.sane.exception.SqlExecutionException;
+import li.l1t.common.sql.sane.resilience.RetryPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ScopedSessionManagerTest {
+    private static final RetryPolicy LOCK_CONFLICTS = RetryPolicy.lockConflicts(3, 0, 0, TimeUnit.MILLISECONDS);
+    private final List<Connection> connections = new ArrayList<>();
+    private ScopedSessionManager<JdbcScopedSession> manager;
+
+    @Before
+    public void setUp() {
+        manager = new ScopedSessionManager<>(listener -> new JdbcScopedSession(givenAConnection(), listener));
+    }
+
+    private Connection givenAConnection() {
+        Connection connection = mock(Connection.class);
+        connections.add(connection);
+        try {
+            when(connection.getAutoCommit()).thenReturn(true);
+        } catch (SQLException e) {
+            throw new AssertionError(e);
+        }
+        return connection;
+    }
+
+    @Test
+    public void testScoped__sameThreadSameSession() {
+        //given
+        JdbcScopedSession first = manager.scoped().join();
+        //when
+        JdbcScopedSession second = manager.scoped();
+        //then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(manager.getActiveSessionCount(), is(1));
+        first.close();
+    }
+
+    @Test
+    public void testScoped__concurrentThreads() throws InterruptedException {
+        //given
+        int threadCount = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threadCount);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        try (JdbcScopedSession session = manager.scoped().join()) {
+                            session.hasTransaction();
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                } finally {
+                    done.countDown();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        //when
+        start.countDown();
+        //then
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(failure.get(), is(nullValue()));
+        assertThat(manager.getActiveSessionCount(), is(0));
+        assertThat(manager.getClosedSessionCount(), is(threadCount * 100L));
+    }
+
+    @Test
+    public void testClose__countsForcedRollback() {
+        //given
+        JdbcScopedSession session = manager.scoped().tx();
+        //when
+        try {
+            session.close();
+            fail("expected InternalException");
+        } catch (InternalException expected) {
+            //then
+            assertThat(manager.getForcedRollbackCount(), is(1L));
+            assertThat(manager.getActiveSessionCount(), is(0));
+        }
+    }
+
+    @Test
+    public void testScoped__newSessionAfterClose() {
+        //given
+        JdbcScopedSession first = manager.scoped().join();
+        first.close();
+        //when
+        JdbcScopedSession second = manager.scoped();
+        //then
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(manager.getClosedSessionCount(), is(1L));
+    }
+
+    @Test
+    public void testGetActiveSessionCount__dropsSessionsOfDeadThreads() throws InterruptedException {
+        //given
+        Thread owner = new Thread(() -> manager.scoped().join());
+        owner.start();
+        owner.join();
+        //when
+        int activeCount = manager.getActiveSessionCount();
+        //then
+        assertThat(activeCount, is(0));
+    }
+
+    @Test
+    public void testReportLeakedSessions() {
+        //given
+        JdbcScopedSession leaked = manager.scoped().join();
+        //when
+        int reported = manager.reportLeakedSessions(-1, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(reported, is(1));
+        leaked.close();
+        assertThat(manager.reportLeakedSessions(-1, TimeUnit.MILLISECONDS), is(0));
+    }
+
+    @Test
+    public void testRetryingTx__commits() throws SQLException {
+        //given
+        //when
+        String result = manager.retryingTx(session -> "result", LOCK_CONFLICTS);
+        //then
+        assertThat(result, is("result"));
+        verify(connections.get(0)).commit();
+        assertThat(manager.getActiveSessionCount(), is(0));
+        assertThat(manager.getTransactionRetryCount(), is(0L));
+    }
+
+    @Test
+    public void testRetryingTx__retriesDeadlock() throws SQLException {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+        //when
+        String result = manager.retryingTx(session -> {
+            try (JdbcScopedSession inner = manager.scoped().tx()) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw givenADeadlock();
+                }
+                inner.commitIfLast();
+                return "result";
+            }
+        }, LOCK_CONFLICTS);
+        //then
+        assertThat(result, is("result"));
+        assertThat(attempts.get(), is(2));
+        assertThat(manager.getTransactionRetryCount(), is(1L));
+        verify(connections.get(0)).rollback();
+        verify(connections.get(0), never()).commit();
+        verify(connections.get(1)).commit();
+        assertThat(manager.getForcedRollbackCount(), is(0L));
+    }
+
+    private SqlExecutionException givenADeadlock() {
+        return new SqlExecutionException(new SQLException("Deadlock found", "40001", 1213));
+    }
+
+    @Test
+    public void testRetryingTx__givesUpAfterMaxAttempts() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+        //when
+        try {
+            manager.retryingTx(session -> {
+                attempts.incrementAndGet();
+                throw givenADeadlock();
+            }, LOCK_CONFLICTS);
+            fail("expected SqlExecutionException");
+        } catch (SqlExecutionException expected) {
+            //then
+            assertThat(attempts.get(), is(3));
+            assertThat(manager.getTransactionRetryCount(), is(2L));
+            assertThat(manager.getActiveSessionCount(), is(0));
+        }
+    }
+
+    @Test
+    public void testRetryingTx__doesNotRetryOtherErrors() throws SQLException {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+        //when
+        try {
+            manager.retryingTx(session -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("not retryable");
+            }, LOCK_CONFLICTS);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            //then
+            assertThat(attempts.get(), is(1));
+            verify(connections.get(0)).rollback();
+        }
+    }
+
+    @Test
+    public void testRetryingTx__joinsEnclosingTransaction() throws SQLException {
+        //given
+        JdbcScopedSession outer = manager.scoped().tx();
+        AtomicInteger attempts = new AtomicInteger();
+        //when
+        try {
+            manager.retryingTx(session -> {
+                attempts.incrementAndGet();
+                throw givenADeadlock();
+            }, LOCK_CONFLICTS);
+            fail("expected SqlExecutionException");
+        } catch (SqlExecutionException expected) {
+            //then
+            assertThat(attempts.get(), is(1));
+            assertThat(outer.hasTransaction(), is(true));
+            verify(connections.get(0), never()).rollback();
+        }
+        outer.rollbackAndClose();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.statement;
+
+import com.google.common.collect.ImmutableList;
+import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.result.UpdateResult;
+import li.l1t.common.sql.sane.scoped.ScopedSession;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MultiRowInsertTest {
+    private final SaneSql sql = mock(SaneSql.class);
+
+    @Test
+    public void testExecute__singleStatement() {
+        //given
+        MultiRowInsert<Integer> insert = MultiRowInsert.into("t", (Integer i) -> new Object[]{i, "v" + i}, "a", "b")
+                .build();
+        when(sql.updateRaw(anyString(), any())).thenReturn(2);
+        //when
+        MultiRowInsert.Result result = insert.execute(sql, ImmutableList.of(1, 2));
+        //then
+        verify(sql).updateRaw("INSERT INTO t (a, b) VALUES (?, ?), (?, ?)", 1, "v1", 2, "v2");
+        verify(sql, never()).scoped();
+        assertThat(result.getAffectedRowCount(), is(2));
+        assertThat(result.getStatementCount(), is(1));
+    }
+
+    @Test
+    public void testExecute__chunksInTransaction() {
+        //given
+        MultiRowInsert<Integer> insert = MultiRowInsert.into("t", (Integer i) -> new Object[]{i}, "a")
+                .maxRows(2)
+                .build();
+        ScopedSession<?> session = mock(ScopedSession.class);
+        doReturn(session).when(sql).scoped();
+        when(sql.updateRaw(anyString(), any())).thenReturn(2, 1);
+        //when
+        MultiRowInsert.Result result = insert.execute(sql, ImmutableList.of(1, 2, 3));
+        //then
+        verify(sql).updateRaw("INSERT INTO t (a) VALUES (?), (?)", 1, 2);
+        verify(sql).updateRaw("INSERT INTO t (a) VALUES (?)", 3);
+        verify(session).tx();
+        verify(session).commitIfLast();
+        assertThat(result.getAffectedRowCount(), is(3));
+        assertThat(result.getStatementCount(), is(2));
+    }
+
+    @Test
+    public void testGetMaxRows__parameterLimit() {
+        //given
+        //when
+        MultiRowInsert<Object> insert = MultiRowInsert.into("t", item -> new Object[3], "a", "b", "c")
+                .maxParameters(10)
+                .build();
+        //then
+        assertThat(insert.getMaxRows(), is(3));
+    }
+
+    @Test
+    public void testExecute__statementSizeLimit() {
+        //given
+        MultiRowInsert<String> insert = MultiRowInsert.into("t", (String s) -> new Object[]{s}, "a")
+                .maxStatementBytes(100)
+                .build();
+        ScopedSession<?> session = mock(ScopedSession.class);
+        doReturn(session).when(sql).scoped();
+        String big = new String(new char[30]);
+        //when
+        MultiRowInsert.Result result = insert.execute(sql, ImmutableList.of(big, big, big));
+        //then
+        assertThat(result.getStatementCount(), is(3));
+        verify(sql, times(3)).updateRaw(eq("INSERT INTO t (a) VALUES (?)"), any());
+    }
+
+    @Test
+    public void testExecute__statementSizeLimitIncludesStatementText() {
+        //given
+        MultiRowInsert<Integer> insert = MultiRowInsert.into("t", (Integer i) -> new Object[]{i}, "a")
+                .maxStatementBytes(60)
+                .build();
+        ScopedSession<?> session = mock(ScopedSession.class);
+        doReturn(session).when(sql).scoped();
+        //when
+        MultiRowInsert.Result result = insert.execute(sql, ImmutableList.of(1, 2));
+        //then
+        assertThat(result.getStatementCount(), is(2));
+    }
+
+    @Test
+    public void testExecute__splitsRemainderIntoPowersOfTwo() {
+        //given
+        MultiRowInsert<Integer> insert = MultiRowInsert.into("t", (Integer i) -> new Object[]{i}, "a")
+                .maxRows(10)
+                .build();
+        ScopedSession<?> session = mock(ScopedSession.class);
+        doReturn(session).when(sql).scoped();
+        //when
+        MultiRowInsert.Result result = insert.execute(sql, ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17));
+        //then
+        assertThat(result.getStatementCount(), is(4));
+        verify(sql).updateRaw(eq(insert.createSql(10)), any());
+        verify(sql).updateRaw(eq(insert.createSql(4)), any());
+        verify(sql).updateRaw(eq(insert.createSql(2)), any());
+        verify(sql).updateRaw("INSERT INTO t (a) VALUES (?)", 17);
+    }
+
+    @Test
+    public void testExecute__onDuplicateKeyUpdate() {
+        //given
+        MultiRowInsert<Integer> insert = MultiRowInsert.into("t", (Integer i) -> new Object[]{i, i}, "id", "b")
+                .onDuplicateKeyUpdate("b")
+                .build();
+        //when
+        insert.execute(sql, ImmutableList.of(1));
+        //then
+        verify(sql).updateRaw(eq("INSERT INTO t (id, b) VALUES (?, ?) ON DUPLICATE KEY UPDATE b=VALUES(b)"), any());
+    }
+
+    @Test
+    public void testExecute__generatedKeys() throws SQLException {
+        //given
+        MultiRowInsert<Integer> insert = MultiRowInsert.into("t", (Integer i) -> new Object[]{i}, "a")
+                .returnGeneratedKeys(true)
+                .build();
+        UpdateResult updateResult = mock(UpdateResult.class);
+        ResultSet keys = mock(ResultSet.class);
+        when(sql.update(anyString(), any())).thenReturn(updateResult);
+        when(updateResult.getAffectedRowCount()).thenReturn(2);
+        when(updateResult.gk()).thenReturn(keys);
+        when(keys.next()).thenReturn(true, true, false);
+        when(keys.getObject(1)).thenReturn(7L, 8L);
+        //when
+        MultiRowInsert.Result result = insert.execute(sql, ImmutableList.of(1, 2));
+        //then
+        List<Object> expectedKeys = Arrays.asList(7L, 8L);
+        assertThat(result.getGeneratedKeys(), is(expectedKeys));
+        verify(updateResult).close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecute__wrongValueCount() {
+        //given
+        MultiRowInsert<Integer> insert = MultiRowInsert.into("t", (Integer i) -> new Object[]{i}, "a", "b")
+                .build();
+        //when
+        insert.execute(sql, ImmutableList.of(1));
+        //then an exception is thrown
+    }
+}
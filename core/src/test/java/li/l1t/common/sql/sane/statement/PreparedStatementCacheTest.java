@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.statement;
+
+import li.l1t.common.sql.sane.connection.ConnectionProvider;
+import li.l1t.common.sql.sane.result.SimpleQueryResult;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PreparedStatementCacheTest {
+    private final Connection connection = mock(Connection.class);
+
+    @Test
+    public void testCheckOut__reusesCheckedIn() throws SQLException {
+        //given
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        PreparedStatement first = cache.checkOut(connection, "SELECT 1", false, this::newStatement);
+        cache.checkIn(first);
+        //when
+        PreparedStatement second = cache.checkOut(connection, "SELECT 1", false, this::newStatement);
+        //then
+        assertThat(second, is(sameInstance(first)));
+        verify(first, never()).close();
+        verify(first).clearParameters();
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void testCheckOut__keyedByGeneratedKeys() throws SQLException {
+        //given
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        PreparedStatement plain = cache.checkOut(connection, "INSERT 1", false, this::newStatement);
+        cache.checkIn(plain);
+        //when
+        PreparedStatement withKeys = cache.checkOut(connection, "INSERT 1", true, this::newStatement);
+        //then
+        assertThat(withKeys, is(not(sameInstance(plain))));
+        assertThat(cache.getMissCount(), is(2L));
+    }
+
+    @Test
+    public void testCheckOut__exclusive() throws SQLException {
+        //given
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        PreparedStatement first = cache.checkOut(connection, "SELECT 1", false, this::newStatement);
+        //when
+        PreparedStatement second = cache.checkOut(connection, "SELECT 1", false, this::newStatement);
+        cache.checkIn(first);
+        cache.checkIn(second);
+        //then
+        assertThat(second, is(not(sameInstance(first))));
+        verify(second).close();
+        assertThat(cache.getIdleCount(), is(1));
+    }
+
+    @Test
+    public void testCheckIn__evictsLeastRecentlyUsed() throws SQLException {
+        //given
+        PreparedStatementCache cache = new PreparedStatementCache(1);
+        PreparedStatement first = cache.checkOut(connection, "SELECT 1", false, this::newStatement);
+        PreparedStatement second = cache.checkOut(connection, "SELECT 2", false, this::newStatement);
+        //when
+        cache.checkIn(first);
+        cache.checkIn(second);
+        //then
+        verify(first).close();
+        verify(second, never()).close();
+    }
+
+    @Test
+    public void testCheckIn__foreignStatementClosed() throws SQLException {
+        //given
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        PreparedStatement foreign = mock(PreparedStatement.class);
+        //when
+        cache.checkIn(foreign);
+        //then
+        verify(foreign).close();
+        assertThat(cache.getIdleCount(), is(0));
+    }
+
+    @Test
+    public void testCheckIn__resetsQueryTimeout() throws SQLException {
+        //given
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        PreparedStatement statement = cache.checkOut(connection, "SELECT 1", false, this::newStatement);
+        when(statement.getQueryTimeout()).thenReturn(5);
+        //when
+        cache.checkIn(statement);
+        //then
+        verify(statement).setQueryTimeout(0);
+        verify(statement, never()).close();
+        assertThat(cache.getIdleCount(), is(1));
+    }
+
+    @Test
+    public void testCheckIn__twiceKeepsIdleStatement() throws SQLException {
+        //given
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        PreparedStatement statement = cache.checkOut(connection, "SELECT 1", false, this::newStatement);
+        cache.checkIn(statement);
+        //when
+        cache.checkIn(statement);
+        //then
+        verify(statement, never()).close();
+        assertThat(cache.getIdleCount(), is(1));
+    }
+
+    @Test
+    public void testClose__resultReleasesStatementOnce() throws SQLException {
+        //given
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        PreparedStatement statement = cache.checkOut(connection, "SELECT 1", false, this::newStatement);
+        SimpleQueryResult result = new SimpleQueryResult(statement, mock(ResultSet.class), cache::checkIn);
+        result.close();
+        PreparedStatement reused = cache.checkOut(connection, "SELECT 1", false, this::newStatement);
+        //when
+        result.close();
+        //then
+        assertThat(reused, is(sameInstance(statement)));
+        verify(statement, never()).close();
+        assertThat(cache.getIdleCount(), is(0));
+    }
+
+    @Test
+    public void testCreate__bindFailureChecksStatementIn() throws SQLException {
+        //given
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        when(connection.prepareStatement("SELECT ?")).then(invocation -> mock(PreparedStatement.class));
+        ConnectionProvider provider = () -> connection;
+        SimpleStatementProvider statementProvider = new SimpleStatementProvider(provider, cache);
+        //when
+        try {
+            statementProvider.create("SELECT ?", LocalDate.of(2026, 10, 17));
+        } catch (ClassCastException expected) {
+            //not an instant
+        }
+        //then
+        assertThat(cache.hasCheckedOut(connection), is(false));
+        assertThat(cache.getIdleCount(), is(1));
+    }
+
+    private PreparedStatement newStatement(String sql, Connection connection) {
+        return mock(PreparedStatement.class);
+    }
+}
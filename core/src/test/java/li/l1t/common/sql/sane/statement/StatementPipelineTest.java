@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.statement;
+
+import li.l1t.common.sql.sane.exception.SqlExecutionException;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StatementPipelineTest {
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private final List<String> prepared = new ArrayList<>();
+    private final List<String> preparedUncached = new ArrayList<>();
+    private final List<List<Object>> preparedParameters = new ArrayList<>();
+    private final List<PreparedStatement> released = new ArrayList<>();
+    private final StatementPipeline.Runner runner = new StatementPipeline.Runner() {
+        @Override
+        public PreparedStatement prepare(String sql, Object[] parameters) {
+            prepared.add(sql);
+            preparedParameters.add(Arrays.asList(parameters));
+            return statements.computeIfAbsent(sql, key -> mock(PreparedStatement.class));
+        }
+
+        @Override
+        public PreparedStatement prepareUncached(String sql, Object[] parameters) {
+            preparedUncached.add(sql);
+            preparedParameters.add(Arrays.asList(parameters));
+            return statements.computeIfAbsent(sql, key -> mock(PreparedStatement.class));
+        }
+
+        @Override
+        public <T> T execute(PreparedStatement statement, StatementPipeline.Call<T> call) throws SQLException {
+            return call.execute(statement);
+        }
+
+        @Override
+        public void release(PreparedStatement statement) {
+            released.add(statement);
+        }
+    };
+
+    @Test
+    public void testExecute__sequentialInOrder() throws SQLException {
+        //given
+        ResultSet rs = mock(ResultSet.class);
+        when(statement("SELECT a").executeQuery()).thenReturn(rs);
+        when(statement("UPDATE b").executeUpdate()).thenReturn(3);
+        StatementPipeline pipeline = new StatementPipeline(runner, false)
+                .query("SELECT a", 1)
+                .update("UPDATE b", 2);
+        //when
+        try (PipelineResults results = pipeline.execute()) {
+            //then
+            assertThat(results.size(), is(2));
+            assertThat(results.isQuery(0), is(true));
+            assertThat(results.query(0).rs(), is(rs));
+            assertThat(results.updateCount(1), is(3));
+        }
+        verify(rs).close();
+        assertThat(released.size(), is(2));
+    }
+
+    @Test
+    public void testExecute__batchesConsecutiveEqualUpdates() throws SQLException {
+        //given
+        PreparedStatement update = statement("UPDATE b SET x=?");
+        when(update.executeBatch()).thenReturn(new int[]{1, 0, 1});
+        when(statement("UPDATE c").executeUpdate()).thenReturn(5);
+        StatementPipeline pipeline = new StatementPipeline(runner, false)
+                .update("UPDATE b SET x=?", 1)
+                .update("UPDATE b SET x=?", 2)
+                .update("UPDATE b SET x=?", 3)
+                .update("UPDATE c");
+        //when
+        try (PipelineResults results = pipeline.execute()) {
+            //then
+            assertThat(prepared, is(Arrays.asList("UPDATE b SET x=?", "UPDATE c")));
+            verify(update, times(3)).addBatch();
+            verify(update).setObject(1, 2);
+            verify(update).setObject(1, 3);
+            verify(update).clearBatch();
+            assertThat(results.updateCount(0), is(1));
+            assertThat(results.updateCount(1), is(0));
+            assertThat(results.updateCount(2), is(1));
+            assertThat(results.updateCount(3), is(5));
+        }
+    }
+
+    @Test
+    public void testExecute__multiStatementsJoined() throws SQLException {
+        //given
+        PreparedStatement joined = statement("SELECT a WHERE x=?;\nUPDATE b SET y=?;\n");
+        when(joined.execute()).thenReturn(true);
+        ResultSet rs = emptyResultSet();
+        when(joined.getResultSet()).thenReturn(rs);
+        when(joined.getMoreResults()).thenReturn(false);
+        when(joined.getUpdateCount()).thenReturn(2);
+        StatementPipeline pipeline = new StatementPipeline(runner, true)
+                .query("SELECT a WHERE x=?", 1)
+                .update("UPDATE b SET y=?", 2);
+        //when
+        try (PipelineResults results = pipeline.execute()) {
+            //then
+            assertThat(prepared.isEmpty(), is(true));
+            assertThat(preparedUncached.size(), is(1));
+            assertThat(preparedParameters.get(0), is(Arrays.<Object>asList(1, 2)));
+            assertThat(results.query(0).rs().next(), is(false));
+            assertThat(results.updateCount(1), is(2));
+        }
+        verify(rs).close();
+        assertThat(released, is(Arrays.asList(joined)));
+    }
+
+    @Test
+    public void testExecute__failureClosesPreviousResults() throws SQLException {
+        //given
+        ResultSet rs = mock(ResultSet.class);
+        when(statement("SELECT a").executeQuery()).thenReturn(rs);
+        when(statement("UPDATE b").executeUpdate()).thenThrow(new SQLException("locked"));
+        StatementPipeline pipeline = new StatementPipeline(runner, false)
+                .query("SELECT a")
+                .update("UPDATE b");
+        //when
+        try {
+            pipeline.execute().close();
+            fail("expected failure");
+        } catch (SqlExecutionException expected) {
+            //then
+            verify(rs).close();
+            assertThat(released.size(), is(2));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateCount__queryResult() throws SQLException {
+        //given
+        when(statement("SELECT a").executeQuery()).thenReturn(mock(ResultSet.class));
+        //when
+        try (PipelineResults results = new StatementPipeline(runner, false).query("SELECT a").execute()) {
+            results.updateCount(0);
+        }
+        //then an exception is thrown
+    }
+
+    private PreparedStatement statement(String sql) {
+        return statements.computeIfAbsent(sql, key -> mock(PreparedStatement.class));
+    }
+
+    private ResultSet emptyResultSet() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(1);
+        return rs;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.trace;
+
+import li.l1t.common.sql.sane.SaneSql;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SqlTraceTest {
+    @Test
+    public void testRead__roundTrip() throws IOException {
+        //given
+        StringWriter output = new StringWriter();
+        SqlTraceWriter writer = new SqlTraceWriter(output, 10);
+        String sql = "SELECT *\n\tFROM x WHERE a=? AND b='\\\\'";
+        long start = System.nanoTime();
+        //when
+        writer.record(TraceEvent.Kind.QUERY, sql, new Object[]{5, "abc", UUID.randomUUID().toString(), null}, start, 2_000L, false);
+        writer.record(TraceEvent.Kind.UPDATE_RAW, sql, new Object[0], start + 5_000L, 1_000L, true);
+        writer.close();
+        SqlTrace trace = SqlTrace.read(new StringReader(output.toString()));
+        //then
+        assertThat(trace.getEvents().size(), is(2));
+        assertThat(trace.getTemplateCount(), is(1));
+        TraceEvent first = trace.getEvents().get(0);
+        assertThat(first.getSql(), is(sql));
+        assertThat(first.getKind(), is(TraceEvent.Kind.QUERY));
+        assertThat(first.getLatencyNanos(), is(2_000L));
+        assertThat(first.getParameters(), is(Arrays.asList(
+                ParameterShape.of(ParameterShape.Type.INT, 0), ParameterShape.of(ParameterShape.Type.STRING, 3),
+                ParameterShape.of(ParameterShape.Type.UUID_STRING, 0), ParameterShape.of(ParameterShape.Type.NULL, 0)
+        )));
+        TraceEvent second = trace.getEvents().get(1);
+        assertThat(second.getOffsetNanos() - first.getOffsetNanos(), is(5_000L));
+        assertThat(second.getParameters().isEmpty(), is(true));
+        assertThat(second.isFailed(), is(true));
+    }
+
+    @Test
+    public void testRecord__dropsBeyondLimit() throws IOException {
+        //given
+        SqlTraceWriter writer = new SqlTraceWriter(new StringWriter(), 1);
+        //when
+        writer.record(TraceEvent.Kind.QUERY, "SELECT 1", new Object[0], System.nanoTime(), 0L, false);
+        writer.record(TraceEvent.Kind.QUERY, "SELECT 1", new Object[0], System.nanoTime(), 0L, false);
+        //then
+        assertThat(writer.getRecordedCount(), is(1L));
+        assertThat(writer.getDroppedCount(), is(1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRead__notATrace() throws IOException {
+        //given
+        StringReader input = new StringReader("SELECT 1\n");
+        //when
+        SqlTrace.read(input);
+        //then an exception is thrown
+    }
+
+    @Test
+    public void testReplay__synthesizesParameters() throws InterruptedException {
+        //given
+        SaneSql sql = mock(SaneSql.class);
+        TraceEvent event = new TraceEvent(1_000_000L, TraceEvent.Kind.UPDATE_RAW, "UPDATE x SET y=?",
+                Collections.singletonList(ParameterShape.of(ParameterShape.Type.STRING, 4)), 1_000L, false);
+        SqlTrace trace = new SqlTrace(Arrays.asList(event, event), 1);
+        when(sql.updateRaw(eq("UPDATE x SET y=?"), any())).thenReturn(1);
+        //when
+        ReplayReport report = TraceReplayer.builder(sql).speedFactor(10D).build().replay(trace);
+        //then
+        verify(sql, times(2)).updateRaw(eq("UPDATE x SET y=?"), any());
+        assertThat(report.getEventCount(), is(2L));
+        assertThat(report.getFailedCount(), is(0L));
+        assertThat(report.getLatency().getCount(), is(2L));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.util;
+
+import li.l1t.common.sql.sane.async.BoundedSqlExecutor;
+import li.l1t.common.sql.sane.statement.SqlTimeoutException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ParallelFetchTest {
+    private final BoundedSqlExecutor executor = new BoundedSqlExecutor("test", 3, 3);
+
+    @After
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void testFetch__pair() {
+        //given
+        ParallelFetch fetch = new ParallelFetch(executor, 1, TimeUnit.SECONDS);
+        //when
+        ParallelFetch.Pair<String, Integer> result = fetch.fetch(() -> "first", () -> 2);
+        //then
+        assertThat(result.getFirst(), is("first"));
+        assertThat(result.getSecond(), is(2));
+    }
+
+    @Test
+    public void testFetch__concurrent() {
+        //given
+        ParallelFetch fetch = new ParallelFetch(executor, 1, TimeUnit.SECONDS);
+        CountDownLatch allStarted = new CountDownLatch(3);
+        //when
+        ParallelFetch.Triple<String, String, String> result = fetch.fetch(
+                () -> awaitOthers(allStarted, "a"), () -> awaitOthers(allStarted, "b"),
+                () -> awaitOthers(allStarted, "c")
+        );
+        //then
+        assertThat(result.getFirst(), is("a"));
+        assertThat(result.getSecond(), is("b"));
+        assertThat(result.getThird(), is("c"));
+    }
+
+    private String awaitOthers(CountDownLatch allStarted, String result) {
+        allStarted.countDown();
+        try {
+            if (!allStarted.await(1, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("lookups did not run concurrently");
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return result;
+    }
+
+    @Test
+    public void testFetchAll__order() {
+        //given
+        ParallelFetch fetch = new ParallelFetch(executor, 1, TimeUnit.SECONDS);
+        //when
+        List<Integer> result = fetch.fetchAll(Arrays.asList(() -> 1, () -> 2, () -> 3));
+        //then
+        assertThat(result, is(Arrays.asList(1, 2, 3)));
+    }
+
+    @Test
+    public void testFetch__firstFailureCancelsOthers() throws Exception {
+        //given
+        ParallelFetch fetch = new ParallelFetch(executor, 5, TimeUnit.SECONDS);
+        IllegalStateException failure = new IllegalStateException("failed");
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowFinished = new CountDownLatch(1);
+        //when
+        try {
+            fetch.fetch(() -> {
+                awaitStart(slowStarted);
+                throw failure;
+            }, () -> {
+                slowStarted.countDown();
+                return blockUntilInterrupted(interrupted, slowFinished);
+            });
+            fail("expected failure");
+        } catch (IllegalStateException e) {
+            //then
+            assertThat(e, is(sameInstance(failure)));
+        }
+        assertThat(slowFinished.await(1, TimeUnit.SECONDS), is(true));
+        assertThat(interrupted.get(), is(true));
+    }
+
+    @Test
+    public void testFetch__deadline() throws Exception {
+        //given
+        ParallelFetch fetch = new ParallelFetch(executor, 50, TimeUnit.MILLISECONDS);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch slowFinished = new CountDownLatch(1);
+        //when
+        try {
+            fetch.fetch(() -> "fast", () -> blockUntilInterrupted(interrupted, slowFinished));
+            fail("expected timeout");
+        } catch (SqlTimeoutException e) {
+            //then
+            assertThat(e.isCancelled(), is(false));
+        }
+        assertThat(slowFinished.await(1, TimeUnit.SECONDS), is(true));
+        assertThat(interrupted.get(), is(true));
+    }
+
+    private void awaitStart(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String blockUntilInterrupted(AtomicBoolean interrupted, CountDownLatch finished) {
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            interrupted.set(true);
+        } finally {
+            finished.countDown();
+        }
+        return "slow";
+    }
+}
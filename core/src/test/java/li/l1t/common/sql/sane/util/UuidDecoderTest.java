@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.common.sql.sane.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class UuidDecoderTest {
+    @Test
+    public void testFromString__canonical() {
+        for (int i = 0; i < 100; i++) {
+            //given
+            UUID expected = UUID.randomUUID();
+            //when
+            UUID decoded = UuidDecoder.fromString(expected.toString());
+            //then
+            assertThat(decoded, is(expected));
+        }
+    }
+
+    @Test
+    public void testFromString__upperCase() {
+        //given
+        UUID expected = UUID.randomUUID();
+        //when
+        UUID decoded = UuidDecoder.fromString(expected.toString().toUpperCase());
+        //then
+        assertThat(decoded, is(expected));
+    }
+
+    @Test
+    public void testFromString__null() {
+        assertThat(UuidDecoder.fromString(null), is(nullValue()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromString__invalidDigit() {
+        UuidDecoder.fromString("0000000g-0000-0000-0000-000000000000");
+    }
+
+    @Test
+    public void testFromBytes__basic() {
+        //given
+        UUID expected = UUID.randomUUID();
+        byte[] bytes = ByteBuffer.allocate(16)
+                .putLong(expected.getMostSignificantBits())
+                .putLong(expected.getLeastSignificantBits())
+                .array();
+        //when
+        UUID decoded = UuidDecoder.fromBytes(bytes);
+        //then
+        assertThat(decoded, is(expected));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromBytes__wrongLength() {
+        UuidDecoder.fromBytes(new byte[15]);
+    }
+}
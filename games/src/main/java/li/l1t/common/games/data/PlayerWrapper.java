@@ -239,7 +239,7 @@ public class PlayerWrapper extends PlayerWrapperBase {
         this.passesUsed.modify(-modifier);
         this.passesAmount.modify(modifier);
 
-        this.xyFlush(); //safety!
+        this.xyFlush(); //safety! - only queues the change if a write-behind flusher is set
 
         return true;
     }
@@ -433,14 +433,14 @@ public class PlayerWrapper extends PlayerWrapperBase {
      * @return the amount of other players the wrapped player has killed.
      */
     public int getKillsAmount() {
-        return lockedRead(this.kills);
+        return this.kills.intValue();
     }
 
     /**
      * @return how often the wrapped player has died, on the whole network.
      */
     public int getDeathsAmount() {
-        return lockedRead(this.deaths);
+        return this.deaths.intValue();
     }
 
     /**
@@ -468,11 +468,11 @@ public class PlayerWrapper extends PlayerWrapperBase {
     }
 
     public void modifyKillsAmount(int modifier) {
-        lockedModify(this.kills, modifier);
+        this.kills.add(modifier);
     }
 
     public void modifyDeathsAmount(int modifier) {
-        lockedModify(this.deaths, modifier);
+        this.deaths.add(modifier);
     }
 
     @Override
@@ -31,8 +31,10 @@ import li.l1t.common.sql.builder.ConcurrentSqlNumberHolder;
 import li.l1t.common.sql.builder.QueryBuilder;
 import li.l1t.common.sql.builder.SqlHolders;
 import li.l1t.common.sql.builder.SqlIdentifierHolder;
+import li.l1t.common.sql.builder.SqlIntAdderHolder;
 import li.l1t.common.sql.builder.SqlUUIDHolder;
 import li.l1t.common.sql.builder.SqlValueHolder;
+import li.l1t.common.sql.builder.WriteBehindFlusher;
 import li.l1t.common.sql.builder.annotation.SqlValueCache;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -43,8 +45,10 @@ import javax.annotation.Nullable;
 import java.lang.ref.WeakReference;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.UUID;
 
+import static li.l1t.common.sql.builder.annotation.SqlValueCache.Type.NUMBER_ADDER;
 import static li.l1t.common.sql.builder.annotation.SqlValueCache.Type.NUMBER_MODIFICATION;
 import static li.l1t.common.sql.builder.annotation.SqlValueCache.Type.OBJECT_IDENTIFIER;
 import static li.l1t.common.sql.builder.annotation.SqlValueCache.Type.OBJECT_UPDATE;
@@ -62,6 +66,7 @@ public abstract class PlayerWrapperBase implements SqlValueHolder.DataSource, Me
     //    public static final String FULL_XY_TABLE_NAME = GameLib.XY_DB_NAME + ".game_users";
     public static final String FULL_CENTRAL_USER_TABLE_NAME = GameLib.CENTRAL_DB_NAME + ".user";
     private static SqlHolders.CacheBuilder BASE_CACHE_BUILDER;
+    private static WriteBehindFlusher WRITE_BEHIND_FLUSHER;
 //    public static final HttpProfileRepository HTTP_PROFILE_REPOSITORY = new HttpProfileRepository();
 
     /**
@@ -91,10 +96,10 @@ public abstract class PlayerWrapperBase implements SqlValueHolder.DataSource, Me
     @SqlValueCache(value = "groupname", type = OBJECT_UPDATE)
     protected SqlValueHolder<String> groupName;
 
-    @SqlValueCache(value = "kills", numberType = Integer.class, type = NUMBER_MODIFICATION)
-    protected ConcurrentSqlNumberHolder<Integer> kills;
-    @SqlValueCache(value = "deaths", numberType = Integer.class, type = NUMBER_MODIFICATION)
-    protected ConcurrentSqlNumberHolder<Integer> deaths;
+    @SqlValueCache(value = "kills", numberType = Integer.class, type = NUMBER_ADDER)
+    protected SqlIntAdderHolder kills;
+    @SqlValueCache(value = "deaths", numberType = Integer.class, type = NUMBER_ADDER)
+    protected SqlIntAdderHolder deaths;
 
     protected Collection<SqlValueHolder<?>> valueHolders;
     protected QueryBuilder queryBuilder;
@@ -329,6 +334,13 @@ public abstract class PlayerWrapperBase implements SqlValueHolder.DataSource, Me
             return;
         }
 
+        WriteBehindFlusher flusher = WRITE_BEHIND_FLUSHER;
+        if (flusher != null && !flusher.isClosed()) {
+            flusher.enqueue(FULL_CENTRAL_USER_TABLE_NAME, Collections.singletonList(this.uuid), this.valueHolders);
+            this.xyChanged = false;
+            return;
+        }
+
         try {
             this.queryBuilder.addUniqueIdentifier(this.uuid)
                     .executeTrueUpdate(getSql());
@@ -339,6 +351,20 @@ public abstract class PlayerWrapperBase implements SqlValueHolder.DataSource, Me
         }
     }
 
+    /**
+     * Sets the flusher used to write changes of all wrappers in the background. If set, {@link #xyFlush()} only
+     * queues changes, so that frequent modifications, like kill counts, are merged and written in batches instead
+     * of costing a round trip each. The flusher must write to the same database as the wrappers' {@link SafeSql},
+     * but on its own connection, see {@link WriteBehindFlusher#WriteBehindFlusher(li.l1t.common.sql.sane.connection.ConnectionManager,
+     * long, java.util.concurrent.TimeUnit, int)}. Remember to {@link WriteBehindFlusher#close() close} it on shutdown
+     * to write remaining changes.
+     *
+     * @param flusher the flusher to use, or {@code null} to write changes immediately
+     */
+    public static void setWriteBehindFlusher(@Nullable WriteBehindFlusher flusher) {
+        WRITE_BEHIND_FLUSHER = flusher;
+    }
+
     @Override
     public boolean select(@Nonnull SqlValueHolder<?> holder) {
         forceFullFetch();
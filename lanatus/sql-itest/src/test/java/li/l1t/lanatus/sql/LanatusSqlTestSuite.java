@@ -30,8 +30,10 @@ import li.l1t.lanatus.sql.position.SqlPositionRepositoryTest;
 import li.l1t.lanatus.sql.product.SqlProductQueryBuilderTest;
 import li.l1t.lanatus.sql.product.SqlProductRegistrationBuilderTest;
 import li.l1t.lanatus.sql.product.SqlProductRepositoryTest;
+import li.l1t.lanatus.sql.purchase.JdbcPurchaseWriterTest;
 import li.l1t.lanatus.sql.purchase.SqlPurchaseBuilderTest;
 import li.l1t.lanatus.sql.purchase.SqlPurchaseRepositoryTest;
+import li.l1t.lanatus.sql.replay.TraceReplayTest;
 import org.junit.ClassRule;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -48,8 +50,9 @@ import org.junit.runners.Suite;
         SqlAccountRepositoryTest.class,
         SqlPositionRepositoryTest.class,
         SqlProductRepositoryTest.class, SqlProductRegistrationBuilderTest.class, SqlProductQueryBuilderTest.class,
-        SqlPurchaseRepositoryTest.class, SqlPurchaseBuilderTest.class,
-        SqlCreditMelonsBuilderTest.class
+        SqlPurchaseRepositoryTest.class, SqlPurchaseBuilderTest.class, JdbcPurchaseWriterTest.class,
+        SqlCreditMelonsBuilderTest.class,
+        TraceReplayTest.class
 })
 public class LanatusSqlTestSuite {
     @ClassRule
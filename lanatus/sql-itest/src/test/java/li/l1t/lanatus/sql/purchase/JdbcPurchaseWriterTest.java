@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.lanatus.sql.purchase;
+
+import li.l1t.lanatus.api.exception.AccountConflictException;
+import li.l1t.lanatus.api.product.Product;
+import li.l1t.lanatus.sql.AbstractLanatusSqlTest;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests writing multiple purchases at once using multi-row inserts.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class JdbcPurchaseWriterTest extends AbstractLanatusSqlTest {
+    private static final UUID PRODUCT_ID = UUID.randomUUID();
+
+    @BeforeClass
+    public static void setupSampleData() {
+        createClient().products().registration(PRODUCT_ID).register();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWriteAll__multipleRows() throws AccountConflictException {
+        //given
+        UUID playerId = givenAPlayerWithMelons(0);
+        Product product = client().products().findById(PRODUCT_ID);
+        List<SqlPurchase> purchases = Stream.generate(() -> new SqlPurchase(
+                UUID.randomUUID(), playerId, product, Instant.now(), "", "bulk", 0
+        )).limit(3).collect(Collectors.toList());
+        //when
+        new JdbcPurchaseWriter(sql()).writeAll(purchases);
+        //then
+        assertThat(client().purchases().findByPlayer(playerId), containsInAnyOrder(
+                hasProperty("uniqueId", is(purchases.get(0).getUniqueId())),
+                hasProperty("uniqueId", is(purchases.get(1).getUniqueId())),
+                hasProperty("uniqueId", is(purchases.get(2).getUniqueId()))
+        ));
+    }
+}
@@ -24,6 +24,7 @@
 
 package li.l1t.lanatus.sql.purchase;
 
+import li.l1t.common.sql.sane.async.GroupCommitter;
 import li.l1t.lanatus.api.account.MutableAccount;
 import li.l1t.lanatus.api.builder.PurchaseBuilder;
 import li.l1t.lanatus.api.exception.AccountConflictException;
@@ -38,6 +39,7 @@ import org.junit.Test;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isEmptyString;
@@ -147,6 +149,40 @@ public class SqlPurchaseBuilderTest extends AbstractLanatusSqlTest {
         thenThePlayerHasNoMoreMelonsLeft(playerId);
     }
 
+    @Test
+    public void testBuild__groupCommit() throws AccountConflictException {
+        //given
+        UUID playerId = givenAPlayerWithMelons(SOME_MELONS_COST);
+        SqlLanatusClient client = createClient();
+        try (GroupCommitter groupCommitter = new GroupCommitter(sql(), 10, TimeUnit.MILLISECONDS, 16, 16)) {
+            client.setGroupCommitter(groupCommitter);
+            PurchaseBuilder builder = client.startPurchase(playerId)
+                    .withProductId(PRODUCT_ID)
+                    .withMelonsCost(SOME_MELONS_COST);
+            //when
+            builder.build();
+            //then
+            thenTheResultingPurchaseIsValid(builder, builder.getPurchase());
+            thenTheResultingPurchaseExistsInTheDatabase(builder);
+            thenThePlayerHasNoMoreMelonsLeft(playerId);
+            assertThat(groupCommitter.getCommittedUnitCount(), is(1L));
+        }
+    }
+
+    @Test(expected = NotEnoughMelonsException.class)
+    public void testBuild__groupCommitNotEnoughMelons() {
+        //given
+        SqlLanatusClient client = createClient();
+        try (GroupCommitter groupCommitter = new GroupCommitter(sql(), 10, TimeUnit.MILLISECONDS, 16, 16)) {
+            client.setGroupCommitter(groupCommitter);
+            PurchaseBuilder builder = client.startPurchase(UUID.randomUUID())
+                    .withProductId(PRODUCT_ID);
+            //when
+            builder.build();
+            //then an exception is thrown
+        }
+    }
+
     private void thenThePlayerHasNoMoreMelonsLeft(UUID playerId) {
         assertThat(findAccount(playerId).getMelonsCount(), is(0));
     }
@@ -36,7 +36,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -129,6 +132,39 @@ public class SqlPurchaseRepositoryTest extends AbstractLanatusSqlTest {
         ));
     }
 
+    @Test
+    public void testStreamByPlayer__pages() throws AccountConflictException {
+        //given
+        UUID playerId = givenAPlayerWithMelons(1337);
+        UUID firstId = givenAPurchaseBy(playerId);
+        UUID secondId = givenAPurchaseBy(playerId);
+        UUID thirdId = givenAPurchaseBy(playerId);
+        JdbcPurchaseFetcher fetcher = new JdbcPurchaseFetcher(new JdbcPurchaseCreator(client().products()), sql());
+        //when
+        List<UUID> results = fetcher.streamByPlayer(playerId, 2)
+                .map(Purchase::getUniqueId)
+                .collect(Collectors.toList());
+        //then
+        assertThat(results, hasSize(3));
+        assertThat(results, containsInAnyOrder(firstId, secondId, thirdId));
+    }
+
+    @Test
+    public void testStreamByPlayer__none() {
+        //given
+        UUID playerWithoutPurchases = UUID.randomUUID();
+        //when
+        Stream<Purchase> results = repo().streamByPlayer(playerWithoutPurchases);
+        //then
+        assertThat(results.count(), is(0L));
+    }
+
+    private UUID givenAPurchaseBy(UUID playerId) {
+        PurchaseBuilder builder = client().startPurchase(playerId).withProductId(PRODUCT_ID);
+        builder.build();
+        return builder.getPurchaseId();
+    }
+
     @Test
     public void testClearCache() {
         //given
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.lanatus.sql.replay;
+
+import li.l1t.common.sql.sane.trace.ReplayReport;
+import li.l1t.common.sql.sane.trace.SqlTrace;
+import li.l1t.common.sql.sane.trace.TraceReplayer;
+import li.l1t.lanatus.sql.DatabaseSetup;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.nio.file.Paths;
+
+/**
+ * Replays a SQL trace recorded with a {@link li.l1t.common.sql.sane.trace.TracingSaneSql}
+ * against the H2 database of the integration tests, with its schema created by Flyway, and prints
+ * throughput and latency percentiles for each requested speed.
+ * <p>Usage: {@code TraceReplayRunner <trace file> [speed factors, comma-separated, default 1,10]
+ * [worker count, default 1]}</p>
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class TraceReplayRunner {
+    public static void main(String[] args) throws Throwable {
+        if (args.length < 1) {
+            System.err.println("Usage: TraceReplayRunner <trace file> [speed factors, default 1,10] [worker count, default 1]");
+            System.exit(1);
+        }
+        SqlTrace trace = SqlTrace.read(Paths.get(args[0]));
+        String[] speedFactors = (args.length > 1 ? args[1] : "1,10").split(",");
+        int workerCount = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        System.out.printf("Loaded %d statements using %d templates, recorded over %.3fs%n",
+                trace.getEvents().size(), trace.getTemplateCount(), trace.getDurationNanos() / 1e9D);
+        DatabaseSetup setup = new DatabaseSetup();
+        setup.apply(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                for (String speedFactor : speedFactors) {
+                    ReplayReport report = TraceReplayer.builder(setup.sql())
+                            .speedFactor(Double.parseDouble(speedFactor.trim()))
+                            .workerCount(workerCount)
+                            .build()
+                            .replay(trace);
+                    System.out.println(report);
+                }
+            }
+        }, Description.EMPTY).evaluate();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (C) 2013 - 2017 Philipp Nowak (https://github.com/xxyy) and contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package li.l1t.lanatus.sql.replay;
+
+import li.l1t.common.sql.sane.trace.ReplayReport;
+import li.l1t.common.sql.sane.trace.SqlTrace;
+import li.l1t.common.sql.sane.trace.SqlTraceWriter;
+import li.l1t.common.sql.sane.trace.TraceReplayer;
+import li.l1t.common.sql.sane.trace.TracingSaneSql;
+import li.l1t.lanatus.api.account.MutableAccount;
+import li.l1t.lanatus.sql.AbstractLanatusSqlTest;
+import li.l1t.lanatus.sql.SqlLanatusClient;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests recording Lanatus traffic to a SQL trace and replaying it against the test database.
+ *
+ * @author <a href="https://l1t.li/">Literallie</a>
+ * @since 2026-10-17
+ */
+public class TraceReplayTest extends AbstractLanatusSqlTest {
+    @Test
+    public void testReplay__recordedLanatusTraffic() throws Exception {
+        //given
+        StringWriter output = new StringWriter();
+        try (SqlTraceWriter traceWriter = new SqlTraceWriter(output, 1_000)) {
+            SqlLanatusClient tracedClient = new SqlLanatusClient(new TracingSaneSql(sql(), traceWriter), "xyc-it");
+            for (int i = 0; i < 5; i++) {
+                UUID playerId = UUID.randomUUID();
+                MutableAccount account = tracedClient.accounts().findMutable(playerId);
+                account.setMelonsCount(i);
+                tracedClient.accounts().save(account);
+                tracedClient.accounts().find(playerId);
+            }
+        }
+        SqlTrace trace = SqlTrace.read(new StringReader(output.toString()));
+        //when
+        ReplayReport report = TraceReplayer.builder(sql()).speedFactor(10D).build().replay(trace);
+        //then
+        assertThat(trace.getEvents().size(), is(greaterThan(0)));
+        assertThat(report.getEventCount(), is((long) trace.getEvents().size()));
+        assertThat(report.getRejectedCount(), is(0L));
+        assertThat(report.getLatency().getCount(), is(report.getEventCount()));
+        assertThat(report.getThroughputPerSecond(), is(greaterThan(0D)));
+    }
+}
@@ -24,11 +24,18 @@
 
 package li.l1t.lanatus.sql;
 
+import com.google.common.base.Preconditions;
 import li.l1t.common.sql.sane.AbstractSqlConnected;
 import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.async.GroupCommitter;
+import li.l1t.common.sql.sane.resilience.RetryPolicy;
+import li.l1t.common.sql.sane.util.ParallelFetch;
 import li.l1t.lanatus.api.LanatusCache;
 import li.l1t.lanatus.api.LanatusClient;
+import li.l1t.lanatus.api.account.AccountSnapshot;
 import li.l1t.lanatus.api.builder.CreditMelonsBuilder;
+import li.l1t.lanatus.api.position.Position;
+import li.l1t.lanatus.api.purchase.Purchase;
 import li.l1t.lanatus.sql.account.SqlAccountRepository;
 import li.l1t.lanatus.sql.builder.melons.SqlCreditMelonsBuilder;
 import li.l1t.lanatus.sql.position.SqlPositionRepository;
@@ -36,7 +43,9 @@ import li.l1t.lanatus.sql.product.SqlProductRepository;
 import li.l1t.lanatus.sql.purchase.SqlPurchaseBuilder;
 import li.l1t.lanatus.sql.purchase.SqlPurchaseRepository;
 
+import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
@@ -51,6 +60,8 @@ public class SqlLanatusClient extends AbstractSqlConnected implements LanatusCli
     private SqlProductRepository productRepository = new SqlProductRepository(this);
     private SqlPurchaseRepository purchaseRepository = new SqlPurchaseRepository(this);
     private SqlPositionRepository positionRepository = new SqlPositionRepository(this);
+    private GroupCommitter groupCommitter;
+    private RetryPolicy purchaseRetryPolicy = RetryPolicy.lockConflicts(3, 20, 200, TimeUnit.MILLISECONDS);
 
     /**
      * Constructs a new SQL Lanatus client.
@@ -98,6 +109,66 @@ public class SqlLanatusClient extends AbstractSqlConnected implements LanatusCli
         return new SqlCreditMelonsBuilder(playerId, this);
     }
 
+    /**
+     * Fetches a player's account, positions and purchases concurrently, for example to prepare a
+     * player who just joined. The lookups go through the respective repositories, so that results
+     * are cached as usual. Since the lookups run on other threads, this must not be called inside a
+     * transaction whose changes the lookups should see.
+     *
+     * @param playerId the unique id of the player to fetch
+     * @param fetch    the parallel fetch to run the lookups with
+     * @return the player's account, positions and purchases, in that order
+     * @see ParallelFetch#fetch(java.util.function.Supplier, java.util.function.Supplier, java.util.function.Supplier)
+     */
+    public ParallelFetch.Triple<AccountSnapshot, Collection<Position>, Collection<Purchase>> fetchPlayerData(
+            UUID playerId, ParallelFetch fetch) {
+        return fetch.fetch(
+                () -> accountRepository.findOrDefault(playerId),
+                () -> positionRepository.findAllByPlayer(playerId),
+                () -> purchaseRepository.findByPlayer(playerId)
+        );
+    }
+
+    /**
+     * @return the group committer purchases are committed with, or null if group commit is disabled
+     */
+    public GroupCommitter getGroupCommitter() {
+        return groupCommitter;
+    }
+
+    /**
+     * Enables or disables group commit for purchases. If enabled, purchases built outside of a
+     * transaction are committed together with other purchases submitted within the committer's
+     * window, so that sale events are not bounded by the commit latency of the database. The
+     * committer must run on the same {@link li.l1t.common.sql.sane.SingleSql} this client's
+     * statements end up at. This client does not close the committer.
+     *
+     * @param groupCommitter the committer to use, or null to commit every purchase on its own
+     */
+    public void setGroupCommitter(GroupCommitter groupCommitter) {
+        this.groupCommitter = groupCommitter;
+    }
+
+    /**
+     * @return the policy deciding whether purchases that lost a lock conflict, such as a deadlock
+     * with a concurrent purchase of the same player, are retried
+     */
+    public RetryPolicy getPurchaseRetryPolicy() {
+        return purchaseRetryPolicy;
+    }
+
+    /**
+     * Sets the policy deciding whether purchases that lost a lock conflict are rolled back and
+     * built again in a new transaction. Purchases are only retried if this client's SQL instance is
+     * a {@link li.l1t.common.sql.sane.SingleSql} and no transaction is open when they are built. By
+     * default, purchases are attempted up to three times.
+     *
+     * @param purchaseRetryPolicy the policy to use, {@link RetryPolicy#never()} to disable retries
+     */
+    public void setPurchaseRetryPolicy(RetryPolicy purchaseRetryPolicy) {
+        this.purchaseRetryPolicy = Preconditions.checkNotNull(purchaseRetryPolicy, "purchaseRetryPolicy");
+    }
+
     @Override
     public void clearCache() {
         forAllCaches(LanatusCache::clearCache);
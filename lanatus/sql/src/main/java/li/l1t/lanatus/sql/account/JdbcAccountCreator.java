@@ -24,6 +24,7 @@
 
 package li.l1t.lanatus.sql.account;
 
+import li.l1t.common.sql.sane.mapping.ResolvedColumns;
 import li.l1t.common.sql.sane.util.AbstractJdbcEntityCreator;
 import li.l1t.lanatus.api.account.LanatusAccount;
 
@@ -38,9 +39,13 @@ import java.util.UUID;
  * @since 2016-09-29
  */
 class JdbcAccountCreator<T extends LanatusAccount> extends AbstractJdbcEntityCreator<T> {
+    private static final int PLAYER_UUID = 0;
+    private static final int MELONS = 1;
+    private static final int LAST_RANK = 2;
     private final LanatusAccountFactory<T> factory;
 
     public JdbcAccountCreator(LanatusAccountFactory<T> factory) {
+        super("player_uuid", "melons", "lastrank");
         this.factory = factory;
     }
 
@@ -57,8 +62,10 @@ class JdbcAccountCreator<T extends LanatusAccount> extends AbstractJdbcEntityCre
      */
     @Override
     public T createFromCurrentRow(ResultSet rs) throws SQLException {
+        ResolvedColumns columns = columns(rs);
         return factory.newInstance(
-                uuid(rs, "player_uuid"), rs.getInt("melons"), rs.getString("lastrank")
+                columns.getUuid(rs, PLAYER_UUID), rs.getInt(columns.index(MELONS)),
+                rs.getString(columns.index(LAST_RANK))
         );
     }
 
@@ -24,6 +24,7 @@
 
 package li.l1t.lanatus.sql.position;
 
+import li.l1t.common.sql.sane.mapping.ResolvedColumns;
 import li.l1t.common.sql.sane.util.AbstractJdbcEntityCreator;
 import li.l1t.lanatus.api.exception.NoSuchProductException;
 import li.l1t.lanatus.api.position.Position;
@@ -40,21 +41,27 @@ import java.sql.SQLException;
  * @since 2016-10-10
  */
 class JdbcPositionCreator extends AbstractJdbcEntityCreator<Position> {
+    private static final int PURCHASE_ID = 0;
+    private static final int PLAYER_UUID = 1;
+    private static final int PRODUCT_ID = 2;
+    private static final int DATA = 3;
     private final ProductRepository productRepository;
 
     JdbcPositionCreator(ProductRepository productRepository) {
+        super("purchase_id", "player_uuid", "product_id", "data");
         this.productRepository = productRepository;
     }
 
     @Override
     public Position createFromCurrentRow(ResultSet rs) throws SQLException {
+        ResolvedColumns columns = columns(rs);
         return new SqlPosition(
-                uuid(rs, "purchase_id"), uuid(rs, "player_uuid"),
-                findProduct(rs), rs.getString("data")
+                columns.getUuid(rs, PURCHASE_ID), columns.getUuid(rs, PLAYER_UUID),
+                findProduct(rs, columns), rs.getString(columns.index(DATA))
         );
     }
 
-    private Product findProduct(ResultSet rs) throws SQLException, NoSuchProductException {
-        return productRepository.findById(uuid(rs, "product_id"));
+    private Product findProduct(ResultSet rs, ResolvedColumns columns) throws SQLException, NoSuchProductException {
+        return productRepository.findById(columns.getUuid(rs, PRODUCT_ID));
     }
 }
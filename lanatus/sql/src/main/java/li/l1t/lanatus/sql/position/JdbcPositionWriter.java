@@ -29,8 +29,10 @@ import com.google.common.base.Verify;
 import com.google.common.base.VerifyException;
 import li.l1t.common.sql.sane.AbstractSqlConnected;
 import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.statement.MultiRowInsert;
 
-import java.util.UUID;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Writes new positions to the database. Note that this does <b>not</b> support updating existing
@@ -40,23 +42,38 @@ import java.util.UUID;
  * @since 2016-10-18
  */
 class JdbcPositionWriter extends AbstractSqlConnected {
+    private static final MultiRowInsert<SqlPosition> INSERT = MultiRowInsert.into(
+            SqlPositionRepository.TABLE_NAME, JdbcPositionWriter::toRow,
+            "purchase_id", "player_uuid", "product_id", "data"
+    ).build();
+
     JdbcPositionWriter(SaneSql sql) {
         super(sql);
     }
 
     public void write(SqlPosition position) throws VerifyException {
         Preconditions.checkNotNull(position, "position");
-        int rowsAffected = insertRaw(
-                position.getPurchaseId(), position.getPlayerId(), position.getProduct().getUniqueId(),
-                position.getData()
-        );
-        Verify.verify(rowsAffected == 1, "expected insert to affect single row, was: ", position, rowsAffected);
+        writeAll(Collections.singletonList(position));
+    }
+
+    /**
+     * Writes multiple new positions using as few statements as possible. If multiple statements
+     * are needed, they are executed in a single transaction.
+     *
+     * @param positions the positions to write
+     * @throws VerifyException if not all positions were written
+     */
+    public void writeAll(Collection<SqlPosition> positions) throws VerifyException {
+        Preconditions.checkNotNull(positions, "positions");
+        int rowsAffected = INSERT.execute(sql(), positions).getAffectedRowCount();
+        Verify.verify(rowsAffected == positions.size(), "expected insert to affect %s rows, was: %s",
+                positions.size(), rowsAffected);
     }
 
-    private int insertRaw(UUID purchaseId, UUID playerId, UUID productId, String data) {
-        return sql().updateRaw("INSERT INTO " + SqlPositionRepository.TABLE_NAME + " " +
-                        "SET purchase_id=?, player_uuid=?, product_id=?, data=?",
-                purchaseId.toString(), playerId.toString(), productId.toString(), data
-        );
+    private static Object[] toRow(SqlPosition position) {
+        return new Object[]{
+                position.getPurchaseId().toString(), position.getPlayerId().toString(),
+                position.getProduct().getUniqueId().toString(), position.getData()
+        };
     }
 }
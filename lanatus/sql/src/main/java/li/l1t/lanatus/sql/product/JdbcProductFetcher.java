@@ -42,7 +42,7 @@ import java.util.UUID;
  * @since 2016-10-10
  */
 class JdbcProductFetcher extends li.l1t.common.sql.sane.util.AbstractJdbcFetcher<Product> {
-    JdbcProductFetcher(JdbcEntityCreator<Product> creator, SaneSql saneSql) {
+    JdbcProductFetcher(JdbcEntityCreator<? extends Product> creator, SaneSql saneSql) {
         super(creator, saneSql);
     }
 
@@ -59,14 +59,14 @@ class JdbcProductFetcher extends li.l1t.common.sql.sane.util.AbstractJdbcFetcher
     }
 
     private QueryResult selectSingle(UUID productId) {
-        return select("WHERE id=?", productId.toString());
+        return select("id=?", productId.toString());
     }
 
     @Override
     protected String buildSelect(String whereClause) {
         return "SELECT id, module, displayname, description, icon, melonscost, active, permanent " +
                 "FROM " + SqlProductRepository.TABLE_NAME + " " +
-                whereClause;
+                "WHERE " + whereClause;
     }
 
     public Collection<Product> fetchByQuery(ProductQuery query) {
@@ -30,7 +30,7 @@ import com.google.common.base.VerifyException;
 import li.l1t.common.sql.sane.AbstractSqlConnected;
 import li.l1t.common.sql.sane.SaneSql;
 
-import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Writes new products to the database. Note that this does <b>not</b> support updating of existing
@@ -40,26 +40,19 @@ import java.util.UUID;
  * @since 2016-10-18
  */
 class JdbcProductWriter extends AbstractSqlConnected {
+    private final SqlProductJdbcMapper mapper = new SqlProductJdbcMapper();
+    private final String insertSql = "INSERT INTO " + SqlProductRepository.TABLE_NAME + " " +
+            mapper.getColumnLabels().stream()
+                    .map(label -> label + "=?")
+                    .collect(Collectors.joining(", ", "SET ", ""));
+
     JdbcProductWriter(SaneSql sql) {
         super(sql);
     }
 
     public void write(SqlProduct product) throws VerifyException {
         Preconditions.checkNotNull(product, "product");
-        int rowsAffected = insertRaw(
-                product.getUniqueId(), product.getModule(), product.getDisplayName(), product.getDescription(),
-                product.getIconName(), product.getMelonsCost(), product.isActive(), product.isPermanent()
-        );
+        int rowsAffected = sql().updateRaw(insertSql, mapper.toParameters(product));
         Verify.verify(rowsAffected == 1, "expected insert to affect single row, was: ", product, rowsAffected);
     }
-
-    private int insertRaw(UUID productId, String module, String displayName, String description,
-                          String iconName, int melonsCost, boolean active, boolean permanent) {
-        return sql().updateRaw("INSERT INTO " + SqlProductRepository.TABLE_NAME + " " +
-                        "SET id=?, module=?, displayname=?, description=?, " +
-                        "icon=?, melonscost=?, active=?, permanent=?",
-                productId.toString(), module, displayName, description,
-                iconName, melonsCost, active, permanent
-        );
-    }
 }
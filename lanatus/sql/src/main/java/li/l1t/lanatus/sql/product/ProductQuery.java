@@ -41,7 +41,7 @@ class ProductQuery {
     private final SqlProductQueryBuilder builder;
     private final List<String> andConditions = new ArrayList<>(3);
     private final List<Object> parameters = new ArrayList<>();
-    private String whereClause = "";
+    private String whereClause = "1=1";
 
     ProductQuery(SqlProductQueryBuilder builder) {
         Preconditions.checkNotNull(builder, "builder");
@@ -54,7 +54,7 @@ class ProductQuery {
         String whereConditions = andConditions.stream()
                 .collect(Collectors.joining(" AND "));
         if (!whereConditions.isEmpty()) {
-            whereClause = "WHERE " + whereConditions;
+            whereClause = whereConditions;
         }
     }
 
@@ -25,12 +25,15 @@
 package li.l1t.lanatus.sql.product;
 
 import com.google.common.base.Preconditions;
+import li.l1t.common.sql.sane.mapping.Column;
+import li.l1t.common.sql.sane.mapping.JdbcEntity;
 import li.l1t.lanatus.api.product.Product;
 
 import java.util.UUID;
 
 /**
- * Represents a product backed by a SQL data source.
+ * Represents a product backed by a SQL data source. Mapping from and to table rows is done by
+ * {@code SqlProductJdbcMapper}, which is generated from the annotated constructor.
  *
  * @author <a href="https://l1t.li/">Literallie</a>
  * @since 2016-10-10
@@ -45,8 +48,10 @@ class SqlProduct implements Product {
     private boolean active;
     private boolean permanent;
 
-    SqlProduct(UUID uniqueId, String module, String displayName,
-               String description, String iconName, int melonsCost, boolean active, boolean permanent) {
+    @JdbcEntity(writable = true)
+    SqlProduct(@Column("id") UUID uniqueId, String module, @Column("displayname") String displayName,
+               String description, @Column("icon") String iconName, @Column("melonscost") int melonsCost,
+               boolean active, boolean permanent) {
         this.uniqueId = Preconditions.checkNotNull(uniqueId, "uniqueId");
         this.module = Preconditions.checkNotNull(module, "module");
         this.displayName = Preconditions.checkNotNull(displayName, "diplayName");
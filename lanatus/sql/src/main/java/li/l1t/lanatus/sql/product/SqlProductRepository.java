@@ -49,7 +49,7 @@ public class SqlProductRepository extends AbstractSqlLanatusRepository implement
     public static final String TABLE_NAME = "mt_main.lanatus_product";
     private final IdCache<UUID, Product> cache = new MapIdCache<>(Identifiable::getUniqueId);
     private final JdbcProductFetcher fetcher = new JdbcProductFetcher(
-            new JdbcProductCreator(), client().sql()
+            new SqlProductJdbcMapper(), client().sql()
     );
     private final JdbcProductWriter writer = new JdbcProductWriter(client().sql());
 
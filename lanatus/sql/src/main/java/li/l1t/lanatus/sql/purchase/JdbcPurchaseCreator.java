@@ -24,6 +24,7 @@
 
 package li.l1t.lanatus.sql.purchase;
 
+import li.l1t.common.sql.sane.mapping.ResolvedColumns;
 import li.l1t.common.sql.sane.util.AbstractJdbcEntityCreator;
 import li.l1t.lanatus.api.exception.NoSuchPurchaseException;
 import li.l1t.lanatus.api.product.Product;
@@ -40,23 +41,33 @@ import java.sql.SQLException;
  * @since 2016-10-10
  */
 class JdbcPurchaseCreator extends AbstractJdbcEntityCreator<Purchase> {
+    private static final int ID = 0;
+    private static final int PLAYER_UUID = 1;
+    private static final int PRODUCT_ID = 2;
+    private static final int CREATED = 3;
+    private static final int DATA = 4;
+    private static final int COMMENT = 5;
+    private static final int MELONS_COST = 6;
     private final ProductRepository productRepository;
 
     JdbcPurchaseCreator(ProductRepository productRepository) {
+        super("id", "player_uuid", "product_id", "created", "data", "comment", "melonscost");
         this.productRepository = productRepository;
     }
 
     @Override
     public Purchase createFromCurrentRow(ResultSet rs) throws SQLException {
+        ResolvedColumns columns = columns(rs);
         return new SqlPurchase(
-                uuid(rs, "id"), uuid(rs, "player_uuid"),
-                findProduct(rs), rs.getTimestamp("created").toInstant(),
-                rs.getString("data"), rs.getString("comment"), rs.getInt("melonscost")
+                columns.getUuid(rs, ID), columns.getUuid(rs, PLAYER_UUID),
+                findProduct(rs, columns), columns.getInstant(rs, CREATED),
+                rs.getString(columns.index(DATA)), rs.getString(columns.index(COMMENT)),
+                rs.getInt(columns.index(MELONS_COST))
         );
     }
 
-    private Product findProduct(ResultSet rs) throws SQLException, NoSuchPurchaseException {
-        return productRepository.findById(uuid(rs, "product_id"));
+    private Product findProduct(ResultSet rs, ResolvedColumns columns) throws SQLException, NoSuchPurchaseException {
+        return productRepository.findById(columns.getUuid(rs, PRODUCT_ID));
     }
 
 }
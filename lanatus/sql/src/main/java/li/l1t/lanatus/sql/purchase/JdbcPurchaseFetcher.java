@@ -33,6 +33,7 @@ import li.l1t.lanatus.api.purchase.Purchase;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Fetches purchases from a JDBC SQL data store as purchase objects.
@@ -78,4 +79,9 @@ class JdbcPurchaseFetcher extends li.l1t.common.sql.sane.util.AbstractJdbcFetche
     private QueryResult selectByPlayer(UUID playerId) {
         return select("player_uuid=?", playerId.toString());
     }
+
+    public Stream<Purchase> streamByPlayer(UUID playerId, int pageSize) throws DatabaseException {
+        return streamByKeyset("player_uuid=?", "id", purchase -> purchase.getUniqueId().toString(),
+                pageSize, playerId.toString());
+    }
 }
@@ -29,9 +29,11 @@ import com.google.common.base.Verify;
 import com.google.common.base.VerifyException;
 import li.l1t.common.sql.sane.AbstractSqlConnected;
 import li.l1t.common.sql.sane.SaneSql;
+import li.l1t.common.sql.sane.statement.MultiRowInsert;
 
 import java.time.Instant;
-import java.util.UUID;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Writes new purchases to the database. Note that this does <b>not</b> support updating existing
@@ -41,25 +43,39 @@ import java.util.UUID;
  * @since 2016-10-18
  */
 class JdbcPurchaseWriter extends AbstractSqlConnected {
+    private static final MultiRowInsert<SqlPurchase> INSERT = MultiRowInsert.into(
+            SqlPurchaseRepository.TABLE_NAME, JdbcPurchaseWriter::toRow,
+            "id", "player_uuid", "product_id", "created", "data", "comment", "melonscost"
+    ).build();
+
     JdbcPurchaseWriter(SaneSql sql) {
         super(sql);
     }
 
     public void write(SqlPurchase purchase) throws VerifyException {
         Preconditions.checkNotNull(purchase, "purchase");
-        int rowsAffected = insertRaw(
-                purchase.getUniqueId(), purchase.getPlayerId(), purchase.getProduct().getUniqueId(),
-                purchase.getData(), purchase.getComment(), purchase.getMelonsCost()
-        );
-        Verify.verify(rowsAffected == 1, "expected insert to affect single row, was: ", purchase, rowsAffected);
+        writeAll(Collections.singletonList(purchase));
     }
 
-    private int insertRaw(UUID purchaseId, UUID playerId, UUID productId, String data, String comment, int melonsCost) {
-        return sql().updateRaw("INSERT INTO " + SqlPurchaseRepository.TABLE_NAME + " " +
-                        "SET id=?, player_uuid=?, product_id=?, created=?, " +
-                        "data=?, comment=?, melonscost=?",
-                purchaseId.toString(), playerId.toString(), productId.toString(), Instant.now(),
-                data, comment, melonsCost
-        );
+    /**
+     * Writes multiple new purchases using as few statements as possible. If multiple statements
+     * are needed, they are executed in a single transaction.
+     *
+     * @param purchases the purchases to write
+     * @throws VerifyException if not all purchases were written
+     */
+    public void writeAll(Collection<SqlPurchase> purchases) throws VerifyException {
+        Preconditions.checkNotNull(purchases, "purchases");
+        int rowsAffected = INSERT.execute(sql(), purchases).getAffectedRowCount();
+        Verify.verify(rowsAffected == purchases.size(), "expected insert to affect %s rows, was: %s",
+                purchases.size(), rowsAffected);
+    }
+
+    private static Object[] toRow(SqlPurchase purchase) {
+        return new Object[]{
+                purchase.getUniqueId().toString(), purchase.getPlayerId().toString(),
+                purchase.getProduct().getUniqueId().toString(), Instant.now(),
+                purchase.getData(), purchase.getComment(), purchase.getMelonsCost()
+        };
     }
 }
@@ -26,8 +26,11 @@ package li.l1t.lanatus.sql.purchase;
 
 import com.google.common.base.Preconditions;
 import li.l1t.common.exception.DatabaseException;
+import li.l1t.common.sql.sane.SaneSql;
 import li.l1t.common.sql.sane.SingleSql;
 import li.l1t.common.sql.sane.SqlConnected;
+import li.l1t.common.sql.sane.TransactionAware;
+import li.l1t.common.sql.sane.async.GroupCommitter;
 import li.l1t.common.sql.sane.scoped.ScopedSession;
 import li.l1t.lanatus.api.LanatusConnected;
 import li.l1t.lanatus.api.account.MutableAccount;
@@ -91,6 +94,24 @@ public class SqlPurchaseBuilder implements PurchaseBuilder, LanatusConnected, Sq
     @Override
     public void build() throws IllegalStateException, NoSuchProductException, DatabaseException {
         checkNotYetExecuted();
+        GroupCommitter groupCommitter = client.getGroupCommitter();
+        if (groupCommitter != null && !TransactionAware.mayBeInTransaction(sql())) {
+            this.purchase = groupCommitter.execute(sql -> buildInTransaction());
+        } else {
+            this.purchase = buildInTransaction(); //don't mess up hasBeenBuilt() if a method throws an exception
+        }
+    }
+
+    private SqlPurchase buildInTransaction() {
+        SaneSql sql = sql();
+        if (sql instanceof SingleSql) {
+            return ((SingleSql) sql).retryingTx(session -> buildInScope(), client.getPurchaseRetryPolicy());
+        } else {
+            return buildInScope();
+        }
+    }
+
+    private SqlPurchase buildInScope() {
         try (ScopedSession scoped = sql().scoped().tx()) {
             makeSurePlayerAccountExists();
             Product product = findProduct();
@@ -103,7 +124,7 @@ public class SqlPurchaseBuilder implements PurchaseBuilder, LanatusConnected, Sq
                 client().positions().createFromPurchase(purchase);
             }
             scoped.commitIfLast();
-            this.purchase = purchase; //don't mess up hasBeenBuilt() if a method throws an exception above
+            return purchase;
         } catch (AccountConflictException e) {
             throw new DatabaseException(e);
         }
@@ -179,7 +200,7 @@ public class SqlPurchaseBuilder implements PurchaseBuilder, LanatusConnected, Sq
     }
 
     @Override
-    public SingleSql sql() {
-        return (SingleSql) client.sql();
+    public SaneSql sql() {
+        return client.sql();
     }
 }
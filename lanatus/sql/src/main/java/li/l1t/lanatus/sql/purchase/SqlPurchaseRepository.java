@@ -36,6 +36,7 @@ import li.l1t.lanatus.sql.SqlLanatusClient;
 
 import java.util.Collection;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Simple repository for purchases backed by a JDBC SQL data source. Caches id lookups.
@@ -45,6 +46,7 @@ import java.util.UUID;
  */
 public class SqlPurchaseRepository extends AbstractSqlLanatusRepository implements PurchaseRepository {
     public static final String TABLE_NAME = "mt_main.lanatus_purchase";
+    private static final int STREAM_PAGE_SIZE = 200;
     private final IdCache<UUID, Purchase> cache = new MapIdCache<>(Identifiable::getUniqueId);
     private final JdbcPurchaseFetcher fetcher = new JdbcPurchaseFetcher(
             new JdbcPurchaseCreator(client().products()), client().sql()
@@ -64,6 +66,19 @@ public class SqlPurchaseRepository extends AbstractSqlLanatusRepository implemen
         return fetcher.fetchByPlayer(playerId);
     }
 
+    /**
+     * Lazily streams all purchases made by given player, fetching them from the database in pages
+     * as the stream is consumed. In contrast to {@link #findByPlayer(UUID)}, only a single page of
+     * purchases is held in memory at a time. Purchases obtained this way are not cached.
+     *
+     * @param playerId the unique id of the player whose purchases to stream
+     * @return a stream of the player's purchases, ordered by purchase id
+     */
+    public Stream<Purchase> streamByPlayer(UUID playerId) {
+        Preconditions.checkNotNull(playerId, "playerId");
+        return fetcher.streamByPlayer(playerId, STREAM_PAGE_SIZE);
+    }
+
     @Override
     public void clearCache() {
         cache.clear();